@@ -3,49 +3,139 @@ package com.example.toaproj;
 import android.content.Intent;
 import android.os.Bundle;
 import android.view.View;
+import android.widget.CheckBox;
 import android.widget.EditText;
+import android.widget.TextView;
 import android.widget.Toast;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
-import java.util.HashMap;
-import java.util.HashSet;
+import androidx.lifecycle.ViewModelProvider;
+
+import com.example.toaproj.data.AutomatonRepository;
+import com.example.toaproj.data.AutomatonViewModel;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.sim.PrepareJob;
+import com.example.toaproj.sim.SimulationRunner;
+import com.example.toaproj.sim.SimulationViewModel;
+
+import java.io.IOException;
+import java.util.BitSet;
 
 public class DefineStatesActivity extends AppCompatActivity {
 
-    private HashSet<String> states;
-    private HashMap<String, HashMap<String, String>> transitions;
+    /** Repository handle of the automaton whose initial and final states are chosen here. */
+    public static final String EXTRA_AUTOMATON = "automaton";
+
+    private AutomatonRepository repository;
+    private Dfa transitions;
+    // Minimizes or trims off the main thread; a run survives rotation
+    private SimulationRunner runner;
+    private View testButton;
+    private TextView prepareStatus;
+
+    @Override
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        try {
+            repository.persist(getIntent().getStringExtra(EXTRA_AUTOMATON));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_define_states2);
 
-        states = (HashSet<String>) getIntent().getSerializableExtra("states");
-        transitions = (HashMap<String, HashMap<String, String>>) getIntent().getSerializableExtra("transitions");
+        repository = AutomatonRepository.get(this);
+        AutomatonViewModel model = new ViewModelProvider(this).get(AutomatonViewModel.class);
+        try {
+            transitions = model.bind(repository, getIntent().getStringExtra(EXTRA_AUTOMATON));
+        } catch (IOException e) {
+            transitions = null;
+        }
+        if (transitions == null) {
+            Toast.makeText(this, "Automaton is no longer available", Toast.LENGTH_SHORT).show();
+            finish();
+            return;
+        }
+
+        // Prefill from an imported automaton
+        String importedInitial = getIntent().getStringExtra("initialState");
+        String importedFinals = getIntent().getStringExtra("finalStates");
+        if (importedInitial != null) {
+            ((EditText) findViewById(R.id.initialStateInput)).setText(importedInitial);
+        }
+        if (importedFinals != null) {
+            ((EditText) findViewById(R.id.finalStatesInput)).setText(importedFinals);
+        }
+
+        testButton = findViewById(R.id.testButton);
+        prepareStatus = findViewById(R.id.prepareStatus);
+        runner = new ViewModelProvider(this).get(SimulationViewModel.class).runner();
+        runner.setListener(this, this::onPrepared);
+        if (runner.isRunning()) {
+            showPreparing(true);
+        }
 
-        findViewById(R.id.testButton).setOnClickListener(v -> {
+        testButton.setOnClickListener(v -> {
             EditText initialStateInput = findViewById(R.id.initialStateInput);
             EditText finalStatesInput = findViewById(R.id.finalStatesInput);
 
             String initialState = initialStateInput.getText().toString().trim();
             String[] finalStateArray = finalStatesInput.getText().toString().trim().split(" ");
 
-            if (!states.contains(initialState)) {
+            int initial = transitions.stateIndex(initialState);
+            if (initial == Dfa.NO_STATE) {
                 Toast.makeText(this, "Initial state must be valid!", Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            HashSet<String> finalStates = new HashSet<>();
+            BitSet finalStates = new BitSet(transitions.stateCount());
             for (String state : finalStateArray) {
-                if (states.contains(state)) {
-                    finalStates.add(state);
+                int index = transitions.stateIndex(state);
+                if (index != Dfa.NO_STATE) {
+                    finalStates.set(index);
                 }
             }
 
-            Intent intent = new Intent(this, TestAutomataActivity.class);
-            intent.putExtra("initialState", initialState);
-            intent.putExtra("finalStates", finalStates);
-            intent.putExtra("transitions", transitions);
-            startActivity(intent);
+            Dfa automaton = transitions.withAcceptance(initial, finalStates);
+            boolean minimize = ((CheckBox) findViewById(R.id.minimizeCheckBox)).isChecked();
+            boolean trim = ((CheckBox) findViewById(R.id.trimCheckBox)).isChecked();
+            if (!minimize && !trim) {
+                startTesting(automaton);
+            } else if (runner.start(new PrepareJob(automaton, minimize, trim))) {
+                showPreparing(true);
+            } else {
+                Toast.makeText(this, "Busy, try again", Toast.LENGTH_SHORT).show();
+            }
         });
     }
+
+    private void showPreparing(boolean preparing) {
+        testButton.setEnabled(!preparing);
+        prepareStatus.setVisibility(preparing ? View.VISIBLE : View.GONE);
+    }
+
+    private void onPrepared(SimulationRunner.Progress progress) {
+        if (!progress.finished) return;
+        // Handled once, so coming back from the test screen does not start it again
+        runner.clearFinished();
+        showPreparing(false);
+        if (progress.error != null) {
+            Toast.makeText(this, progress.error.getMessage(), Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (progress.text != null) {
+            Toast.makeText(this, progress.text, Toast.LENGTH_LONG).show();
+        }
+        startTesting((Dfa) progress.result);
+    }
+
+    private void startTesting(Dfa automaton) {
+        Intent intent = new Intent(this, TestAutomataActivity.class);
+        intent.putExtra(TestAutomataActivity.EXTRA_AUTOMATON, repository.put(automaton));
+        startActivity(intent);
+    }
 }
@@ -1,7 +1,12 @@
 package com.example.toaproj;
 
 import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.ParcelFileDescriptor;
+import android.text.Editable;
+import android.text.TextUtils;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.EditText;
 import android.widget.LinearLayout;
@@ -15,32 +20,99 @@ import java.util.HashMap;
 import java.util.HashSet;
 import android.widget.Spinner;
 import android.widget.AdapterView;
-import android.widget.ArrayAdapter;
-import android.graphics.Typeface;
-import android.graphics.Color;
-import android.widget.TableLayout;
-import android.widget.TableRow;
 import android.os.Parcelable;
 import androidx.annotation.NonNull;
+import androidx.appcompat.app.AlertDialog;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.toaproj.data.AutomatonRepository;
+import com.example.toaproj.data.AutomatonViewModel;
+import com.example.toaproj.engine.AutomatonFile;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.Nfa;
+import com.example.toaproj.engine.ProductResult;
+import com.example.toaproj.engine.RegexCompilation;
+import com.example.toaproj.engine.RegexCompiler;
+import com.example.toaproj.sim.CombineJob;
+import com.example.toaproj.sim.RegexJob;
+import com.example.toaproj.sim.SimulationRunner;
+import com.example.toaproj.sim.SimulationViewModel;
+import com.example.toaproj.views.TransitionGridAdapter;
+
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.regex.PatternSyntaxException;
 
 public class SetupAutomataActivity extends AppCompatActivity {
 
+    // Names are typed one field per state, so this only bounds that list; the
+    // transition grid binds rows lazily and imported automata are not capped at all
+    private static final int MAX_STATES = 500;
+
     private HashSet<String> states = new HashSet<>();
     private HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
     private LinearLayout statesContainer;
     private LinearLayout transitionsContainer;
     private EditText numStatesInput;
     private EditText alphabetInput;
+    private EditText regexInput;
+    private TextView regexReport;
     private TextView currentStatesView;
-
-    private static final String KEY_STATES = "states";
-    private static final String KEY_TRANSITIONS = "transitions";
+    private RecyclerView transitionGrid;
+    private TransitionGridAdapter gridAdapter;
+    private EditText stateSearchInput;
+    private Spinner jumpToStateSpinner;
+
+    private static final String KEY_DRAFT = "draft";
+    private static final String KEY_IMPORTED = "imported";
+    private static final String KEY_ALPHABET = "alphabet";
+    private static final String KEY_COMBINING = "combining";
+
+    private static final int REQUEST_IMPORT = 1;
+    private static final int REQUEST_EXPORT = 2;
+    private static final int REQUEST_COMBINE = 3;
+
+    // Indexed by the CombineJob operations
+    private static final String[] OPERATIONS = {
+        "Union", "Intersection", "Difference (this minus file)", "Complement"
+    };
+
+    // Initial and final states from an imported file, handed on to DefineStatesActivity
+    private String importedInitialState;
+    private HashSet<String> importedFinalStates;
+    private Dfa pendingExport;
+    private int pendingOperation;
+
+    private AutomatonRepository repository;
+    // Holds the draft saved for process death; a new one replaces and releases the old
+    private AutomatonViewModel draftModel;
+    // Compiles regexes and combines automata off the main thread; a job survives rotation
+    private SimulationRunner runner;
+    // Whether the runner's job is a CombineJob rather than a RegexJob
+    private boolean combining;
 
     @Override
     protected void onSaveInstanceState(@NonNull Bundle outState) {
         super.onSaveInstanceState(outState);
-        outState.putSerializable(KEY_STATES, states);
-        outState.putSerializable(KEY_TRANSITIONS, transitions);
+        outState.putBoolean(KEY_COMBINING, combining);
+        if (states.isEmpty()) {
+            return;
+        }
+        try {
+            String handle = repository.put(compileDraft());
+            draftModel.bind(repository, handle);
+            repository.persist(handle);
+            outState.putString(KEY_DRAFT, handle);
+            outState.putBoolean(KEY_IMPORTED, importedInitialState != null);
+            // The draft only interns symbols that have a transition; columns left at ∅ are
+            // not in it
+            outState.putStringArrayList(KEY_ALPHABET, new ArrayList<>(gridAdapter.symbols()));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     @Override
@@ -48,18 +120,53 @@ public class SetupAutomataActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_setup_automata);
 
+        repository = AutomatonRepository.get(this);
+        draftModel = new ViewModelProvider(this).get(AutomatonViewModel.class);
         initializeViews();
         setupClickListeners();
+        runner = new ViewModelProvider(this).get(SimulationViewModel.class).runner();
+        runner.setListener(this, this::onJobProgress);
+        combining = savedInstanceState != null && savedInstanceState.getBoolean(KEY_COMBINING);
+        if (runner.isRunning()) {
+            showBusy();
+        }
 
-        if (savedInstanceState != null) {
-            states = (HashSet<String>) savedInstanceState.getSerializable(KEY_STATES);
-            transitions = (HashMap<String, HashMap<String, String>>) 
-                savedInstanceState.getSerializable(KEY_TRANSITIONS);
-            if (!states.isEmpty()) {
-                updateCurrentStatesView();
-                generateTransitionInputs();
+        String draftHandle = savedInstanceState != null ? savedInstanceState.getString(KEY_DRAFT) : null;
+        if (draftHandle != null) {
+            Dfa draft;
+            try {
+                draft = draftModel.bind(repository, draftHandle);
+            } catch (IOException e) {
+                draft = null;
             }
+            if (draft == null) {
+                Toast.makeText(this, "Could not restore the automaton", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            transitions = draft.toTransitions();
+            states.addAll(transitions.keySet());
+            // The EditText restores its own text later; the table needs an alphabet now
+            ArrayList<String> alphabet = savedInstanceState.getStringArrayList(KEY_ALPHABET);
+            alphabetInput.setText(alphabet != null && !alphabet.isEmpty()
+                ? TextUtils.join(",", alphabet) : TextUtils.join(",", draft.symbols().toArray()));
+            if (savedInstanceState.getBoolean(KEY_IMPORTED)) {
+                importedInitialState = draft.stateName(draft.initialState());
+                importedFinalStates = draft.finalStateNames();
+            }
+            updateCurrentStatesView();
+            generateTransitionInputs();
+        }
+    }
+
+    /**
+     * The transitions entered so far as a table. Until DefineStatesActivity asks for them,
+     * the initial and final states are the imported ones if any, else the first state and none.
+     */
+    private Dfa compileDraft() {
+        if (importedInitialState != null) {
+            return Dfa.compile(transitions, importedFinalStates, importedInitialState);
         }
+        return Dfa.compile(transitions, new HashSet<>(), states.iterator().next());
     }
 
     private void initializeViews() {
@@ -67,15 +174,18 @@ public class SetupAutomataActivity extends AppCompatActivity {
         transitionsContainer = findViewById(R.id.transitionsContainer);
         numStatesInput = findViewById(R.id.numStatesInput);
         alphabetInput = findViewById(R.id.alphabetInput);
+        regexInput = findViewById(R.id.regexInput);
+        regexReport = findViewById(R.id.regexReport);
         currentStatesView = findViewById(R.id.currentStatesView);
+        initializeTransitionGrid();
     }
 
     private void setupClickListeners() {
         findViewById(R.id.generateStatesButton).setOnClickListener(v -> {
             try {
                 int numStates = Integer.parseInt(numStatesInput.getText().toString().trim());
-                if (numStates <= 0 || numStates > 10) {
-                    Toast.makeText(this, "Please enter a number between 1 and 10", Toast.LENGTH_SHORT).show();
+                if (numStates <= 0 || numStates > MAX_STATES) {
+                    Toast.makeText(this, "Please enter a number between 1 and " + MAX_STATES, Toast.LENGTH_SHORT).show();
                     return;
                 }
                 generateStateInputs(numStates);
@@ -91,11 +201,238 @@ public class SetupAutomataActivity extends AppCompatActivity {
         findViewById(R.id.nextButton).setOnClickListener(v -> {
             if (validateAndProceed()) {
                 Intent intent = new Intent(this, DefineStatesActivity.class);
-                intent.putExtra("states", states);
-                intent.putExtra("transitions", transitions);
+                intent.putExtra(DefineStatesActivity.EXTRA_AUTOMATON, repository.put(compileDraft()));
+                if (importedInitialState != null) {
+                    intent.putExtra("initialState", importedInitialState);
+                    intent.putExtra("finalStates", TextUtils.join(" ", importedFinalStates));
+                }
                 startActivity(intent);
             }
         });
+
+        findViewById(R.id.importButton).setOnClickListener(v -> {
+            Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType("*/*");
+            startActivityForResult(intent, REQUEST_IMPORT);
+        });
+
+        findViewById(R.id.exportButton).setOnClickListener(v -> {
+            if (validateAndProceed()) {
+                showExportDialog();
+            }
+        });
+
+        findViewById(R.id.combineButton).setOnClickListener(v -> showCombineDialog());
+
+        findViewById(R.id.compileRegexButton).setOnClickListener(v -> compileRegex());
+    }
+
+    /**
+     * Starts compiling the pattern on the runner; subset construction can blow up, so it is
+     * capped and a new compile or leaving the screen cancels it.
+     */
+    private void compileRegex() {
+        String pattern = regexInput.getText().toString();
+        startJob(new RegexJob(pattern, RegexCompiler.DEFAULT_MAX_STATES), false);
+    }
+
+    private void startJob(SimulationRunner.Job job, boolean combine) {
+        if (!runner.start(job)) {
+            Toast.makeText(this, "Busy, try again", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        combining = combine;
+        showBusy();
+    }
+
+    private void showBusy() {
+        regexReport.setText(combining ? "Combining…" : "Compiling…");
+        regexReport.setVisibility(View.VISIBLE);
+    }
+
+    private void onJobProgress(SimulationRunner.Progress progress) {
+        if (!progress.finished) return;
+        // Handled once; the table may be edited before the next rotation re-binds
+        runner.clearFinished();
+        regexReport.setVisibility(View.GONE);
+        if (combining) {
+            onCombined(progress);
+        } else {
+            onRegexCompiled(progress);
+        }
+    }
+
+    private void onRegexCompiled(SimulationRunner.Progress progress) {
+        if (progress.error != null) {
+            if (progress.error instanceof PatternSyntaxException) {
+                PatternSyntaxException e = (PatternSyntaxException) progress.error;
+                regexInput.setError(e.getDescription() + " at " + e.getIndex());
+            } else {
+                regexInput.setError(progress.error.getMessage());
+            }
+            return;
+        }
+        RegexCompilation result = (RegexCompilation) progress.result;
+        // Symbols go through the comma-separated alphabet and whitespace-separated input
+        for (String symbol : result.dfa().symbols().toArray()) {
+            if (symbol.equals(",") || symbol.trim().isEmpty() || symbol.equals(Nfa.EPSILON_SYMBOL)) {
+                regexInput.setError("'" + symbol + "' cannot be used as an input symbol");
+                return;
+            }
+        }
+        if (result.dfa().symbolCount() == 0) {
+            regexInput.setError("Pattern has no input symbols");
+            return;
+        }
+
+        // Undefined transitions show as ∅ in the grid and reject, as in the compiled table
+        loadAutomaton(result.dfa());
+        regexReport.setText(result.summary());
+        regexReport.setVisibility(View.VISIBLE);
+    }
+
+    /** Combining needs the initial and final states, which only an imported or compiled table has yet. */
+    private void showCombineDialog() {
+        if (importedInitialState == null || states.isEmpty()) {
+            Toast.makeText(this, "Import or compile an automaton first", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        new AlertDialog.Builder(this)
+            .setTitle("Combine Automaton")
+            .setItems(OPERATIONS, (dialog, which) -> {
+                if (which == CombineJob.COMPLEMENT) {
+                    startJob(new CombineJob(getContentResolver(), null, compileDraft(), which), true);
+                    return;
+                }
+                pendingOperation = which;
+                Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+                intent.addCategory(Intent.CATEGORY_OPENABLE);
+                intent.setType("*/*");
+                startActivityForResult(intent, REQUEST_COMBINE);
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    private void combineWith(Uri file) {
+        startJob(new CombineJob(getContentResolver(), file, compileDraft(), pendingOperation), true);
+    }
+
+    private void onCombined(SimulationRunner.Progress progress) {
+        if (progress.error != null) {
+            String message = progress.error instanceof IOException
+                ? "Error importing automaton: " + progress.error.getMessage()
+                : progress.error.getMessage();
+            Toast.makeText(this, message, Toast.LENGTH_SHORT).show();
+            return;
+        }
+        ProductResult result = (ProductResult) progress.result;
+        loadAutomaton(result.dfa());
+        regexReport.setText(result.summary());
+        regexReport.setVisibility(View.VISIBLE);
+    }
+
+    private void showExportDialog() {
+        LinearLayout form = new LinearLayout(this);
+        form.setOrientation(LinearLayout.VERTICAL);
+        form.setPadding(48, 16, 48, 0);
+        EditText initialInput = new EditText(this);
+        initialInput.setHint("Initial state");
+        EditText finalInput = new EditText(this);
+        finalInput.setHint("Final states (space-separated)");
+        if (importedInitialState != null) {
+            initialInput.setText(importedInitialState);
+            finalInput.setText(TextUtils.join(" ", importedFinalStates));
+        }
+        form.addView(initialInput);
+        form.addView(finalInput);
+
+        new AlertDialog.Builder(this)
+            .setTitle("Export Automaton")
+            .setView(form)
+            .setPositiveButton("Export", (dialog, which) -> {
+                String initialState = initialInput.getText().toString().trim();
+                if (!states.contains(initialState)) {
+                    Toast.makeText(this, "Initial state must be valid!", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                HashSet<String> finalStates = new HashSet<>();
+                for (String state : finalInput.getText().toString().trim().split(" ")) {
+                    if (states.contains(state)) {
+                        finalStates.add(state);
+                    }
+                }
+                pendingExport = Dfa.compile(transitions, finalStates, initialState);
+
+                Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+                intent.addCategory(Intent.CATEGORY_OPENABLE);
+                intent.setType("application/octet-stream");
+                intent.putExtra(Intent.EXTRA_TITLE, "automaton.toa");
+                startActivityForResult(intent, REQUEST_EXPORT);
+            })
+            .setNegativeButton("Cancel", null)
+            .show();
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (resultCode != RESULT_OK || data == null || data.getData() == null) {
+            return;
+        }
+        if (requestCode == REQUEST_IMPORT) {
+            importAutomaton(data.getData());
+        } else if (requestCode == REQUEST_EXPORT && pendingExport != null) {
+            exportAutomaton(data.getData(), pendingExport);
+            pendingExport = null;
+        } else if (requestCode == REQUEST_COMBINE) {
+            combineWith(data.getData());
+        }
+    }
+
+    private void importAutomaton(Uri file) {
+        Dfa dfa;
+        try {
+            dfa = readAutomaton(file);
+        } catch (Exception e) {
+            Toast.makeText(this, "Error importing automaton: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        loadAutomaton(dfa);
+        Toast.makeText(this, "Imported " + states.size() + " states", Toast.LENGTH_SHORT).show();
+    }
+
+    private Dfa readAutomaton(Uri file) throws IOException {
+        try (ParcelFileDescriptor fd = getContentResolver().openFileDescriptor(file, "r");
+             FileInputStream in = new FileInputStream(fd.getFileDescriptor())) {
+            return AutomatonFile.read(in.getChannel());
+        }
+    }
+
+    /** Replaces the table with {@code dfa}; its initial and final states are handed on as imported. */
+    private void loadAutomaton(Dfa dfa) {
+        states.clear();
+        transitions.clear();
+        transitions.putAll(dfa.toTransitions());
+        states.addAll(transitions.keySet());
+        alphabetInput.setText(TextUtils.join(",", dfa.symbols().toArray()));
+        importedInitialState = dfa.stateName(dfa.initialState());
+        importedFinalStates = dfa.finalStateNames();
+
+        updateCurrentStatesView();
+        generateTransitionInputs();
+    }
+
+    private void exportAutomaton(Uri file, Dfa dfa) {
+        try (ParcelFileDescriptor fd = getContentResolver().openFileDescriptor(file, "wt");
+             FileOutputStream out = new FileOutputStream(fd.getFileDescriptor())) {
+            AutomatonFile.write(dfa, out.getChannel());
+            Toast.makeText(this, "Exported " + dfa.stateCount() + " states", Toast.LENGTH_SHORT).show();
+        } catch (Exception e) {
+            Toast.makeText(this, "Error exporting automaton: " + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
     }
 
     private void generateStateInputs(int numStates) {
@@ -118,6 +455,8 @@ public class SetupAutomataActivity extends AppCompatActivity {
     private void saveStates() {
         states.clear();
         transitions.clear();
+        importedInitialState = null;
+        importedFinalStates = null;
         boolean validInput = true;
         HashSet<String> tempStates = new HashSet<>();
 
@@ -164,87 +503,57 @@ public class SetupAutomataActivity extends AppCompatActivity {
             return;
         }
 
-        transitionsContainer.removeAllViews();
         String[] inputs = alphabet.split(",");
-
-        // Add header
-        TextView header = new TextView(this);
-        header.setText("Define Transitions");
-        header.setTextSize(18);
-        header.setPadding(0, 32, 0, 16);
-        transitionsContainer.addView(header);
-
-        // Add example
-        TextView example = new TextView(this);
-        example.setText("Select where each state goes on each input\nExample: From q0 on input '0' select where it should go");
-        example.setTypeface(example.getTypeface(), Typeface.ITALIC);
-        example.setTextColor(Color.GRAY);
-        example.setPadding(0, 0, 0, 16);
-        transitionsContainer.addView(example);
-
-        // Create table layout
-        TableLayout tableLayout = new TableLayout(this);
-        tableLayout.setLayoutParams(new TableLayout.LayoutParams(
-            TableLayout.LayoutParams.MATCH_PARENT,
-            TableLayout.LayoutParams.WRAP_CONTENT));
-        tableLayout.setStretchAllColumns(true);
-
-        // Add header row
-        TableRow headerRow = new TableRow(this);
-        headerRow.addView(createHeaderCell("From"));
-        headerRow.addView(createHeaderCell("Input"));
-        headerRow.addView(createHeaderCell("To"));
-        tableLayout.addView(headerRow);
-
-        // Add rows for transitions
-        for (String fromState : states) {
-            for (String input : inputs) {
-                TableRow row = new TableRow(this);
-                row.addView(createCell(fromState));
-                row.addView(createCell(input));
-                
-                Spinner spinner = new Spinner(this);
-                ArrayAdapter<String> adapter = new ArrayAdapter<>(this,
-                    android.R.layout.simple_spinner_dropdown_item,
-                    new ArrayList<>(states));
-                spinner.setAdapter(adapter);
-                
-                spinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
-                    @Override
-                    public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
-                        String toState = parent.getItemAtPosition(position).toString();
-                        if (!transitions.containsKey(fromState)) {
-                            transitions.put(fromState, new HashMap<>());
-                        }
-                        transitions.get(fromState).put(input.trim(), toState);
-                    }
-
-                    @Override
-                    public void onNothingSelected(AdapterView<?> parent) {}
-                });
-                
-                row.addView(spinner);
-                tableLayout.addView(row);
-            }
+        for (int i = 0; i < inputs.length; i++) {
+            inputs[i] = inputs[i].trim();
         }
-        
-        transitionsContainer.addView(tableLayout);
+        gridAdapter.setGrid(transitions, new ArrayList<>(states), inputs);
+        stateSearchInput.setText("");
+        jumpToStateSpinner.setAdapter(gridAdapter.stateChoices());
+        transitionsContainer.setVisibility(View.VISIBLE);
     }
 
-    private TextView createHeaderCell(String text) {
-        TextView tv = new TextView(this);
-        tv.setText(text);
-        tv.setTypeface(tv.getTypeface(), Typeface.BOLD);
-        tv.setPadding(8, 8, 8, 8);
-        tv.setBackgroundColor(getResources().getColor(android.R.color.darker_gray));
-        return tv;
-    }
+    private void initializeTransitionGrid() {
+        TextView hint = findViewById(R.id.transitionsHint);
+        hint.setText("Select where each state goes on each input\nExample: From q0 on input '0' select where it should go\n"
+            + "Add " + Nfa.EPSILON_SYMBOL + " to the alphabet for epsilon moves (NFA)");
+
+        gridAdapter = new TransitionGridAdapter(this);
+        transitionGrid = findViewById(R.id.transitionGrid);
+        transitionGrid.setLayoutManager(new LinearLayoutManager(this));
+        transitionGrid.setHasFixedSize(true);
+        transitionGrid.setAdapter(gridAdapter);
+
+        stateSearchInput = findViewById(R.id.stateSearchInput);
+        stateSearchInput.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                gridAdapter.filter(s);
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {}
+        });
+
+        jumpToStateSpinner = findViewById(R.id.jumpToStateSpinner);
+        jumpToStateSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+                String state = parent.getItemAtPosition(position).toString();
+                if (gridAdapter.positionOf(state) < 0) {
+                    // Filtered out by the search; show everything again
+                    stateSearchInput.setText("");
+                }
+                ((LinearLayoutManager) transitionGrid.getLayoutManager())
+                    .scrollToPositionWithOffset(gridAdapter.positionOf(state), 0);
+            }
 
-    private TextView createCell(String text) {
-        TextView tv = new TextView(this);
-        tv.setText(text);
-        tv.setPadding(8, 8, 8, 8);
-        return tv;
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {}
+        });
     }
 
     private boolean validateAndProceed() {
@@ -252,25 +561,7 @@ public class SetupAutomataActivity extends AppCompatActivity {
             Toast.makeText(this, "Please define states first", Toast.LENGTH_SHORT).show();
             return false;
         }
-
-        boolean allTransitionsDefined = true;
-        String alphabet = alphabetInput.getText().toString().trim();
-        String[] inputs = alphabet.split(",");
-
-        for (String fromState : states) {
-            for (String input : inputs) {
-                if (!transitions.get(fromState).containsKey(input.trim())) {
-                    allTransitionsDefined = false;
-                    break;
-                }
-            }
-        }
-
-        if (!allTransitionsDefined) {
-            Toast.makeText(this, "Please define all transitions", Toast.LENGTH_SHORT).show();
-            return false;
-        }
-
+        // Transitions left at ∅ are undefined on purpose: the input is rejected there
         return true;
     }
 
@@ -286,6 +577,11 @@ public class SetupAutomataActivity extends AppCompatActivity {
                 alphabetInput.setError("Invalid alphabet format");
                 return false;
             }
+            // Input sequences are tokenized on whitespace
+            if (input.trim().matches(".*\\s.*")) {
+                alphabetInput.setError("Symbols cannot contain spaces");
+                return false;
+            }
         }
         return true;
     }
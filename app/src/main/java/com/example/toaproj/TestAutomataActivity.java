@@ -1,31 +1,81 @@
 package com.example.toaproj;
 
+import android.content.ContentResolver;
+import android.content.Intent;
+import android.net.Uri;
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
-import android.util.Log;
+import android.view.View;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
+import android.widget.SeekBar;
 import android.widget.TextView;
 import android.widget.Toast;
+import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.lifecycle.ViewModelProvider;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
+import com.example.toaproj.data.AutomatonRepository;
+import com.example.toaproj.data.AutomatonViewModel;
+import com.example.toaproj.engine.BatchResult;
+import com.example.toaproj.engine.BatchRunner;
+import com.example.toaproj.engine.Automaton;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.ExecutionTrace;
+import com.example.toaproj.engine.LazyDfa;
+import com.example.toaproj.engine.MetricsSnapshot;
+import com.example.toaproj.engine.Nfa;
+import com.example.toaproj.engine.Simulation;
+import com.example.toaproj.engine.SimulationMetrics;
+import com.example.toaproj.sim.CompareJob;
+import com.example.toaproj.sim.ScanJob;
+import com.example.toaproj.sim.SimulationRunner;
+import com.example.toaproj.sim.SimulationViewModel;
+import com.example.toaproj.sim.TraceFormatter;
+import com.example.toaproj.sim.TraceJob;
 import com.example.toaproj.views.AutomataView;
+import com.example.toaproj.views.TraceAdapter;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Set;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 
 public class TestAutomataActivity extends AppCompatActivity {
 
-    private String initialState;
-    private HashSet<String> finalStates;
-    private HashMap<String, HashMap<String, String>> transitions;
+    /** Repository handle of the automaton under test. */
+    public static final String EXTRA_AUTOMATON = "automaton";
+
+    private static final int REQUEST_BATCH_FILE = 1;
+    private static final int REQUEST_EXPORT_FILE = 2;
+    private static final int REQUEST_SCAN_FILE = 3;
+    private static final int REQUEST_COMPARE_FILE = 4;
+    private static final int REQUEST_EXPORT_METRICS = 5;
+    private static final int BATCH_DETAIL_LIMIT = 100;
+
+    private AutomatonRepository repository;
+    private Dfa dfa;
+    private Nfa nfa;
+    private Automaton automaton;
+    private Simulation simulation;
     private TextView resultText;
     private AutomataView automataView;
-    private Handler handler = new Handler(Looper.getMainLooper());
-    private volatile boolean isProcessing = false;
+    private Button testButton;
+    private SeekBar stepDelaySeekBar;
+    private Button exportButton;
+    private RecyclerView traceList;
+    private TraceAdapter traceAdapter;
+    private SimulationRunner runner;
+    private ExecutionTrace trace;
+    private TraceFormatter traceFormatter;
+    private SimulationViewModel simulationModel;
+    private CheckBox metricsCheckBox;
+    private Button exportMetricsButton;
+    private long metricsRunsShown;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,6 +90,25 @@ public class TestAutomataActivity extends AppCompatActivity {
         
         // Setup test button
         setupTestButton();
+        setupBatchButton();
+        setupExportButton();
+        setupScanButton();
+        setupCompareButton();
+        setupMetrics();
+
+        // A run survives rotation in the ViewModel and reports to whichever activity is current
+        simulationModel = new ViewModelProvider(this).get(SimulationViewModel.class);
+        runner = simulationModel.runner();
+        trace = simulationModel.trace();
+        if (automaton != null) {
+            traceFormatter = new TraceFormatter(automaton, simulation, trace);
+            traceAdapter.setTrace(trace, traceFormatter);
+            showTrace();
+        }
+        runner.setListener(this, this::onProgress);
+        if (runner.isRunning()) {
+            testButton.setText("Stop");
+        }
     }
 
     private void setupViews() {
@@ -50,133 +119,315 @@ public class TestAutomataActivity extends AppCompatActivity {
             showError("Error: Views not found");
             return;
         }
+
+        traceList = findViewById(R.id.traceList);
+        traceList.setLayoutManager(new LinearLayoutManager(this));
+        traceAdapter = new TraceAdapter();
+        traceList.setAdapter(traceAdapter);
+
+        CheckBox forceLayoutCheckBox = findViewById(R.id.forceLayoutCheckBox);
+        forceLayoutCheckBox.setOnCheckedChangeListener((button, checked) ->
+            automataView.setLayoutMode(checked ? AutomataView.LAYOUT_FORCE : AutomataView.LAYOUT_CIRCULAR));
+
+        TextView stepDelayLabel = findViewById(R.id.stepDelayLabel);
+        stepDelaySeekBar = findViewById(R.id.stepDelaySeekBar);
+        stepDelaySeekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
+            @Override
+            public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+                stepDelayLabel.setText("Step delay: " + progress + " ms");
+            }
+
+            @Override
+            public void onStartTrackingTouch(SeekBar seekBar) {
+            }
+
+            @Override
+            public void onStopTrackingTouch(SeekBar seekBar) {
+            }
+        });
     }
 
     private void getAutomataData() {
-        Bundle extras = getIntent().getExtras();
-        if (extras == null) {
+        String handle = getIntent().getStringExtra(EXTRA_AUTOMATON);
+        if (handle == null) {
             showError("Error: No automata data received");
             return;
         }
 
-        initialState = extras.getString("initialState");
-        finalStates = (HashSet<String>) extras.getSerializable("finalStates");
-        transitions = (HashMap<String, HashMap<String, String>>) 
-            extras.getSerializable("transitions");
-
+        repository = AutomatonRepository.get(this);
+        AutomatonViewModel model = new ViewModelProvider(this).get(AutomatonViewModel.class);
         try {
-            automataView.setAutomata(transitions, finalStates, initialState);
+            Dfa table = model.bind(repository, handle);
+            if (table == null) {
+                showError("Error: Automaton is no longer available");
+                return;
+            }
+            nfa = model.nfa();
+            if (nfa != null) {
+                automaton = nfa;
+                simulation = new LazyDfa(nfa);
+            } else {
+                dfa = table;
+                automaton = dfa;
+                simulation = dfa;
+            }
+            automataView.setAutomata(automaton);
         } catch (Exception e) {
             showError("Error initializing automata: " + e.getMessage());
         }
     }
 
     private void setupTestButton() {
-        Button testButton = findViewById(R.id.testSequenceButton);
+        testButton = findViewById(R.id.testSequenceButton);
         EditText sequenceInput = findViewById(R.id.sequenceInput);
 
         testButton.setOnClickListener(v -> {
-            if (!isProcessing && !sequenceInput.getText().toString().trim().isEmpty()) {
-                String[] inputSequence = sequenceInput.getText().toString().trim().split(" ");
+            if (runner.isRunning()) {
+                runner.cancel();
+                testButton.setText("Test Sequence");
+                return;
+            }
+            String inputSequence = sequenceInput.getText().toString();
+            if (!inputSequence.trim().isEmpty()) {
                 processInput(inputSequence);
             }
         });
     }
 
-    private void processInput(String[] inputSequence) {
+    private void setupBatchButton() {
+        findViewById(R.id.batchTestButton).setOnClickListener(v -> {
+            if (runner.isRunning()) return;
+            Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType("text/*");
+            startActivityForResult(intent, REQUEST_BATCH_FILE);
+        });
+    }
+
+    private void setupExportButton() {
+        exportButton = findViewById(R.id.exportTraceButton);
+        exportButton.setOnClickListener(v -> {
+            if (runner.isRunning()) return;
+            Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType("text/plain");
+            intent.putExtra(Intent.EXTRA_TITLE, "trace.txt");
+            startActivityForResult(intent, REQUEST_EXPORT_FILE);
+        });
+    }
+
+    private void setupScanButton() {
+        findViewById(R.id.scanTextButton).setOnClickListener(v -> {
+            if (runner.isRunning()) return;
+            Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType("text/*");
+            startActivityForResult(intent, REQUEST_SCAN_FILE);
+        });
+    }
+
+    private void setupCompareButton() {
+        findViewById(R.id.compareButton).setOnClickListener(v -> {
+            if (runner.isRunning()) return;
+            Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType("*/*");
+            startActivityForResult(intent, REQUEST_COMPARE_FILE);
+        });
+    }
+
+    private void setupMetrics() {
+        metricsCheckBox = findViewById(R.id.metricsCheckBox);
+        exportMetricsButton = findViewById(R.id.exportMetricsButton);
+        // Also fires when the checked state is restored after a rotation
+        metricsCheckBox.setOnCheckedChangeListener((button, checked) -> {
+            if (checked) {
+                showMetrics(false);
+            } else {
+                automataView.setHeatmap(null);
+                exportMetricsButton.setVisibility(View.GONE);
+            }
+        });
+        exportMetricsButton.setOnClickListener(v -> {
+            if (runner.isRunning()) return;
+            Intent intent = new Intent(Intent.ACTION_CREATE_DOCUMENT);
+            intent.addCategory(Intent.CATEGORY_OPENABLE);
+            intent.setType("application/json");
+            intent.putExtra(Intent.EXTRA_TITLE, "metrics.json");
+            startActivityForResult(intent, REQUEST_EXPORT_METRICS);
+        });
+    }
+
+    /** The metrics to record into, or null when the checkbox is off. */
+    private SimulationMetrics metrics() {
+        return metricsCheckBox.isChecked() && automaton != null
+            ? simulationModel.metrics(automaton) : null;
+    }
+
+    /**
+     * Repaints the heatmap from the recorded visits. With {@code report}, a run that
+     * added to the totals also gets their summary under its result.
+     */
+    private void showMetrics(boolean report) {
+        SimulationMetrics metrics = metrics();
+        if (metrics == null) return;
+        MetricsSnapshot snapshot = metrics.snapshot();
+        automataView.setHeatmap(snapshot.visitCounts());
+        exportMetricsButton.setVisibility(View.VISIBLE);
+        exportMetricsButton.setEnabled(snapshot.runs() > 0);
+        if (report && snapshot.runs() > metricsRunsShown) {
+            resultText.append("\n\nMetrics: " + snapshot.summary());
+        }
+        metricsRunsShown = snapshot.runs();
+    }
+
+    @Override
+    protected void onActivityResult(int requestCode, int resultCode, Intent data) {
+        super.onActivityResult(requestCode, resultCode, data);
+        if (resultCode != RESULT_OK || data == null) return;
+        if (requestCode == REQUEST_BATCH_FILE) {
+            processBatch(data.getData());
+        } else if (requestCode == REQUEST_EXPORT_FILE) {
+            startJob(exportJob(getApplicationContext().getContentResolver(), data.getData(),
+                traceFormatter, resultText.getText().toString()));
+        } else if (requestCode == REQUEST_SCAN_FILE) {
+            resultText.setText("Scanning...");
+            startJob(new ScanJob(getApplicationContext().getContentResolver(), data.getData(),
+                automaton, trace));
+        } else if (requestCode == REQUEST_COMPARE_FILE) {
+            resultText.setText("Comparing...");
+            startJob(new CompareJob(getApplicationContext().getContentResolver(), data.getData(),
+                automaton, trace));
+        } else if (requestCode == REQUEST_EXPORT_METRICS && metrics() != null) {
+            // Snapshot now, while no run is recording
+            startJob(exportMetricsJob(getApplicationContext().getContentResolver(), data.getData(),
+                metrics().snapshot(), resultText.getText().toString()));
+        }
+    }
+
+    private void processBatch(Uri file) {
+        resultText.setText("Running batch...");
+        BatchRunner batchRunner = dfa != null ? new BatchRunner(dfa) : new BatchRunner(nfa);
+        startJob(batchJob(getApplicationContext().getContentResolver(), file, batchRunner, automaton,
+            trace, metrics()));
+    }
+
+    /** Static so the job cannot capture the activity. */
+    private static SimulationRunner.Job batchJob(ContentResolver resolver, Uri file,
+                                                 BatchRunner batchRunner, Automaton automaton,
+                                                 ExecutionTrace trace, SimulationMetrics metrics) {
+        return reporter -> {
+            // A batch has no step trace; drop the previous run's so it is not shown with it
+            trace.clear();
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(resolver.openInputStream(file), "UTF-8"))) {
+                BatchResult batch = batchRunner.run(reader, metrics);
+                reporter.finish(null, formatBatch(batch, automaton));
+            }
+        };
+    }
+
+    /** Writes the retained trace to {@code file}, then shows {@code summary} with a note. */
+    private static SimulationRunner.Job exportJob(ContentResolver resolver, Uri file,
+                                                  TraceFormatter formatter, String summary) {
+        return reporter -> {
+            long written;
+            try (Writer writer = new BufferedWriter(
+                    new OutputStreamWriter(resolver.openOutputStream(file), "UTF-8"))) {
+                written = formatter.writeTo(writer, reporter);
+            }
+            reporter.finish(null, summary + "\n\nExported " + written + " steps");
+        };
+    }
+
+    /** Writes {@code snapshot} as JSON to {@code file}, then shows {@code summary} with a note. */
+    private static SimulationRunner.Job exportMetricsJob(ContentResolver resolver, Uri file,
+                                                         MetricsSnapshot snapshot, String summary) {
+        return reporter -> {
+            try (Writer writer = new OutputStreamWriter(resolver.openOutputStream(file), "UTF-8")) {
+                writer.write(snapshot.toJson());
+            }
+            reporter.finish(null, summary + "\n\nExported metrics of " + snapshot.runs() + " runs");
+        };
+    }
+
+    private static String formatBatch(BatchResult batch, Automaton automaton) {
+        StringBuilder result = new StringBuilder();
+        result.append("Batch Result: ").append(batch.size()).append(" sequences in ")
+              .append(batch.elapsedNanos() / 1_000_000).append(" ms\n");
+        result.append("✅ Accepted: ").append(batch.acceptedCount()).append("\n");
+        result.append("❌ Rejected: ").append(batch.rejectedCount()).append("\n");
+        result.append("❌ Invalid input: ").append(batch.invalidCount()).append("\n\n");
+
+        int shown = Math.min(batch.size(), BATCH_DETAIL_LIMIT);
+        for (int i = 0; i < shown; i++) {
+            result.append("Line ").append(i + 1).append(": ");
+            switch (batch.outcome(i)) {
+                case BatchResult.ACCEPTED: result.append("ACCEPTED"); break;
+                case BatchResult.REJECTED: result.append("REJECTED"); break;
+                default: result.append("INVALID"); break;
+            }
+            if (batch.stopState(i) != Dfa.NO_STATE) {
+                result.append(" at ").append(automaton.stateName(batch.stopState(i)));
+            }
+            result.append("\n");
+        }
+        if (shown < batch.size()) {
+            result.append("... ").append(batch.size() - shown).append(" more\n");
+        }
+        return result.toString();
+    }
+
+    private void processInput(CharSequence inputSequence) {
         if (resultText == null || automataView == null) {
             showError("Views not initialized");
             return;
         }
 
-        if (inputSequence == null || inputSequence.length == 0) {
+        if (inputSequence == null || inputSequence.length() == 0) {
             Toast.makeText(this, "Please enter a valid input sequence", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        isProcessing = true;
-        new Thread(() -> {
-            try {
-                StringBuilder result = new StringBuilder();
-                String currentState = initialState;
-                boolean isValid = true;
-                int step = 1;
-
-                // Reset to initial state
-                final String initialStateTemp = currentState;
-                runOnUiThread(() -> {
-                    try {
-                        automataView.setCurrentState(initialStateTemp);
-                        resultText.setText(""); // Clear previous results
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                });
-
-                result.append("Step-by-step execution:\n");
-                result.append("START → ").append(currentState).append("\n");
-
-                for (String input : inputSequence) {
-                    if (!transitions.containsKey(currentState) || 
-                        !transitions.get(currentState).containsKey(input)) {
-                        result.append("\n❌ Invalid input '").append(input)
-                              .append("' for state '").append(currentState).append("'\n");
-                        isValid = false;
-                        break;
-                    }
-
-                    String nextState = transitions.get(currentState).get(input);
-                    result.append(String.format("Step %d: %s --(%s)--> %s", 
-                        step++, currentState, input, nextState));
-                    
-                    if (finalStates.contains(nextState)) {
-                        result.append(" (Final State)");
-                    }
-                    result.append("\n");
-                    
-                    currentState = nextState;
-                    
-                    // Update visualization for each step
-                    final String finalCurrentState = currentState;
-                    runOnUiThread(() -> {
-                        try {
-                            automataView.setCurrentState(finalCurrentState);
-                            resultText.setText(result.toString()); // Update results in real-time
-                        } catch (Exception e) {
-                            e.printStackTrace();
-                        }
-                    });
-                    
-                    Thread.sleep(500);
-                }
-
-                result.append("\nFinal Result: ");
-                if (isValid && finalStates.contains(currentState)) {
-                    result.append("✅ ACCEPTED\n");
-                    result.append("Input sequence reached final state: ").append(currentState);
-                } else {
-                    result.append("❌ REJECTED\n");
-                    if (isValid) {
-                        result.append("Stopped at non-final state: ").append(currentState);
-                    }
-                }
-
-                // Update UI with final result
-                runOnUiThread(() -> {
-                    try {
-                        resultText.setText(result.toString());
-                    } catch (Exception e) {
-                        e.printStackTrace();
-                    }
-                });
-
-            } catch (Exception e) {
-                e.printStackTrace();
-                runOnUiThread(() -> showError("Error processing input: " + e.getMessage()));
-            } finally {
-                isProcessing = false;
-            }
-        }).start();
+        startJob(new TraceJob(automaton, simulation, trace, traceFormatter, inputSequence,
+            stepDelaySeekBar.getProgress(), metrics()));
+    }
+
+    private void startJob(SimulationRunner.Job job) {
+        if (!runner.start(job)) {
+            Toast.makeText(this, "Simulator is busy, try again", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        testButton.setText("Stop");
+    }
+
+    private void onProgress(SimulationRunner.Progress progress) {
+        if (progress.activeStates != null) {
+            automataView.setActiveStates(progress.activeStates);
+        }
+        if (progress.text != null) {
+            resultText.setText(progress.text);
+        }
+        showTrace();
+        if (progress.error != null) {
+            Toast.makeText(this, "Error: " + progress.error.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+        if (progress.finished) {
+            testButton.setText("Test Sequence");
+            showMetrics(true);
+        }
+    }
+
+    /** Refreshes the trace rows, following the newest step while the list is at the bottom. */
+    private void showTrace() {
+        boolean atBottom = !traceList.canScrollVertically(1);
+        traceAdapter.refresh();
+        int rows = traceAdapter.getItemCount();
+        traceList.setVisibility(rows > 0 ? View.VISIBLE : View.GONE);
+        exportButton.setEnabled(rows > 0);
+        if (atBottom && rows > 0) {
+            traceList.scrollToPosition(rows - 1);
+        }
     }
 
     private void showError(String message) {
@@ -185,8 +436,13 @@ public class TestAutomataActivity extends AppCompatActivity {
     }
 
     @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        isProcessing = false;
+    protected void onSaveInstanceState(@NonNull Bundle outState) {
+        super.onSaveInstanceState(outState);
+        if (repository == null) return;
+        try {
+            repository.persist(getIntent().getStringExtra(EXTRA_AUTOMATON));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 }
@@ -0,0 +1,100 @@
+package com.example.toaproj.data;
+
+import android.content.Context;
+
+import com.example.toaproj.engine.AutomatonFile;
+import com.example.toaproj.engine.Dfa;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide store of compiled automata, so activities hand each other a short handle
+ * instead of serializing transition maps into Intents and Bundles.
+ *
+ * <p>Entries are immutable {@link Dfa}s; an automaton with an ε column is kept in table
+ * form and read back with {@code Nfa.fromTable}. An entry lives in memory until it is
+ * {@link #release released}. When an activity saves its state it calls {@link #persist}, which
+ * writes the entry once to the cache directory in {@link AutomatonFile} format; after
+ * process death {@link #get} maps it back in from there. Handles are random UUIDs so
+ * they never collide with files left by an earlier process.
+ */
+public final class AutomatonRepository {
+
+    private static final String CACHE_DIR = "automata";
+    private static final String SUFFIX = ".toa";
+
+    private static AutomatonRepository instance;
+
+    private final File directory;
+    private final ConcurrentHashMap<String, Dfa> entries = new ConcurrentHashMap<>();
+
+    private AutomatonRepository(File directory) {
+        this.directory = directory;
+    }
+
+    public static synchronized AutomatonRepository get(Context context) {
+        if (instance == null) {
+            instance = new AutomatonRepository(
+                new File(context.getApplicationContext().getCacheDir(), CACHE_DIR));
+        }
+        return instance;
+    }
+
+    /** Stores {@code automaton} and returns the handle to pass between activities. */
+    public String put(Dfa automaton) {
+        String handle = UUID.randomUUID().toString();
+        entries.put(handle, automaton);
+        return handle;
+    }
+
+    /**
+     * Returns the automaton for {@code handle}, reloading it from the cache directory if
+     * the process was restarted, or null if it was released or never persisted.
+     */
+    public Dfa get(String handle) throws IOException {
+        Dfa automaton = entries.get(handle);
+        if (automaton != null) {
+            return automaton;
+        }
+        File file = file(handle);
+        if (!file.isFile()) {
+            return null;
+        }
+        automaton = AutomatonFile.read(file);
+        Dfa raced = entries.putIfAbsent(handle, automaton);
+        return raced != null ? raced : automaton;
+    }
+
+    /** Writes {@code handle} to the cache directory unless it is already there. */
+    public void persist(String handle) throws IOException {
+        Dfa automaton = entries.get(handle);
+        File file = file(handle);
+        if (automaton == null || file.isFile()) {
+            return;
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        // Write then rename, so a process killed mid-write never leaves a torn file
+        File partial = new File(file.getPath() + ".tmp");
+        AutomatonFile.write(automaton, partial);
+        if (!partial.renameTo(file)) {
+            partial.delete();
+            throw new IOException("Cannot write " + file);
+        }
+    }
+
+    /** Drops {@code handle} from memory and from the cache directory. */
+    public void release(String handle) {
+        entries.remove(handle);
+        file(handle).delete();
+    }
+
+    private File file(String handle) {
+        // Round-trip through UUID so a handle can never name a path outside the directory
+        return new File(directory, UUID.fromString(handle) + SUFFIX);
+    }
+}
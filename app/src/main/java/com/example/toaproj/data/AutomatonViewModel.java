@@ -0,0 +1,69 @@
+package com.example.toaproj.data;
+
+import androidx.lifecycle.ViewModel;
+
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.Nfa;
+
+import java.io.IOException;
+
+/**
+ * Holds an activity's automaton across configuration changes. The automaton itself
+ * lives in the {@link AutomatonRepository}; this keeps the resolved instance (and the
+ * NFA read from an ε column) so a rotation does not look it up or rebuild it again,
+ * and releases the handle once the activity is finished for good.
+ */
+public class AutomatonViewModel extends ViewModel {
+
+    private AutomatonRepository repository;
+    private String handle;
+    private Dfa table;
+    private Nfa nfa;
+
+    /**
+     * Binds to {@code handle}, releasing any handle bound before. Returns the automaton,
+     * or null if the repository no longer has it. Binding the current handle again is free.
+     */
+    public Dfa bind(AutomatonRepository repository, String handle) throws IOException {
+        if (handle.equals(this.handle)) {
+            return table;
+        }
+        Dfa table = repository.get(handle);
+        release();
+        this.repository = repository;
+        this.handle = handle;
+        this.table = table;
+        return table;
+    }
+
+    public String handle() {
+        return handle;
+    }
+
+    public Dfa table() {
+        return table;
+    }
+
+    /** The automaton as an NFA if it has an ε column, otherwise null. Built on first use. */
+    public Nfa nfa() {
+        if (nfa == null && table != null && Nfa.usesEpsilon(table)) {
+            nfa = Nfa.fromTable(table);
+        }
+        return nfa;
+    }
+
+    @Override
+    protected void onCleared() {
+        release();
+    }
+
+    private void release() {
+        if (handle != null) {
+            repository.release(handle);
+        }
+        repository = null;
+        handle = null;
+        table = null;
+        nfa = null;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.toaproj.sim;
+
+import android.os.Debug;
+
+import com.example.toaproj.engine.SimulationMetrics;
+
+/**
+ * GC and allocation totals from the ART runtime statistics, which stand in for the
+ * {@code java.lang.management} beans Android does not have. The counters are process-wide.
+ */
+public final class ArtMemoryProbe implements SimulationMetrics.MemoryProbe {
+
+    @Override
+    public long gcCount() {
+        return stat("art.gc.gc-count");
+    }
+
+    @Override
+    public long gcNanos() {
+        long millis = stat("art.gc.gc-time");
+        return millis < 0 ? -1 : millis * 1_000_000L;
+    }
+
+    @Override
+    public long allocatedBytes() {
+        return stat("art.gc.bytes-allocated");
+    }
+
+    private static long stat(String name) {
+        String value = Debug.getRuntimeStat(name);
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.toaproj.sim;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import com.example.toaproj.engine.AutomatonFile;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.Nfa;
+import com.example.toaproj.engine.ProductConstruction;
+import com.example.toaproj.engine.ProductResult;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Combines the automaton being set up with one saved to a file, or complements it, off the
+ * main thread. Determinizing an epsilon table and the product itself can both blow up,
+ * so each is capped and stops when the runner cancels the job. The {@link ProductResult}
+ * is delivered as the final snapshot's result; an unreadable file or a hit cap arrives as
+ * its error.
+ */
+public final class CombineJob implements SimulationRunner.Job {
+
+    public static final int UNION = 0;
+    public static final int INTERSECTION = 1;
+    public static final int DIFFERENCE = 2;
+    public static final int COMPLEMENT = 3;
+
+    private static final int MAX_DETERMINIZED_STATES = 1 << 16;
+
+    private final ContentResolver resolver;
+    private final Uri file;
+    private final Dfa automaton;
+    private final int operation;
+
+    /** @param file the other operand, or null for {@link #COMPLEMENT} */
+    public CombineJob(ContentResolver resolver, Uri file, Dfa automaton, int operation) {
+        this.resolver = resolver;
+        this.file = file;
+        this.automaton = automaton;
+        this.operation = operation;
+    }
+
+    @Override
+    public void run(SimulationRunner.Reporter reporter) throws IOException {
+        Dfa current = withoutEpsilon(automaton);
+        ProductResult result;
+        if (operation == COMPLEMENT) {
+            result = ProductConstruction.complement(current);
+        } else {
+            Dfa other;
+            try (ParcelFileDescriptor descriptor = resolver.openFileDescriptor(file, "r");
+                 FileInputStream input = new FileInputStream(descriptor.getFileDescriptor())) {
+                other = withoutEpsilon(AutomatonFile.read(input.getChannel()));
+            }
+            if (reporter.isCancelled()) return;
+            if (operation == UNION) {
+                result = ProductConstruction.union(current, other);
+            } else if (operation == INTERSECTION) {
+                result = ProductConstruction.intersection(current, other);
+            } else {
+                result = ProductConstruction.difference(current, other);
+            }
+        }
+        if (reporter.isCancelled()) return;
+        reporter.finishWith(result, result.summary());
+    }
+
+    /**
+     * Product construction reads every column as an input symbol, epsilon included, so
+     * epsilon tables are determinized first.
+     */
+    private static Dfa withoutEpsilon(Dfa table) {
+        return Nfa.usesEpsilon(table) ? Nfa.fromTable(table).determinize(MAX_DETERMINIZED_STATES) : table;
+    }
+}
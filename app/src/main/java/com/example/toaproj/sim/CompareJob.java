@@ -0,0 +1,86 @@
+package com.example.toaproj.sim;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import com.example.toaproj.engine.Automaton;
+import com.example.toaproj.engine.AutomatonFile;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.EquivalenceChecker;
+import com.example.toaproj.engine.EquivalenceResult;
+import com.example.toaproj.engine.ExecutionTrace;
+import com.example.toaproj.engine.Nfa;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+
+/**
+ * Compares the language of the automaton under test with one saved to a file, and reports
+ * a shortest string they disagree on, which can be pasted into the test input. When they
+ * differ, both inclusions are checked too, so an edit that only added or only removed
+ * strings says which.
+ */
+public final class CompareJob implements SimulationRunner.Job {
+
+    /** Subset construction limit when either automaton is an NFA. */
+    private static final int MAX_DFA_STATES = 10_000;
+
+    private final ContentResolver resolver;
+    private final Uri file;
+    private final Automaton automaton;
+    private final ExecutionTrace trace;
+
+    /** @param trace cleared, since a comparison has no step trace */
+    public CompareJob(ContentResolver resolver, Uri file, Automaton automaton, ExecutionTrace trace) {
+        this.resolver = resolver;
+        this.file = file;
+        this.automaton = automaton;
+        this.trace = trace;
+    }
+
+    @Override
+    public void run(SimulationRunner.Reporter reporter) throws IOException {
+        trace.clear();
+        Dfa other;
+        try (ParcelFileDescriptor descriptor = resolver.openFileDescriptor(file, "r");
+             FileInputStream input = new FileInputStream(descriptor.getFileDescriptor())) {
+            other = AutomatonFile.read(input.getChannel());
+        }
+        // A saved table with an ε column is an NFA; compared as a table, ε would be a letter
+        if (Nfa.usesEpsilon(other)) {
+            other = Nfa.fromTable(other).determinize(MAX_DFA_STATES);
+        }
+        Dfa dfa = automaton instanceof Dfa
+            ? (Dfa) automaton : ((Nfa) automaton).determinize(MAX_DFA_STATES);
+        if (reporter.isCancelled()) return;
+
+        EquivalenceResult equivalence = EquivalenceChecker.equivalence(dfa, other);
+        StringBuilder result = new StringBuilder("Comparison Result: ");
+        if (equivalence.holds()) {
+            result.append("✅ EQUIVALENT\nBoth automata accept exactly the same strings\n");
+        } else {
+            result.append("❌ DIFFERENT\n");
+            result.append("Shortest difference: ").append(describe(equivalence.counterexampleText()))
+                  .append(equivalence.acceptedByFirst()
+                      ? " is accepted by this automaton only\n" : " is accepted by the file only\n");
+            if (reporter.isCancelled()) return;
+            boolean thisInFile = EquivalenceChecker.inclusion(dfa, other).holds();
+            boolean fileInThis = EquivalenceChecker.inclusion(other, dfa).holds();
+            if (thisInFile) {
+                result.append("Every string this automaton accepts, the file accepts too\n");
+            } else if (fileInThis) {
+                result.append("Every string the file accepts, this automaton accepts too\n");
+            } else {
+                result.append("Each accepts strings the other rejects\n");
+            }
+        }
+        result.append("\nChecked ").append(equivalence.pairsExplored()).append(" state pairs in ")
+              .append(equivalence.elapsedNanos() / 1_000_000).append(" ms");
+        reporter.finish(null, result.toString());
+    }
+
+    private static String describe(String word) {
+        return word.isEmpty() ? "the empty input" : "\"" + word + "\"";
+    }
+}
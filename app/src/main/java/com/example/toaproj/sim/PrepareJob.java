@@ -0,0 +1,52 @@
+package com.example.toaproj.sim;
+
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.MinimizationResult;
+import com.example.toaproj.engine.Minimizer;
+import com.example.toaproj.engine.Nfa;
+import com.example.toaproj.engine.Reachability;
+import com.example.toaproj.engine.TrimResult;
+
+/**
+ * Minimizes or trims an automaton before it is tested, off the main thread: a large
+ * imported table, or an epsilon table whose subsets blow up, would otherwise freeze the
+ * screen. The prepared {@link Dfa} is delivered as the final snapshot's result, with the
+ * summary as its text, or null text when nothing changed; a hit cap arrives as its error.
+ */
+public final class PrepareJob implements SimulationRunner.Job {
+
+    private static final int MAX_DETERMINIZED_STATES = 1 << 16;
+
+    private final Dfa automaton;
+    private final boolean minimize;
+    private final boolean trim;
+
+    /** @param trim ignored when {@code minimize} is set, which already drops those states */
+    public PrepareJob(Dfa automaton, boolean minimize, boolean trim) {
+        this.automaton = automaton;
+        this.minimize = minimize;
+        this.trim = trim;
+    }
+
+    @Override
+    public void run(SimulationRunner.Reporter reporter) {
+        Dfa prepared = automaton;
+        String summary = null;
+        if (minimize) {
+            Dfa dfa = Nfa.usesEpsilon(automaton)
+                ? Nfa.fromTable(automaton).determinize(MAX_DETERMINIZED_STATES)
+                : automaton;
+            if (reporter.isCancelled()) return;
+            MinimizationResult result = Minimizer.minimize(dfa);
+            prepared = result.minimized();
+            summary = result.summary();
+        } else if (trim) {
+            // Works on epsilon tables too: ε moves are edges like any other
+            TrimResult result = Reachability.trim(automaton);
+            prepared = result.trimmed();
+            if (result.changed()) summary = result.summary();
+        }
+        if (reporter.isCancelled()) return;
+        reporter.finishWith(prepared, summary);
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.toaproj.sim;
+
+import com.example.toaproj.engine.RegexCompilation;
+import com.example.toaproj.engine.RegexCompiler;
+
+/**
+ * Compiles a regular expression off the main thread. Subset construction can blow up
+ * exponentially, e.g. {@code (a|b)*a(a|b){n}}, so it is capped at {@code maxStates} and
+ * stops when the runner cancels the job. The {@link RegexCompilation} is delivered as the
+ * final snapshot's result; a malformed pattern or a hit cap arrives as its error.
+ */
+public final class RegexJob implements SimulationRunner.Job {
+
+    private final String pattern;
+    private final int maxStates;
+
+    public RegexJob(String pattern, int maxStates) {
+        this.pattern = pattern;
+        this.maxStates = maxStates;
+    }
+
+    @Override
+    public void run(SimulationRunner.Reporter reporter) {
+        RegexCompilation result = RegexCompiler.compile(pattern, null, maxStates);
+        if (reporter.isCancelled()) return;
+        reporter.finishWith(result, result.summary());
+    }
+}
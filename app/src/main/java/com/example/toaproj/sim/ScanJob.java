@@ -0,0 +1,102 @@
+package com.example.toaproj.sim;
+
+import android.content.ContentResolver;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+
+import com.example.toaproj.engine.Automaton;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.ExecutionTrace;
+import com.example.toaproj.engine.MultiPatternMatcher;
+import com.example.toaproj.engine.Nfa;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collections;
+import java.util.Locale;
+
+/**
+ * Searches a text file for every position where the automaton accepts a substring ending
+ * there. The file is memory-mapped window by window and never copied; matches are counted
+ * as they are found and only the first few offsets are kept for display.
+ *
+ * <p>Each byte of the file is one input symbol, so every symbol of the automaton must be
+ * a single character; an NFA is determinized first.
+ */
+public final class ScanJob implements SimulationRunner.Job {
+
+    /** Subset construction limit when the automaton under test is an NFA. */
+    private static final int MAX_DFA_STATES = 10_000;
+    private static final long MAP_WINDOW = 8L << 20;
+    /** Bytes fed between cancellation checks. */
+    private static final int SLICE = 1 << 20;
+    private static final int SHOWN_MATCHES = 100;
+
+    private final ContentResolver resolver;
+    private final Uri file;
+    private final Automaton automaton;
+    private final ExecutionTrace trace;
+
+    /** @param trace cleared, since a scan has no step trace */
+    public ScanJob(ContentResolver resolver, Uri file, Automaton automaton, ExecutionTrace trace) {
+        this.resolver = resolver;
+        this.file = file;
+        this.automaton = automaton;
+        this.trace = trace;
+    }
+
+    @Override
+    public void run(SimulationRunner.Reporter reporter) throws IOException {
+        trace.clear();
+        Dfa dfa = automaton instanceof Dfa
+            ? (Dfa) automaton : ((Nfa) automaton).determinize(MAX_DFA_STATES);
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Collections.singletonList(dfa));
+
+        StringBuilder shown = new StringBuilder();
+        long[] count = new long[1];
+        MultiPatternMatcher.MatchListener listener = (end, pattern) -> {
+            if (count[0]++ < SHOWN_MATCHES) {
+                shown.append("Match ending at byte ").append(end).append("\n");
+            }
+        };
+
+        long begin = System.nanoTime();
+        long size;
+        try (ParcelFileDescriptor descriptor = resolver.openFileDescriptor(file, "r");
+             FileInputStream input = new FileInputStream(descriptor.getFileDescriptor());
+             FileChannel channel = input.getChannel()) {
+            size = channel.size();
+            for (long pos = 0; pos < size; pos += MAP_WINDOW) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, pos,
+                    Math.min(MAP_WINDOW, size - pos));
+                for (int limit = 0; limit < window.capacity(); ) {
+                    if (reporter.isCancelled()) return;
+                    limit = Math.min(limit + SLICE, window.capacity());
+                    window.limit(limit);
+                    matcher.feed(window, listener);
+                    if (reporter.frameDue()) {
+                        reporter.publish(null, "Scanning: " + formatMegabytes(matcher.offset())
+                            + " of " + formatMegabytes(size) + ", " + count[0] + " matches\n");
+                    }
+                }
+            }
+        }
+
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        StringBuilder result = new StringBuilder();
+        result.append("Scan Result: ").append(count[0]).append(" matches in ")
+              .append(formatMegabytes(size)).append(" at ")
+              .append(seconds > 0 ? formatMegabytes((long) (size / seconds)) : "-").append("/s\n\n");
+        result.append(shown);
+        if (count[0] > SHOWN_MATCHES) {
+            result.append("... ").append(count[0] - SHOWN_MATCHES).append(" more\n");
+        }
+        reporter.finish(null, result.toString());
+    }
+
+    private static String formatMegabytes(long bytes) {
+        return String.format(Locale.US, "%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+}
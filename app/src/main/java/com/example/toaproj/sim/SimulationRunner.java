@@ -0,0 +1,322 @@
+package com.example.toaproj.sim;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.Lifecycle;
+import androidx.lifecycle.LifecycleOwner;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs simulation jobs off the main thread, one at a time, and hands their progress to
+ * the UI at most once per frame.
+ *
+ * <p>Jobs run on a small executor shared by the whole app; its threads time out when
+ * idle. Starting a job cancels the previous one (its token flips and its thread is
+ * interrupted, which ends any step delay) and waits for it to finish, so jobs never
+ * share a stateful {@code Simulation} concurrently. A run superseded while still queued
+ * is dropped without taking a thread; the next one waits on whatever it was waiting on.
+ *
+ * <p>A job {@link Reporter#publish publishes} snapshots as often as it likes; only the
+ * latest is kept, and one Choreographer callback delivers it on the next frame. A job
+ * that steps without delay can ask {@link Reporter#frameDue()} before building a snapshot,
+ * so it only pays for one per frame.
+ *
+ * <p>The listener is bound to a {@link LifecycleOwner} and dropped when that owner is
+ * destroyed, so a runner kept in a ViewModel never holds on to a dead activity; the next
+ * activity re-binds and immediately gets the latest snapshot. Call {@link #shutdown} when
+ * the runner itself goes away.
+ */
+public final class SimulationRunner {
+
+    /** Work run by the runner. Implementations must not capture an activity. */
+    public interface Job {
+        void run(Reporter reporter) throws Exception;
+    }
+
+    /** Receives progress on the main thread. */
+    public interface Listener {
+        void onProgress(Progress progress);
+    }
+
+    /** The job's view of its run. */
+    public interface Reporter {
+        /** True once the run was cancelled; jobs should return promptly. */
+        boolean isCancelled();
+
+        /** True if the last published snapshot has been delivered, so a new one will be seen. */
+        boolean frameDue();
+
+        /** Replaces the pending snapshot. {@code activeStates} and {@code text} must not be changed afterwards. */
+        void publish(int[] activeStates, CharSequence text);
+
+        /** Publishes the final snapshot; call it as the job's last action. */
+        void finish(int[] activeStates, CharSequence text);
+
+        /** As {@link #finish}, for a job that computes {@code result} rather than simulating. */
+        void finishWith(Object result, CharSequence text);
+
+        /** Sleeps for the step delay; returns immediately for zero. Throws if cancelled. */
+        void pause(long millis) throws InterruptedException;
+    }
+
+    /** An immutable snapshot of a run. */
+    public static final class Progress {
+        public final int[] activeStates;   // null if the job does not highlight states
+        public final CharSequence text;
+        public final boolean finished;
+        public final Throwable error;      // set when the job failed
+        public final Object result;        // set by finishWith
+        final Run run;
+
+        Progress(Run run, int[] activeStates, CharSequence text, boolean finished, Throwable error,
+                 Object result) {
+            this.run = run;
+            this.activeStates = activeStates;
+            this.text = text;
+            this.finished = finished;
+            this.error = error;
+            this.result = result;
+        }
+    }
+
+    private static final int MAX_THREADS = 2;
+    private static final int MAX_QUEUED = 8;
+    private static final ThreadPoolExecutor EXECUTOR = createExecutor();
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicReference<Progress> latest = new AtomicReference<>();
+    private final AtomicBoolean frameScheduled = new AtomicBoolean();
+    private final Choreographer.FrameCallback deliverFrame = frameTimeNanos -> deliver();
+    private final Runnable scheduleFrame = () -> Choreographer.getInstance().postFrameCallback(deliverFrame);
+
+    // Main-thread state
+    private Run current;
+    private Listener listener;
+    private LifecycleOwner listenerOwner;
+    private boolean running;
+    private final DefaultLifecycleObserver unbindOnDestroy = new DefaultLifecycleObserver() {
+        @Override
+        public void onDestroy(LifecycleOwner owner) {
+            if (owner == listenerOwner) {
+                clearListener();
+            }
+        }
+    };
+
+    private static ThreadPoolExecutor createExecutor() {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS,
+            30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(MAX_QUEUED), runnable -> {
+                Thread thread = new Thread(runnable, "automaton-simulation");
+                thread.setDaemon(true);
+                return thread;
+            });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Delivers progress to {@code listener} until {@code owner} is destroyed. If a snapshot
+     * is already available it is delivered on the next frame.
+     */
+    public void setListener(LifecycleOwner owner, Listener listener) {
+        clearListener();
+        if (owner.getLifecycle().getCurrentState() == Lifecycle.State.DESTROYED) return;
+        this.listener = listener;
+        this.listenerOwner = owner;
+        owner.getLifecycle().addObserver(unbindOnDestroy);
+        if (latest.get() != null) {
+            requestFrame();
+        }
+    }
+
+    private void clearListener() {
+        if (listenerOwner != null) {
+            listenerOwner.getLifecycle().removeObserver(unbindOnDestroy);
+        }
+        listener = null;
+        listenerOwner = null;
+    }
+
+    /** True from {@link #start} until the job's final snapshot is delivered or it is cancelled. */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Cancels any current job and starts {@code job}. Returns false if the shared executor
+     * is saturated, in which case nothing was started.
+     */
+    public boolean start(Job job) {
+        Run previous = current;
+        cancel();
+        Run run = new Run(job, previous);
+        try {
+            EXECUTOR.execute(run);
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+        current = run;
+        running = true;
+        latest.set(null);
+        return true;
+    }
+
+    /**
+     * Drops the final snapshot once it has been handled, so a listener bound after a
+     * rotation does not receive it again. Does nothing while a job is running.
+     */
+    public void clearFinished() {
+        if (!running) {
+            latest.set(null);
+        }
+    }
+
+    /** Cancels the current job; its remaining progress is discarded. */
+    public void cancel() {
+        if (current != null) {
+            current.cancel();
+            // A run still queued is dropped at once instead of taking a thread to return
+            if (EXECUTOR.remove(current)) {
+                current.done.countDown();
+            }
+        }
+        running = false;
+    }
+
+    /** Cancels the current job and drops the listener. */
+    public void shutdown() {
+        cancel();
+        current = null;
+        clearListener();
+        latest.set(null);
+        mainHandler.removeCallbacks(scheduleFrame);
+        Choreographer.getInstance().removeFrameCallback(deliverFrame);
+        frameScheduled.set(false);
+    }
+
+    private void requestFrame() {
+        if (frameScheduled.compareAndSet(false, true)) {
+            mainHandler.post(scheduleFrame);
+        }
+    }
+
+    private void deliver() {
+        // Clear first so a publish racing with this delivery schedules another frame
+        frameScheduled.set(false);
+        Progress progress = latest.get();
+        // A cancelled run can still set a snapshot after the check in publish
+        if (progress == null || progress.run != current) return;
+        if (progress.finished) {
+            running = false;
+        }
+        if (listener != null) {
+            listener.onProgress(progress);
+        }
+    }
+
+    private final class Run implements Runnable, Reporter {
+        final Job job;
+        /**
+         * The earliest run that may still be going, or null once all are done. A run that is
+         * cancelled before it gets there leaves this set, and its successor waits on it
+         * instead. Read by the successor only after {@link #done}, which publishes it.
+         */
+        private Run pending;
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean cancelled;
+        private Thread thread;   // guarded by this; set while the job runs
+
+        Run(Job job, Run previous) {
+            this.job = job;
+            this.pending = previous;
+        }
+
+        // Not a Future: a queued run that is cancelled must still count down its latch
+        synchronized void cancel() {
+            cancelled = true;
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                thread = Thread.currentThread();
+            }
+            try {
+                // A superseded run returns without waiting, so it never holds a thread
+                // just to block on its predecessor
+                while (pending != null && !cancelled) {
+                    // A cancelled job may still be unwinding; never run two at once
+                    pending.done.await();
+                    pending = pending.pending;
+                }
+                if (!cancelled) {
+                    job.run(this);
+                }
+            } catch (InterruptedException e) {
+                // Cancelled while waiting or sleeping
+            } catch (Throwable t) {
+                if (!cancelled) {
+                    publishFinal(null, null, t, null);
+                }
+            } finally {
+                synchronized (this) {
+                    thread = null;
+                }
+                done.countDown();
+            }
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        @Override
+        public boolean frameDue() {
+            return !frameScheduled.get();
+        }
+
+        @Override
+        public void publish(int[] activeStates, CharSequence text) {
+            if (cancelled) return;
+            latest.set(new Progress(this, activeStates, text, false, null, null));
+            requestFrame();
+        }
+
+        @Override
+        public void finish(int[] activeStates, CharSequence text) {
+            publishFinal(activeStates, text, null, null);
+        }
+
+        @Override
+        public void finishWith(Object result, CharSequence text) {
+            publishFinal(null, text, null, result);
+        }
+
+        /** The final snapshot is always delivered unless the run is cancelled. */
+        void publishFinal(int[] activeStates, CharSequence text, Throwable error, Object result) {
+            if (cancelled) return;
+            latest.set(new Progress(this, activeStates, text, true, error, result));
+            requestFrame();
+        }
+
+        @Override
+        public void pause(long millis) throws InterruptedException {
+            if (cancelled) throw new InterruptedException();
+            if (millis > 0) Thread.sleep(millis);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.toaproj.sim;
+
+import androidx.lifecycle.ViewModel;
+
+import com.example.toaproj.engine.Automaton;
+import com.example.toaproj.engine.ExecutionTrace;
+import com.example.toaproj.engine.SimulationMetrics;
+
+/**
+ * Keeps a {@link SimulationRunner} and the trace it fills across configuration changes,
+ * so a run started before a rotation keeps going and reports to the recreated activity.
+ * The run is cancelled when the activity finishes for good. Recorded metrics are kept
+ * here too, so the heatmap survives rotation. The trace is only allocated when first
+ * asked for, since the setup screen uses the runner alone.
+ */
+public class SimulationViewModel extends ViewModel {
+
+    private final SimulationRunner runner = new SimulationRunner();
+    private ExecutionTrace trace;
+    private SimulationMetrics metrics;
+
+    public SimulationRunner runner() {
+        return runner;
+    }
+
+    public ExecutionTrace trace() {
+        if (trace == null) {
+            trace = new ExecutionTrace();
+        }
+        return trace;
+    }
+
+    /** Metrics for {@code automaton}, created on first use and replaced if it changes. */
+    public SimulationMetrics metrics(Automaton automaton) {
+        if (metrics == null || metrics.automaton() != automaton) {
+            metrics = new SimulationMetrics(automaton, new ArtMemoryProbe());
+        }
+        return metrics;
+    }
+
+    @Override
+    protected void onCleared() {
+        runner.shutdown();
+    }
+}
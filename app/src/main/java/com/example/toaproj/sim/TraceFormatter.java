@@ -0,0 +1,74 @@
+package com.example.toaproj.sim;
+
+import com.example.toaproj.engine.Automaton;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.ExecutionTrace;
+import com.example.toaproj.engine.Simulation;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Turns {@link ExecutionTrace} records back into trace lines. Only the rows being shown
+ * or exported are ever formatted.
+ *
+ * <p>A {@link Dfa}'s state ordinals are stable and recorded as they are; any other
+ * simulation records interned labels (see {@link #stateId}), since a lazy DFA reuses the
+ * handles of evicted states.
+ */
+public final class TraceFormatter {
+
+    private final Automaton automaton;
+    private final ExecutionTrace trace;
+    private final Dfa dfa;   // null when the trace holds labels
+    private final int[] record = new int[3];
+
+    public TraceFormatter(Automaton automaton, Simulation simulation, ExecutionTrace trace) {
+        this.automaton = automaton;
+        this.trace = trace;
+        this.dfa = simulation instanceof Dfa ? (Dfa) simulation : null;
+    }
+
+    /** The id to record for a simulation state. Call from the thread running the simulation. */
+    int stateId(Simulation simulation, int state) {
+        if (dfa != null) return state;
+        return trace.label(simulation.describe(state), simulation.isAccepting(state));
+    }
+
+    /**
+     * Appends step {@code step} (counting from 0) as {@code Step n: from --(symbol)--> to}.
+     * Returns false, appending nothing, if the step is no longer in the trace.
+     */
+    public boolean appendStep(StringBuilder out, long step) {
+        // Labels are freed as steps are overwritten, so resolve them under the same lock
+        synchronized (trace) {
+            if (!trace.read(step, record)) return false;
+            int from = record[0], symbol = record[1], to = record[2];
+            out.append("Step ").append(step + 1).append(": ").append(stateName(from))
+               .append(" --(").append(automaton.symbolName(symbol)).append(")--> ").append(stateName(to));
+            if (dfa != null ? dfa.isAccepting(to) : trace.isAcceptingLabel(to)) {
+                out.append(" (Final State)");
+            }
+            return true;
+        }
+    }
+
+    /** Writes every retained step, one per line; returns how many were written. */
+    public long writeTo(Writer writer, SimulationRunner.Reporter reporter) throws IOException {
+        StringBuilder line = new StringBuilder();
+        long written = 0;
+        for (long step = trace.firstRetained(), end = trace.steps(); step < end; step++) {
+            if ((step & 4095) == 0 && reporter.isCancelled()) break;
+            line.setLength(0);
+            if (appendStep(line, step)) {
+                writer.append(line).append('\n');
+                written++;
+            }
+        }
+        return written;
+    }
+
+    private String stateName(int id) {
+        return dfa != null ? dfa.stateName(id) : trace.labelName(id);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.toaproj.sim;
+
+import com.example.toaproj.engine.Automaton;
+import com.example.toaproj.engine.BatchResult;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.ExecutionTrace;
+import com.example.toaproj.engine.Simulation;
+import com.example.toaproj.engine.SimulationMetrics;
+import com.example.toaproj.engine.SymbolScanner;
+
+import java.io.IOException;
+
+/**
+ * Step-by-step run of one input sequence, highlighting the active states as it goes.
+ * Each step is one record in an {@link ExecutionTrace}, which the UI formats only for
+ * the rows on screen; the published text is just a short summary. With a step delay
+ * every step is shown; with none, the UI only sees the step current at each frame.
+ * A run that enters a dead state, from which no final state can be reached, is rejected
+ * there without reading the rest of the input.
+ *
+ * <p>With a {@link SimulationMetrics} the run is also recorded as one run of one sequence,
+ * whose timing includes any step delay; without one, the loop does a single null check
+ * per step.
+ */
+public final class TraceJob implements SimulationRunner.Job {
+
+    private final Automaton automaton;
+    private final Simulation simulation;
+    private final ExecutionTrace trace;
+    private final TraceFormatter formatter;
+    private final CharSequence input;
+    private final long stepDelayMillis;
+    private final SimulationMetrics metrics;
+
+    /**
+     * @param simulation must not be used by anything else while the job runs; the runner
+     *                   never runs two jobs at once
+     * @param trace      cleared and then filled with one record per step
+     * @param metrics    receives the run, or null when instrumentation is off
+     */
+    public TraceJob(Automaton automaton, Simulation simulation, ExecutionTrace trace,
+                    TraceFormatter formatter, CharSequence input, long stepDelayMillis,
+                    SimulationMetrics metrics) {
+        this.automaton = automaton;
+        this.simulation = simulation;
+        this.trace = trace;
+        this.formatter = formatter;
+        this.input = input.toString();
+        this.stepDelayMillis = stepDelayMillis;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void run(SimulationRunner.Reporter reporter) throws IOException, InterruptedException {
+        trace.clear();
+        int currentState = simulation.start();
+        int currentId = formatter.stateId(simulation, currentState);
+        String header = "Step-by-step execution:\nSTART → " + simulation.describe(currentState) + "\n";
+        reporter.publish(simulation.activeStates(currentState), header);
+
+        SimulationMetrics.Recorder recorder = null;
+        if (metrics != null) {
+            metrics.beginRun();
+            recorder = metrics.open();
+            recorder.begin();
+            visit(recorder, currentState);
+        }
+        try {
+            run(reporter, header, currentState, currentId, recorder);
+        } finally {
+            if (recorder != null) {
+                recorder.close();
+                metrics.endRun();
+            }
+        }
+    }
+
+    private void run(SimulationRunner.Reporter reporter, String header, int currentState,
+                     int currentId, SimulationMetrics.Recorder recorder)
+            throws IOException, InterruptedException {
+        SymbolScanner scanner = new SymbolScanner(automaton).reset(input);
+        String invalid = null;
+        boolean dead = false;
+        int symbol;
+        while ((symbol = scanner.next()) != SymbolScanner.END) {
+            if (reporter.isCancelled()) return;
+            if (recorder != null && symbol >= 0) {
+                read(recorder, currentState, symbol);
+            }
+            int nextState = symbol < 0 ? Simulation.NO_STATE : simulation.step(currentState, symbol);
+            if (nextState == Simulation.NO_STATE) {
+                invalid = "❌ Invalid input '" + scanner.lastToken()
+                    + "' for state '" + simulation.describe(currentState) + "'\n";
+                break;
+            }
+            int nextId = nextState == currentState ? currentId : formatter.stateId(simulation, nextState);
+            trace.record(currentId, symbol, nextId);
+            currentState = nextState;
+            currentId = nextId;
+            if (recorder != null) {
+                visit(recorder, currentState);
+            }
+            if (simulation.isDead(currentState)) {
+                dead = true;
+                break;
+            }
+
+            // Without a delay, skip snapshots the UI would never see
+            if (stepDelayMillis > 0 || reporter.frameDue()) {
+                reporter.publish(simulation.activeStates(currentState),
+                    header + "Running: " + trace.steps() + " steps\n");
+            }
+            reporter.pause(stepDelayMillis);
+        }
+
+        boolean accepted = invalid == null && simulation.isAccepting(currentState);
+        if (recorder != null) {
+            recorder.end(invalid != null ? BatchResult.INVALID
+                : accepted ? BatchResult.ACCEPTED : BatchResult.REJECTED);
+        }
+
+        StringBuilder result = new StringBuilder(header);
+        long steps = trace.steps();
+        result.append(steps).append(" steps");
+        if (trace.firstRetained() > 0) {
+            result.append(" (showing the last ").append(trace.capacity()).append(")");
+        }
+        result.append("\n");
+        if (invalid != null) {
+            result.append(invalid);
+        }
+        if (dead) {
+            result.append("No final state is reachable from '").append(simulation.describe(currentState))
+                  .append("', so the rest of the input was skipped\n");
+        }
+        result.append("Final Result: ");
+        if (accepted) {
+            result.append("✅ ACCEPTED\n");
+            result.append("Input sequence reached final state: ").append(simulation.describe(currentState));
+        } else {
+            result.append("❌ REJECTED\n");
+            if (invalid == null && !dead) {
+                result.append("Stopped at non-final state: ").append(simulation.describe(currentState));
+            }
+        }
+        reporter.finish(simulation.activeStates(currentState), result.toString());
+    }
+
+    /** A DFA state handle is the state itself; an NFA's is a cached subset. */
+    private void visit(SimulationMetrics.Recorder recorder, int state) {
+        if (simulation instanceof Dfa) {
+            recorder.visit(state);
+        } else {
+            recorder.visitAll(simulation.activeStates(state));
+        }
+    }
+
+    private void read(SimulationMetrics.Recorder recorder, int state, int symbol) {
+        if (simulation instanceof Dfa) {
+            recorder.read(state, symbol);
+        } else {
+            recorder.readAll(simulation.activeStates(state), symbol);
+        }
+    }
+}
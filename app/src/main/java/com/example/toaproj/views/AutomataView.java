@@ -2,30 +2,141 @@ package com.example.toaproj.views;
 
 import android.content.Context;
 import android.graphics.Canvas;
+import android.graphics.ColorFilter;
 import android.graphics.Paint;
-import android.graphics.Path;
+import android.graphics.Picture;
+import android.graphics.PixelFormat;
+import android.graphics.drawable.Drawable;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
 import android.view.View;
 import android.graphics.Color;
 import android.util.AttributeSet;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
+
+import com.example.toaproj.engine.Automaton;
+import com.example.toaproj.engine.layout.CircularLayout;
+import com.example.toaproj.engine.layout.ForceLayout;
+import com.example.toaproj.engine.layout.SpatialGrid;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class AutomataView extends View {
-    private Paint statePaint, textPaint, arrowPaint, highlightPaint;
-    private HashMap<String, Float[]> statePositions = new HashMap<>();
-    private HashMap<String, HashMap<String, String>> transitions;
-    private String currentState;
-    private HashSet<String> finalStates;
-    
+    private Paint statePaint, farStatePaint, textPaint, arrowPaint, highlightPaint;
+    private float[] stateX = new float[0];
+    private float[] stateY = new float[0];
+    private Automaton automaton;
+    private int[] edges = new int[0];
+    private final BitSet activeStates = new BitSet();
+    private String[] stateLabels = new String[0];
+
+    // Edge geometry, rebuilt only when the automaton or the view size changes. Parallel
+    // edges (same source and target) are merged into one with a combined label.
+    private int edgeCount;
+    private int[] edgeFrom = new int[0];
+    private int[] edgeTo = new int[0];
+    private float[] edgeLines = new float[0];   // startX, startY, endX, endY per edge
+    private float[] arrowLines = new float[0];  // three segments of the arrow head per edge
+    private float[] labelXY = new float[0];     // label anchor per edge
+    private String[] edgeLabels = new String[0];
+    private final HighlightLayer highlightLayer = new HighlightLayer();
+
+    // Visit heatmap: a tint level per state (-1 for never visited), or null when off.
+    // Part of the recorded graph, since it changes once per run rather than per step
+    private static final int HEAT_LEVELS = 8;
+    private static final int HEAT_COOL = 0xFFFFF59D;
+    private static final int HEAT_HOT = 0xFFE53935;
+    private byte[] heatLevels;
+    private Paint[] heatFillPaints, heatPointPaints;
+
+    // Static graph recorded for a padded world rectangle at one level of detail and
+    // replayed while the viewport stays inside it; re-recorded when geometry changes
+    private final Picture graphPicture = new Picture();
+    private boolean pictureValid;
+    private boolean pictureDetailed;
+    private final RecordedArea pictureArea = new RecordedArea();
+    private float[] lineBatch = new float[0];   // visible edge and arrow segments for drawLines
+    private float[] pointBatch = new float[0];  // visible state centres for drawPoints
+
+    // Culling: grids over states and edges in world coordinates, and scratch id buffers
+    private SpatialGrid stateGrid;
+    private SpatialGrid edgeGrid;
+    private int[] visibleStates = new int[0];
+    private int[] visibleEdges = new int[0];
+
+    // View transform: screen = world * scale + offset
+    private float scale = 1f;
+    private float offsetX, offsetY;
+    private float fitScale = 1f;
+    private float worldWidth, worldHeight;
+    private boolean viewMoved; // panned or zoomed since the last fit
+    private final ScaleGestureDetector scaleDetector;
+    private final GestureDetector panDetector;
+
+    // Layout: circular, or force-directed computed off the UI thread
+    public static final int LAYOUT_CIRCULAR = 0;
+    public static final int LAYOUT_FORCE = 1;
+    private static final long LAYOUT_SEED = 42L;
+    private static final int MAX_LAYOUT_ITERATIONS = 500;
+    private static final long LAYOUT_PUBLISH_INTERVAL_NANOS = 100_000_000L;
+    private static final ExecutorService LAYOUT_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "automaton-layout");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private int layoutMode = LAYOUT_CIRCULAR;
+    private float[] forceX, forceY;   // latest published force layout, null until the first
+    private Future<?> layoutTask;
+    private int layoutGeneration;     // bumped to discard results of a cancelled task
+
     // Constants for drawing
     private static final float STATE_RADIUS = 80f;
+    private static final float STATE_GAP = 40f;
     private static final float ARROW_HEAD_SIZE = 30f;
     private static final float LABEL_OFFSET = 20f;
+    private static final float ARROW_HEAD_ANGLE = (float) Math.toRadians(30);
+    private static final float MAX_SCALE = 4f;
+    // Below this scale labels, arrow heads, final-state rings and shadows are skipped
+    private static final float DETAIL_MIN_SCALE = 0.3f;
+    private static final int MAX_GRID_CELLS_PER_SIDE = 128;
 
     public AutomataView(Context context, AttributeSet attrs) {
         super(context, attrs);
         setupPaints();
+        getOverlay().add(highlightLayer);
+        scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                zoomBy(detector.getScaleFactor(), detector.getFocusX(), detector.getFocusY());
+                return true;
+            }
+        });
+        panDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                offsetX -= distanceX;
+                offsetY -= distanceY;
+                viewMoved = true;
+                transformChanged();
+                return true;
+            }
+
+            @Override
+            public boolean onDoubleTap(MotionEvent e) {
+                fitToView();
+                return true;
+            }
+        });
     }
 
     private void setupPaints() {
@@ -35,6 +146,12 @@ public class AutomataView extends View {
         statePaint.setStyle(Paint.Style.FILL);
         statePaint.setShadowLayer(5, 0, 0, Color.GRAY);
 
+        // Zoomed-out state paint: flat, no shadow; states are drawn as round points
+        farStatePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        farStatePaint.setColor(Color.LTGRAY);
+        farStatePaint.setStrokeWidth(2 * STATE_RADIUS);
+        farStatePaint.setStrokeCap(Paint.Cap.ROUND);
+
         // Text paint for labels
         textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         textPaint.setColor(Color.BLACK);
@@ -52,127 +169,479 @@ public class AutomataView extends View {
         highlightPaint.setColor(Color.parseColor("#4CAF50"));
         highlightPaint.setStyle(Paint.Style.STROKE);
         highlightPaint.setStrokeWidth(8f);
+
+        // Heatmap tints from pale yellow (rarely visited) to red (most visited)
+        heatFillPaints = new Paint[HEAT_LEVELS];
+        heatPointPaints = new Paint[HEAT_LEVELS];
+        for (int level = 0; level < HEAT_LEVELS; level++) {
+            int color = blend(HEAT_COOL, HEAT_HOT, level / (float) (HEAT_LEVELS - 1));
+            heatFillPaints[level] = new Paint(Paint.ANTI_ALIAS_FLAG);
+            heatFillPaints[level].setColor(color);
+            heatFillPaints[level].setStyle(Paint.Style.FILL);
+            heatPointPaints[level] = new Paint(farStatePaint);
+            heatPointPaints[level].setColor(color);
+        }
     }
 
-    public void setAutomata(HashMap<String, HashMap<String, String>> transitions,
-                           HashSet<String> finalStates, String initialState) {
-        this.transitions = transitions;
-        this.finalStates = finalStates;
-        this.currentState = initialState;
+    private static int blend(int from, int to, float t) {
+        int r = Math.round(Color.red(from) + (Color.red(to) - Color.red(from)) * t);
+        int g = Math.round(Color.green(from) + (Color.green(to) - Color.green(from)) * t);
+        int b = Math.round(Color.blue(from) + (Color.blue(to) - Color.blue(from)) * t);
+        return Color.rgb(r, g, b);
+    }
+
+    public void setAutomata(Automaton automaton) {
+        cancelForceLayout();
+        this.automaton = automaton;
+        this.edges = automaton.edges();
+        forceX = forceY = null;
+        heatLevels = null;
+        viewMoved = false;
+        activeStates.clear();
+        activeStates.set(automaton.initialState());
+        mergeEdges();
         calculateStatePositions();
+        if (layoutMode == LAYOUT_FORCE) {
+            startForceLayout();
+        }
         invalidate();
+        highlightLayer.invalidateSelf();
     }
 
-    public void setCurrentState(String state) {
-        this.currentState = state;
+    public void setCurrentState(int state) {
+        activeStates.clear();
+        if (state >= 0) {
+            activeStates.set(state);
+        }
+        highlightLayer.invalidateSelf();
+    }
+
+    /** Highlights every state in {@code states}, for nondeterministic runs. */
+    public void setActiveStates(int[] states) {
+        activeStates.clear();
+        for (int state : states) {
+            activeStates.set(state);
+        }
+        highlightLayer.invalidateSelf();
+    }
+
+    /**
+     * Tints each state by how often it was visited, on a log scale so a few hot states do
+     * not wash out the rest; unvisited states stay white. Null, or counts that do not match
+     * the automaton, turn the heatmap off.
+     */
+    public void setHeatmap(long[] visits) {
+        if (visits == null || automaton == null || visits.length != automaton.stateCount()) {
+            if (heatLevels == null) return;
+            heatLevels = null;
+        } else {
+            long max = 0;
+            for (long count : visits) max = Math.max(max, count);
+            double top = Math.log1p(max);
+            heatLevels = new byte[visits.length];
+            for (int state = 0; state < visits.length; state++) {
+                heatLevels[state] = visits[state] == 0 ? -1
+                    : (byte) Math.min(HEAT_LEVELS - 1, (int) (HEAT_LEVELS * Math.log1p(visits[state]) / top));
+            }
+        }
+        pictureValid = false;
         invalidate();
     }
 
+    /**
+     * Places the states and rebuilds everything derived from their positions. The
+     * circular layout uses a circle big enough that neighbours do not overlap: small
+     * automata fit the view as before, larger ones get a bigger world that the view
+     * zooms out to fit. The force layout uses the latest positions published by the
+     * background task, falling back to the circle until the first arrives.
+     */
     private void calculateStatePositions() {
-        if (transitions == null) return;
-        
-        statePositions.clear();
-        int numStates = transitions.size();
-        float centerX = getWidth() / 2f;
-        float centerY = getHeight() / 2f;
-        float radius = Math.min(centerX, centerY) - STATE_RADIUS - 50;
-        
-        int i = 0;
-        for (String state : transitions.keySet()) {
-            float angle = (float) (2 * Math.PI * i / numStates - Math.PI / 2);
-            float x = centerX + radius * (float) Math.cos(angle);
-            float y = centerY + radius * (float) Math.sin(angle);
-            statePositions.put(state, new Float[]{x, y});
-            i++;
+        if (automaton == null) return;
+
+        int numStates = automaton.stateCount();
+        if (stateX.length != numStates) {
+            stateX = new float[numStates];
+            stateY = new float[numStates];
+            stateLabels = new String[numStates];
+            visibleStates = new int[numStates];
+            pointBatch = new float[numStates * 2];
+        }
+        for (int state = 0; state < numStates; state++) {
+            stateLabels[state] = automaton.stateName(state);
+        }
+
+        float margin = STATE_RADIUS + 50;
+        if (layoutMode == LAYOUT_FORCE && forceX != null) {
+            System.arraycopy(forceX, 0, stateX, 0, numStates);
+            System.arraycopy(forceY, 0, stateY, 0, numStates);
+            worldWidth = 0f;
+            worldHeight = 0f;
+            for (int state = 0; state < numStates; state++) {
+                worldWidth = Math.max(worldWidth, stateX[state] + margin);
+                worldHeight = Math.max(worldHeight, stateY[state] + margin);
+            }
+        } else {
+            float needed = 0f;
+            if (numStates > 2) {
+                float ring = (2 * STATE_RADIUS + STATE_GAP) / (2f * (float) Math.sin(Math.PI / numStates));
+                needed = 2 * (ring + margin);
+            }
+            worldWidth = Math.max(getWidth(), needed);
+            worldHeight = Math.max(getHeight(), needed);
+            CircularLayout.layout(numStates, worldWidth, worldHeight, margin, stateX, stateY);
+        }
+        stateGrid = SpatialGrid.ofCircles(stateX, stateY, numStates, STATE_RADIUS + 10,
+            cellsPerSide(numStates));
+        calculateEdgeGeometry();
+        if (!viewMoved) {
+            fitToView();
+        } else {
+            transformChanged();
         }
     }
 
-    @Override
-    protected void onDraw(Canvas canvas) {
-        super.onDraw(canvas);
-        if (transitions == null) return;
+    private static int cellsPerSide(int items) {
+        return Math.max(1, Math.min(MAX_GRID_CELLS_PER_SIDE, (int) Math.sqrt(items)));
+    }
 
-        // Draw transitions (arrows)
-        for (Map.Entry<String, HashMap<String, String>> fromState : transitions.entrySet()) {
-            String from = fromState.getKey();
-            for (Map.Entry<String, String> transition : fromState.getValue().entrySet()) {
-                drawTransition(canvas, from, transition.getValue(), transition.getKey());
+    /**
+     * Merges parallel edges (same source and target) into one with a combined label.
+     * Depends only on the automaton, so it runs once per {@link #setAutomata}.
+     */
+    private void mergeEdges() {
+        // Sort by (from, to, symbol) so parallel edges are adjacent. States and symbols
+        // each fit in 21 bits for anything that can be drawn; the symbol is stored plus
+        // one so that epsilon (-1) sorts first
+        int rawCount = edges.length / 3;
+        long[] keys = new long[rawCount];
+        for (int i = 0; i < rawCount; i++) {
+            keys[i] = ((long) edges[i * 3] << 42) | ((long) edges[i * 3 + 2] << 21) | (edges[i * 3 + 1] + 1);
+        }
+        Arrays.sort(keys);
+        int merged = 0;
+        for (int i = 0; i < rawCount; i++) {
+            if (i == 0 || keys[i] >>> 21 != keys[i - 1] >>> 21) merged++;
+        }
+
+        edgeCount = merged;
+        edgeFrom = new int[edgeCount];
+        edgeTo = new int[edgeCount];
+        edgeLines = new float[edgeCount * 4];
+        arrowLines = new float[edgeCount * 12];
+        labelXY = new float[edgeCount * 2];
+        edgeLabels = new String[edgeCount];
+        visibleEdges = new int[edgeCount];
+        lineBatch = new float[edgeCount * 16];
+        StringBuilder label = new StringBuilder();
+        int edge = 0;
+        for (int i = 0; i < rawCount; i++) {
+            int symbol = ((int) keys[i] & 0x1FFFFF) - 1;
+            if (label.length() > 0) label.append(',');
+            label.append(automaton.symbolName(symbol));
+            if (i + 1 < rawCount && keys[i + 1] >>> 21 == keys[i] >>> 21) {
+                continue;
             }
+            edgeFrom[edge] = (int) (keys[i] >>> 42);
+            edgeTo[edge] = (int) (keys[i] >>> 21) & 0x1FFFFF;
+            edgeLabels[edge++] = label.toString();
+            label.setLength(0);
         }
+    }
 
-        // Draw states
-        for (Map.Entry<String, Float[]> state : statePositions.entrySet()) {
-            drawState(canvas, state.getKey(), state.getValue()[0], state.getValue()[1]);
+    /**
+     * Precomputes every edge's clipped line, label anchor and arrow head from the state
+     * positions, so onDraw only replays arrays.
+     */
+    private void calculateEdgeGeometry() {
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int from = edgeFrom[edge], to = edgeTo[edge];
+            float angle = (float) Math.atan2(stateY[to] - stateY[from], stateX[to] - stateX[from]);
+            float cos = (float) Math.cos(angle), sin = (float) Math.sin(angle);
+
+            // Start and end on the circle edges
+            float startX = stateX[from] + STATE_RADIUS * cos;
+            float startY = stateY[from] + STATE_RADIUS * sin;
+            float endX = stateX[to] - STATE_RADIUS * cos;
+            float endY = stateY[to] - STATE_RADIUS * sin;
+            edgeLines[edge * 4] = startX;
+            edgeLines[edge * 4 + 1] = startY;
+            edgeLines[edge * 4 + 2] = endX;
+            edgeLines[edge * 4 + 3] = endY;
+
+            labelXY[edge * 2] = (startX + endX) / 2;
+            labelXY[edge * 2 + 1] = (startY + endY) / 2 - LABEL_OFFSET;
+
+            setArrowHead(edge, endX, endY, angle);
         }
+        edgeGrid = SpatialGrid.ofSegments(edgeLines, edgeCount, cellsPerSide(edgeCount));
+        pictureValid = false;
     }
 
-    private void drawState(Canvas canvas, String state, float x, float y) {
-        // Draw outer circle for final states
-        if (finalStates.contains(state)) {
-            canvas.drawCircle(x, y, STATE_RADIUS + 10, statePaint);
+    /** Stores the closed arrow head at the tip of {@code edge} as three line segments. */
+    private void setArrowHead(int edge, float tipX, float tipY, float angle) {
+        float x1 = tipX - ARROW_HEAD_SIZE * (float) Math.cos(angle - ARROW_HEAD_ANGLE);
+        float y1 = tipY - ARROW_HEAD_SIZE * (float) Math.sin(angle - ARROW_HEAD_ANGLE);
+        float x2 = tipX - ARROW_HEAD_SIZE * (float) Math.cos(angle + ARROW_HEAD_ANGLE);
+        float y2 = tipY - ARROW_HEAD_SIZE * (float) Math.sin(angle + ARROW_HEAD_ANGLE);
+
+        float[] a = arrowLines;
+        int o = edge * 12;
+        a[o] = tipX; a[o + 1] = tipY; a[o + 2] = x1; a[o + 3] = y1;
+        a[o + 4] = x1; a[o + 5] = y1; a[o + 6] = x2; a[o + 7] = y2;
+        a[o + 8] = x2; a[o + 9] = y2; a[o + 10] = tipX; a[o + 11] = tipY;
+    }
+
+    /**
+     * Switches between {@link #LAYOUT_CIRCULAR} and {@link #LAYOUT_FORCE}. The force layout
+     * is computed once per automaton on a background thread; switching back and forth
+     * reuses it.
+     */
+    public void setLayoutMode(int mode) {
+        if (mode == layoutMode) return;
+        layoutMode = mode;
+        if (automaton == null) return;
+        if (mode == LAYOUT_FORCE && forceX == null && layoutTask == null) {
+            startForceLayout();
+        }
+        calculateStatePositions();
+    }
+
+    public int getLayoutMode() {
+        return layoutMode;
+    }
+
+    private void startForceLayout() {
+        final int generation = ++layoutGeneration;
+        final int count = automaton.stateCount();
+        final int[] layoutEdges = edges;
+        final float margin = STATE_RADIUS + 50;
+        layoutTask = LAYOUT_EXECUTOR.submit(() -> {
+            ForceLayout layout = new ForceLayout(count, layoutEdges, LAYOUT_SEED);
+            long published = System.nanoTime();
+            while (!layout.isSettled() && layout.iterations() < MAX_LAYOUT_ITERATIONS) {
+                if (Thread.currentThread().isInterrupted()) return;
+                layout.step();
+                // Publish intermediate positions a few times a second so the graph
+                // visibly untangles without re-laying the view out every step
+                if (System.nanoTime() - published >= LAYOUT_PUBLISH_INTERVAL_NANOS) {
+                    publishForceLayout(generation, layout, margin, false);
+                    published = System.nanoTime();
+                }
+            }
+            publishForceLayout(generation, layout, margin, true);
+        });
+    }
+
+    private void publishForceLayout(int generation, ForceLayout layout, float margin, boolean done) {
+        float[] xs = new float[layout.count()], ys = new float[layout.count()];
+        layout.copyPositions(xs, ys, margin);
+        post(() -> {
+            if (generation != layoutGeneration) return;
+            forceX = xs;
+            forceY = ys;
+            if (done) layoutTask = null;
+            if (layoutMode == LAYOUT_FORCE) calculateStatePositions();
+        });
+    }
+
+    private void cancelForceLayout() {
+        layoutGeneration++;
+        if (layoutTask != null) {
+            layoutTask.cancel(true);
+            layoutTask = null;
         }
+    }
 
-        // Draw state circle
-        canvas.drawCircle(x, y, STATE_RADIUS, statePaint);
-        
-        // Highlight current state
-        if (state.equals(currentState)) {
-            canvas.drawCircle(x, y, STATE_RADIUS, highlightPaint);
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        if (layoutTask != null) {
+            cancelForceLayout();
         }
+    }
 
-        // Draw state label
-        canvas.drawText(state, x, y + textPaint.getTextSize()/3, textPaint);
+    /** Scales and centres the whole layout in the view. */
+    public void fitToView() {
+        if (worldWidth <= 0 || worldHeight <= 0 || getWidth() == 0 || getHeight() == 0) return;
+        fitScale = Math.min(getWidth() / worldWidth, getHeight() / worldHeight);
+        scale = fitScale;
+        offsetX = (getWidth() - worldWidth * scale) / 2f;
+        offsetY = (getHeight() - worldHeight * scale) / 2f;
+        viewMoved = false;
+        transformChanged();
+    }
+
+    private void zoomBy(float factor, float focusX, float focusY) {
+        float target = Math.max(fitScale / 2f, Math.min(Math.max(MAX_SCALE, fitScale), scale * factor));
+        factor = target / scale;
+        // Keep the world point under the focus fixed
+        offsetX = focusX - (focusX - offsetX) * factor;
+        offsetY = focusY - (focusY - offsetY) * factor;
+        scale = target;
+        viewMoved = true;
+        transformChanged();
     }
 
-    private void drawTransition(Canvas canvas, String from, String to, String input) {
-        Float[] fromPos = statePositions.get(from);
-        Float[] toPos = statePositions.get(to);
-        
-        if (fromPos == null || toPos == null) return;
+    private void transformChanged() {
+        invalidate();
+        highlightLayer.invalidateSelf();
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        boolean handled = scaleDetector.onTouchEvent(event);
+        if (!scaleDetector.isInProgress()) {
+            handled |= panDetector.onTouchEvent(event);
+        }
+        return handled || super.onTouchEvent(event);
+    }
 
-        // Calculate arrow points
-        float angle = (float) Math.atan2(toPos[1] - fromPos[1], toPos[0] - fromPos[0]);
-        
-        // Adjust start and end points to start from circle edges
-        float startX = fromPos[0] + STATE_RADIUS * (float) Math.cos(angle);
-        float startY = fromPos[1] + STATE_RADIUS * (float) Math.sin(angle);
-        float endX = toPos[0] - STATE_RADIUS * (float) Math.cos(angle);
-        float endY = toPos[1] - STATE_RADIUS * (float) Math.sin(angle);
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        if (automaton == null || stateGrid == null) return;
 
-        // Draw the line
-        canvas.drawLine(startX, startY, endX, endY, arrowPaint);
+        // Visible world rectangle
+        float left = -offsetX / scale, top = -offsetY / scale;
+        float right = (getWidth() - offsetX) / scale, bottom = (getHeight() - offsetY) / scale;
+        boolean detailed = scale >= DETAIL_MIN_SCALE;
 
-        // Draw arrow head
-        drawArrowHead(canvas, endX, endY, angle);
+        if (!pictureValid || detailed != pictureDetailed
+                || !pictureArea.covers(left, top, right, bottom, worldWidth, worldHeight)) {
+            pictureArea.pad(left, top, right, bottom, worldWidth, worldHeight);
+            recordGraph(pictureArea.left(), pictureArea.top(), pictureArea.right(), pictureArea.bottom(), detailed);
+        }
 
-        // Draw transition label
-        float labelX = (startX + endX) / 2;
-        float labelY = (startY + endY) / 2 - LABEL_OFFSET;
-        canvas.drawText(input, labelX, labelY, textPaint);
+        canvas.save();
+        canvas.translate(offsetX, offsetY);
+        canvas.scale(scale, scale);
+        canvas.drawPicture(graphPicture);
+        canvas.restore();
     }
 
-    private void drawArrowHead(Canvas canvas, float tipX, float tipY, float angle) {
-        Path arrowHead = new Path();
-        float arrowAngle = (float) Math.toRadians(30); // 30 degree arrow head
+    /**
+     * Records the edges, labels and states inside the world rectangle into
+     * {@link #graphPicture}. Edge lines and arrow heads go into one batch for a single
+     * drawLines call; zoomed out, states are one drawPoints call with round caps.
+     */
+    private void recordGraph(float left, float top, float right, float bottom, boolean detailed) {
+        Canvas canvas = graphPicture.beginRecording(
+            (int) Math.ceil(worldWidth), (int) Math.ceil(worldHeight));
 
-        float x1 = tipX - ARROW_HEAD_SIZE * (float) Math.cos(angle - arrowAngle);
-        float y1 = tipY - ARROW_HEAD_SIZE * (float) Math.sin(angle - arrowAngle);
-        float x2 = tipX - ARROW_HEAD_SIZE * (float) Math.cos(angle + arrowAngle);
-        float y2 = tipY - ARROW_HEAD_SIZE * (float) Math.sin(angle + arrowAngle);
+        // Draw transitions (arrows)
+        int edgesShown = edgeGrid.query(left, top, right, bottom, visibleEdges);
+        int lineFloats = 0;
+        for (int k = 0; k < edgesShown; k++) {
+            int i = visibleEdges[k];
+            System.arraycopy(edgeLines, i * 4, lineBatch, lineFloats, 4);
+            lineFloats += 4;
+            if (detailed) {
+                System.arraycopy(arrowLines, i * 12, lineBatch, lineFloats, 12);
+                lineFloats += 12;
+            }
+        }
+        canvas.drawLines(lineBatch, 0, lineFloats, arrowPaint);
+        if (detailed) {
+            for (int k = 0; k < edgesShown; k++) {
+                int i = visibleEdges[k];
+                canvas.drawText(edgeLabels[i], labelXY[i * 2], labelXY[i * 2 + 1], textPaint);
+            }
+        }
 
-        arrowHead.moveTo(tipX, tipY);
-        arrowHead.lineTo(x1, y1);
-        arrowHead.lineTo(x2, y2);
-        arrowHead.close();
+        // Draw states
+        int statesShown = stateGrid.query(left, top, right, bottom, visibleStates);
+        if (detailed) {
+            for (int k = 0; k < statesShown; k++) {
+                int state = visibleStates[k];
+                drawState(canvas, state, stateX[state], stateY[state]);
+            }
+        } else if (heatLevels == null) {
+            for (int k = 0; k < statesShown; k++) {
+                pointBatch[k * 2] = stateX[visibleStates[k]];
+                pointBatch[k * 2 + 1] = stateY[visibleStates[k]];
+            }
+            canvas.drawPoints(pointBatch, 0, statesShown * 2, farStatePaint);
+        } else {
+            // One drawPoints call per tint level, unvisited states first
+            for (int level = -1; level < HEAT_LEVELS; level++) {
+                int points = 0;
+                for (int k = 0; k < statesShown; k++) {
+                    int state = visibleStates[k];
+                    if (heatLevels[state] != level) continue;
+                    pointBatch[points * 2] = stateX[state];
+                    pointBatch[points * 2 + 1] = stateY[state];
+                    points++;
+                }
+                if (points > 0) {
+                    canvas.drawPoints(pointBatch, 0, points * 2,
+                        level < 0 ? farStatePaint : heatPointPaints[level]);
+                }
+            }
+        }
 
-        canvas.drawPath(arrowHead, arrowPaint);
+        graphPicture.endRecording();
+        pictureValid = true;
+        pictureDetailed = detailed;
+    }
+
+    private void drawState(Canvas canvas, int state, float x, float y) {
+        // Draw outer circle for final states
+        if (automaton.isAccepting(state)) {
+            canvas.drawCircle(x, y, STATE_RADIUS + 10, statePaint);
+        }
+
+        // Draw state circle, tinted when the heatmap is on
+        canvas.drawCircle(x, y, STATE_RADIUS, statePaint);
+        if (heatLevels != null && heatLevels[state] >= 0) {
+            canvas.drawCircle(x, y, STATE_RADIUS, heatFillPaints[heatLevels[state]]);
+        }
+
+        // Draw state label
+        canvas.drawText(stateLabels[state], x, y + textPaint.getTextSize()/3, textPaint);
     }
 
     @Override
     protected void onSizeChanged(int w, int h, int oldw, int oldh) {
         super.onSizeChanged(w, h, oldw, oldh);
-        if (transitions != null) {
+        highlightLayer.setBounds(0, 0, w, h);
+        if (automaton != null) {
             calculateStatePositions();
         }
     }
-} 
\ No newline at end of file
+
+    /**
+     * Rings around the active states, drawn in the view's overlay. Invalidating the overlay
+     * still invalidates this view, so onDraw runs on every simulation step; the edges and
+     * states are not redrawn there but replayed from {@link #graphPicture}, which a step
+     * leaves valid while the viewport stays inside the recorded area. The per-step work
+     * is that replay plus these rings.
+     */
+    private class HighlightLayer extends Drawable {
+        @Override
+        public void draw(Canvas canvas) {
+            if (automaton == null) return;
+            int count = Math.min(stateX.length, automaton.stateCount());
+            canvas.save();
+            canvas.translate(offsetX, offsetY);
+            canvas.scale(scale, scale);
+            // Keep the ring visible when zoomed far out
+            highlightPaint.setStrokeWidth(Math.max(8f, 3f / scale));
+            for (int state = activeStates.nextSetBit(0); state >= 0 && state < count;
+                 state = activeStates.nextSetBit(state + 1)) {
+                canvas.drawCircle(stateX[state], stateY[state], STATE_RADIUS, highlightPaint);
+            }
+            canvas.restore();
+        }
+
+        @Override
+        public void setAlpha(int alpha) {}
+
+        @Override
+        public void setColorFilter(ColorFilter colorFilter) {}
+
+        @Override
+        public int getOpacity() {
+            return PixelFormat.TRANSLUCENT;
+        }
+    }
+}
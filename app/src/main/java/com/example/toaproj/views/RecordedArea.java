@@ -0,0 +1,45 @@
+package com.example.toaproj.views;
+
+/**
+ * The world rectangle last recorded into {@link AutomataView}'s graph picture. Both it and
+ * the viewport it is tested against are clipped to the world: a fitted view is letterboxed
+ * on one axis, so its viewport reaches past the world there on every frame, and without
+ * the clip every frame would re-record.
+ */
+final class RecordedArea {
+
+    private float left, top, right, bottom;
+
+    /** Whether the viewport, clipped to the world, lies inside the recorded area. */
+    boolean covers(float viewLeft, float viewTop, float viewRight, float viewBottom,
+                   float worldWidth, float worldHeight) {
+        return Math.max(0f, viewLeft) >= left && Math.max(0f, viewTop) >= top
+            && Math.min(worldWidth, viewRight) <= right && Math.min(worldHeight, viewBottom) <= bottom;
+    }
+
+    /** Sets the area to the viewport with half of it as slack on each side, so small pans replay. */
+    void pad(float viewLeft, float viewTop, float viewRight, float viewBottom,
+             float worldWidth, float worldHeight) {
+        float padX = (viewRight - viewLeft) / 2, padY = (viewBottom - viewTop) / 2;
+        left = Math.max(0f, viewLeft - padX);
+        top = Math.max(0f, viewTop - padY);
+        right = Math.min(worldWidth, viewRight + padX);
+        bottom = Math.min(worldHeight, viewBottom + padY);
+    }
+
+    float left() {
+        return left;
+    }
+
+    float top() {
+        return top;
+    }
+
+    float right() {
+        return right;
+    }
+
+    float bottom() {
+        return bottom;
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.toaproj.views;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.toaproj.R;
+import com.example.toaproj.engine.ExecutionTrace;
+import com.example.toaproj.sim.TraceFormatter;
+
+/**
+ * One row per retained step of an {@link ExecutionTrace}, formatted when bound. The row
+ * count is taken at {@link #refresh}; a row that the still-running simulation has since
+ * overwritten shows as dropped until the next refresh.
+ */
+public class TraceAdapter extends RecyclerView.Adapter<TraceAdapter.RowHolder> {
+
+    private final StringBuilder line = new StringBuilder();
+    private ExecutionTrace trace;
+    private TraceFormatter formatter;
+    private long firstStep;
+    private int rows;
+
+    /** Shows {@code trace}, formatting rows with {@code formatter}. */
+    public void setTrace(ExecutionTrace trace, TraceFormatter formatter) {
+        this.trace = trace;
+        this.formatter = formatter;
+        refresh();
+    }
+
+    /** Picks up steps recorded since the last refresh. */
+    public void refresh() {
+        if (trace == null) return;
+        long steps = trace.steps();
+        firstStep = trace.firstRetained();
+        rows = (int) (steps - firstStep);
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public int getItemCount() {
+        return rows;
+    }
+
+    @NonNull
+    @Override
+    public RowHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_trace_step, parent, false);
+        return new RowHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position) {
+        long step = firstStep + position;
+        line.setLength(0);
+        if (!formatter.appendStep(line, step)) {
+            line.append("Step ").append(step + 1).append(": (dropped)");
+        }
+        holder.text.setText(line.toString());
+    }
+
+    static class RowHolder extends RecyclerView.ViewHolder {
+        final TextView text;
+
+        RowHolder(View view) {
+            super(view);
+            text = (TextView) view;
+        }
+    }
+}
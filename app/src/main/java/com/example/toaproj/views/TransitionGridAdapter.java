@@ -0,0 +1,191 @@
+package com.example.toaproj.views;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
+import android.widget.Spinner;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.example.toaproj.R;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One row per (state, symbol) pair of the transition table, bound on demand.
+ *
+ * <p>Rows are addressed arithmetically ({@code position = stateRow * symbolCount + symbol}),
+ * so nothing is allocated per pair: only the visible rows exist as views, and every
+ * spinner shares one choice adapter, {@link #NO_TRANSITION} followed by the states.
+ * Selections are written straight into the transitions map; choosing
+ * {@link #NO_TRANSITION} removes the entry, which compiles to {@code Dfa.NO_STATE}.
+ */
+public class TransitionGridAdapter extends RecyclerView.Adapter<TransitionGridAdapter.RowHolder> {
+
+    /** Spinner choice for "no transition": a missing target rejects, a missing ε move is skipped. */
+    public static final String NO_TRANSITION = "∅";
+
+    private final Context context;
+    private Map<String, HashMap<String, String>> transitions;
+    private String[] states = new String[0];
+    private String[] symbols = new String[0];
+    private final HashMap<String, Integer> stateIndex = new HashMap<>();
+    private ArrayAdapter<String> stateChoices;
+    private ArrayAdapter<String> targetChoices;
+    // Indices into states of the rows that match the current search
+    private int[] visibleStates = new int[0];
+    private String query = "";
+
+    public TransitionGridAdapter(Context context) {
+        this.context = context;
+    }
+
+    /**
+     * Shows the grid for {@code states} x {@code symbols}, editing {@code transitions} in place.
+     * Missing transitions, and targets that are no longer states, show as
+     * {@link #NO_TRANSITION}; partial tables such as minimized or trimmed ones keep their
+     * language.
+     */
+    public void setGrid(Map<String, HashMap<String, String>> transitions,
+                        List<String> states, String[] symbols) {
+        this.transitions = transitions;
+        this.states = states.toArray(new String[0]);
+        this.symbols = symbols;
+
+        stateIndex.clear();
+        for (int i = 0; i < this.states.length; i++) {
+            stateIndex.put(this.states[i], i);
+        }
+        stateChoices = new ArrayAdapter<>(context,
+            android.R.layout.simple_spinner_dropdown_item, states);
+        List<String> targets = new ArrayList<>(states.size() + 1);
+        targets.add(NO_TRANSITION);
+        targets.addAll(states);
+        targetChoices = new ArrayAdapter<>(context,
+            android.R.layout.simple_spinner_dropdown_item, targets);
+
+        for (String state : this.states) {
+            HashMap<String, String> row = transitions.get(state);
+            if (row == null) {
+                row = new HashMap<>();
+                transitions.put(state, row);
+            }
+            for (String symbol : symbols) {
+                if (row.containsKey(symbol) && !stateIndex.containsKey(row.get(symbol))) {
+                    row.remove(symbol);
+                }
+            }
+        }
+        applyFilter();
+    }
+
+    /** Shows only the states whose name contains {@code query}, ignoring case. */
+    public void filter(CharSequence query) {
+        this.query = query.toString().trim().toLowerCase(Locale.ROOT);
+        applyFilter();
+    }
+
+    /** Adapter position of the first row of {@code state}, or -1 if it is filtered out. */
+    public int positionOf(String state) {
+        Integer index = stateIndex.get(state);
+        if (index == null) return -1;
+        for (int i = 0; i < visibleStates.length; i++) {
+            if (visibleStates[i] == index) return i * symbols.length;
+        }
+        return -1;
+    }
+
+    /** The input symbols of the grid, one column each, whether or not any cell is set. */
+    public List<String> symbols() {
+        return Arrays.asList(symbols);
+    }
+
+    /** The shared list of target states, also usable by a jump-to-state picker. */
+    public ArrayAdapter<String> stateChoices() {
+        return stateChoices;
+    }
+
+    private void applyFilter() {
+        int[] matches = new int[states.length];
+        int count = 0;
+        for (int i = 0; i < states.length; i++) {
+            if (query.isEmpty() || states[i].toLowerCase(Locale.ROOT).contains(query)) {
+                matches[count++] = i;
+            }
+        }
+        visibleStates = count == matches.length ? matches : Arrays.copyOf(matches, count);
+        notifyDataSetChanged();
+    }
+
+    @Override
+    public int getItemCount() {
+        return visibleStates.length * symbols.length;
+    }
+
+    @NonNull
+    @Override
+    public RowHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.item_transition, parent, false);
+        return new RowHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull RowHolder holder, int position) {
+        String state = states[visibleStates[position / symbols.length]];
+        String symbol = symbols[position % symbols.length];
+        holder.state = state;
+        holder.symbol = symbol;
+        holder.fromText.setText(state);
+        holder.symbolText.setText(symbol);
+
+        String target = transitions.get(state).get(symbol);
+        Integer index = target != null ? stateIndex.get(target) : null;
+        int selection = index == null ? 0 : index + 1;
+        // Holders outlive setGrid in the recycled pool, so pick up the current choices
+        if (holder.targetSpinner.getAdapter() != targetChoices) {
+            holder.targetSpinner.setAdapter(targetChoices);
+        }
+        holder.targetSpinner.setSelection(selection, false);
+    }
+
+    class RowHolder extends RecyclerView.ViewHolder implements AdapterView.OnItemSelectedListener {
+        final TextView fromText;
+        final TextView symbolText;
+        final Spinner targetSpinner;
+        // The pair this row is bound to; the spinner may report a selection after rebinding
+        String state;
+        String symbol;
+
+        RowHolder(View view) {
+            super(view);
+            fromText = view.findViewById(R.id.fromText);
+            symbolText = view.findViewById(R.id.symbolText);
+            targetSpinner = view.findViewById(R.id.targetSpinner);
+            targetSpinner.setOnItemSelectedListener(this);
+        }
+
+        @Override
+        public void onItemSelected(AdapterView<?> parent, View view, int position, long id) {
+            if (state == null) return;
+            HashMap<String, String> row = transitions.get(state);
+            if (position == 0) {
+                row.remove(symbol);
+            } else {
+                row.put(symbol, states[position - 1]);
+            }
+        }
+
+        @Override
+        public void onNothingSelected(AdapterView<?> parent) {}
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.toaproj.views;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class RecordedAreaTest {
+
+    @Test
+    public void fittedLetterboxedView_replaysWithoutRecordingAgain() {
+        // A 2000x2000 world fitted to a 1080x1800 view, as fitToView places it
+        float world = 2000f, width = 1080f, height = 1800f;
+        float scale = Math.min(width / world, height / world);
+        float offsetX = (width - world * scale) / 2f, offsetY = (height - world * scale) / 2f;
+        float left = -offsetX / scale, top = -offsetY / scale;
+        float right = (width - offsetX) / scale, bottom = (height - offsetY) / scale;
+        assertTrue(top < 0);
+
+        RecordedArea area = new RecordedArea();
+        area.pad(left, top, right, bottom, world, world);
+        assertTrue(area.covers(left, top, right, bottom, world, world));
+    }
+
+    @Test
+    public void panPastTheSlack_recordsAgain() {
+        RecordedArea area = new RecordedArea();
+        area.pad(100, 100, 500, 500, 2000, 2000);
+        assertTrue(area.covers(250, 100, 650, 500, 2000, 2000));
+        assertFalse(area.covers(600, 100, 1000, 500, 2000, 2000));
+    }
+}
@@ -0,0 +1,35 @@
+plugins {
+    id("java")
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    jmh(project(":engine"))
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    // Narrow a run from the command line, e.g. -Pjmh.includes=TransitionLookup
+    providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+}
+
+// Copies the latest results to results/<commit>.json so runs can be diffed across commits.
+tasks.register<Copy>("jmhArchive") {
+    dependsOn("jmh")
+    val commit = providers.exec {
+        commandLine("git", "rev-parse", "--short", "HEAD")
+    }.standardOutput.asText.map { it.trim() }
+    from(layout.buildDirectory.file("results/jmh/results.json"))
+    into(layout.projectDirectory.dir("results"))
+    rename { "${commit.get()}.json" }
+}
@@ -0,0 +1,81 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.BitParallelNfa;
+import com.example.toaproj.engine.Nfa;
+import com.example.toaproj.engine.NfaBuilder;
+import com.example.toaproj.engine.WideBitParallelNfa;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One run of 200,000 symbols through a random NFA: the on-the-fly subset construction
+ * ({@link Nfa#accepts}), the bit-parallel engine BatchRunner would pick for that size
+ * (single-word up to 64 states, multi-word beyond), and the multi-word engine at every
+ * size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class BitParallelBenchmark {
+
+    private static final int INPUT_LENGTH = 200_000;
+
+    @Param({"8", "32", "64", "256"})
+    public int states;
+
+    private Nfa nfa;
+    private BitParallelNfa narrow;
+    private WideBitParallelNfa wide;
+    private int[] input;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(3);
+        nfa = liveNfa(random, states, 4);
+        narrow = states <= BitParallelNfa.MAX_STATES ? new BitParallelNfa(nfa) : null;
+        wide = new WideBitParallelNfa(nfa);
+        input = new int[INPUT_LENGTH];
+        for (int i = 0; i < INPUT_LENGTH; i++) input[i] = random.nextInt(4);
+    }
+
+    /** Every (state, symbol) has two targets, so runs never die early. */
+    private static Nfa liveNfa(Random random, int n, int k) {
+        NfaBuilder b = new NfaBuilder();
+        for (int s = 0; s < n; s++) b.state(Fixtures.stateName(s));
+        for (int a = 0; a < k; a++) b.symbol(Fixtures.symbolName(a));
+        for (int s = 0; s < n; s++) {
+            for (int a = 0; a < k; a++) {
+                b.addTransition(s, a, random.nextInt(n)).addTransition(s, a, random.nextInt(n));
+            }
+            if (random.nextInt(4) == 0) b.setAccepting(s, true);
+        }
+        for (int e = 0; e < n / 4; e++) b.addEpsilon(random.nextInt(n), random.nextInt(n));
+        return b.setInitial(0).build();
+    }
+
+    @Benchmark
+    public void lazyDfa(Blackhole blackhole) {
+        blackhole.consume(nfa.accepts(input));
+    }
+
+    @Benchmark
+    public void bitParallel(Blackhole blackhole) {
+        blackhole.consume(narrow != null ? narrow.accepts(input) : wide.accepts(input));
+    }
+
+    @Benchmark
+    public void wideBitParallel(Blackhole blackhole) {
+        blackhole.consume(wide.accepts(input));
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.layout.CircularLayout;
+import com.example.toaproj.engine.layout.SpatialGrid;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AutomataView culling for one frame: testing every state and edge against the viewport
+ * against querying the {@link SpatialGrid}s it builds. The viewport is a zoomed-in eighth
+ * of the world, panned around the ring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CullingBenchmark {
+
+    private static final float RADIUS = 90f;
+    private static final int SYMBOLS = 2;
+
+    @Param({"500", "5000"})
+    public int states;
+
+    private float[] xs;
+    private float[] ys;
+    private float[] lines;
+    private float world;
+    private SpatialGrid stateGrid;
+    private SpatialGrid edgeGrid;
+    private int[] visibleStates;
+    private int[] visibleEdges;
+    private int frame;
+
+    @Setup
+    public void setup() {
+        // Same sizing as AutomataView.calculateStatePositions: neighbours do not overlap
+        world = 2 * ((200f / (2f * (float) Math.sin(Math.PI / states))) + 130f);
+        xs = new float[states];
+        ys = new float[states];
+        CircularLayout.layout(states, world, world, 130f, xs, ys);
+
+        Random random = new Random(12);
+        int edges = states * SYMBOLS;
+        lines = new float[edges * 4];
+        for (int e = 0; e < edges; e++) {
+            int from = e / SYMBOLS, to = random.nextInt(states);
+            lines[e * 4] = xs[from];
+            lines[e * 4 + 1] = ys[from];
+            lines[e * 4 + 2] = xs[to];
+            lines[e * 4 + 3] = ys[to];
+        }
+        int side = Math.min(128, (int) Math.sqrt(states));
+        stateGrid = SpatialGrid.ofCircles(xs, ys, states, RADIUS, side);
+        edgeGrid = SpatialGrid.ofSegments(lines, edges, Math.min(128, (int) Math.sqrt(edges)));
+        visibleStates = new int[states];
+        visibleEdges = new int[edges];
+    }
+
+    private float viewportLeft() {
+        frame = (frame + 1) & 1023;
+        float angle = (float) (2 * Math.PI * frame / 1024);
+        return world / 2 + (world / 2 - 130f) * (float) Math.cos(angle) - world / 16;
+    }
+
+    private float viewportTop() {
+        float angle = (float) (2 * Math.PI * frame / 1024);
+        return world / 2 + (world / 2 - 130f) * (float) Math.sin(angle) - world / 16;
+    }
+
+    @Benchmark
+    public int scanAll() {
+        float left = viewportLeft(), top = viewportTop();
+        float right = left + world / 8, bottom = top + world / 8;
+        int visible = 0;
+        for (int e = 0; e < lines.length; e += 4) {
+            if (Math.max(lines[e], lines[e + 2]) >= left && Math.min(lines[e], lines[e + 2]) <= right
+                    && Math.max(lines[e + 1], lines[e + 3]) >= top
+                    && Math.min(lines[e + 1], lines[e + 3]) <= bottom) {
+                visible++;
+            }
+        }
+        for (int s = 0; s < states; s++) {
+            if (xs[s] + RADIUS >= left && xs[s] - RADIUS <= right
+                    && ys[s] + RADIUS >= top && ys[s] - RADIUS <= bottom) {
+                visible++;
+            }
+        }
+        return visible;
+    }
+
+    @Benchmark
+    public int gridQuery() {
+        float left = viewportLeft(), top = viewportTop();
+        float right = left + world / 8, bottom = top + world / 8;
+        return edgeGrid.query(left, top, right, bottom, visibleEdges)
+            + stateGrid.query(left, top, right, bottom, visibleStates);
+    }
+}
@@ -0,0 +1,96 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.EquivalenceChecker;
+import com.example.toaproj.engine.Minimizer;
+import com.example.toaproj.engine.SymbolTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hopcroft–Karp equivalence against minimizing both automata and comparing the results.
+ * The second automaton is the first with every state split into two twins, so it is
+ * equivalent at twice the size; the "edited" one also flips one accepting state.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EquivalenceBenchmark {
+
+    @Param({"1000", "100000"})
+    public int states;
+
+    private Dfa original;
+    private Dfa twins;
+    private Dfa edited;
+
+    @Setup
+    public void setup() {
+        original = Dfa.compile(Fixtures.transitions(states, 4, 7), Fixtures.finalStates(states, 8),
+            Fixtures.stateName(0));
+        twins = split(original);
+        BitSet accepting = twins.accepting();
+        accepting.flip(states / 2);
+        edited = twins.withAcceptance(twins.initialState(), accepting);
+    }
+
+    /** State s becomes s and s + n; transitions from the first twin go to second twins and back. */
+    private static Dfa split(Dfa dfa) {
+        int n = dfa.stateCount(), k = dfa.symbolCount();
+        int[] source = dfa.table();
+        int[] table = new int[2 * n * k];
+        String[] names = new String[2 * n];
+        BitSet accepting = new BitSet(2 * n);
+        for (int s = 0; s < n; s++) {
+            names[s] = "a" + s;
+            names[s + n] = "b" + s;
+            if (dfa.isAccepting(s)) {
+                accepting.set(s);
+                accepting.set(s + n);
+            }
+            for (int a = 0; a < k; a++) {
+                table[s * k + a] = source[s * k + a] + n;
+                table[(s + n) * k + a] = source[s * k + a];
+            }
+        }
+        return new Dfa(new SymbolTable(names), dfa.symbols(), table, accepting, dfa.initialState());
+    }
+
+    private static boolean minimizeAndCompare(Dfa a, Dfa b) {
+        // The minimizer numbers states breadth-first, so equal languages give equal tables
+        Dfa ma = Minimizer.minimize(a).minimized();
+        Dfa mb = Minimizer.minimize(b).minimized();
+        return Arrays.equals(ma.table(), mb.table()) && ma.accepting().equals(mb.accepting());
+    }
+
+    @Benchmark
+    public boolean hopcroftKarpEqual() {
+        return EquivalenceChecker.equivalence(original, twins).holds();
+    }
+
+    @Benchmark
+    public boolean minimizeAndCompareEqual() {
+        return minimizeAndCompare(original, twins);
+    }
+
+    @Benchmark
+    public boolean hopcroftKarpEdited() {
+        return EquivalenceChecker.equivalence(original, edited).holds();
+    }
+
+    @Benchmark
+    public boolean minimizeAndCompareEdited() {
+        return minimizeAndCompare(original, edited);
+    }
+}
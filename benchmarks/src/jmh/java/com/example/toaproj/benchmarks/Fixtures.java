@@ -0,0 +1,60 @@
+package com.example.toaproj.benchmarks;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+/** Deterministic random automata and inputs shaped like the ones the app builds. */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static String stateName(int i) {
+        return "q" + i;
+    }
+
+    static String symbolName(int i) {
+        return Integer.toString(i);
+    }
+
+    /** A complete DFA over {@code alphabet} symbols, as the setup screen produces it. */
+    static HashMap<String, HashMap<String, String>> transitions(int states, int alphabet, long seed) {
+        Random random = new Random(seed);
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        for (int s = 0; s < states; s++) {
+            HashMap<String, String> row = new HashMap<>();
+            for (int a = 0; a < alphabet; a++) {
+                row.put(symbolName(a), stateName(random.nextInt(states)));
+            }
+            transitions.put(stateName(s), row);
+        }
+        return transitions;
+    }
+
+    static HashSet<String> finalStates(int states, long seed) {
+        Random random = new Random(seed);
+        HashSet<String> finals = new HashSet<>();
+        for (int s = 0; s < states; s++) {
+            if (random.nextInt(3) == 0) finals.add(stateName(s));
+        }
+        return finals;
+    }
+
+    static String[] symbols(int alphabet, int length, long seed) {
+        Random random = new Random(seed);
+        String[] input = new String[length];
+        for (int i = 0; i < length; i++) input[i] = symbolName(random.nextInt(alphabet));
+        return input;
+    }
+
+    /** The space-separated text a user would type for {@code symbols}. */
+    static String text(String[] symbols) {
+        StringBuilder sb = new StringBuilder();
+        for (String symbol : symbols) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(symbol);
+        }
+        return sb.toString();
+    }
+}
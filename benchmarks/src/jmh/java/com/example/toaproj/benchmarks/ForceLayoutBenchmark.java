@@ -0,0 +1,55 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.layout.ForceLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One Barnes–Hut iteration of the force-directed layout that AutomataView runs in the
+ * background, on a random two-symbol automaton. Each trial starts from the same seeded
+ * positions so the tree shape is comparable across runs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ForceLayoutBenchmark {
+
+    @Param({"100", "1000", "5000"})
+    public int states;
+
+    private int[] edges;
+    private ForceLayout layout;
+
+    @Setup(Level.Trial)
+    public void setupEdges() {
+        Random random = new Random(5);
+        edges = new int[states * 2 * 3];
+        for (int e = 0; e < states * 2; e++) {
+            edges[e * 3] = e / 2;
+            edges[e * 3 + 1] = e % 2;
+            edges[e * 3 + 2] = random.nextInt(states);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setupLayout() {
+        layout = new ForceLayout(states, edges, 42L);
+    }
+
+    @Benchmark
+    public int step() {
+        layout.step();
+        return layout.iterations();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.layout.CircularLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * AutomataView.calculateStatePositions: the original per-state {@code Float[]} map
+ * against the primitive-array layout it now uses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LayoutBenchmark {
+
+    private static final float WIDTH = 1080f;
+    private static final float HEIGHT = 1920f;
+    private static final float MARGIN = 130f;
+
+    @Param({"10", "1000", "100000"})
+    public int states;
+
+    private String[] names;
+    private float[] xs;
+    private float[] ys;
+
+    @Setup
+    public void setup() {
+        names = new String[states];
+        for (int i = 0; i < states; i++) names[i] = Fixtures.stateName(i);
+        xs = new float[states];
+        ys = new float[states];
+    }
+
+    @Benchmark
+    public HashMap<String, Float[]> boxedMap() {
+        HashMap<String, Float[]> positions = new HashMap<>();
+        float centerX = WIDTH / 2f;
+        float centerY = HEIGHT / 2f;
+        float radius = Math.min(centerX, centerY) - MARGIN;
+        for (int i = 0; i < states; i++) {
+            float angle = (float) (2 * Math.PI * i / states - Math.PI / 2);
+            positions.put(names[i], new Float[]{
+                centerX + radius * (float) Math.cos(angle),
+                centerY + radius * (float) Math.sin(angle)});
+        }
+        return positions;
+    }
+
+    @Benchmark
+    public float[] circularLayout() {
+        CircularLayout.layout(states, WIDTH, HEIGHT, MARGIN, xs, ys);
+        return xs;
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.BatchRunner;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.LockstepRunner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One string at a time against lockstep lanes on 100,000 short sequences, all on one
+ * thread: pre-encoded ({@link Dfa#run} per sequence vs an encoded corpus) to isolate the
+ * stepping, and from text ({@link BatchRunner} vs {@link LockstepRunner}) end to end.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LockstepBenchmark {
+
+    private static final int SEQUENCES = 100_000;
+
+    @Param({"16", "65536"})
+    public int states;
+
+    @Param({"8", "32"})
+    public int length;
+
+    private ForkJoinPool pool;
+    private Dfa dfa;
+    private BatchRunner scalar;
+    private LockstepRunner lockstep;
+    private List<String> sequences;
+    private int[][] encoded;
+    private LockstepRunner.Corpus corpus;
+
+    @Setup
+    public void setup() {
+        pool = new ForkJoinPool(1);
+        dfa = Dfa.compile(Fixtures.transitions(states, 4, 41), Fixtures.finalStates(states, 42),
+            Fixtures.stateName(0));
+        scalar = new BatchRunner(dfa, pool);
+        lockstep = new LockstepRunner(dfa, pool);
+        sequences = new ArrayList<>(SEQUENCES);
+        encoded = new int[SEQUENCES][];
+        for (int i = 0; i < SEQUENCES; i++) {
+            String[] symbols = Fixtures.symbols(4, 1 + i % length, i);
+            sequences.add(Fixtures.text(symbols));
+            encoded[i] = new int[symbols.length];
+            for (int p = 0; p < symbols.length; p++) encoded[i][p] = dfa.symbolIndex(symbols[p]);
+        }
+        corpus = lockstep.encode(sequences);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public int scalarEncoded() {
+        int accepted = 0;
+        for (int[] input : encoded) {
+            if (dfa.accepts(input)) accepted++;
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    public int lockstepEncoded() {
+        return lockstep.run(corpus).acceptedCount();
+    }
+
+    @Benchmark
+    public int scalarText() {
+        return scalar.run(sequences).acceptedCount();
+    }
+
+    @Benchmark
+    public int lockstepText() {
+        return lockstep.run(sequences).acceptedCount();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.MachineResult;
+import com.example.toaproj.engine.Pda;
+import com.example.toaproj.engine.PdaBuilder;
+import com.example.toaproj.engine.TuringMachine;
+import com.example.toaproj.engine.TuringMachineBuilder;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDA and Turing machine throughput. The {@code configurations} counter is reported per
+ * second: configurations expanded by the breadth-first PDA search of even palindromes
+ * (which guesses the middle at every position), and moves of a TM deciding a^n b^n c^n
+ * (quadratic in the input length).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MachineBenchmark {
+
+    private static final long MAX_STEPS = Long.MAX_VALUE;
+    private static final int MAX_CELLS = 1 << 24;
+
+    @Param({"100", "1000"})
+    public int inputLength;
+
+    private Pda palindromes;
+    private int[] palindrome;
+    private TuringMachine anbncn;
+    private int[] abc;
+
+    /** Configurations (PDA) or moves (TM) per second, next to the runs per second. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long configurations;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            configurations = 0;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        PdaBuilder p = new PdaBuilder();
+        p.setInitial(p.state("push"));
+        p.setAcceptOnEmptyStack(true);
+        for (String c : new String[]{"a", "b"}) {
+            p.addTransition("push", c, null, "push", c.toUpperCase());
+            p.addTransition("pop", c, c.toUpperCase(), "pop");
+        }
+        p.addTransition("push", null, null, "pop");
+        palindromes = p.build();
+        palindrome = new int[inputLength];
+        for (int i = 0; i < inputLength / 2; i++) {
+            int symbol = palindromes.symbols().indexOf(i % 3 == 0 ? "a" : "b");
+            palindrome[i] = symbol;
+            palindrome[inputLength - 1 - i] = symbol;
+        }
+
+        TuringMachineBuilder t = new TuringMachineBuilder();
+        t.setInitial(t.state("start"));
+        t.setAccepting(t.state("accept"), true);
+        t.addTransition("start", "a", "findB", "X", 'R');
+        t.addTransition("start", "Y", "check", "Y", 'R');
+        for (String skip : new String[]{"a", "Y"}) t.addTransition("findB", skip, "findB", skip, 'R');
+        t.addTransition("findB", "b", "findC", "Y", 'R');
+        for (String skip : new String[]{"b", "Z"}) t.addTransition("findC", skip, "findC", skip, 'R');
+        t.addTransition("findC", "c", "back", "Z", 'L');
+        for (String skip : new String[]{"a", "b", "Y", "Z"}) t.addTransition("back", skip, "back", skip, 'L');
+        t.addTransition("back", "X", "start", "X", 'R');
+        for (String skip : new String[]{"Y", "Z"}) t.addTransition("check", skip, "check", skip, 'R');
+        t.addTransition("check", "_", "accept", "_", 'S');
+        anbncn = t.build();
+        int third = inputLength / 3;
+        abc = new int[third * 3];
+        for (int i = 0; i < abc.length; i++) {
+            abc[i] = anbncn.symbols().indexOf(i < third ? "a" : i < 2 * third ? "b" : "c");
+        }
+    }
+
+    @Benchmark
+    public boolean pdaPalindrome(Counters counters) {
+        MachineResult result = palindromes.run(palindrome, MAX_STEPS, MAX_CELLS);
+        counters.configurations += result.steps();
+        return result.accepted();
+    }
+
+    @Benchmark
+    public boolean turingMachineAnBnCn(Counters counters) {
+        MachineResult result = anbncn.run(abc, MAX_STEPS, MAX_CELLS);
+        counters.configurations += result.steps();
+        return result.accepted();
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.BatchRunner;
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.SimulationMetrics;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of instrumentation on a batch of 10,000 sequences of 100 symbols: no metrics
+ * (the plain loops), and metrics recording visits, reads and per-sequence timing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MetricsBenchmark {
+
+    private static final int SEQUENCES = 10_000;
+    private static final int LENGTH = 100;
+
+    @Param({"16", "1024"})
+    public int states;
+
+    private BatchRunner runner;
+    private SimulationMetrics metrics;
+    private List<String> sequences;
+
+    @Setup
+    public void setup() {
+        Dfa dfa = Dfa.compile(Fixtures.transitions(states, 4, 31), Fixtures.finalStates(states, 32),
+            Fixtures.stateName(0));
+        runner = new BatchRunner(dfa);
+        metrics = new SimulationMetrics(dfa, SimulationMetrics.NO_PROBE);
+        sequences = new ArrayList<>(SEQUENCES);
+        for (int i = 0; i < SEQUENCES; i++) {
+            sequences.add(Fixtures.text(Fixtures.symbols(4, LENGTH, i)));
+        }
+    }
+
+    @Benchmark
+    public int disabled() {
+        return runner.run(sequences).acceptedCount();
+    }
+
+    @Benchmark
+    public int enabled() {
+        return runner.run(sequences, metrics).acceptedCount();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.ProductConstruction;
+import com.example.toaproj.engine.RegexCompiler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Product of two {@code states}-state random tables, where most of the |Q1|×|Q2| grid is
+ * reachable, and of two rule-like regex DFAs, where only a thin slice of it is.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ProductBenchmark {
+
+    @Param({"100", "1000"})
+    public int states;
+
+    private Dfa randomA;
+    private Dfa randomB;
+    private Dfa ruleA;
+    private Dfa ruleB;
+
+    @Setup
+    public void setup() {
+        randomA = Dfa.compile(Fixtures.transitions(states, 4, 1), Fixtures.finalStates(states, 2),
+            Fixtures.stateName(0));
+        randomB = Dfa.compile(Fixtures.transitions(states, 4, 3), Fixtures.finalStates(states, 4),
+            Fixtures.stateName(0));
+        ruleA = RegexCompiler.compile("a(b|c){" + states + "}a*").dfa();
+        ruleB = RegexCompiler.compile("(a|b){" + states / 2 + "}(b|c)*").dfa();
+    }
+
+    @Benchmark
+    public int randomIntersection() {
+        return ProductConstruction.intersection(randomA, randomB).minimalStateCount();
+    }
+
+    @Benchmark
+    public int randomUnion() {
+        return ProductConstruction.union(randomA, randomB).minimalStateCount();
+    }
+
+    @Benchmark
+    public int ruleIntersection() {
+        return ProductConstruction.intersection(ruleA, ruleB).minimalStateCount();
+    }
+
+    @Benchmark
+    public int ruleDifference() {
+        return ProductConstruction.difference(ruleA, ruleB).minimalStateCount();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.Reachability;
+import com.example.toaproj.engine.SymbolTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trimming large random DFAs: two symbols, a quarter of the transitions undefined, and a
+ * few accepting states, so both searches leave real unreachable and dead states behind.
+ * The table is built directly, since the map form would dominate setup at these sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ReachabilityBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int states;
+
+    private Dfa dfa;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(24);
+        String[] names = new String[states];
+        int[] table = new int[states * 2];
+        for (int s = 0; s < states; s++) {
+            names[s] = Fixtures.stateName(s);
+            table[2 * s] = random.nextInt(4) == 0 ? Dfa.NO_STATE : random.nextInt(states);
+            table[2 * s + 1] = random.nextInt(4) == 0 ? Dfa.NO_STATE : random.nextInt(states);
+        }
+        BitSet accepting = new BitSet(states);
+        for (int i = 0; i < 16; i++) accepting.set(random.nextInt(states));
+        dfa = new Dfa(new SymbolTable(names), new SymbolTable(new String[]{"0", "1"}), table, accepting, 0);
+    }
+
+    @Benchmark
+    public BitSet reachable() {
+        return Reachability.reachable(dfa);
+    }
+
+    @Benchmark
+    public BitSet productive() {
+        return Reachability.productive(dfa);
+    }
+
+    @Benchmark
+    public Dfa trim() {
+        return Reachability.trim(dfa).trimmed();
+    }
+}
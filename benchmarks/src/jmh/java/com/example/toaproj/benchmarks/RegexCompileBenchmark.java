@@ -0,0 +1,31 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.RegexCompiler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regex to minimal DFA for "the n-th symbol from the end is an a", whose minimal DFA has
+ * 2^(n+1) states: about 130,000 at n = 16.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RegexCompileBenchmark {
+
+    @Param({"8", "12", "16"})
+    public int suffix;
+
+    @Benchmark
+    public int compile() {
+        return RegexCompiler.compile("(a|b)*a(a|b){" + suffix + "}").minimalStateCount();
+    }
+}
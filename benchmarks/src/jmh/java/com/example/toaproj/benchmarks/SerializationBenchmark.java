@@ -0,0 +1,63 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.Dfa;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Round trips of the transitions map as the activities pass it around: Java
+ * serialization, as used by Intent extras and onSaveInstanceState, plus compiling
+ * the result into a Dfa on arrival.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int states;
+
+    @Param({"2", "16"})
+    public int alphabet;
+
+    private HashMap<String, HashMap<String, String>> transitions;
+    private HashSet<String> finalStates;
+
+    @Setup
+    public void setup() {
+        transitions = Fixtures.transitions(states, alphabet, 7);
+        finalStates = Fixtures.finalStates(states, 8);
+    }
+
+    @Benchmark
+    public Object javaSerialization() throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(transitions);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+
+    @Benchmark
+    public Dfa compile() {
+        return Dfa.compile(transitions, finalStates, Fixtures.stateName(0));
+    }
+}
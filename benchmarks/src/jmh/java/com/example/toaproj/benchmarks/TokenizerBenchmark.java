@@ -0,0 +1,61 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.SymbolScanner;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/** Turning typed input text into symbol ordinals: split-and-hash versus the trie scanner. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TokenizerBenchmark {
+
+    @Param({"2", "64"})
+    public int alphabet;
+
+    @Param({"1000", "100000"})
+    public int inputLength;
+
+    private String text;
+    private Dfa dfa;
+    private SymbolScanner scanner;
+
+    @Setup
+    public void setup() {
+        text = Fixtures.text(Fixtures.symbols(alphabet, inputLength, 4));
+        dfa = Dfa.compile(Fixtures.transitions(2, alphabet, 5), Fixtures.finalStates(2, 6),
+            Fixtures.stateName(0));
+        scanner = new SymbolScanner(dfa);
+    }
+
+    @Benchmark
+    public int splitAndHash() {
+        int sum = 0;
+        for (String token : text.trim().split(" ")) {
+            sum += dfa.symbolIndex(token);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int symbolScanner() throws IOException {
+        scanner.reset(text);
+        int sum = 0;
+        int symbol;
+        while ((symbol = scanner.next()) != SymbolScanner.END) {
+            sum += symbol;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.Dfa;
+import com.example.toaproj.engine.Transducer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mealy translation of 4 MB of input: the transducer writing straight into a direct
+ * buffer, against looking each output up in the maps and appending it to a
+ * StringBuilder. Divide 4 MB by the score for bytes/sec.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TransducerBenchmark {
+
+    private static final int INPUT_BYTES = 4 << 20;
+
+    @Param({"4", "64"})
+    public int states;
+
+    private HashMap<String, HashMap<String, String>> transitions;
+    private HashMap<String, HashMap<String, String>> outputs;
+    private Transducer transducer;
+    private ByteBuffer input;
+    private ByteBuffer output;
+    private String text;
+
+    @Setup
+    public void setup() {
+        // Single-character symbols 0..9, so the input is read a byte per symbol
+        transitions = Fixtures.transitions(states, 10, 11);
+        outputs = new HashMap<>();
+        for (String state : transitions.keySet()) {
+            HashMap<String, String> row = new HashMap<>();
+            for (String symbol : transitions.get(state).keySet()) {
+                row.put(symbol, state + ":" + symbol + " ");
+            }
+            outputs.put(state, row);
+        }
+        transducer = Transducer.mealy(Dfa.compile(transitions, Fixtures.finalStates(states, 12),
+            Fixtures.stateName(0)), outputs);
+
+        StringBuilder sb = new StringBuilder(INPUT_BYTES);
+        for (String symbol : Fixtures.symbols(10, INPUT_BYTES, 13)) sb.append(symbol);
+        text = sb.toString();
+        input = ByteBuffer.allocateDirect(INPUT_BYTES);
+        for (int i = 0; i < INPUT_BYTES; i++) input.put((byte) text.charAt(i));
+        input.flip();
+        output = ByteBuffer.allocateDirect(64 * 1024);
+    }
+
+    @Benchmark
+    public long transducerToBuffer() {
+        ByteBuffer in = input.duplicate();
+        long written = 0;
+        int state = transducer.dfa().initialState();
+        while (in.hasRemaining()) {
+            state = transducer.translate(state, in, output);
+            if (state == Dfa.NO_STATE) break;
+            written += output.position();
+            output.clear();
+        }
+        return written;
+    }
+
+    @Benchmark
+    public int mapsToStringBuilder() {
+        StringBuilder out = new StringBuilder();
+        String state = Fixtures.stateName(0);
+        for (int i = 0; i < text.length(); i++) {
+            String symbol = String.valueOf(text.charAt(i));
+            out.append(outputs.get(state).get(symbol));
+            state = transitions.get(state).get(symbol);
+        }
+        return out.length();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.toaproj.benchmarks;
+
+import com.example.toaproj.engine.Dfa;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One full run over {@code inputLength} symbols: the nested-HashMap walk that
+ * TestAutomataActivity.processInput used to do, against the compiled table.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TransitionLookupBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int states;
+
+    @Param({"2", "16"})
+    public int alphabet;
+
+    @Param({"10000"})
+    public int inputLength;
+
+    private HashMap<String, HashMap<String, String>> transitions;
+    private String[] symbols;
+    private Dfa dfa;
+    private int[] encoded;
+
+    @Setup
+    public void setup() {
+        transitions = Fixtures.transitions(states, alphabet, 1);
+        symbols = Fixtures.symbols(alphabet, inputLength, 2);
+        dfa = Dfa.compile(transitions, Fixtures.finalStates(states, 3), Fixtures.stateName(0));
+        encoded = new int[inputLength];
+        for (int i = 0; i < inputLength; i++) encoded[i] = dfa.symbolIndex(symbols[i]);
+    }
+
+    @Benchmark
+    public String hashMapWalk() {
+        String current = Fixtures.stateName(0);
+        for (String input : symbols) {
+            if (!transitions.containsKey(current) || !transitions.get(current).containsKey(input)) {
+                return null;
+            }
+            current = transitions.get(current).get(input);
+        }
+        return current;
+    }
+
+    @Benchmark
+    public int compiledTable() {
+        return dfa.run(dfa.initialState(), encoded, 0, encoded.length);
+    }
+}
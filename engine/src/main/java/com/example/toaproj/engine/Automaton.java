@@ -0,0 +1,31 @@
+package com.example.toaproj.engine;
+
+/**
+ * Read-only structure shared by the compiled automata, enough to lay out and draw
+ * one: named states and symbols plus a flat edge list.
+ */
+public interface Automaton {
+
+    /** Symbol ordinal used in {@link #edges()} for an epsilon move. */
+    int EPSILON = -1;
+
+    int stateCount();
+
+    int symbolCount();
+
+    int initialState();
+
+    boolean isAccepting(int state);
+
+    String stateName(int state);
+
+    String symbolName(int symbol);
+
+    SymbolTable symbols();
+
+    /**
+     * All transitions as consecutive {@code (from, symbol, to)} triples, with
+     * {@link #EPSILON} as the symbol of epsilon moves.
+     */
+    int[] edges();
+}
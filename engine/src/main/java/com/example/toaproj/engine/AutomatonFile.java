@@ -0,0 +1,309 @@
+package com.example.toaproj.engine;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.util.BitSet;
+
+/**
+ * Versioned binary format for a {@link Dfa}, designed to be memory-mapped.
+ *
+ * <pre>
+ * offset  size           field
+ * 0       4              magic "TOAA"
+ * 4       2              format version
+ * 6       2              flags (0)
+ * 8       4              state count n
+ * 12      4              symbol count k
+ * 16      4              initial state
+ * 20      4              offset of the state name table
+ * 24      4              offset of the symbol name table
+ * 28      4              reserved (0)
+ * 32      8 * ⌈n/64⌉     accepting states, BitSet.toLongArray order
+ * ...     4 * n * k      transition table, row-major, -1 for undefined
+ * ...                    state names:  int[n + 1] end offsets, then UTF-8 bytes
+ * ...                    symbol names: int[k + 1] end offsets, then UTF-8 bytes
+ * </pre>
+ *
+ * All integers are big-endian. Loading copies the transition table out of the
+ * mapping in one bulk read and leaves the names packed until they are needed, so
+ * even million-state automata open without building an object graph. The name tables
+ * are still checked while loading, so a truncated or corrupt file, or one with duplicate
+ * names or accepting states past n, fails in {@code read}.
+ */
+public final class AutomatonFile {
+
+    public static final int MAGIC = 0x544F4141; // "TOAA"
+    public static final short VERSION = 1;
+
+    static final int HEADER_SIZE = 32;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int WRITE_CHUNK = 64 * 1024;
+
+    private AutomatonFile() {
+    }
+
+    public static void write(Dfa dfa, File file) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            write(dfa, out.getChannel());
+        }
+    }
+
+    public static void write(Dfa dfa, WritableByteChannel channel) throws IOException {
+        int n = dfa.stateCount();
+        int k = dfa.symbolCount();
+        byte[][] stateNames = encode(dfa.states());
+        byte[][] symbolNames = encode(dfa.symbols());
+        long[] accepting = dfa.accepting().toLongArray();
+        int acceptingWords = (n + 63) >>> 6;
+
+        long stateTable = HEADER_SIZE + 8L * acceptingWords + 4L * n * k;
+        long symbolTable = stateTable + tableSize(stateNames);
+        if (symbolTable + tableSize(symbolNames) > Integer.MAX_VALUE) {
+            throw new IOException("Automaton too large for format version " + VERSION);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(WRITE_CHUNK);
+        buffer.putInt(MAGIC)
+              .putShort(VERSION)
+              .putShort((short) 0)
+              .putInt(n)
+              .putInt(k)
+              .putInt(dfa.initialState())
+              .putInt((int) stateTable)
+              .putInt((int) symbolTable)
+              .putInt(0);
+        for (int w = 0; w < acceptingWords; w++) {
+            ensure(channel, buffer, 8);
+            buffer.putLong(w < accepting.length ? accepting[w] : 0L);
+        }
+        int[] table = dfa.table();
+        for (int target : table) {
+            ensure(channel, buffer, 4);
+            buffer.putInt(target);
+        }
+        writeNames(channel, buffer, stateNames);
+        writeNames(channel, buffer, symbolNames);
+        flush(channel, buffer);
+    }
+
+    public static Dfa read(File file) throws IOException {
+        try (FileInputStream in = new FileInputStream(file)) {
+            return read(in.getChannel());
+        }
+    }
+
+    /**
+     * Maps {@code channel} read-only and decodes it. The returned automaton keeps the
+     * mapping alive for its name tables; closing the channel afterwards is fine.
+     */
+    public static Dfa read(FileChannel channel) throws IOException {
+        long length = channel.size();
+        if (length < HEADER_SIZE || length > Integer.MAX_VALUE) {
+            throw new IOException("Not an automaton file");
+        }
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        return read(map);
+    }
+
+    static Dfa read(ByteBuffer map) throws IOException {
+        if (map.getInt(0) != MAGIC) {
+            throw new IOException("Not an automaton file");
+        }
+        short version = map.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported automaton file version " + version);
+        }
+        int n = map.getInt(8);
+        int k = map.getInt(12);
+        int initial = map.getInt(16);
+        int stateTable = map.getInt(20);
+        int symbolTable = map.getInt(24);
+        int acceptingWords = (n + 63) >>> 6;
+        long tableStart = HEADER_SIZE + 8L * acceptingWords;
+        if (n <= 0 || k < 0 || initial < 0 || initial >= n
+                || stateTable != tableStart + 4L * n * k
+                || symbolTable < stateTable || symbolTable > map.limit()) {
+            throw new IOException("Corrupt automaton file header");
+        }
+
+        long[] words = new long[acceptingWords];
+        ByteBuffer view = map.duplicate();
+        view.position(HEADER_SIZE);
+        view.asLongBuffer().get(words);
+        BitSet accepting = BitSet.valueOf(words);
+        if (accepting.length() > n) {
+            throw new IOException("Corrupt automaton file: accepting state " + (accepting.length() - 1));
+        }
+
+        int[] table = new int[n * k];
+        view.position((int) tableStart);
+        IntBuffer ints = view.asIntBuffer();
+        ints.get(table);
+        for (int target : table) {
+            if (target < Dfa.NO_STATE || target >= n) {
+                throw new IOException("Corrupt automaton file: transition target " + target);
+            }
+        }
+
+        ByteBuffer stateNames = section(map, stateTable, symbolTable);
+        ByteBuffer symbolNames = section(map, symbolTable, map.limit());
+        checkNames(stateNames, n, "state");
+        checkNames(symbolNames, k, "symbol");
+        SymbolTable states = SymbolTable.packed(stateNames, n);
+        SymbolTable symbols = SymbolTable.packed(symbolNames, k);
+        return new Dfa(states, symbols, table, accepting, initial);
+    }
+
+    /**
+     * Checks that a packed name table's offsets start at 0, never decrease and stay inside
+     * the section, that every name is well-formed UTF-8, so the lazy decoding in
+     * {@link SymbolTable} cannot fail later, and that no name appears twice, which would
+     * make lookups by name alias. No names are decoded into strings: the scratch is one
+     * buffer the size of the longest name and an {@code int[]} hash set of ordinals.
+     */
+    private static void checkNames(ByteBuffer section, int count, String kind) throws IOException {
+        long bytesStart = 4L * (count + 1);
+        if (bytesStart > section.limit()) {
+            throw new IOException("Corrupt automaton file: " + kind + " name table is truncated");
+        }
+        int available = section.limit() - (int) bytesStart;
+        int longest = 0;
+        int previous = section.getInt(0);
+        if (previous != 0) {
+            throw new IOException("Corrupt automaton file: " + kind + " name offsets");
+        }
+        for (int i = 1; i <= count; i++) {
+            int end = section.getInt(4 * i);
+            if (end < previous || end > available) {
+                throw new IOException("Corrupt automaton file: " + kind + " name offsets");
+            }
+            longest = Math.max(longest, end - previous);
+            previous = end;
+        }
+
+        CharsetDecoder decoder = UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPORT)
+            .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer out = CharBuffer.allocate(longest);
+        ByteBuffer in = section.duplicate();
+        for (int i = 0; i < count; i++) {
+            int from = (int) bytesStart + section.getInt(4 * i);
+            int to = (int) bytesStart + section.getInt(4 * (i + 1));
+            in.limit(to).position(from);
+            out.clear();
+            decoder.reset();
+            if (decoder.decode(in, out, true).isError() || decoder.flush(out).isError()) {
+                throw new IOException("Corrupt automaton file: " + kind + " name " + i + " is not UTF-8");
+            }
+        }
+        checkDistinct(section, count, (int) bytesStart, kind);
+    }
+
+    /**
+     * Rejects a name that appears twice. Names are compared as bytes, which for the
+     * well-formed UTF-8 already checked is the same as comparing the strings. Open
+     * addressing over ordinals plus one, so a slot holds one int and 0 is empty.
+     */
+    private static void checkDistinct(ByteBuffer section, int count, int bytesStart, String kind)
+            throws IOException {
+        int[] slots = new int[Integer.highestOneBit(Math.max(2, count) - 1) << 2];
+        int mask = slots.length - 1;
+        for (int i = 0; i < count; i++) {
+            int from = bytesStart + section.getInt(4 * i);
+            int to = bytesStart + section.getInt(4 * (i + 1));
+            int hash = 1;
+            for (int p = from; p < to; p++) {
+                hash = 31 * hash + section.get(p);
+            }
+            hash ^= hash >>> 16;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                int other = slots[slot] - 1;
+                if (other < 0) {
+                    slots[slot] = i + 1;
+                    break;
+                }
+                if (sameName(section, bytesStart + section.getInt(4 * other),
+                        bytesStart + section.getInt(4 * (other + 1)), from, to)) {
+                    throw new IOException("Corrupt automaton file: " + kind + " names " + other
+                        + " and " + i + " are the same");
+                }
+            }
+        }
+    }
+
+    private static boolean sameName(ByteBuffer section, int from, int to, int otherFrom, int otherTo) {
+        if (to - from != otherTo - otherFrom) return false;
+        for (int p = from, q = otherFrom; p < to; p++, q++) {
+            if (section.get(p) != section.get(q)) return false;
+        }
+        return true;
+    }
+
+    private static ByteBuffer section(ByteBuffer map, int from, int to) {
+        ByteBuffer view = map.duplicate();
+        view.limit(to);
+        view.position(from);
+        return view.slice();
+    }
+
+    private static byte[][] encode(SymbolTable table) {
+        byte[][] encoded = new byte[table.size()][];
+        for (int i = 0; i < encoded.length; i++) {
+            encoded[i] = table.name(i).getBytes(UTF_8);
+        }
+        return encoded;
+    }
+
+    private static long tableSize(byte[][] names) {
+        long size = 4L * (names.length + 1);
+        for (byte[] name : names) size += name.length;
+        return size;
+    }
+
+    private static void writeNames(WritableByteChannel channel, ByteBuffer buffer,
+                                   byte[][] names) throws IOException {
+        int end = 0;
+        ensure(channel, buffer, 4);
+        buffer.putInt(0);
+        for (byte[] name : names) {
+            end += name.length;
+            ensure(channel, buffer, 4);
+            buffer.putInt(end);
+        }
+        for (byte[] name : names) {
+            int offset = 0;
+            while (offset < name.length) {
+                ensure(channel, buffer, 1);
+                int count = Math.min(buffer.remaining(), name.length - offset);
+                buffer.put(name, offset, count);
+                offset += count;
+            }
+        }
+    }
+
+    private static void ensure(WritableByteChannel channel, ByteBuffer buffer, int bytes)
+            throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(channel, buffer);
+            buffer.clear();
+        }
+    }
+
+    private static void flush(WritableByteChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.toaproj.engine;
+
+/**
+ * Outcome of a {@link BatchRunner} run: one entry per input sequence, in input order,
+ * plus aggregate counts.
+ */
+public final class BatchResult {
+
+    public static final byte ACCEPTED = 0;
+    public static final byte REJECTED = 1;
+    /** The sequence used an unknown symbol or hit an undefined transition. */
+    public static final byte INVALID = 2;
+
+    private final byte[] outcomes;
+    private final int[] stopStates;
+    private final int acceptedCount;
+    private final int rejectedCount;
+    private final int invalidCount;
+    private final long elapsedNanos;
+
+    BatchResult(byte[] outcomes, int[] stopStates, long elapsedNanos) {
+        this.outcomes = outcomes;
+        this.stopStates = stopStates;
+        this.elapsedNanos = elapsedNanos;
+        int accepted = 0, rejected = 0, invalid = 0;
+        for (byte outcome : outcomes) {
+            if (outcome == ACCEPTED) accepted++;
+            else if (outcome == REJECTED) rejected++;
+            else invalid++;
+        }
+        this.acceptedCount = accepted;
+        this.rejectedCount = rejected;
+        this.invalidCount = invalid;
+    }
+
+    public int size() {
+        return outcomes.length;
+    }
+
+    public byte outcome(int index) {
+        return outcomes[index];
+    }
+
+    public boolean isAccepted(int index) {
+        return outcomes[index] == ACCEPTED;
+    }
+
+    /**
+     * Returns the state the run ended in. For {@link #INVALID} sequences this is the
+     * last state reached before the offending symbol. NFA runs have no single stop
+     * state and report {@link Dfa#NO_STATE}.
+     */
+    public int stopState(int index) {
+        return stopStates[index];
+    }
+
+    public int acceptedCount() {
+        return acceptedCount;
+    }
+
+    public int rejectedCount() {
+        return rejectedCount;
+    }
+
+    public int invalidCount() {
+        return invalidCount;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+}
@@ -0,0 +1,335 @@
+package com.example.toaproj.engine;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs many input sequences through a {@link Dfa} or {@link Nfa} with no tracing or
+ * delays, split across a fork-join pool. Each sequence is a line of space-separated
+ * symbols, the same format the test screen accepts. Symbols are matched through a
+ * shared {@link SymbolTrie}, so no per-token strings are created.
+ *
+ * <p>NFAs are simulated bit-parallel ({@link BitParallelNfa} up to 64 states,
+ * {@link WideBitParallelNfa} beyond), so they never need eager determinization.
+ * Their results have no single stop state and report {@link Dfa#NO_STATE}.
+ *
+ * <p>A sequence that enters a dead state (one from which no accepting state is
+ * reachable, see {@link Reachability}) is rejected on the spot and the rest of its line
+ * is not read. When the automaton has no dead states the check is skipped.
+ *
+ * <p>Passing a {@link SimulationMetrics} records every sequence into it, each leaf task
+ * through its own stripe. Without one, the lanes run loops with no instrumentation at all.
+ */
+public final class BatchRunner {
+
+    /** Sequences per leaf task; small enough to balance, large enough to amortize forking. */
+    private static final int LEAF_SIZE = 256;
+
+    private final Dfa dfa;
+    private final BitParallelNfa narrowNfa;
+    private final WideBitParallelNfa wideNfa;
+    private final SymbolTrie alphabet;
+    private final ForkJoinPool pool;
+    // Dead-state filters, null when every state is live
+    private final BitSet deadStates;
+    private final long[] liveWords;
+
+    public BatchRunner(Dfa dfa) {
+        this(dfa, ForkJoinPool.commonPool());
+    }
+
+    public BatchRunner(Dfa dfa, ForkJoinPool pool) {
+        this.dfa = dfa;
+        this.narrowNfa = null;
+        this.wideNfa = null;
+        this.alphabet = new SymbolTrie(dfa.symbols().toArray());
+        this.pool = pool;
+        this.deadStates = dfa.deadStates();
+        this.liveWords = null;
+    }
+
+    public BatchRunner(Nfa nfa) {
+        this(nfa, ForkJoinPool.commonPool());
+    }
+
+    public BatchRunner(Nfa nfa, ForkJoinPool pool) {
+        this.dfa = null;
+        boolean narrow = nfa.stateCount() <= BitParallelNfa.MAX_STATES;
+        this.narrowNfa = narrow ? new BitParallelNfa(nfa) : null;
+        this.wideNfa = narrow ? null : new WideBitParallelNfa(nfa);
+        this.alphabet = new SymbolTrie(nfa.symbols().toArray());
+        this.pool = pool;
+        this.deadStates = null;
+        BitSet live = nfa.live();
+        this.liveWords = live.cardinality() == nfa.stateCount() ? null
+            : Arrays.copyOf(live.toLongArray(), (nfa.stateCount() + 63) >>> 6);
+    }
+
+    public BatchResult run(List<? extends CharSequence> sequences) {
+        return run(sequences, null);
+    }
+
+    /**
+     * @param metrics receives the batch as one run, or null for none; must have been
+     *                created for this runner's automaton
+     */
+    public BatchResult run(List<? extends CharSequence> sequences, SimulationMetrics metrics) {
+        long start = System.nanoTime();
+        byte[] outcomes = new byte[sequences.size()];
+        int[] stopStates = new int[sequences.size()];
+        if (metrics != null) metrics.beginRun();
+        pool.invoke(new Slice(sequences, outcomes, stopStates, 0, sequences.size(), metrics));
+        if (metrics != null) metrics.endRun();
+        return new BatchResult(outcomes, stopStates, System.nanoTime() - start);
+    }
+
+    /** Reads one sequence per line; blank lines are kept and test the empty input. */
+    public BatchResult run(BufferedReader reader) throws IOException {
+        return run(reader, null);
+    }
+
+    public BatchResult run(BufferedReader reader, SimulationMetrics metrics) throws IOException {
+        List<String> sequences = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            sequences.add(line);
+        }
+        return run(sequences, metrics);
+    }
+
+    /** Per-leaf scratch state; one lane runs its sequences one after another. */
+    private final class Lane {
+        final SymbolScanner scanner = new SymbolScanner(alphabet);
+        long[] current = wideNfa == null ? null : new long[wideNfa.words()];
+        long[] next = wideNfa == null ? null : new long[wideNfa.words()];
+        final SimulationMetrics.Recorder recorder;
+
+        Lane(SimulationMetrics.Recorder recorder) {
+            this.recorder = recorder;
+        }
+
+        /**
+         * Runs one sequence and writes its outcome and stop state into slot {@code index}.
+         */
+        void run(CharSequence sequence, byte[] outcomes, int[] stopStates, int index)
+                throws IOException {
+            scanner.reset(sequence);
+            if (recorder != null) {
+                runRecorded(outcomes, stopStates, index);
+            } else if (dfa != null) {
+                runDfa(outcomes, stopStates, index);
+            } else if (narrowNfa != null) {
+                runNarrow(outcomes, stopStates, index);
+            } else {
+                runWide(outcomes, stopStates, index);
+            }
+        }
+
+        /** The three loops below with counting added, kept apart so they stay lean. */
+        private void runRecorded(byte[] outcomes, int[] stopStates, int index) throws IOException {
+            recorder.begin();
+            if (dfa != null) {
+                runDfaRecorded(outcomes, stopStates, index);
+            } else if (narrowNfa != null) {
+                runNarrowRecorded(outcomes, stopStates, index);
+            } else {
+                runWideRecorded(outcomes, stopStates, index);
+            }
+            recorder.end(outcomes[index]);
+        }
+
+        private void runDfaRecorded(byte[] outcomes, int[] stopStates, int index) throws IOException {
+            final BitSet dead = deadStates;
+            int state = dfa.initialState();
+            recorder.visit(state);
+            int symbol;
+            while ((symbol = scanner.next()) != SymbolScanner.END) {
+                if (symbol < 0) {
+                    outcomes[index] = BatchResult.INVALID;
+                    stopStates[index] = state;
+                    return;
+                }
+                recorder.read(state, symbol);
+                int target = dfa.next(state, symbol);
+                if (target == Dfa.NO_STATE) {
+                    outcomes[index] = BatchResult.INVALID;
+                    stopStates[index] = state;
+                    return;
+                }
+                recorder.visit(target);
+                state = target;
+                if (dead != null && dead.get(state)) {
+                    outcomes[index] = BatchResult.REJECTED;
+                    stopStates[index] = state;
+                    return;
+                }
+            }
+            outcomes[index] = dfa.isAccepting(state) ? BatchResult.ACCEPTED : BatchResult.REJECTED;
+            stopStates[index] = state;
+        }
+
+        private void runNarrowRecorded(byte[] outcomes, int[] stopStates, int index) throws IOException {
+            final long live = liveWords == null ? -1L : liveWords[0];
+            long active = narrowNfa.start();
+            recorder.visitAll(active);
+            int symbol;
+            stopStates[index] = Dfa.NO_STATE;
+            while ((symbol = scanner.next()) != SymbolScanner.END) {
+                if (symbol >= 0) {
+                    recorder.readAll(active, symbol);
+                }
+                active = symbol < 0 ? 0 : narrowNfa.step(active, symbol);
+                if (active == 0) {
+                    outcomes[index] = BatchResult.INVALID;
+                    return;
+                }
+                recorder.visitAll(active);
+                if ((active & live) == 0) {
+                    outcomes[index] = BatchResult.REJECTED;
+                    return;
+                }
+            }
+            outcomes[index] = narrowNfa.isAccepting(active) ? BatchResult.ACCEPTED : BatchResult.REJECTED;
+        }
+
+        private void runWideRecorded(byte[] outcomes, int[] stopStates, int index) throws IOException {
+            wideNfa.start(current);
+            recorder.visitAll(current);
+            int symbol;
+            stopStates[index] = Dfa.NO_STATE;
+            while ((symbol = scanner.next()) != SymbolScanner.END) {
+                if (symbol >= 0) {
+                    recorder.readAll(current, symbol);
+                }
+                if (symbol < 0 || !wideNfa.step(current, symbol, next)) {
+                    outcomes[index] = BatchResult.INVALID;
+                    return;
+                }
+                long[] swap = current;
+                current = next;
+                next = swap;
+                recorder.visitAll(current);
+                if (liveWords != null && !anyLive(current)) {
+                    outcomes[index] = BatchResult.REJECTED;
+                    return;
+                }
+            }
+            outcomes[index] = wideNfa.isAccepting(current) ? BatchResult.ACCEPTED : BatchResult.REJECTED;
+        }
+
+        private void runDfa(byte[] outcomes, int[] stopStates, int index) throws IOException {
+            final BitSet dead = deadStates;
+            int state = dfa.initialState();
+            int symbol;
+            while ((symbol = scanner.next()) != SymbolScanner.END) {
+                int target = symbol < 0 ? Dfa.NO_STATE : dfa.next(state, symbol);
+                if (target == Dfa.NO_STATE) {
+                    outcomes[index] = BatchResult.INVALID;
+                    stopStates[index] = state;
+                    return;
+                }
+                state = target;
+                if (dead != null && dead.get(state)) {
+                    outcomes[index] = BatchResult.REJECTED;
+                    stopStates[index] = state;
+                    return;
+                }
+            }
+            outcomes[index] = dfa.isAccepting(state) ? BatchResult.ACCEPTED : BatchResult.REJECTED;
+            stopStates[index] = state;
+        }
+
+        private void runNarrow(byte[] outcomes, int[] stopStates, int index) throws IOException {
+            final long live = liveWords == null ? -1L : liveWords[0];
+            long active = narrowNfa.start();
+            int symbol;
+            stopStates[index] = Dfa.NO_STATE;
+            while ((symbol = scanner.next()) != SymbolScanner.END) {
+                active = symbol < 0 ? 0 : narrowNfa.step(active, symbol);
+                if (active == 0) {
+                    outcomes[index] = BatchResult.INVALID;
+                    return;
+                }
+                if ((active & live) == 0) {
+                    outcomes[index] = BatchResult.REJECTED;
+                    return;
+                }
+            }
+            outcomes[index] = narrowNfa.isAccepting(active) ? BatchResult.ACCEPTED : BatchResult.REJECTED;
+        }
+
+        private void runWide(byte[] outcomes, int[] stopStates, int index) throws IOException {
+            wideNfa.start(current);
+            int symbol;
+            stopStates[index] = Dfa.NO_STATE;
+            while ((symbol = scanner.next()) != SymbolScanner.END) {
+                if (symbol < 0 || !wideNfa.step(current, symbol, next)) {
+                    outcomes[index] = BatchResult.INVALID;
+                    return;
+                }
+                long[] swap = current;
+                current = next;
+                next = swap;
+                if (liveWords != null && !anyLive(current)) {
+                    outcomes[index] = BatchResult.REJECTED;
+                    return;
+                }
+            }
+            outcomes[index] = wideNfa.isAccepting(current) ? BatchResult.ACCEPTED : BatchResult.REJECTED;
+        }
+
+        private boolean anyLive(long[] active) {
+            for (int w = 0; w < active.length; w++) {
+                if ((active[w] & liveWords[w]) != 0) return true;
+            }
+            return false;
+        }
+    }
+
+    private final class Slice extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final List<? extends CharSequence> sequences;
+        private final byte[] outcomes;
+        private final int[] stopStates;
+        private final int from;
+        private final int to;
+        private final SimulationMetrics metrics;
+
+        Slice(List<? extends CharSequence> sequences, byte[] outcomes, int[] stopStates,
+              int from, int to, SimulationMetrics metrics) {
+            this.sequences = sequences;
+            this.outcomes = outcomes;
+            this.stopStates = stopStates;
+            this.from = from;
+            this.to = to;
+            this.metrics = metrics;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                // The stripe is held for the whole leaf, not claimed per sequence
+                try (SimulationMetrics.Recorder recorder = metrics == null ? null : metrics.open()) {
+                    Lane lane = new Lane(recorder);
+                    for (int i = from; i < to; i++) {
+                        lane.run(sequences.get(i), outcomes, stopStates, i);
+                    }
+                } catch (IOException e) {
+                    // CharSequence sources never throw
+                    throw new IllegalStateException(e);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Slice(sequences, outcomes, stopStates, from, mid, metrics),
+                      new Slice(sequences, outcomes, stopStates, mid, to, metrics));
+        }
+    }
+}
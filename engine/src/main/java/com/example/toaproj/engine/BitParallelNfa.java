@@ -0,0 +1,100 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+
+/**
+ * Simulates an {@link Nfa} of at most 64 states with the whole active set in one
+ * {@code long}. Epsilon-closures are folded into precomputed successor masks, and
+ * those are grouped into per-byte lookup tables: for each symbol and each 8-state
+ * chunk, {@code table[symbol][chunk][bits]} is the union of the successors of the
+ * states in {@code bits}. A step is therefore at most eight loads and ORs,
+ * independent of how many states are active. Immutable and thread-safe.
+ */
+public final class BitParallelNfa {
+
+    public static final int MAX_STATES = 64;
+
+    private final int symbolCount;
+    private final int chunks;
+    private final long[] table;
+    private final long initial;
+    private final long accepting;
+
+    public BitParallelNfa(Nfa nfa) {
+        int n = nfa.stateCount();
+        if (n > MAX_STATES) {
+            throw new IllegalArgumentException("At most " + MAX_STATES + " states, got " + n);
+        }
+        int k = nfa.symbolCount();
+        this.symbolCount = k;
+        this.chunks = Math.max(1, (n + 7) / 8);
+
+        Nfa.Closure closure = new Nfa.Closure(nfa);
+        long[] closureMask = new long[n];
+        int[] seed = new int[1];
+        for (int s = 0; s < n; s++) {
+            seed[0] = s;
+            for (int t : closure.of(seed, 1)) closureMask[s] |= 1L << t;
+        }
+
+        long acceptingMask = 0;
+        for (int s = 0; s < n; s++) {
+            if (nfa.isAccepting(s)) acceptingMask |= 1L << s;
+        }
+        this.accepting = acceptingMask;
+        this.initial = closureMask[nfa.initialState()];
+
+        this.table = new long[k * chunks * 256];
+        long[] successors = new long[chunks * 8];
+        for (int a = 0; a < k; a++) {
+            Arrays.fill(successors, 0L);
+            for (int s = 0; s < n; s++) {
+                for (int i = nfa.targetsStart(s, a), end = nfa.targetsEnd(s, a); i < end; i++) {
+                    successors[s] |= closureMask[nfa.target(i)];
+                }
+            }
+            for (int c = 0; c < chunks; c++) {
+                int base = (a * chunks + c) * 256;
+                for (int v = 1; v < 256; v++) {
+                    // Union for v = union for v minus its lowest bit, plus that bit's successors
+                    table[base + v] = table[base + (v & (v - 1))]
+                        | successors[c * 8 + Integer.numberOfTrailingZeros(v)];
+                }
+            }
+        }
+    }
+
+    public long start() {
+        return initial;
+    }
+
+    public long step(long active, int symbol) {
+        final long[] t = table;
+        int base = symbol * chunks * 256;
+        long next = 0;
+        for (int c = 0; c < chunks; c++, base += 256) {
+            next |= t[base + (int) ((active >>> (c << 3)) & 0xFF)];
+        }
+        return next;
+    }
+
+    public boolean isAccepting(long active) {
+        return (active & accepting) != 0;
+    }
+
+    /** Runs {@code length} symbols from {@code offset}; stops early once the set is empty. */
+    public long run(long active, int[] input, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end && active != 0; i++) {
+            active = step(active, input[i]);
+        }
+        return active;
+    }
+
+    public boolean accepts(int[] input) {
+        return isAccepting(run(initial, input, 0, input.length));
+    }
+
+    public int symbolCount() {
+        return symbolCount;
+    }
+}
@@ -0,0 +1,312 @@
+package com.example.toaproj.engine;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A deterministic automaton compiled into a dense transition table.
+ *
+ * <p>States and symbols are interned to ordinals and the transition function is
+ * stored row-major in a single {@code int[]} ({@code table[state * symbolCount + symbol]}),
+ * so a step is one multiply-add and one array load. Missing transitions are
+ * {@link #NO_STATE}. Instances are immutable and safe to share between threads.
+ */
+public final class Dfa implements Automaton, Simulation {
+
+    /** Target of an undefined transition, and the result of a run that got stuck. */
+    public static final int NO_STATE = Simulation.NO_STATE;
+
+    private final SymbolTable states;
+    private final SymbolTable symbols;
+    private final int[] table;
+    private final BitSet accepting;
+    private final int initialState;
+    private final int symbolCount;
+    // Productive states, found on first use by isDead; an immutable value, so racing
+    // threads at worst compute it twice
+    private volatile BitSet live;
+
+    /**
+     * Wraps an already-built table. {@code table} must hold
+     * {@code states.size() * symbols.size()} entries and is not copied.
+     */
+    public Dfa(SymbolTable states, SymbolTable symbols, int[] table,
+               BitSet accepting, int initialState) {
+        if (table.length != states.size() * symbols.size()) {
+            throw new IllegalArgumentException("Table size does not match states x symbols");
+        }
+        this.states = states;
+        this.symbols = symbols;
+        this.table = table;
+        this.accepting = accepting;
+        this.initialState = initialState;
+        this.symbolCount = symbols.size();
+    }
+
+    /**
+     * Compiles the {@code transitions} map used by the activities. States are numbered
+     * in the iteration order of {@code transitions}, followed by any target that has no
+     * row of its own; symbols are numbered in first-seen order.
+     */
+    public static Dfa compile(Map<String, ? extends Map<String, String>> transitions,
+                              Set<String> finalStates, String initialState) {
+        SymbolTable states = new SymbolTable();
+        SymbolTable symbols = new SymbolTable();
+        for (Map.Entry<String, ? extends Map<String, String>> row : transitions.entrySet()) {
+            states.intern(row.getKey());
+            for (Map.Entry<String, String> edge : row.getValue().entrySet()) {
+                symbols.intern(edge.getKey());
+                states.intern(edge.getValue());
+            }
+        }
+        int initial = states.intern(initialState);
+        for (String state : finalStates) {
+            states.intern(state);
+        }
+
+        int k = symbols.size();
+        int[] table = new int[states.size() * k];
+        Arrays.fill(table, NO_STATE);
+        for (Map.Entry<String, ? extends Map<String, String>> row : transitions.entrySet()) {
+            int base = states.indexOf(row.getKey()) * k;
+            for (Map.Entry<String, String> edge : row.getValue().entrySet()) {
+                table[base + symbols.indexOf(edge.getKey())] = states.indexOf(edge.getValue());
+            }
+        }
+
+        BitSet accepting = new BitSet(states.size());
+        for (String state : finalStates) {
+            accepting.set(states.indexOf(state));
+        }
+        return new Dfa(states, symbols, table, accepting, initial);
+    }
+
+    /**
+     * Returns this automaton with a different initial state and accepting set. The
+     * transition table and name tables are shared, so this is cheap for any size.
+     */
+    public Dfa withAcceptance(int initialState, BitSet accepting) {
+        return new Dfa(states, symbols, table, (BitSet) accepting.clone(), initialState);
+    }
+
+    /**
+     * Returns an equivalent automaton with every transition defined: undefined ones go to
+     * a new rejecting state {@code name} that loops on every symbol. Returns this if the
+     * table is already complete.
+     */
+    public Dfa withDeadState(String name) {
+        int n = states.size();
+        boolean complete = true;
+        for (int target : table) {
+            if (target == NO_STATE) {
+                complete = false;
+                break;
+            }
+        }
+        if (complete) return this;
+        if (states.indexOf(name) >= 0) {
+            throw new IllegalArgumentException("State " + name + " already exists");
+        }
+
+        String[] names = Arrays.copyOf(states.toArray(), n + 1);
+        names[n] = name;
+        int[] completed = Arrays.copyOf(table, (n + 1) * symbolCount);
+        for (int i = 0; i < completed.length; i++) {
+            if (i >= n * symbolCount || completed[i] == NO_STATE) completed[i] = n;
+        }
+        return new Dfa(new SymbolTable(names), symbols, completed, (BitSet) accepting.clone(), initialState);
+    }
+
+    @Override
+    public int stateCount() {
+        return states.size();
+    }
+
+    @Override
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    @Override
+    public int initialState() {
+        return initialState;
+    }
+
+    @Override
+    public boolean isAccepting(int state) {
+        return accepting.get(state);
+    }
+
+    @Override
+    public boolean isDead(int state) {
+        return !live().get(state);
+    }
+
+    /**
+     * States from which an accepting state is reachable, computed by one backward search
+     * the first time it is needed and then cached. Shared; callers must not modify it.
+     */
+    BitSet live() {
+        BitSet result = live;
+        if (result == null) {
+            live = result = Reachability.productive(this);
+        }
+        return result;
+    }
+
+    /**
+     * Dead states as a set, or null when there are none, so runners can skip the check
+     * entirely for the common case of a table where every state can still accept.
+     */
+    BitSet deadStates() {
+        BitSet dead = (BitSet) live().clone();
+        dead.flip(0, states.size());
+        return dead.isEmpty() ? null : dead;
+    }
+
+    /** Returns the target of {@code state} on {@code symbol}, or {@link #NO_STATE}. */
+    public int next(int state, int symbol) {
+        return table[state * symbolCount + symbol];
+    }
+
+    /**
+     * Runs {@code length} symbols starting at {@code offset} from {@code state}.
+     * Returns the state reached, or {@link #NO_STATE} if a transition was missing.
+     * Symbols must be valid ordinals; use {@link #symbolIndex} to map tokens first.
+     */
+    public int run(int state, int[] input, int offset, int length) {
+        final int[] t = table;
+        final int k = symbolCount;
+        for (int i = offset, end = offset + length; i < end && state >= 0; i++) {
+            state = t[state * k + input[i]];
+        }
+        return state;
+    }
+
+    /**
+     * Runs symbols pulled from {@code scanner} until it is exhausted. Returns the state
+     * reached, or {@link #NO_STATE} on an unknown symbol or missing transition, in which
+     * case the rest of the input is left unread.
+     */
+    public int run(int state, SymbolScanner scanner) throws IOException {
+        final int[] t = table;
+        final int k = symbolCount;
+        int symbol;
+        while (state >= 0 && (symbol = scanner.next()) != SymbolScanner.END) {
+            state = symbol < 0 ? NO_STATE : t[state * k + symbol];
+        }
+        return state;
+    }
+
+    /** Returns true if {@code input} drives the initial state into an accepting state. */
+    public boolean accepts(int[] input) {
+        int end = run(initialState, input, 0, input.length);
+        return end != NO_STATE && accepting.get(end);
+    }
+
+    public int stateIndex(String name) {
+        return states.indexOf(name);
+    }
+
+    public int symbolIndex(String name) {
+        return symbols.indexOf(name);
+    }
+
+    @Override
+    public String stateName(int state) {
+        return states.name(state);
+    }
+
+    @Override
+    public String symbolName(int symbol) {
+        return symbols.name(symbol);
+    }
+
+    public SymbolTable states() {
+        return states;
+    }
+
+    @Override
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    @Override
+    public int[] edges() {
+        int count = 0;
+        for (int target : table) {
+            if (target != NO_STATE) count++;
+        }
+        int[] edges = new int[count * 3];
+        int e = 0;
+        for (int i = 0; i < table.length; i++) {
+            if (table[i] != NO_STATE) {
+                edges[e++] = i / symbolCount;
+                edges[e++] = i % symbolCount;
+                edges[e++] = table[i];
+            }
+        }
+        return edges;
+    }
+
+    @Override
+    public int start() {
+        return initialState;
+    }
+
+    @Override
+    public int step(int state, int symbol) {
+        return table[state * symbolCount + symbol];
+    }
+
+    @Override
+    public String describe(int state) {
+        return states.name(state);
+    }
+
+    @Override
+    public int[] activeStates(int state) {
+        return new int[]{state};
+    }
+
+    /** Returns a copy of the accepting set. */
+    public BitSet accepting() {
+        return (BitSet) accepting.clone();
+    }
+
+    /** Returns a copy of the row-major transition table. */
+    public int[] table() {
+        return table.clone();
+    }
+
+    /** Names of the accepting states, as the activities store them. */
+    public HashSet<String> finalStateNames() {
+        HashSet<String> names = new HashSet<>();
+        for (int s = accepting.nextSetBit(0); s >= 0; s = accepting.nextSetBit(s + 1)) {
+            names.add(states.name(s));
+        }
+        return names;
+    }
+
+    /** Expands the table back into the map form used by the activities. */
+    public HashMap<String, HashMap<String, String>> toTransitions() {
+        HashMap<String, HashMap<String, String>> result = new LinkedHashMap<>();
+        for (int s = 0; s < states.size(); s++) {
+            HashMap<String, String> row = new LinkedHashMap<>();
+            for (int a = 0; a < symbolCount; a++) {
+                int target = table[s * symbolCount + a];
+                if (target != NO_STATE) {
+                    row.put(symbols.name(a), states.name(target));
+                }
+            }
+            result.put(states.name(s), row);
+        }
+        return result;
+    }
+}
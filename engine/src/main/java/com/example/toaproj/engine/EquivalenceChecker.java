@@ -0,0 +1,193 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+
+/**
+ * Language equivalence and inclusion between two DFAs, with a shortest counterexample.
+ *
+ * <p>Equivalence uses Hopcroft and Karp's algorithm: the states of both automata (each
+ * with an implicit dead state for undefined transitions) go into one union-find, and
+ * pairs that must be equivalent are merged as they are explored from the initial pair.
+ * A pair already in one class is not explored again, so there are at most
+ * |Q1| + |Q2| + 1 merges and the check is near-linear in the size of both tables. It
+ * stops at the first pair whose states disagree on acceptance.
+ *
+ * <p>Merging skips pairs, so the witness Hopcroft–Karp stops on need not be the shortest.
+ * The counterexample instead comes from a breadth-first search of the reachable product,
+ * which is only run once the automata are known to differ and stops at the first
+ * disagreeing pair. Inclusion has no such shortcut and always searches the product.
+ *
+ * <p>Symbols are matched by name; a symbol only one automaton has leads the other to its
+ * dead state.
+ */
+public final class EquivalenceChecker {
+
+    private static final int DEAD = -1;
+
+    private EquivalenceChecker() {
+    }
+
+    /** Checks whether {@code a} and {@code b} accept exactly the same strings. */
+    public static EquivalenceResult equivalence(Dfa a, Dfa b) {
+        long start = System.nanoTime();
+        SymbolTable symbols = ProductConstruction.jointSymbols(a, b);
+        int k = symbols.size();
+        int[] symbolA = ProductConstruction.sideSymbols(symbols, a);
+        int[] symbolB = ProductConstruction.sideSymbols(symbols, b);
+
+        // Ids: a's states, a's dead state, then b's states and b's dead state
+        int offsetB = a.stateCount() + 1;
+        int[] parent = new int[offsetB + b.stateCount() + 1];
+        int[] size = new int[parent.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+            size[i] = 1;
+        }
+
+        int[] queue = new int[64];
+        int head = 0, tail = 0;
+        union(parent, size, idA(a, a.initialState()), offsetB + idB(b, b.initialState()));
+        queue[tail++] = a.initialState();
+        queue[tail++] = b.initialState();
+        int explored = 0;
+        while (head < tail) {
+            int sa = queue[head++], sb = queue[head++];
+            explored++;
+            if (accepts(a, sa) != accepts(b, sb)) {
+                String[] witness = shortestCounterexample(a, b, symbols, symbolA, symbolB, false,
+                    new int[1]);
+                return new EquivalenceResult(false, witness, accepts(a, witness, symbols, symbolA),
+                    explored, System.nanoTime() - start);
+            }
+            for (int x = 0; x < k; x++) {
+                int ta = step(a, sa, symbolA[x]);
+                int tb = step(b, sb, symbolB[x]);
+                if (union(parent, size, idA(a, ta), offsetB + idB(b, tb))) {
+                    if (tail + 2 > queue.length) queue = Arrays.copyOf(queue, queue.length * 2);
+                    queue[tail++] = ta;
+                    queue[tail++] = tb;
+                }
+            }
+        }
+        return new EquivalenceResult(true, null, false, explored, System.nanoTime() - start);
+    }
+
+    /** Checks whether every string {@code a} accepts is also accepted by {@code b}. */
+    public static EquivalenceResult inclusion(Dfa a, Dfa b) {
+        long start = System.nanoTime();
+        SymbolTable symbols = ProductConstruction.jointSymbols(a, b);
+        int[] symbolA = ProductConstruction.sideSymbols(symbols, a);
+        int[] symbolB = ProductConstruction.sideSymbols(symbols, b);
+        int[] explored = new int[1];
+        String[] witness = shortestCounterexample(a, b, symbols, symbolA, symbolB, true, explored);
+        return new EquivalenceResult(witness == null, witness, witness != null, explored[0],
+            System.nanoTime() - start);
+    }
+
+    /**
+     * Breadth-first search of the reachable product for a pair where {@code a} accepts and
+     * {@code b} does not, or with {@code inclusion} false, where they disagree. Returns the
+     * symbols leading to the first such pair, or null if there is none. {@code explored[0]}
+     * receives the number of pairs visited.
+     */
+    private static String[] shortestCounterexample(Dfa a, Dfa b, SymbolTable symbols,
+                                                   int[] symbolA, int[] symbolB, boolean inclusion,
+                                                   int[] explored) {
+        int k = symbols.size();
+        LongIntMap index = new LongIntMap(Math.max(16, a.stateCount() + b.stateCount()));
+        int[] pairs = new int[64];
+        int[] from = new int[32];   // BFS parent of each pair, and the symbol taken from it
+        int[] via = new int[32];
+        int count = 0;
+        pairs[0] = a.initialState();
+        pairs[1] = b.initialState();
+        from[0] = -1;
+        index.put(ProductConstruction.key(pairs[0], pairs[1]), count++);
+
+        for (int p = 0; p < count; p++) {
+            int sa = pairs[2 * p], sb = pairs[2 * p + 1];
+            boolean inA = accepts(a, sa), inB = accepts(b, sb);
+            if (inA != inB && (inA || !inclusion)) {
+                explored[0] = p + 1;
+                return word(symbols, from, via, p);
+            }
+            for (int x = 0; x < k; x++) {
+                int ta = step(a, sa, symbolA[x]);
+                int tb = step(b, sb, symbolB[x]);
+                // Nothing is reachable from a dead a for inclusion, or from two dead states at all
+                if (ta == DEAD && (inclusion || tb == DEAD)) continue;
+                long key = ProductConstruction.key(ta, tb);
+                if (index.get(key) != LongIntMap.ABSENT) continue;
+                if (count == from.length) {
+                    from = Arrays.copyOf(from, count * 2);
+                    via = Arrays.copyOf(via, count * 2);
+                    pairs = Arrays.copyOf(pairs, count * 4);
+                }
+                index.put(key, count);
+                pairs[2 * count] = ta;
+                pairs[2 * count + 1] = tb;
+                from[count] = p;
+                via[count] = x;
+                count++;
+            }
+        }
+        explored[0] = count;
+        return null;
+    }
+
+    private static String[] word(SymbolTable symbols, int[] from, int[] via, int pair) {
+        int length = 0;
+        for (int p = pair; from[p] >= 0; p = from[p]) length++;
+        String[] word = new String[length];
+        for (int p = pair; from[p] >= 0; p = from[p]) {
+            word[--length] = symbols.name(via[p]);
+        }
+        return word;
+    }
+
+    private static int step(Dfa dfa, int state, int symbol) {
+        return state == DEAD || symbol < 0 ? DEAD : dfa.next(state, symbol);
+    }
+
+    private static boolean accepts(Dfa dfa, int state) {
+        return state != DEAD && dfa.isAccepting(state);
+    }
+
+    private static boolean accepts(Dfa a, String[] word, SymbolTable symbols, int[] symbolA) {
+        int state = a.initialState();
+        for (String symbol : word) {
+            state = step(a, state, symbolA[symbols.indexOf(symbol)]);
+        }
+        return accepts(a, state);
+    }
+
+    private static int idA(Dfa a, int state) {
+        return state == DEAD ? a.stateCount() : state;
+    }
+
+    private static int idB(Dfa b, int state) {
+        return state == DEAD ? b.stateCount() : state;
+    }
+
+    /** Merges the classes of {@code x} and {@code y}; false if they were already one. */
+    private static boolean union(int[] parent, int[] size, int x, int y) {
+        int rx = find(parent, x), ry = find(parent, y);
+        if (rx == ry) return false;
+        if (size[rx] < size[ry]) {
+            int t = rx;
+            rx = ry;
+            ry = t;
+        }
+        parent[ry] = rx;
+        size[rx] += size[ry];
+        return true;
+    }
+
+    private static int find(int[] parent, int x) {
+        while (parent[x] != x) {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
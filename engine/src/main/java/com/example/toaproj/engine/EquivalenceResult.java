@@ -0,0 +1,55 @@
+package com.example.toaproj.engine;
+
+/** The outcome of an {@link EquivalenceChecker} check. */
+public final class EquivalenceResult {
+
+    private final boolean holds;
+    private final String[] counterexample;
+    private final boolean acceptedByFirst;
+    private final int pairsExplored;
+    private final long elapsedNanos;
+
+    EquivalenceResult(boolean holds, String[] counterexample, boolean acceptedByFirst,
+                      int pairsExplored, long elapsedNanos) {
+        this.holds = holds;
+        this.counterexample = counterexample;
+        this.acceptedByFirst = acceptedByFirst;
+        this.pairsExplored = pairsExplored;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** True if the languages are equal, or for inclusion, if the first is contained in the second. */
+    public boolean holds() {
+        return holds;
+    }
+
+    /** A shortest string on which the automata disagree, as symbol names; null if the check holds. */
+    public String[] counterexample() {
+        return counterexample == null ? null : counterexample.clone();
+    }
+
+    /** True if the first automaton is the one accepting {@link #counterexample()}. */
+    public boolean acceptedByFirst() {
+        return acceptedByFirst;
+    }
+
+    /** State pairs visited before the answer was known. */
+    public int pairsExplored() {
+        return pairsExplored;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** The counterexample as the space-separated text the test screen takes. */
+    public String counterexampleText() {
+        if (counterexample == null) return null;
+        StringBuilder sb = new StringBuilder();
+        for (String symbol : counterexample) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(symbol);
+        }
+        return sb.toString();
+    }
+}
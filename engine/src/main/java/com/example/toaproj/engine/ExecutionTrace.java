@@ -0,0 +1,159 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * The most recent steps of a simulation as packed {@code (from, symbol, to)} int records
+ * in a ring buffer, so a run of any length keeps a fixed amount of memory. A step's
+ * number is implied by its position: step {@code n} (counting from 0) lives in slot
+ * {@code n % capacity} until it is overwritten.
+ *
+ * <p>States are whatever ordinals the caller records. Simulations whose state handles are
+ * not stable (a {@link LazyDfa} reuses evicted slots) can intern a display name per state
+ * with {@link #label} and record the label instead. Once a label has been interned, every
+ * id recorded until the next {@link #clear} must be a label. Labels are reference-counted
+ * by the records that hold them and freed when the last one is overwritten, so an NFA run
+ * that meets a new subset at every step still keeps at most about two labels per slot.
+ *
+ * <p>One thread records while another reads rows to display; every method is synchronized,
+ * and each is O(1) apart from interning a new label. A reader that resolves labels should
+ * hold the trace's lock across {@link #read} and {@link #labelName}, since a label freed in
+ * between may be reused.
+ */
+public final class ExecutionTrace {
+
+    public static final int DEFAULT_CAPACITY = 100_000;
+
+    private static final int STRIDE = 3;
+
+    private final int capacity;
+    private final int[] records;
+    private long steps;
+    private final HashMap<String, Integer> labelIndex = new HashMap<>();
+    private String[] labelNames = new String[16];
+    private int[] labelRefs = new int[16];
+    private int labelCount;
+    private int[] freeLabels = new int[16];
+    private int freeCount;
+    private final BitSet acceptingLabels = new BitSet();
+
+    public ExecutionTrace() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ExecutionTrace(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.records = new int[capacity * STRIDE];
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Appends one step, overwriting the oldest once the buffer is full. */
+    public synchronized void record(int from, int symbol, int to) {
+        int slot = (int) (steps % capacity) * STRIDE;
+        if (labelCount > 0) {
+            // Take the new references first, so a label both evicted and reused survives
+            labelRefs[from]++;
+            labelRefs[to]++;
+            if (steps >= capacity) {
+                release(records[slot]);
+                release(records[slot + 2]);
+            }
+        }
+        records[slot] = from;
+        records[slot + 1] = symbol;
+        records[slot + 2] = to;
+        steps++;
+    }
+
+    /** Total number of steps recorded, including ones already overwritten. */
+    public synchronized long steps() {
+        return steps;
+    }
+
+    /** Number of the oldest step still held. */
+    public synchronized long firstRetained() {
+        return Math.max(0, steps - capacity);
+    }
+
+    /**
+     * Copies step {@code step} into {@code out[0..2]} as from, symbol, to. Returns false,
+     * leaving {@code out} alone, if the step has not happened or was overwritten.
+     */
+    public synchronized boolean read(long step, int[] out) {
+        if (step < 0 || step >= steps || step < steps - capacity) return false;
+        int slot = (int) (step % capacity) * STRIDE;
+        out[0] = records[slot];
+        out[1] = records[slot + 1];
+        out[2] = records[slot + 2];
+        return true;
+    }
+
+    /** Returns the ordinal for a state display name, interning it on first use. */
+    public synchronized int label(String name, boolean accepting) {
+        Integer existing = labelIndex.get(name);
+        int label;
+        if (existing != null) {
+            label = existing;
+        } else {
+            if (labelCount == 0 && steps > 0) {
+                throw new IllegalStateException("Labels must be used from the first step");
+            }
+            if (freeCount > 0) {
+                label = freeLabels[--freeCount];
+            } else {
+                label = labelCount++;
+                if (label == labelNames.length) {
+                    labelNames = Arrays.copyOf(labelNames, label * 2);
+                    labelRefs = Arrays.copyOf(labelRefs, label * 2);
+                }
+            }
+            labelNames[label] = name;
+            labelRefs[label] = 0;
+            labelIndex.put(name, label);
+        }
+        if (accepting) acceptingLabels.set(label);
+        return label;
+    }
+
+    public synchronized String labelName(int label) {
+        return labelNames[label];
+    }
+
+    /** Number of labels currently interned, held by retained steps or not yet recorded. */
+    synchronized int liveLabels() {
+        return labelCount - freeCount;
+    }
+
+    private void release(int label) {
+        if (--labelRefs[label] > 0) return;
+        labelIndex.remove(labelNames[label]);
+        labelNames[label] = null;
+        acceptingLabels.clear(label);
+        if (freeCount == freeLabels.length) {
+            freeLabels = Arrays.copyOf(freeLabels, freeCount * 2);
+        }
+        freeLabels[freeCount++] = label;
+    }
+
+    public synchronized boolean isAcceptingLabel(int label) {
+        return acceptingLabels.get(label);
+    }
+
+    /** Forgets all steps and labels. */
+    public synchronized void clear() {
+        steps = 0;
+        labelIndex.clear();
+        Arrays.fill(labelNames, 0, labelCount, null);
+        labelCount = 0;
+        freeCount = 0;
+        acceptingLabels.clear();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+
+/** Hash key over a sorted {@code int[]} of NFA states. */
+final class IntSetKey {
+
+    final int[] members;
+    private final int hash;
+
+    IntSetKey(int[] members) {
+        this.members = members;
+        this.hash = Arrays.hashCode(members);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof IntSetKey && Arrays.equals(members, ((IntSetKey) o).members);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+
+/**
+ * Simulates an {@link Nfa} by determinizing on the fly: each subset of NFA states
+ * the input actually reaches becomes a cached DFA state, and its transitions are
+ * filled in the first time they are taken. The cache holds at most {@code capacity}
+ * subsets and evicts the least recently used one, so memory stays bounded even when
+ * eager subset construction would blow up exponentially.
+ *
+ * <p>Cached transitions point at a slot plus the slot's generation stamp; evicting a
+ * slot bumps its stamp, which invalidates every edge into it without a sweep.
+ * Handles returned by {@link #start()} and {@link #step} stay valid as long as they
+ * are the most recently used state, which is always true when stepping one run.
+ * Not thread-safe.
+ */
+public final class LazyDfa implements Simulation {
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final Nfa nfa;
+    private final int k;
+    private final int capacity;
+    private final Nfa.Closure closure;
+    private final HashMap<IntSetKey, Integer> index = new HashMap<>();
+
+    private final IntSetKey[] sets;
+    private final boolean[] accepting;
+    private final int[] stamp;
+    private final int[] next;
+    private final int[] nextStamp;
+    // Doubly linked LRU list over slots, most recent at head
+    private final int[] prev;
+    private final int[] after;
+    private int head = -1;
+    private int tail = -1;
+    private int size;
+
+    private int[] seeds;
+    private long misses;
+    private long evictions;
+
+    public LazyDfa(Nfa nfa) {
+        this(nfa, DEFAULT_CAPACITY);
+    }
+
+    public LazyDfa(Nfa nfa, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        this.nfa = nfa;
+        this.k = nfa.symbolCount();
+        this.capacity = capacity;
+        this.closure = new Nfa.Closure(nfa);
+        this.sets = new IntSetKey[capacity];
+        this.accepting = new boolean[capacity];
+        this.stamp = new int[capacity];
+        this.next = new int[capacity * k];
+        this.nextStamp = new int[capacity * k];
+        this.prev = new int[capacity];
+        this.after = new int[capacity];
+        this.seeds = new int[Math.max(1, nfa.stateCount())];
+    }
+
+    public Nfa nfa() {
+        return nfa;
+    }
+
+    @Override
+    public SymbolTable symbols() {
+        return nfa.symbols();
+    }
+
+    @Override
+    public int start() {
+        seeds[0] = nfa.initialState();
+        return intern(closure.of(seeds, 1));
+    }
+
+    @Override
+    public int step(int state, int symbol) {
+        touch(state);
+        int e = state * k + symbol;
+        int cachedStamp = nextStamp[e];
+        if (cachedStamp != 0) {
+            int target = next[e];
+            if (target == NO_STATE) return NO_STATE;
+            if (stamp[target] == cachedStamp) {
+                touch(target);
+                return target;
+            }
+        }
+
+        misses++;
+        int count = 0;
+        for (int s : sets[state].members) {
+            for (int i = nfa.targetsStart(s, symbol), end = nfa.targetsEnd(s, symbol); i < end; i++) {
+                if (count == seeds.length) seeds = Arrays.copyOf(seeds, count * 2);
+                seeds[count++] = nfa.target(i);
+            }
+        }
+        int target = count == 0 ? NO_STATE : intern(closure.of(seeds, count));
+        next[e] = target;
+        nextStamp[e] = target == NO_STATE ? 1 : stamp[target];
+        return target;
+    }
+
+    @Override
+    public boolean isAccepting(int state) {
+        return accepting[state];
+    }
+
+    /** A subset is dead when every member is; members are checked against the NFA once. */
+    @Override
+    public boolean isDead(int state) {
+        BitSet live = nfa.live();
+        for (int s : sets[state].members) {
+            if (live.get(s)) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String describe(int state) {
+        return nfa.describe(sets[state].members);
+    }
+
+    @Override
+    public int[] activeStates(int state) {
+        return sets[state].members.clone();
+    }
+
+    /** Number of subsets currently cached. */
+    public int cachedStates() {
+        return size;
+    }
+
+    /** Transitions that had to be computed rather than read from the cache. */
+    public long misses() {
+        return misses;
+    }
+
+    public long evictions() {
+        return evictions;
+    }
+
+    private int intern(int[] members) {
+        IntSetKey key = new IntSetKey(members);
+        Integer existing = index.get(key);
+        if (existing != null) {
+            touch(existing);
+            return existing;
+        }
+
+        int slot;
+        if (size < capacity) {
+            slot = size++;
+        } else {
+            slot = tail;
+            unlink(slot);
+            index.remove(sets[slot]);
+            evictions++;
+        }
+        // Stamps start at 1 so that 0 can mean "not computed"
+        stamp[slot] = stamp[slot] == Integer.MAX_VALUE ? 1 : stamp[slot] + 1;
+        sets[slot] = key;
+        boolean acc = false;
+        for (int s : members) {
+            if (nfa.isAccepting(s)) {
+                acc = true;
+                break;
+            }
+        }
+        accepting[slot] = acc;
+        Arrays.fill(nextStamp, slot * k, slot * k + k, 0);
+        index.put(key, slot);
+        pushFront(slot);
+        return slot;
+    }
+
+    private void touch(int slot) {
+        if (head != slot) {
+            unlink(slot);
+            pushFront(slot);
+        }
+    }
+
+    private void unlink(int slot) {
+        int p = prev[slot], a = after[slot];
+        if (p >= 0) after[p] = a;
+        else head = a;
+        if (a >= 0) prev[a] = p;
+        else tail = p;
+    }
+
+    private void pushFront(int slot) {
+        prev[slot] = -1;
+        after[slot] = head;
+        if (head >= 0) prev[head] = slot;
+        head = slot;
+        if (tail < 0) tail = slot;
+    }
+}
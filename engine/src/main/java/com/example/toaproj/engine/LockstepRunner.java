@@ -0,0 +1,333 @@
+package com.example.toaproj.engine;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs a corpus of short sequences through a {@link Dfa} in lockstep: a block of
+ * {@value #LANES} sequences advances one symbol position at a time, with the current
+ * states in an {@code int[]} indexed by lane and the symbols in position-major columns,
+ * so each step is one tight loop of independent table loads with no branches. Where
+ * {@link BatchRunner} waits on one load per symbol, here the loads of a whole column are
+ * in flight together.
+ *
+ * <p>The branches are folded into the table. Each row gets two extra columns, one that
+ * pads sequences shorter than their block and one for unknown symbols, and entries hold
+ * row offsets rather than ordinals. A missing transition leads to a shadow copy of the
+ * state it left, whose row loops back to itself, so the lane keeps its stop state; dead
+ * states loop the same way. Outcomes and stop states therefore match {@link BatchRunner}
+ * exactly.
+ *
+ * <p>{@link #encode} tokenizes and transposes a corpus once, sorting it by length first so
+ * little time goes on padding; see {@link Corpus}. Blocks are split across a fork-join
+ * pool.
+ */
+public final class LockstepRunner {
+
+    /** Sequences advanced together; their states fit comfortably in L1. */
+    public static final int LANES = 256;
+    /** Longer sequences skip the lanes; this bounds padding at {@code LANES} times it. */
+    public static final int MAX_LANE_LENGTH = 4096;
+    /** Blocks per leaf task, one of which may be the run of long sequences. */
+    private static final int LEAF_BLOCKS = 8;
+
+    private final Dfa dfa;
+    private final SymbolTrie alphabet;
+    private final ForkJoinPool pool;
+    private final int stride;
+    private final int pad;
+    private final int unknown;
+    /** Rows {@code 0..n-1} are the states, {@code n..2n-1} their shadows, {@code 2n} the entry. */
+    private final int[] table;
+
+    public LockstepRunner(Dfa dfa) {
+        this(dfa, ForkJoinPool.commonPool());
+    }
+
+    public LockstepRunner(Dfa dfa, ForkJoinPool pool) {
+        this.dfa = dfa;
+        this.alphabet = new SymbolTrie(dfa.symbols().toArray());
+        this.pool = pool;
+        int n = dfa.stateCount();
+        int k = dfa.symbolCount();
+        this.stride = k + 2;
+        this.pad = k;
+        this.unknown = k + 1;
+        long cells = (2L * n + 1) * stride;
+        if (cells > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Too large for lockstep: " + n + " states x " + k + " symbols");
+        }
+        this.table = new int[(int) cells];
+        BitSet dead = dfa.deadStates();
+        for (int s = 0; s < n; s++) {
+            if (dead != null && dead.get(s)) {
+                selfLoop(s);
+            } else {
+                fill(s, s);
+            }
+            selfLoop(n + s);
+        }
+        // Runs start from a copy of the initial state that nothing leads back to, so the
+        // first symbol is always read, as BatchRunner reads it, even from a dead state
+        fill(2 * n, dfa.initialState());
+    }
+
+    /** Gives {@code row} the transitions of {@code state}, missing ones into its shadow. */
+    private void fill(int row, int state) {
+        int n = dfa.stateCount();
+        int base = row * stride;
+        for (int a = 0; a < pad; a++) {
+            int target = dfa.next(state, a);
+            table[base + a] = (target == Dfa.NO_STATE ? n + state : target) * stride;
+        }
+        table[base + pad] = base;
+        table[base + unknown] = (n + state) * stride;
+    }
+
+    private void selfLoop(int row) {
+        int base = row * stride;
+        Arrays.fill(table, base, base + stride, base);
+    }
+
+    /**
+     * Tokenizes {@code sequences} into a corpus for this runner. Encoding once and running
+     * many times keeps tokenizing and the transpose out of the measured loop.
+     */
+    public Corpus encode(List<? extends CharSequence> sequences) {
+        int count = sequences.size();
+        int[] offsets = new int[count + 1];
+        int[] symbols = new int[Math.max(16, count * 4)];
+        int size = 0;
+        SymbolScanner scanner = new SymbolScanner(alphabet);
+        try {
+            for (int i = 0; i < count; i++) {
+                scanner.reset(sequences.get(i));
+                int symbol;
+                while ((symbol = scanner.next()) != SymbolScanner.END) {
+                    if (size == symbols.length) symbols = Arrays.copyOf(symbols, size * 2);
+                    symbols[size++] = symbol < 0 ? unknown : symbol;
+                }
+                offsets[i + 1] = size;
+            }
+        } catch (IOException e) {
+            // CharSequence sources never throw
+            throw new IllegalStateException(e);
+        }
+        return new Corpus(symbols, offsets, pad);
+    }
+
+    public BatchResult run(List<? extends CharSequence> sequences) {
+        long start = System.nanoTime();
+        Corpus corpus = encode(sequences);
+        return run(corpus, start);
+    }
+
+    /**
+     * Runs an encoded corpus; the elapsed time covers the run only. The corpus may come
+     * from any runner over the same alphabet, so one corpus can be run against several
+     * automata.
+     */
+    public BatchResult run(Corpus corpus) {
+        return run(corpus, System.nanoTime());
+    }
+
+    private BatchResult run(Corpus corpus, long start) {
+        if (corpus.pad != pad) {
+            throw new IllegalArgumentException("Corpus was encoded for a different alphabet");
+        }
+        int count = corpus.size();
+        byte[] outcomes = new byte[count];
+        int[] stopStates = new int[count];
+        pool.invoke(new Blocks(corpus, outcomes, stopStates, 0, corpus.blockCount() + 1));
+        return new BatchResult(outcomes, stopStates, System.nanoTime() - start);
+    }
+
+    /** Advances every lane of block {@code b} to the end of its columns. */
+    private void runBlock(Corpus corpus, int b, int[] states, byte[] outcomes, int[] stopStates) {
+        final int[] t = table;
+        final int[] columns = corpus.columns;
+        int first = b * LANES;
+        int width = Math.min(LANES, corpus.laneCount - first);
+        int length = corpus.blockLengths[b];
+        Arrays.fill(states, 0, width, entry());
+        for (int p = 0, column = corpus.blockStarts[b]; p < length; p++, column += width) {
+            for (int l = 0; l < width; l++) {
+                states[l] = t[states[l] + columns[column + l]];
+            }
+        }
+        for (int l = 0; l < width; l++) {
+            finish(corpus.order[first + l], states[l], outcomes, stopStates);
+        }
+    }
+
+    /** Sequences too long to share a block run one at a time over the same table. */
+    private void runLong(Corpus corpus, byte[] outcomes, int[] stopStates) {
+        final int[] t = table;
+        final int[] symbols = corpus.longSymbols;
+        final int[] offsets = corpus.longOffsets;
+        for (int i = 0; i + 1 < offsets.length; i++) {
+            int state = entry();
+            for (int p = offsets[i], end = offsets[i + 1]; p < end; p++) {
+                state = t[state + symbols[p]];
+            }
+            finish(corpus.order[corpus.laneCount + i], state, outcomes, stopStates);
+        }
+    }
+
+    private int entry() {
+        return 2 * dfa.stateCount() * stride;
+    }
+
+    private void finish(int sequence, int offset, byte[] outcomes, int[] stopStates) {
+        int n = dfa.stateCount();
+        int row = offset / stride;
+        if (row >= n && row < 2 * n) {
+            outcomes[sequence] = BatchResult.INVALID;
+            stopStates[sequence] = row - n;
+            return;
+        }
+        int state = row == 2 * n ? dfa.initialState() : row;
+        outcomes[sequence] = dfa.isAccepting(state) ? BatchResult.ACCEPTED : BatchResult.REJECTED;
+        stopStates[sequence] = state;
+    }
+
+    /**
+     * Sequences encoded as alphabet ordinals and sorted by length, then cut into blocks of
+     * {@value #LANES} whose symbols are stored position-major: within a block, position
+     * {@code p} of lane {@code l} is at {@code start + p * width + l}, and lanes shorter
+     * than the block are padded. Because of the sort, padding costs at most
+     * {@code LANES} times the longest blocked sequence in all. Sequences longer than
+     * {@value #MAX_LANE_LENGTH} symbols are kept apart and run one at a time.
+     */
+    public static final class Corpus {
+        final int pad;
+        final int size;
+        final int[] order;
+        /** Sequences in blocks; they come first in {@link #order}. */
+        final int laneCount;
+        final int[] columns;
+        final int[] blockStarts;
+        final int[] blockLengths;
+        final int[] longSymbols;
+        final int[] longOffsets;
+
+        Corpus(int[] symbols, int[] offsets, int pad) {
+            this.pad = pad;
+            this.size = offsets.length - 1;
+            this.order = byLength(offsets);
+            int lanes = size;
+            while (lanes > 0 && length(offsets, order[lanes - 1]) > MAX_LANE_LENGTH) lanes--;
+            this.laneCount = lanes;
+
+            int blocks = (lanes + LANES - 1) / LANES;
+            blockStarts = new int[blocks + 1];
+            blockLengths = new int[blocks];
+            for (int b = 0; b < blocks; b++) {
+                int first = b * LANES;
+                int width = Math.min(LANES, lanes - first);
+                blockLengths[b] = length(offsets, order[first + width - 1]);
+                blockStarts[b + 1] = blockStarts[b] + blockLengths[b] * width;
+            }
+            columns = new int[blockStarts[blocks]];
+            for (int b = 0; b < blocks; b++) {
+                int first = b * LANES;
+                int width = Math.min(LANES, lanes - first);
+                for (int l = 0; l < width; l++) {
+                    int seq = order[first + l];
+                    int column = blockStarts[b] + l;
+                    int p = offsets[seq];
+                    for (int end = offsets[seq + 1]; p < end; p++, column += width) {
+                        columns[column] = symbols[p];
+                    }
+                    for (int end = blockStarts[b + 1]; column < end; column += width) {
+                        columns[column] = pad;
+                    }
+                }
+            }
+
+            longOffsets = new int[size - lanes + 1];
+            for (int i = lanes; i < size; i++) {
+                longOffsets[i - lanes + 1] = longOffsets[i - lanes] + length(offsets, order[i]);
+            }
+            longSymbols = new int[longOffsets[longOffsets.length - 1]];
+            for (int i = lanes; i < size; i++) {
+                int seq = order[i];
+                System.arraycopy(symbols, offsets[seq], longSymbols, longOffsets[i - lanes],
+                    length(offsets, seq));
+            }
+        }
+
+        public int size() {
+            return size;
+        }
+
+        int blockCount() {
+            return blockLengths.length;
+        }
+
+        private static int length(int[] offsets, int sequence) {
+            return offsets[sequence + 1] - offsets[sequence];
+        }
+
+        /** Counting sort of sequence indices by length; stable, so ties keep input order. */
+        private static int[] byLength(int[] offsets) {
+            int count = offsets.length - 1;
+            int longest = 0;
+            for (int i = 0; i < count; i++) {
+                longest = Math.max(longest, length(offsets, i));
+            }
+            int[] starts = new int[longest + 2];
+            for (int i = 0; i < count; i++) {
+                starts[length(offsets, i) + 1]++;
+            }
+            for (int len = 1; len < starts.length; len++) {
+                starts[len] += starts[len - 1];
+            }
+            int[] order = new int[count];
+            for (int i = 0; i < count; i++) {
+                order[starts[length(offsets, i)]++] = i;
+            }
+            return order;
+        }
+    }
+
+    private final class Blocks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Corpus corpus;
+        private final byte[] outcomes;
+        private final int[] stopStates;
+        private final int from;
+        private final int to;
+
+        Blocks(Corpus corpus, byte[] outcomes, int[] stopStates, int from, int to) {
+            this.corpus = corpus;
+            this.outcomes = outcomes;
+            this.stopStates = stopStates;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_BLOCKS) {
+                int[] states = new int[LANES];
+                for (int b = from; b < to; b++) {
+                    if (b == corpus.blockCount()) {
+                        runLong(corpus, outcomes, stopStates);
+                    } else {
+                        runBlock(corpus, b, states, outcomes, stopStates);
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Blocks(corpus, outcomes, stopStates, from, mid),
+                      new Blocks(corpus, outcomes, stopStates, mid, to));
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from {@code long} keys to non-negative {@code int} values,
+ * with linear probing. Two arrays hold the whole map and no entry is an object, so it
+ * takes a fraction of the memory of a {@code HashMap<Long, Integer>} and no boxing.
+ */
+final class LongIntMap {
+
+    static final int ABSENT = -1;
+
+    private long[] keys;
+    private int[] values;   // ABSENT marks a free slot
+    private int mask;
+    private int size;
+
+    LongIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(4, expected * 2 - 1)) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        Arrays.fill(values, ABSENT);
+        mask = capacity - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Removes every entry, keeping the capacity. */
+    void clear() {
+        if (size == 0) return;
+        Arrays.fill(values, ABSENT);
+        size = 0;
+    }
+
+    int get(long key) {
+        for (int i = slot(key); ; i = (i + 1) & mask) {
+            if (values[i] == ABSENT) return ABSENT;
+            if (keys[i] == key) return values[i];
+        }
+    }
+
+    /** Maps {@code key} to {@code value}, which must be non-negative. */
+    void put(long key, int value) {
+        int i = slot(key);
+        while (values[i] != ABSENT && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        if (values[i] == ABSENT) {
+            if (++size * 2 > keys.length) {
+                values[i] = value;
+                keys[i] = key;
+                grow();
+                return;
+            }
+            keys[i] = key;
+        }
+        values[i] = value;
+    }
+
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & mask;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(values, ABSENT);
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldValues[j] == ABSENT) continue;
+            int i = slot(oldKeys[j]);
+            while (values[i] != ABSENT) {
+                i = (i + 1) & mask;
+            }
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+}
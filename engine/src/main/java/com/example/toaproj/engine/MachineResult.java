@@ -0,0 +1,74 @@
+package com.example.toaproj.engine;
+
+/** The outcome of a {@link Pda} or {@link TuringMachine} run under a step and memory budget. */
+public final class MachineResult {
+
+    public static final byte ACCEPTED = 0;
+    public static final byte REJECTED = 1;
+    /** The step budget ran out before the machine halted. */
+    public static final byte STEP_LIMIT = 2;
+    /** The stack or tape outgrew the cell budget. */
+    public static final byte MEMORY_LIMIT = 3;
+
+    private final byte outcome;
+    private final long steps;
+    private final int cells;
+    private final long elapsedNanos;
+    private final String tape;
+
+    MachineResult(byte outcome, long steps, int cells, long elapsedNanos, String tape) {
+        this.outcome = outcome;
+        this.steps = steps;
+        this.cells = cells;
+        this.elapsedNanos = elapsedNanos;
+        this.tape = tape;
+    }
+
+    public byte outcome() {
+        return outcome;
+    }
+
+    public boolean accepted() {
+        return outcome == ACCEPTED;
+    }
+
+    /** True if a budget stopped the run, so the input was neither accepted nor rejected. */
+    public boolean exhausted() {
+        return outcome == STEP_LIMIT || outcome == MEMORY_LIMIT;
+    }
+
+    /** Configurations visited: transitions taken by a TM, configurations expanded by a PDA. */
+    public long steps() {
+        return steps;
+    }
+
+    /** Stack cells (PDA) or tape cells (TM) in use at the end of the run. */
+    public int cells() {
+        return cells;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double configurationsPerSecond() {
+        return elapsedNanos == 0 ? 0 : steps * 1e9 / elapsedNanos;
+    }
+
+    /** For a TM, the tape from its first to its last non-blank cell, space-separated; else null. */
+    public String tape() {
+        return tape;
+    }
+
+    /** A one-line report such as {@code "ACCEPTED after 1200 steps, 40 cells"}. */
+    public String summary() {
+        String verdict;
+        switch (outcome) {
+            case ACCEPTED: verdict = "ACCEPTED"; break;
+            case REJECTED: verdict = "REJECTED"; break;
+            case STEP_LIMIT: verdict = "STOPPED (step limit)"; break;
+            default: verdict = "STOPPED (memory limit)"; break;
+        }
+        return verdict + " after " + steps + " steps, " + cells + " cells";
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.toaproj.engine;
+
+import java.util.Locale;
+
+/**
+ * Totals of a {@link SimulationMetrics} at one moment, summed over its stripes. Memory
+ * figures are -1 when the platform's probe could not measure them.
+ */
+public final class MetricsSnapshot {
+
+    private final Automaton automaton;
+    private final long[] visits;
+    private final long[] reads;
+    private final long[] totals;
+    private final long runs;
+    private final long runNanos;
+    private final long gcCount;
+    private final long gcNanos;
+    private final long allocatedBytes;
+
+    MetricsSnapshot(Automaton automaton, long[] visits, long[] reads, long[] totals, long runs,
+                    long runNanos, long gcCount, long gcNanos, long allocatedBytes) {
+        this.automaton = automaton;
+        this.visits = visits;
+        this.reads = reads;
+        this.totals = totals;
+        this.runs = runs;
+        this.runNanos = runNanos;
+        this.gcCount = gcCount;
+        this.gcNanos = gcNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public long runs() {
+        return runs;
+    }
+
+    public long runNanos() {
+        return runNanos;
+    }
+
+    public long sequences() {
+        return totals[SimulationMetrics.Recorder.SEQUENCES];
+    }
+
+    public long accepted() {
+        return totals[SimulationMetrics.Recorder.ACCEPTED];
+    }
+
+    public long rejected() {
+        return totals[SimulationMetrics.Recorder.REJECTED];
+    }
+
+    /** Sequences that stopped on a symbol with no transition. */
+    public long invalid() {
+        return totals[SimulationMetrics.Recorder.INVALID];
+    }
+
+    public long steps() {
+        return totals[SimulationMetrics.Recorder.STEPS];
+    }
+
+    /**
+     * Steps per second of time spent inside sequences. Parallel lanes add their times,
+     * so for a batch this is the rate of one thread.
+     */
+    public double stepsPerSecond() {
+        long nanos = totals[SimulationMetrics.Recorder.SEQUENCE_NANOS];
+        return nanos == 0 ? 0 : steps() * 1e9 / nanos;
+    }
+
+    /** Mean time from the start of an accepted sequence to its verdict, or 0. */
+    public double meanNanosToAccept() {
+        return accepted() == 0 ? 0 : (double) totals[SimulationMetrics.Recorder.ACCEPT_NANOS] / accepted();
+    }
+
+    /** Mean time to reject, counting sequences stopped by an invalid symbol. */
+    public double meanNanosToReject() {
+        long count = rejected() + invalid();
+        return count == 0 ? 0 : (double) totals[SimulationMetrics.Recorder.REJECT_NANOS] / count;
+    }
+
+    public long gcCount() {
+        return gcCount;
+    }
+
+    public long gcNanos() {
+        return gcNanos;
+    }
+
+    public long allocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /** Times {@code state} was active after a step, or at the start of a sequence. */
+    public long visits(int state) {
+        return visits[state];
+    }
+
+    /** Copy of every state's visit count, indexed by state ordinal. */
+    public long[] visitCounts() {
+        return visits.clone();
+    }
+
+    /**
+     * Times {@code symbol} was read while {@code state} was active; for a DFA, the number
+     * of times that transition was taken or found missing.
+     */
+    public long reads(int state, int symbol) {
+        return reads[state * automaton.symbolCount() + symbol];
+    }
+
+    /** A one-line report such as {@code "1200 steps at 3.1M steps/s, 40 sequences (12 accepted)"}. */
+    public String summary() {
+        return String.format(Locale.US, "%d steps at %.1fM steps/s, %d sequences (%d accepted)",
+            steps(), stepsPerSecond() / 1e6, sequences(), accepted());
+    }
+
+    /**
+     * The snapshot as a JSON object: totals, then {@code "stateVisits"} keyed by state name
+     * and {@code "transitions"} as {@code [from, symbol, count]} triples for every pair read
+     * at least once. Unknown memory figures are {@code null}.
+     */
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256 + visits.length * 16);
+        json.append("{\n");
+        field(json, "states", automaton.stateCount());
+        field(json, "symbols", automaton.symbolCount());
+        field(json, "runs", runs);
+        field(json, "runNanos", runNanos);
+        field(json, "sequences", sequences());
+        field(json, "accepted", accepted());
+        field(json, "rejected", rejected());
+        field(json, "invalid", invalid());
+        field(json, "steps", steps());
+        json.append("  \"stepsPerSecond\": ").append(Math.round(stepsPerSecond())).append(",\n");
+        json.append("  \"meanNanosToAccept\": ").append(Math.round(meanNanosToAccept())).append(",\n");
+        json.append("  \"meanNanosToReject\": ").append(Math.round(meanNanosToReject())).append(",\n");
+        field(json, "gcCount", gcCount);
+        field(json, "gcNanos", gcNanos);
+        field(json, "allocatedBytes", allocatedBytes);
+
+        json.append("  \"stateVisits\": {");
+        for (int s = 0; s < visits.length; s++) {
+            if (s > 0) json.append(", ");
+            string(json, automaton.stateName(s)).append(": ").append(visits[s]);
+        }
+        json.append("},\n");
+
+        json.append("  \"transitions\": [");
+        int k = automaton.symbolCount();
+        boolean first = true;
+        for (int i = 0; i < reads.length; i++) {
+            if (reads[i] == 0) continue;
+            json.append(first ? "\n    [" : ",\n    [");
+            first = false;
+            string(json, automaton.stateName(i / k)).append(", ");
+            string(json, automaton.symbolName(i % k)).append(", ").append(reads[i]).append(']');
+        }
+        json.append(first ? "]\n" : "\n  ]\n");
+        return json.append("}\n").toString();
+    }
+
+    private static void field(StringBuilder json, String name, long value) {
+        json.append("  \"").append(name).append("\": ");
+        if (value < 0) {
+            json.append("null");
+        } else {
+            json.append(value);
+        }
+        json.append(",\n");
+    }
+
+    private static StringBuilder string(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format(Locale.US, "\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        return json.append('"');
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.toaproj.engine;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+
+/** The outcome of {@link Minimizer#minimize}: the minimal DFA and how states were merged. */
+public final class MinimizationResult {
+
+    private final Dfa original;
+    private final Dfa minimized;
+    private final int[] stateMap;
+    private final int reachableCount;
+    private final long elapsedNanos;
+
+    MinimizationResult(Dfa original, Dfa minimized, int[] stateMap, int reachableCount,
+                       long elapsedNanos) {
+        this.original = original;
+        this.minimized = minimized;
+        this.stateMap = stateMap;
+        this.reachableCount = reachableCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public Dfa minimized() {
+        return minimized;
+    }
+
+    /**
+     * Maps each original state ordinal to its ordinal in {@link #minimized()}, or
+     * {@link Dfa#NO_STATE} if the state was unreachable or dead.
+     */
+    public int mappedState(int originalState) {
+        return stateMap[originalState];
+    }
+
+    /**
+     * Original state name to the name of the state it was merged into. Removed states
+     * are absent.
+     */
+    public HashMap<String, String> renaming() {
+        HashMap<String, String> renaming = new LinkedHashMap<>();
+        for (int s = 0; s < stateMap.length; s++) {
+            if (stateMap[s] != Dfa.NO_STATE) {
+                renaming.put(original.stateName(s), minimized.stateName(stateMap[s]));
+            }
+        }
+        return renaming;
+    }
+
+    public int originalStateCount() {
+        return original.stateCount();
+    }
+
+    public int minimizedStateCount() {
+        return minimized.stateCount();
+    }
+
+    public int unreachableCount() {
+        return original.stateCount() - reachableCount;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /** A one-line report such as {@code "Minimized 12 → 7 states (2 unreachable, 3 merged)"}. */
+    public String summary() {
+        int removed = originalStateCount() - minimizedStateCount();
+        return "Minimized " + originalStateCount() + " → " + minimizedStateCount() + " states ("
+            + unreachableCount() + " unreachable, " + (removed - unreachableCount()) + " merged)";
+    }
+}
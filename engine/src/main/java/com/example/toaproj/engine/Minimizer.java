@@ -0,0 +1,219 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Hopcroft's partition-refinement DFA minimization, O(n·k·log n).
+ *
+ * <p>Everything is kept in primitive arrays: blocks are contiguous ranges of one
+ * permutation array, and predecessors are a CSR index per (symbol, target), so
+ * memory is a few ints per transition regardless of how the automaton was built.
+ * Unreachable states are dropped first. Undefined transitions are treated as going
+ * to an implicit dead state, which is removed again from the result so the
+ * minimized automaton keeps the same partial-table shape.
+ */
+public final class Minimizer {
+
+    private Minimizer() {
+    }
+
+    public static MinimizationResult minimize(Dfa dfa) {
+        long start = System.nanoTime();
+        final int n0 = dfa.stateCount();
+        final int k = dfa.symbolCount();
+        final int[] table = dfa.table();
+
+        // 1. Reachable states, renumbered densely in BFS order; slot n is the implicit sink.
+        int[] dense = new int[n0];
+        Arrays.fill(dense, -1);
+        int[] order = new int[n0];
+        int n = 0;
+        boolean partial = false;
+        dense[dfa.initialState()] = n;
+        order[n++] = dfa.initialState();
+        for (int head = 0; head < n; head++) {
+            int base = order[head] * k;
+            for (int a = 0; a < k; a++) {
+                int t = table[base + a];
+                if (t == Dfa.NO_STATE) {
+                    partial = true;
+                } else if (dense[t] < 0) {
+                    dense[t] = n;
+                    order[n++] = t;
+                }
+            }
+        }
+        final int reachable = n;
+        final int sink = partial ? n++ : -1;
+
+        int[] delta = new int[n * k];
+        for (int s = 0; s < reachable; s++) {
+            int base = order[s] * k;
+            for (int a = 0; a < k; a++) {
+                int t = table[base + a];
+                delta[s * k + a] = t == Dfa.NO_STATE ? sink : dense[t];
+            }
+        }
+        if (partial) {
+            Arrays.fill(delta, sink * k, sink * k + k, sink);
+        }
+
+        // 2. Inverse transitions in CSR form, keyed by a * n + target.
+        int[] predStart = new int[n * k + 1];
+        for (int s = 0; s < n; s++) {
+            for (int a = 0; a < k; a++) {
+                predStart[a * n + delta[s * k + a] + 1]++;
+            }
+        }
+        for (int i = 0; i < n * k; i++) {
+            predStart[i + 1] += predStart[i];
+        }
+        int[] preds = new int[n * k];
+        int[] fill = Arrays.copyOf(predStart, n * k);
+        for (int s = 0; s < n; s++) {
+            for (int a = 0; a < k; a++) {
+                preds[fill[a * n + delta[s * k + a]]++] = s;
+            }
+        }
+
+        // 3. Initial partition {accepting, rejecting}.
+        int[] elems = new int[n];
+        int[] loc = new int[n];
+        int[] blockOf = new int[n];
+        int[] first = new int[n + 1];
+        int[] end = new int[n + 1];
+        int[] marked = new int[n + 1];
+        int acceptingCount = 0;
+        for (int s = 0; s < reachable; s++) {
+            if (dfa.isAccepting(order[s])) acceptingCount++;
+        }
+        int lo = 0, hi = acceptingCount;
+        for (int s = 0; s < n; s++) {
+            boolean acc = s < reachable && dfa.isAccepting(order[s]);
+            int at = acc ? lo++ : hi++;
+            elems[at] = s;
+            loc[s] = at;
+        }
+        int blocks = 0;
+        if (acceptingCount > 0) {
+            first[blocks] = 0;
+            end[blocks++] = acceptingCount;
+        }
+        if (acceptingCount < n) {
+            first[blocks] = acceptingCount;
+            end[blocks++] = n;
+        }
+        for (int b = 0; b < blocks; b++) {
+            for (int i = first[b]; i < end[b]; i++) blockOf[elems[i]] = b;
+        }
+
+        // 4. Refinement. A splitter block is applied for every symbol at once; when a
+        // block splits, the smaller half is queued unless the block was already queued.
+        int[] worklist = new int[n + 1];
+        boolean[] queued = new boolean[n + 1];
+        int wlSize = 0;
+        if (blocks == 2) {
+            int smaller = end[0] - first[0] <= end[1] - first[1] ? 0 : 1;
+            worklist[wlSize++] = smaller;
+            queued[smaller] = true;
+        }
+        int[] splitter = new int[n];
+        int[] touched = new int[n + 1];
+
+        while (wlSize > 0) {
+            int s = worklist[--wlSize];
+            queued[s] = false;
+            int size = end[s] - first[s];
+            System.arraycopy(elems, first[s], splitter, 0, size);
+
+            for (int a = 0; a < k; a++) {
+                int touchedCount = 0;
+                int keyBase = a * n;
+                for (int i = 0; i < size; i++) {
+                    int t = splitter[i];
+                    for (int p = predStart[keyBase + t], pEnd = predStart[keyBase + t + 1]; p < pEnd; p++) {
+                        int q = preds[p];
+                        int b = blockOf[q];
+                        int boundary = first[b] + marked[b];
+                        if (loc[q] < boundary) continue; // already marked
+                        if (marked[b] == 0) touched[touchedCount++] = b;
+                        // Swap q to the marked prefix of its block
+                        int other = elems[boundary];
+                        elems[loc[q]] = other;
+                        loc[other] = loc[q];
+                        elems[boundary] = q;
+                        loc[q] = boundary;
+                        marked[b]++;
+                    }
+                }
+
+                for (int i = 0; i < touchedCount; i++) {
+                    int b = touched[i];
+                    int m = marked[b];
+                    marked[b] = 0;
+                    if (m == end[b] - first[b]) continue;
+                    int z = blocks++;
+                    first[z] = first[b];
+                    end[z] = first[b] + m;
+                    first[b] = end[z];
+                    for (int j = first[z]; j < end[z]; j++) blockOf[elems[j]] = z;
+                    if (queued[b]) {
+                        queued[z] = true;
+                        worklist[wlSize++] = z;
+                    } else {
+                        int add = end[z] - first[z] <= end[b] - first[b] ? z : b;
+                        queued[add] = true;
+                        worklist[wlSize++] = add;
+                    }
+                }
+            }
+        }
+
+        // 5. Build the quotient. Blocks are numbered by their first member in BFS order,
+        // so the initial state is always 0; the sink's block is dropped.
+        int sinkBlock = sink >= 0 ? blockOf[sink] : -1;
+        int[] newIndex = new int[blocks];
+        Arrays.fill(newIndex, -1);
+        int[] representative = new int[blocks];
+        int m = 0;
+        for (int s = 0; s < reachable; s++) {
+            int b = blockOf[s];
+            if (b != sinkBlock && newIndex[b] < 0) {
+                newIndex[b] = m;
+                representative[m++] = s;
+            }
+        }
+
+        SymbolTable states = new SymbolTable();
+        int[] newTable = new int[m * k];
+        BitSet accepting = new BitSet(m);
+        for (int i = 0; i < m; i++) {
+            int s = representative[i];
+            states.intern(dfa.stateName(order[s]));
+            if (dfa.isAccepting(order[s])) accepting.set(i);
+            for (int a = 0; a < k; a++) {
+                int tb = blockOf[delta[s * k + a]];
+                newTable[i * k + a] = tb == sinkBlock ? Dfa.NO_STATE : newIndex[tb];
+            }
+        }
+
+        int[] stateMap = new int[n0];
+        Arrays.fill(stateMap, Dfa.NO_STATE);
+        for (int s = 0; s < reachable; s++) {
+            stateMap[order[s]] = newIndex[blockOf[s]];
+        }
+
+        // An automaton that accepts nothing and has no explicit transitions still needs
+        // its initial state.
+        if (m == 0) {
+            states.intern(dfa.stateName(dfa.initialState()));
+            newTable = new int[k];
+            Arrays.fill(newTable, Dfa.NO_STATE);
+            stateMap[dfa.initialState()] = 0;
+        }
+
+        Dfa minimized = new Dfa(states, new SymbolTable(dfa.symbols().toArray()), newTable, accepting, 0);
+        return new MinimizationResult(dfa, minimized, stateMap, reachable, System.nanoTime() - start);
+    }
+}
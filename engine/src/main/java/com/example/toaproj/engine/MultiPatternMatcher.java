@@ -0,0 +1,296 @@
+package com.example.toaproj.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Finds every position in a text where any of several DFAs accepts a substring ending
+ * there, in one pass, as Aho–Corasick does for a set of words.
+ *
+ * <p>The text is scanned byte by byte. Each pattern's symbols must be single characters
+ * below 256, matched against the byte of that value (ASCII or Latin-1); other bytes match
+ * nothing. A match is reported as the offset just past its last byte plus the pattern's
+ * index, in text order, and only non-empty matches count.
+ *
+ * <p>All patterns run as one union automaton that is determinized lazily, like
+ * {@link LazyDfa}: a state is the set of pattern states alive at the current position,
+ * plus a fresh copy of every initial state so a match can start at any byte. Sets are
+ * cached with a 256-wide transition row each; when {@code capacity} sets are cached the
+ * cache is flushed and refilled from the current position, which bounds memory for any
+ * pattern set. Typical inputs settle into a few hundred sets and then cost one table
+ * lookup per byte.
+ *
+ * <p>The matcher keeps its position between {@link #feed} calls, so a text can arrive in
+ * pieces of any size; nothing is buffered. Not thread-safe.
+ */
+public final class MultiPatternMatcher {
+
+    /** Receives each match as it is found. */
+    public interface MatchListener {
+        /** {@code end} is the offset just past the match's last byte. */
+        void onMatch(long end, int pattern);
+    }
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private static final int UNKNOWN = -1;
+    /** Largest region mapped at once by {@link #scan(FileChannel, MatchListener)}. */
+    private static final long MAP_WINDOW = 64L << 20;
+
+    private final Dfa[] patterns;
+    private final int[][] symbolOf;   // per pattern, byte -> symbol ordinal or -1
+    private final int[] base;         // first global id of each pattern's states
+    private final int realStates;     // ids realStates + p are the fresh initial copies
+    private final int[] patternOf;
+
+    private final int capacity;
+    private final HashMap<IntSetKey, Integer> index = new HashMap<>();
+    private final IntSetKey[] sets;
+    private final int[][] matches;    // patterns matched on entering a set, or null
+    private final int[] table;
+    private int size;
+    private long flushes;
+
+    private final int[] mark;
+    private int generation;
+    private int[] scratch;
+    private final int[] matched;
+
+    private int state;
+    private long offset;
+
+    public MultiPatternMatcher(List<Dfa> patterns) {
+        this(patterns, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @throws IllegalArgumentException if a pattern has a symbol that is not one character
+     *                                  below 256
+     */
+    public MultiPatternMatcher(List<Dfa> patterns, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("capacity must be at least 2");
+        }
+        int count = patterns.size();
+        this.patterns = patterns.toArray(new Dfa[0]);
+        this.symbolOf = new int[count][256];
+        this.base = new int[count];
+        int total = 0;
+        for (int p = 0; p < count; p++) {
+            Dfa dfa = this.patterns[p];
+            base[p] = total;
+            total += dfa.stateCount();
+            Arrays.fill(symbolOf[p], -1);
+            for (int a = 0; a < dfa.symbolCount(); a++) {
+                String name = dfa.symbolName(a);
+                if (name.length() != 1 || name.charAt(0) > 255) {
+                    throw new IllegalArgumentException(
+                        "Pattern " + p + " has symbol '" + name + "', which is not a single byte");
+                }
+                symbolOf[p][name.charAt(0)] = a;
+            }
+        }
+        this.realStates = total;
+        this.patternOf = new int[total + count];
+        for (int p = 0; p < count; p++) {
+            int end = p + 1 < count ? base[p + 1] : total;
+            Arrays.fill(patternOf, base[p], end, p);
+            patternOf[total + p] = p;
+        }
+
+        this.capacity = capacity;
+        this.sets = new IntSetKey[capacity];
+        this.matches = new int[capacity][];
+        this.table = new int[capacity * 256];
+        this.mark = new int[total + count];
+        this.scratch = new int[Math.max(16, count * 2)];
+        this.matched = new int[count];
+        reset();
+    }
+
+    public int patternCount() {
+        return patterns.length;
+    }
+
+    /** Starts over at offset 0. Cached sets are kept. */
+    public void reset() {
+        state = intern(freshStarts());
+        offset = 0;
+    }
+
+    /** Bytes consumed since the last {@link #reset}. */
+    public long offset() {
+        return offset;
+    }
+
+    /** Number of sets currently cached. */
+    public int cachedStates() {
+        return size;
+    }
+
+    /** Times the cache filled up and was cleared. */
+    public long flushes() {
+        return flushes;
+    }
+
+    /**
+     * Scans {@code text} from its position to its limit, reporting matches with offsets
+     * that continue from earlier calls. Leaves the buffer's position at its limit.
+     *
+     * @return the number of matches reported
+     */
+    public long feed(ByteBuffer text, MatchListener listener) {
+        int[] table = this.table;
+        int current = state;
+        long found = 0;
+        int start = text.position(), limit = text.limit();
+        for (int i = start; i < limit; i++) {
+            int b = text.get(i) & 0xFF;
+            int next = table[(current << 8) | b];
+            if (next == UNKNOWN) {
+                next = computeTransition(current, b);
+            }
+            current = next;
+            int[] hits = matches[current];
+            if (hits != null) {
+                long end = offset + (i - start) + 1;
+                for (int p : hits) {
+                    listener.onMatch(end, p);
+                }
+                found += hits.length;
+            }
+        }
+        state = current;
+        offset += limit - start;
+        text.position(limit);
+        return found;
+    }
+
+    /**
+     * Memory-maps {@code channel} from its current position to its end in windows of at most
+     * 64 MB and feeds each one, continuing from this matcher's current offset.
+     */
+    public ScanResult scan(FileChannel channel, MatchListener listener) throws IOException {
+        long begin = System.nanoTime();
+        long startOffset = offset;
+        long found = 0;
+        for (long pos = channel.position(), size = channel.size(); pos < size; ) {
+            long length = Math.min(MAP_WINDOW, size - pos);
+            found += feed(channel.map(FileChannel.MapMode.READ_ONLY, pos, length), listener);
+            pos += length;
+            channel.position(pos);
+        }
+        return new ScanResult(offset - startOffset, found, System.nanoTime() - begin);
+    }
+
+    private int[] freshStarts() {
+        int[] starts = new int[patterns.length];
+        for (int p = 0; p < starts.length; p++) {
+            starts[p] = realStates + p;
+        }
+        return starts;
+    }
+
+    private int computeTransition(int from, int b) {
+        if (++generation == 0) {
+            Arrays.fill(mark, 0);
+            generation = 1;
+        }
+        int count = 0;
+        for (int member : sets[from].members) {
+            int p = patternOf[member];
+            int symbol = symbolOf[p][b];
+            if (symbol < 0) continue;
+            Dfa dfa = patterns[p];
+            int local = member < realStates ? member - base[p] : dfa.initialState();
+            int target = dfa.next(local, symbol);
+            if (target == Dfa.NO_STATE) continue;
+            int global = base[p] + target;
+            if (mark[global] != generation) {
+                mark[global] = generation;
+                if (count == scratch.length) scratch = Arrays.copyOf(scratch, count * 2);
+                scratch[count++] = global;
+            }
+        }
+        // Real states sort below the fresh copies, which are appended in order
+        Arrays.sort(scratch, 0, count);
+        int[] members = Arrays.copyOf(scratch, count + patterns.length);
+        for (int p = 0; p < patterns.length; p++) {
+            members[count + p] = realStates + p;
+        }
+
+        boolean flushed = false;
+        if (size == capacity && !index.containsKey(new IntSetKey(members))) {
+            flush();
+            flushed = true;
+        }
+        int target = intern(members);
+        if (!flushed) {
+            table[(from << 8) | b] = target;
+        }
+        return target;
+    }
+
+    private int intern(int[] members) {
+        IntSetKey key = new IntSetKey(members);
+        Integer existing = index.get(key);
+        if (existing != null) return existing;
+        int slot = size++;
+        index.put(key, slot);
+        sets[slot] = key;
+        Arrays.fill(table, slot << 8, (slot + 1) << 8, UNKNOWN);
+
+        int hits = 0;
+        for (int member : members) {
+            if (member >= realStates) break;
+            int p = patternOf[member];
+            if (patterns[p].isAccepting(member - base[p]) && (hits == 0 || matched[hits - 1] != p)) {
+                // Members are sorted and patterns own contiguous id ranges, so repeats are adjacent
+                matched[hits++] = p;
+            }
+        }
+        matches[slot] = hits == 0 ? null : Arrays.copyOf(matched, hits);
+        return slot;
+    }
+
+    private void flush() {
+        index.clear();
+        Arrays.fill(sets, 0, size, null);
+        Arrays.fill(matches, 0, size, null);
+        size = 0;
+        flushes++;
+    }
+
+    /** Totals of one {@link #scan}. */
+    public static final class ScanResult {
+        private final long bytes;
+        private final long matches;
+        private final long elapsedNanos;
+
+        ScanResult(long bytes, long matches, long elapsedNanos) {
+            this.bytes = bytes;
+            this.matches = matches;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public long bytes() {
+            return bytes;
+        }
+
+        public long matches() {
+            return matches;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double bytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : bytes * 1e9 / elapsedNanos;
+        }
+    }
+}
@@ -0,0 +1,387 @@
+package com.example.toaproj.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+
+/**
+ * A nondeterministic automaton with epsilon moves, in CSR form: the targets of
+ * {@code (state, symbol)} are {@code targets[start[state * k + symbol] .. start[state * k + symbol + 1])},
+ * and epsilon targets are indexed by state alone. Immutable.
+ *
+ * <p>Simulate with {@link LazyDfa}, or convert eagerly with {@link #determinize(int)}.
+ */
+public final class Nfa implements Automaton {
+
+    /** Symbol name that marks an epsilon move in the activities' transitions map. */
+    public static final String EPSILON_SYMBOL = "ε";
+    /** Subsets built between interrupt checks in {@link #determinize}, minus one. */
+    private static final int INTERRUPT_CHECK_MASK = 255;
+
+    private final SymbolTable states;
+    private final SymbolTable symbols;
+    private final int[] start;
+    private final int[] targets;
+    private final int[] epsStart;
+    private final int[] epsTargets;
+    private final BitSet accepting;
+    private final int initialState;
+    // Productive states, found on first use; see Dfa.live()
+    private volatile BitSet live;
+
+    Nfa(SymbolTable states, SymbolTable symbols, int[] start, int[] targets,
+        int[] epsStart, int[] epsTargets, BitSet accepting, int initialState) {
+        this.states = states;
+        this.symbols = symbols;
+        this.start = start;
+        this.targets = targets;
+        this.epsStart = epsStart;
+        this.epsTargets = epsTargets;
+        this.accepting = accepting;
+        this.initialState = initialState;
+    }
+
+    /**
+     * Compiles the activities' transitions map, where the {@link #EPSILON_SYMBOL} column
+     * holds epsilon moves.
+     */
+    public static Nfa compile(Map<String, ? extends Map<String, String>> transitions,
+                              Set<String> finalStates, String initialState) {
+        NfaBuilder builder = new NfaBuilder();
+        for (Map.Entry<String, ? extends Map<String, String>> row : transitions.entrySet()) {
+            int from = builder.state(row.getKey());
+            for (Map.Entry<String, String> edge : row.getValue().entrySet()) {
+                int to = builder.state(edge.getValue());
+                if (EPSILON_SYMBOL.equals(edge.getKey())) {
+                    builder.addEpsilon(from, to);
+                } else {
+                    builder.addTransition(from, builder.symbol(edge.getKey()), to);
+                }
+            }
+        }
+        builder.setInitial(builder.state(initialState));
+        for (String state : finalStates) {
+            builder.setAccepting(builder.state(state), true);
+        }
+        return builder.build();
+    }
+
+    /** True if {@code transitions} uses the epsilon column and so needs an NFA. */
+    public static boolean usesEpsilon(Map<String, ? extends Map<String, String>> transitions) {
+        for (Map<String, String> row : transitions.values()) {
+            if (row.containsKey(EPSILON_SYMBOL)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Reads a table-form automaton whose {@link #EPSILON_SYMBOL} column holds epsilon
+     * moves, as stored by the app when the transitions map {@link #usesEpsilon uses epsilon}.
+     */
+    public static Nfa fromTable(Dfa table) {
+        NfaBuilder builder = new NfaBuilder();
+        for (int state = 0; state < table.stateCount(); state++) {
+            builder.state(table.stateName(state));
+        }
+        int epsilon = table.symbolIndex(EPSILON_SYMBOL);
+        int[] symbolMap = new int[table.symbolCount()];
+        for (int symbol = 0; symbol < symbolMap.length; symbol++) {
+            symbolMap[symbol] = symbol == epsilon ? EPSILON : builder.symbol(table.symbolName(symbol));
+        }
+        for (int state = 0; state < table.stateCount(); state++) {
+            for (int symbol = 0; symbol < symbolMap.length; symbol++) {
+                int to = table.next(state, symbol);
+                if (to == Dfa.NO_STATE) continue;
+                if (symbol == epsilon) {
+                    builder.addEpsilon(state, to);
+                } else {
+                    builder.addTransition(state, symbolMap[symbol], to);
+                }
+            }
+            builder.setAccepting(state, table.isAccepting(state));
+        }
+        builder.setInitial(table.initialState());
+        return builder.build();
+    }
+
+    /** True if {@code table} has an epsilon column and so stands for an NFA. */
+    public static boolean usesEpsilon(Dfa table) {
+        return table.symbolIndex(EPSILON_SYMBOL) >= 0;
+    }
+
+    @Override
+    public int stateCount() {
+        return states.size();
+    }
+
+    @Override
+    public int symbolCount() {
+        return symbols.size();
+    }
+
+    @Override
+    public int initialState() {
+        return initialState;
+    }
+
+    @Override
+    public boolean isAccepting(int state) {
+        return accepting.get(state);
+    }
+
+    /**
+     * States from which an accepting state is reachable, epsilon moves included,
+     * computed on first use and cached. Shared; callers must not modify it.
+     */
+    BitSet live() {
+        BitSet result = live;
+        if (result == null) {
+            live = result = Reachability.productive(this);
+        }
+        return result;
+    }
+
+    @Override
+    public String stateName(int state) {
+        return states.name(state);
+    }
+
+    @Override
+    public String symbolName(int symbol) {
+        return symbol == EPSILON ? EPSILON_SYMBOL : symbols.name(symbol);
+    }
+
+    @Override
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    public SymbolTable states() {
+        return states;
+    }
+
+    int targetsStart(int state, int symbol) {
+        return start[state * symbols.size() + symbol];
+    }
+
+    int targetsEnd(int state, int symbol) {
+        return start[state * symbols.size() + symbol + 1];
+    }
+
+    int target(int index) {
+        return targets[index];
+    }
+
+    int epsilonStart(int state) {
+        return epsStart[state];
+    }
+
+    int epsilonEnd(int state) {
+        return epsStart[state + 1];
+    }
+
+    int epsilonTarget(int index) {
+        return epsTargets[index];
+    }
+
+    @Override
+    public int[] edges() {
+        int n = states.size(), k = symbols.size();
+        int[] edges = new int[(targets.length + epsTargets.length) * 3];
+        int e = 0;
+        for (int s = 0; s < n; s++) {
+            for (int i = epsStart[s]; i < epsStart[s + 1]; i++) {
+                edges[e++] = s;
+                edges[e++] = EPSILON;
+                edges[e++] = epsTargets[i];
+            }
+            for (int a = 0; a < k; a++) {
+                for (int i = start[s * k + a]; i < start[s * k + a + 1]; i++) {
+                    edges[e++] = s;
+                    edges[e++] = a;
+                    edges[e++] = targets[i];
+                }
+            }
+        }
+        return edges;
+    }
+
+    /** Runs {@code input} (symbol ordinals) through a fresh {@link LazyDfa}. */
+    public boolean accepts(int[] input) {
+        LazyDfa lazy = new LazyDfa(this);
+        int state = lazy.start();
+        for (int i = 0; i < input.length && state != Simulation.NO_STATE; i++) {
+            state = lazy.step(state, input[i]);
+        }
+        return state != Simulation.NO_STATE && lazy.isAccepting(state);
+    }
+
+    /**
+     * Eager subset construction over reachable subsets. States of the result are named
+     * after the NFA states they contain, e.g. {@code {q0,q2}}; the empty subset becomes
+     * an undefined transition.
+     *
+     * <p>The construction checks the thread's interrupt flag as it goes, so a caller on a
+     * worker thread can abandon a blow-up by interrupting it.
+     *
+     * @throws IllegalStateException if more than {@code maxStates} subsets are reachable
+     * @throws CancellationException if the thread was interrupted; the flag stays set
+     */
+    public Dfa determinize(int maxStates) {
+        return determinize(maxStates, true);
+    }
+
+    /**
+     * As {@link #determinize(int)}, but with {@code nameSubsets} false the states are just
+     * named {@code d0, d1, ...} and subsets are keyed by their kernel: the members that
+     * have a symbol move or accept. Two closures with the same kernel behave the same,
+     * and dropping the pass-through states of a Thompson automaton makes the keys several
+     * times smaller.
+     */
+    Dfa determinize(int maxStates, boolean nameSubsets) {
+        int k = symbols.size();
+        Closure closure = new Closure(this);
+        HashMap<IntSetKey, Integer> index = new HashMap<>();
+        List<int[]> subsets = new ArrayList<>();
+        int[] table = new int[Math.max(1, k) * 16];
+        boolean[] kernel = null;
+        if (!nameSubsets) {
+            kernel = new boolean[states.size()];
+            for (int s = 0; s < kernel.length; s++) {
+                kernel[s] = accepting.get(s) || start[s * k] != start[(s + 1) * k];
+            }
+        }
+
+        int[] initial = keep(closure.of(new int[]{initialState}, 1), kernel);
+        index.put(new IntSetKey(initial), 0);
+        subsets.add(initial);
+        int[] seeds = new int[Math.max(1, states.size())];
+        for (int d = 0; d < subsets.size(); d++) {
+            if ((d & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Subset construction interrupted");
+            }
+            int[] subset = subsets.get(d);
+            if ((d + 1) * k > table.length) table = Arrays.copyOf(table, table.length * 2);
+            for (int a = 0; a < k; a++) {
+                int count = 0;
+                for (int s : subset) {
+                    for (int i = targetsStart(s, a), end = targetsEnd(s, a); i < end; i++) {
+                        if (count == seeds.length) seeds = Arrays.copyOf(seeds, count * 2);
+                        seeds[count++] = targets[i];
+                    }
+                }
+                int target = Dfa.NO_STATE;
+                if (count > 0) {
+                    int[] next = keep(closure.of(seeds, count), kernel);
+                    IntSetKey key = new IntSetKey(next);
+                    Integer existing = index.get(key);
+                    if (existing == null) {
+                        if (subsets.size() == maxStates) {
+                            throw new IllegalStateException(
+                                "Subset construction exceeded " + maxStates + " states");
+                        }
+                        existing = subsets.size();
+                        index.put(key, existing);
+                        subsets.add(next);
+                    }
+                    target = existing;
+                }
+                table[d * k + a] = target;
+            }
+        }
+
+        SymbolTable dfaStates = new SymbolTable();
+        BitSet dfaAccepting = new BitSet(subsets.size());
+        for (int d = 0; d < subsets.size(); d++) {
+            dfaStates.intern(nameSubsets ? describe(subsets.get(d)) : "d" + d);
+            for (int s : subsets.get(d)) {
+                if (accepting.get(s)) {
+                    dfaAccepting.set(d);
+                    break;
+                }
+            }
+        }
+        return new Dfa(dfaStates, new SymbolTable(symbols.toArray()),
+            Arrays.copyOf(table, subsets.size() * k), dfaAccepting, 0);
+    }
+
+    /** The members of sorted {@code subset} marked in {@code kernel}, or all if it is null. */
+    private static int[] keep(int[] subset, boolean[] kernel) {
+        if (kernel == null) return subset;
+        int size = 0;
+        for (int s : subset) {
+            if (kernel[s]) subset[size++] = s;
+        }
+        return size == subset.length ? subset : Arrays.copyOf(subset, size);
+    }
+
+    String describe(int[] subset) {
+        StringBuilder sb = new StringBuilder("{");
+        for (int i = 0; i < subset.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(states.name(subset[i]));
+        }
+        return sb.append('}').toString();
+    }
+
+    /**
+     * Epsilon-closure with reusable scratch space; a generation stamp replaces clearing
+     * the visited marks between calls. Not thread-safe.
+     */
+    static final class Closure {
+        private final Nfa nfa;
+        private final int[] mark;
+        private final int[] stack;
+        private final int[] members;
+        private int generation;
+
+        Closure(Nfa nfa) {
+            this.nfa = nfa;
+            int n = nfa.stateCount();
+            this.mark = new int[n];
+            this.stack = new int[n];
+            this.members = new int[n];
+        }
+
+        /** Returns the sorted epsilon-closure of {@code seeds[0, count)}. */
+        int[] of(int[] seeds, int count) {
+            int size = closeInto(seeds, count);
+            int[] result = Arrays.copyOf(members, size);
+            Arrays.sort(result);
+            return result;
+        }
+
+        private int closeInto(int[] seeds, int count) {
+            if (++generation == 0) {
+                Arrays.fill(mark, 0);
+                generation = 1;
+            }
+            int size = 0, top = 0;
+            for (int i = 0; i < count; i++) {
+                int s = seeds[i];
+                if (mark[s] != generation) {
+                    mark[s] = generation;
+                    stack[top++] = s;
+                    members[size++] = s;
+                }
+            }
+            while (top > 0) {
+                int s = stack[--top];
+                for (int i = nfa.epsStart[s], end = nfa.epsStart[s + 1]; i < end; i++) {
+                    int t = nfa.epsTargets[i];
+                    if (mark[t] != generation) {
+                        mark[t] = generation;
+                        stack[top++] = t;
+                        members[size++] = t;
+                    }
+                }
+            }
+            return size;
+        }
+    }
+}
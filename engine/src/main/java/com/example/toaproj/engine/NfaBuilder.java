@@ -0,0 +1,95 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Accumulates states, symbols and (possibly nondeterministic or epsilon) transitions,
+ * then freezes them into an {@link Nfa}.
+ */
+public final class NfaBuilder {
+
+    private final SymbolTable states = new SymbolTable();
+    private final SymbolTable symbols = new SymbolTable();
+    private final BitSet accepting = new BitSet();
+    private int[] edges = new int[48];
+    private int edgeCount;
+    private int initialState = -1;
+
+    /** Interns {@code name} as a state and returns its ordinal. */
+    public int state(String name) {
+        return states.intern(name);
+    }
+
+    /** Adds an anonymous state named after its ordinal; handy for generated automata. */
+    public int newState() {
+        return states.intern("s" + states.size());
+    }
+
+    /** Interns {@code name} as an input symbol and returns its ordinal. */
+    public int symbol(String name) {
+        return symbols.intern(name);
+    }
+
+    public NfaBuilder addTransition(int from, int symbol, int to) {
+        if (edgeCount * 3 == edges.length) {
+            edges = Arrays.copyOf(edges, edges.length * 2);
+        }
+        edges[edgeCount * 3] = from;
+        edges[edgeCount * 3 + 1] = symbol;
+        edges[edgeCount * 3 + 2] = to;
+        edgeCount++;
+        return this;
+    }
+
+    public NfaBuilder addTransition(String from, String symbol, String to) {
+        return addTransition(state(from), symbol(symbol), state(to));
+    }
+
+    public NfaBuilder addEpsilon(int from, int to) {
+        return addTransition(from, Automaton.EPSILON, to);
+    }
+
+    public NfaBuilder setInitial(int state) {
+        initialState = state;
+        return this;
+    }
+
+    public NfaBuilder setAccepting(int state, boolean value) {
+        accepting.set(state, value);
+        return this;
+    }
+
+    public int stateCount() {
+        return states.size();
+    }
+
+    public Nfa build() {
+        if (initialState < 0) {
+            throw new IllegalStateException("No initial state");
+        }
+        int n = states.size();
+        int k = symbols.size();
+        int[] start = new int[n * k + 1];
+        int[] epsStart = new int[n + 1];
+        for (int e = 0; e < edgeCount; e++) {
+            int from = edges[e * 3], symbol = edges[e * 3 + 1];
+            if (symbol == Automaton.EPSILON) epsStart[from + 1]++;
+            else start[from * k + symbol + 1]++;
+        }
+        for (int i = 0; i < n * k; i++) start[i + 1] += start[i];
+        for (int i = 0; i < n; i++) epsStart[i + 1] += epsStart[i];
+
+        int[] targets = new int[start[n * k]];
+        int[] epsTargets = new int[epsStart[n]];
+        int[] fill = Arrays.copyOf(start, n * k);
+        int[] epsFill = Arrays.copyOf(epsStart, n);
+        for (int e = 0; e < edgeCount; e++) {
+            int from = edges[e * 3], symbol = edges[e * 3 + 1], to = edges[e * 3 + 2];
+            if (symbol == Automaton.EPSILON) epsTargets[epsFill[from]++] = to;
+            else targets[fill[from * k + symbol]++] = to;
+        }
+        return new Nfa(new SymbolTable(states.toArray()), new SymbolTable(symbols.toArray()),
+            start, targets, epsStart, epsTargets, (BitSet) accepting.clone(), initialState);
+    }
+}
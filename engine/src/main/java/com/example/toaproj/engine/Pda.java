@@ -0,0 +1,241 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A (possibly nondeterministic) pushdown automaton. Build one with {@link PdaBuilder}.
+ *
+ * <p>Moves are grouped by source state in flat arrays. A run explores every
+ * configuration (state, input position, stack) breadth-first, one input position at a
+ * time: epsilon moves add to the current position's set, input moves to the next one's,
+ * and each set is deduplicated, so a configuration is never expanded twice at the same
+ * position.
+ *
+ * <p>Stacks are cells in a pool of two int arrays (symbol, cell below), shared between
+ * configurations and hash-consed, so two equal stacks are the same cell and a
+ * configuration packs into one long for deduplication. Pushing costs one cell per
+ * symbol and popping is free. The step budget bounds the configurations expanded and the
+ * cell budget bounds the pool, so a machine that loops on epsilon moves, or grows its
+ * stack forever, ends with {@link MachineResult#STEP_LIMIT} or
+ * {@link MachineResult#MEMORY_LIMIT} instead of running away.
+ *
+ * <p>Instances are immutable; every run has its own pool.
+ */
+public final class Pda implements Automaton {
+
+    private static final int EMPTY = -1;
+    private static final int OVERFLOW = -2;
+
+    private final SymbolTable states;
+    private final SymbolTable symbols;
+    private final SymbolTable stackSymbols;
+    private final int[] ruleStart;
+    private final int[] ruleInput;
+    private final int[] rulePop;
+    private final int[] ruleTo;
+    private final int[] pushStart;
+    private final int[] pushes;
+    private final BitSet accepting;
+    private final int initialState;
+    private final int initialStack;
+    private final boolean acceptOnEmptyStack;
+
+    Pda(SymbolTable states, SymbolTable symbols, SymbolTable stackSymbols, int[] ruleStart,
+        int[] ruleInput, int[] rulePop, int[] ruleTo, int[] pushStart, int[] pushes,
+        BitSet accepting, int initialState, int initialStack, boolean acceptOnEmptyStack) {
+        this.states = states;
+        this.symbols = symbols;
+        this.stackSymbols = stackSymbols;
+        this.ruleStart = ruleStart;
+        this.ruleInput = ruleInput;
+        this.rulePop = rulePop;
+        this.ruleTo = ruleTo;
+        this.pushStart = pushStart;
+        this.pushes = pushes;
+        this.accepting = accepting;
+        this.initialState = initialState;
+        this.initialStack = initialStack;
+        this.acceptOnEmptyStack = acceptOnEmptyStack;
+    }
+
+    /**
+     * Runs {@code input} (input symbol ordinals) from the initial configuration. Accepts if
+     * some configuration reached after the whole input, including by epsilon moves, is in
+     * an accepting state, or has an empty stack if the automaton accepts on empty stack.
+     *
+     * @param maxSteps configurations to expand before giving up
+     * @param maxCells stack cells to allocate before giving up
+     */
+    public MachineResult run(int[] input, long maxSteps, int maxCells) {
+        long begin = System.nanoTime();
+        Stacks pool = new Stacks(maxCells);
+        Layer current = new Layer(), next = new Layer();
+        int bottom = initialStack == EPSILON ? EMPTY : pool.push(initialStack, EMPTY);
+        if (bottom == OVERFLOW) {
+            return new MachineResult(MachineResult.MEMORY_LIMIT, 0, 0, System.nanoTime() - begin, null);
+        }
+        current.add(initialState, bottom);
+
+        long steps = 0;
+        for (int pos = 0; ; pos++) {
+            int symbol = pos < input.length ? input[pos] : OVERFLOW;   // matches no move
+            for (int i = 0; i < current.size; i++) {
+                if (steps == maxSteps) {
+                    return new MachineResult(MachineResult.STEP_LIMIT, steps, pool.size,
+                        System.nanoTime() - begin, null);
+                }
+                steps++;
+                int state = current.states[i], stack = current.stacks[i];
+                int top = stack == EMPTY ? EPSILON : pool.symbol[stack];
+                for (int r = ruleStart[state], end = ruleStart[state + 1]; r < end; r++) {
+                    int read = ruleInput[r];
+                    if (read != EPSILON && read != symbol) continue;
+                    int base = stack;
+                    if (rulePop[r] != EPSILON) {
+                        if (rulePop[r] != top) continue;
+                        base = pool.below[stack];
+                    }
+                    for (int p = pushStart[r + 1] - 1; p >= pushStart[r] && base != OVERFLOW; p--) {
+                        base = pool.push(pushes[p], base);
+                    }
+                    if (base == OVERFLOW) {
+                        return new MachineResult(MachineResult.MEMORY_LIMIT, steps, pool.size,
+                            System.nanoTime() - begin, null);
+                    }
+                    (read == EPSILON ? current : next).add(ruleTo[r], base);
+                }
+            }
+
+            if (pos == input.length) {
+                for (int i = 0; i < current.size; i++) {
+                    boolean accepts = acceptOnEmptyStack
+                        ? current.stacks[i] == EMPTY : accepting.get(current.states[i]);
+                    if (accepts) {
+                        return new MachineResult(MachineResult.ACCEPTED, steps, pool.size,
+                            System.nanoTime() - begin, null);
+                    }
+                }
+                break;
+            }
+            if (next.size == 0) break;
+            Layer done = current;
+            current = next;
+            next = done;
+            next.clear();
+        }
+        return new MachineResult(MachineResult.REJECTED, steps, pool.size, System.nanoTime() - begin, null);
+    }
+
+    public SymbolTable stackSymbols() {
+        return stackSymbols;
+    }
+
+    public boolean acceptsOnEmptyStack() {
+        return acceptOnEmptyStack;
+    }
+
+    @Override
+    public int stateCount() {
+        return states.size();
+    }
+
+    @Override
+    public int symbolCount() {
+        return symbols.size();
+    }
+
+    @Override
+    public int initialState() {
+        return initialState;
+    }
+
+    @Override
+    public boolean isAccepting(int state) {
+        return accepting.get(state);
+    }
+
+    @Override
+    public String stateName(int state) {
+        return states.name(state);
+    }
+
+    @Override
+    public String symbolName(int symbol) {
+        return symbols.name(symbol);
+    }
+
+    @Override
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /** One edge per move, labelled with its input symbol; stack effects are not drawn. */
+    @Override
+    public int[] edges() {
+        int[] edges = new int[ruleTo.length * 3];
+        for (int s = 0; s < states.size(); s++) {
+            for (int r = ruleStart[s]; r < ruleStart[s + 1]; r++) {
+                edges[r * 3] = s;
+                edges[r * 3 + 1] = ruleInput[r];
+                edges[r * 3 + 2] = ruleTo[r];
+            }
+        }
+        return edges;
+    }
+
+    /** Hash-consed stack cells; a stack is the index of its top cell, or {@link #EMPTY}. */
+    private static final class Stacks {
+        final int maxCells;
+        int[] symbol = new int[64];
+        int[] below = new int[64];
+        int size;
+        final LongIntMap index = new LongIntMap(64);
+
+        Stacks(int maxCells) {
+            this.maxCells = maxCells;
+        }
+
+        /** The stack with {@code top} pushed onto {@code stack}, or {@link #OVERFLOW}. */
+        int push(int top, int stack) {
+            long key = (long) top << 32 | (stack & 0xFFFFFFFFL);
+            int cell = index.get(key);
+            if (cell != LongIntMap.ABSENT) return cell;
+            if (size == maxCells) return OVERFLOW;
+            if (size == symbol.length) {
+                symbol = Arrays.copyOf(symbol, size * 2);
+                below = Arrays.copyOf(below, size * 2);
+            }
+            symbol[size] = top;
+            below[size] = stack;
+            index.put(key, size);
+            return size++;
+        }
+    }
+
+    /** The deduplicated configurations at one input position. */
+    private static final class Layer {
+        int[] states = new int[16];
+        int[] stacks = new int[16];
+        int size;
+        final LongIntMap seen = new LongIntMap(16);
+
+        void add(int state, int stack) {
+            long key = (long) state << 32 | (stack & 0xFFFFFFFFL);
+            if (seen.get(key) != LongIntMap.ABSENT) return;
+            seen.put(key, size);
+            if (size == states.length) {
+                states = Arrays.copyOf(states, size * 2);
+                stacks = Arrays.copyOf(stacks, size * 2);
+            }
+            states[size] = state;
+            stacks[size] = stack;
+            size++;
+        }
+
+        void clear() {
+            seen.clear();
+            size = 0;
+        }
+    }
+}
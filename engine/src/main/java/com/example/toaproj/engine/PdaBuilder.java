@@ -0,0 +1,130 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Accumulates states, input and stack symbols and (possibly nondeterministic) moves,
+ * then freezes them into a {@link Pda}. A move reads one input symbol or
+ * {@link Automaton#EPSILON}, pops one stack symbol or nothing ({@code EPSILON}), and
+ * pushes a sequence of stack symbols, listed top first.
+ */
+public final class PdaBuilder {
+
+    private final SymbolTable states = new SymbolTable();
+    private final SymbolTable symbols = new SymbolTable();
+    private final SymbolTable stackSymbols = new SymbolTable();
+    private final BitSet accepting = new BitSet();
+    private int[] rules = new int[60];   // (from, input, pop, to, push offset, push length)
+    private int ruleCount;
+    private int[] pushes = new int[16];
+    private int pushCount;
+    private int initialState = -1;
+    private int initialStack = Automaton.EPSILON;
+    private boolean acceptOnEmptyStack;
+
+    public int state(String name) {
+        return states.intern(name);
+    }
+
+    public int symbol(String name) {
+        return symbols.intern(name);
+    }
+
+    public int stackSymbol(String name) {
+        return stackSymbols.intern(name);
+    }
+
+    public PdaBuilder addTransition(int from, int input, int pop, int to, int... push) {
+        if ((ruleCount + 1) * 6 > rules.length) {
+            rules = Arrays.copyOf(rules, rules.length * 2);
+        }
+        while (pushCount + push.length > pushes.length) {
+            pushes = Arrays.copyOf(pushes, pushes.length * 2);
+        }
+        int r = ruleCount++ * 6;
+        rules[r] = from;
+        rules[r + 1] = input;
+        rules[r + 2] = pop;
+        rules[r + 3] = to;
+        rules[r + 4] = pushCount;
+        rules[r + 5] = push.length;
+        System.arraycopy(push, 0, pushes, pushCount, push.length);
+        pushCount += push.length;
+        return this;
+    }
+
+    /**
+     * Adds a move by name. {@code input} and {@code pop} may be null or
+     * {@link Nfa#EPSILON_SYMBOL} for none; {@code push} is listed top first.
+     */
+    public PdaBuilder addTransition(String from, String input, String pop, String to, String... push) {
+        int[] pushed = new int[push.length];
+        for (int i = 0; i < push.length; i++) {
+            pushed[i] = stackSymbol(push[i]);
+        }
+        return addTransition(state(from), isEpsilon(input) ? Automaton.EPSILON : symbol(input),
+            isEpsilon(pop) ? Automaton.EPSILON : stackSymbol(pop), state(to), pushed);
+    }
+
+    private static boolean isEpsilon(String name) {
+        return name == null || Nfa.EPSILON_SYMBOL.equals(name);
+    }
+
+    public PdaBuilder setInitial(int state) {
+        initialState = state;
+        return this;
+    }
+
+    /** The symbol on the stack before the first move, or {@code EPSILON} to start empty. */
+    public PdaBuilder setInitialStack(int stackSymbol) {
+        initialStack = stackSymbol;
+        return this;
+    }
+
+    public PdaBuilder setAccepting(int state, boolean value) {
+        accepting.set(state, value);
+        return this;
+    }
+
+    /** Accept when the input is consumed with an empty stack, instead of in a final state. */
+    public PdaBuilder setAcceptOnEmptyStack(boolean value) {
+        acceptOnEmptyStack = value;
+        return this;
+    }
+
+    public Pda build() {
+        if (initialState < 0) {
+            throw new IllegalStateException("No initial state");
+        }
+        // Group the moves by source state, CSR style
+        int n = states.size();
+        int[] start = new int[n + 1];
+        for (int r = 0; r < ruleCount; r++) {
+            start[rules[r * 6] + 1]++;
+        }
+        for (int s = 0; s < n; s++) start[s + 1] += start[s];
+        int[] fill = Arrays.copyOf(start, n);
+        int[] input = new int[ruleCount], pop = new int[ruleCount], to = new int[ruleCount];
+        int[] pushStart = new int[ruleCount + 1];
+        int[] order = new int[ruleCount];
+        for (int r = 0; r < ruleCount; r++) {
+            order[fill[rules[r * 6]]++] = r;
+        }
+        int[] pushed = new int[pushCount];
+        int p = 0;
+        for (int i = 0; i < ruleCount; i++) {
+            int r = order[i] * 6;
+            input[i] = rules[r + 1];
+            pop[i] = rules[r + 2];
+            to[i] = rules[r + 3];
+            pushStart[i] = p;
+            System.arraycopy(pushes, rules[r + 4], pushed, p, rules[r + 5]);
+            p += rules[r + 5];
+        }
+        pushStart[ruleCount] = p;
+        return new Pda(new SymbolTable(states.toArray()), new SymbolTable(symbols.toArray()),
+            new SymbolTable(stackSymbols.toArray()), start, input, pop, to, pushStart, pushed,
+            (BitSet) accepting.clone(), initialState, initialStack, acceptOnEmptyStack);
+    }
+}
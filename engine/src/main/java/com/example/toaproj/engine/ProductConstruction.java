@@ -0,0 +1,166 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Set operations on the languages of two DFAs via the product construction.
+ *
+ * <p>The product is built breadth-first from the pair of initial states, so only pairs
+ * reachable on some input are ever created, not the full |Q1|×|Q2| grid. Pairs are
+ * numbered through a {@link LongIntMap} keyed by both ordinals packed into one long. A
+ * missing transition on either side, or a symbol that side does not have, moves that
+ * side to an implicit dead state; a pair that can no longer accept becomes an undefined
+ * transition rather than a state. The result is minimized and its states renamed
+ * {@code q0, q1, ...}.
+ *
+ * <p>The alphabet of the result is the union of both alphabets, matched by symbol name.
+ */
+public final class ProductConstruction {
+
+    public static final int DEFAULT_MAX_STATES = 1_000_000;
+
+    static final int UNION = 0;
+    static final int INTERSECTION = 1;
+    static final int DIFFERENCE = 2;
+
+    private static final int DEAD = -1;
+    /** Pairs expanded between interrupt checks, minus one. */
+    private static final int INTERRUPT_CHECK_MASK = 255;
+
+    private ProductConstruction() {
+    }
+
+    /** Accepts what either automaton accepts. */
+    public static ProductResult union(Dfa a, Dfa b) {
+        return product(UNION, a, b, DEFAULT_MAX_STATES);
+    }
+
+    /** Accepts what both automata accept. */
+    public static ProductResult intersection(Dfa a, Dfa b) {
+        return product(INTERSECTION, a, b, DEFAULT_MAX_STATES);
+    }
+
+    /** Accepts what {@code a} accepts and {@code b} does not. */
+    public static ProductResult difference(Dfa a, Dfa b) {
+        return product(DIFFERENCE, a, b, DEFAULT_MAX_STATES);
+    }
+
+    /** Accepts every string over the alphabet of {@code a} that {@code a} rejects. */
+    public static ProductResult complement(Dfa a) {
+        return product(DIFFERENCE, universal(a.symbols()), a, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * @throws IllegalStateException if more than {@code maxStates} pairs are reachable
+     * @throws CancellationException if the thread was interrupted; the flag stays set
+     */
+    static ProductResult product(int operation, Dfa a, Dfa b, int maxStates) {
+        long start = System.nanoTime();
+        SymbolTable symbols = jointSymbols(a, b);
+        int k = symbols.size();
+        int[] symbolA = sideSymbols(symbols, a);
+        int[] symbolB = sideSymbols(symbols, b);
+
+        LongIntMap index = new LongIntMap(Math.max(16, a.stateCount() + b.stateCount()));
+        int[] pairs = new int[32];             // (state of a, state of b) per product state
+        int[] table = new int[Math.max(1, k) * 16];
+        BitSet accepting = new BitSet();
+        int count = 0;
+
+        int initialA = a.initialState(), initialB = b.initialState();
+        index.put(key(initialA, initialB), count);
+        pairs[0] = initialA;
+        pairs[1] = initialB;
+        count++;
+        for (int p = 0; p < count; p++) {
+            if ((p & INTERRUPT_CHECK_MASK) == 0 && Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Product construction interrupted");
+            }
+            int sa = pairs[2 * p], sb = pairs[2 * p + 1];
+            if (accepts(operation, sa != DEAD && a.isAccepting(sa), sb != DEAD && b.isAccepting(sb))) {
+                accepting.set(p);
+            }
+            if ((p + 1) * k > table.length) table = Arrays.copyOf(table, table.length * 2);
+            for (int x = 0; x < k; x++) {
+                int ta = sa == DEAD || symbolA[x] < 0 ? DEAD : a.next(sa, symbolA[x]);
+                int tb = sb == DEAD || symbolB[x] < 0 ? DEAD : b.next(sb, symbolB[x]);
+                int target = Dfa.NO_STATE;
+                if (live(operation, ta, tb)) {
+                    long key = key(ta, tb);
+                    target = index.get(key);
+                    if (target == LongIntMap.ABSENT) {
+                        if (count == maxStates) {
+                            throw new IllegalStateException(
+                                "Product construction exceeded " + maxStates + " states");
+                        }
+                        target = count++;
+                        index.put(key, target);
+                        if (2 * count > pairs.length) pairs = Arrays.copyOf(pairs, pairs.length * 2);
+                        pairs[2 * target] = ta;
+                        pairs[2 * target + 1] = tb;
+                    }
+                }
+                table[p * k + x] = target;
+            }
+        }
+        long constructed = System.nanoTime();
+
+        String[] names = new String[count];
+        for (int p = 0; p < count; p++) {
+            names[p] = "p" + p;
+        }
+        Dfa product = new Dfa(new SymbolTable(names), symbols, Arrays.copyOf(table, count * k),
+            accepting, 0);
+        Dfa minimal = RegexCompiler.renumber(Minimizer.minimize(product).minimized());
+        return new ProductResult(count, minimal, constructed - start, System.nanoTime() - constructed);
+    }
+
+    private static boolean accepts(int operation, boolean inA, boolean inB) {
+        switch (operation) {
+            case UNION: return inA || inB;
+            case INTERSECTION: return inA && inB;
+            default: return inA && !inB;
+        }
+    }
+
+    /** False if no pair reached from (ta, tb) can accept, so it need not be built. */
+    private static boolean live(int operation, int ta, int tb) {
+        switch (operation) {
+            case UNION: return ta != DEAD || tb != DEAD;
+            case INTERSECTION: return ta != DEAD && tb != DEAD;
+            default: return ta != DEAD;
+        }
+    }
+
+    static long key(int sa, int sb) {
+        return (long) sa << 32 | (sb & 0xFFFFFFFFL);
+    }
+
+    /** The symbols of {@code a} followed by those only {@code b} has. */
+    static SymbolTable jointSymbols(Dfa a, Dfa b) {
+        SymbolTable symbols = new SymbolTable(a.symbols().toArray());
+        for (String name : b.symbols().toArray()) {
+            symbols.intern(name);
+        }
+        return symbols;
+    }
+
+    /** Maps each symbol of the joint alphabet to its ordinal in {@code dfa}, or -1. */
+    static int[] sideSymbols(SymbolTable symbols, Dfa dfa) {
+        int[] map = new int[symbols.size()];
+        for (int x = 0; x < map.length; x++) {
+            map[x] = dfa.symbolIndex(symbols.name(x));
+        }
+        return map;
+    }
+
+    /** One accepting state that loops on every symbol. */
+    private static Dfa universal(SymbolTable symbols) {
+        int[] table = new int[symbols.size()];
+        BitSet accepting = new BitSet(1);
+        accepting.set(0);
+        return new Dfa(new SymbolTable(new String[]{"all"}), symbols, table, accepting, 0);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.toaproj.engine;
+
+/** The outcome of a {@link ProductConstruction} operation: the minimal DFA and its cost. */
+public final class ProductResult {
+
+    private final int productStateCount;
+    private final Dfa dfa;
+    private final long constructNanos;
+    private final long minimizeNanos;
+
+    ProductResult(int productStateCount, Dfa dfa, long constructNanos, long minimizeNanos) {
+        this.productStateCount = productStateCount;
+        this.dfa = dfa;
+        this.constructNanos = constructNanos;
+        this.minimizeNanos = minimizeNanos;
+    }
+
+    /** The minimal DFA; undefined transitions reject. */
+    public Dfa dfa() {
+        return dfa;
+    }
+
+    /** Reachable pairs built by the product, before minimization. */
+    public int productStateCount() {
+        return productStateCount;
+    }
+
+    public int minimalStateCount() {
+        return dfa.stateCount();
+    }
+
+    public long constructNanos() {
+        return constructNanos;
+    }
+
+    public long minimizeNanos() {
+        return minimizeNanos;
+    }
+
+    public long elapsedNanos() {
+        return constructNanos + minimizeNanos;
+    }
+
+    /** A one-line report such as {@code "Built in 2 ms: 14 reachable pairs → 5 minimal states"}. */
+    public String summary() {
+        return "Built in " + elapsedNanos() / 1_000_000 + " ms: "
+            + productStateCount + " reachable pairs → " + minimalStateCount() + " minimal states";
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Forward and backward reachability over an automaton's transition graph, and the trim
+ * pass built on them.
+ *
+ * <p>A state is <em>reachable</em> if some input leads to it from the initial state, and
+ * <em>productive</em> (live) if some input leads from it to an accepting state. A state
+ * that is not productive is dead: once a run enters it, the run can only reject. Every
+ * edge counts, epsilon moves and the table's {@code ε} column included, so the same
+ * analysis holds whether a table is read as a DFA or an NFA.
+ *
+ * <p>Both searches are breadth-first over a CSR adjacency ({@code int[]} offsets and
+ * targets) with an {@code int[]} queue, so there is no recursion and memory is about two
+ * ints per transition; million-state automata are fine.
+ */
+public final class Reachability {
+
+    private Reachability() {
+    }
+
+    /** States reachable from the initial state. */
+    public static BitSet reachable(Automaton automaton) {
+        int[][] graph = adjacency(automaton, false);
+        int[] seeds = {automaton.initialState()};
+        return search(automaton.stateCount(), graph[0], graph[1], seeds, 1);
+    }
+
+    /** States from which an accepting state is reachable; the rest are dead. */
+    public static BitSet productive(Automaton automaton) {
+        int n = automaton.stateCount();
+        int[][] graph = adjacency(automaton, true);
+        int[] seeds = new int[n];
+        int count = 0;
+        for (int s = 0; s < n; s++) {
+            if (automaton.isAccepting(s)) seeds[count++] = s;
+        }
+        return search(n, graph[0], graph[1], seeds, count);
+    }
+
+    /**
+     * Removes every unreachable state and merges the reachable dead ones into a single
+     * sink that loops on every symbol. Transitions into a dead state go to the sink rather
+     * than becoming undefined, so runners still report such inputs as rejected, not as
+     * invalid, and stop early there as before. The sink keeps the name of the one dead
+     * state it replaces, else it is called {@code dead}. The initial state is always kept
+     * as is, even when nothing is accepted. Kept states stay in their original order and
+     * keep their names; the sink comes last.
+     */
+    public static TrimResult trim(Dfa dfa) {
+        long start = System.nanoTime();
+        int n = dfa.stateCount();
+        int k = dfa.symbolCount();
+        BitSet reachable = reachable(dfa);
+        BitSet kept = (BitSet) reachable.clone();
+        kept.and(productive(dfa));
+        kept.set(dfa.initialState());
+        BitSet merged = (BitSet) reachable.clone();
+        merged.andNot(kept);
+        int unreachable = n - reachable.cardinality();
+
+        if (unreachable == 0
+                && (merged.isEmpty() || merged.cardinality() == 1 && isSink(dfa, merged.nextSetBit(0)))) {
+            return new TrimResult(dfa, dfa, identity(n), 0, 0, System.nanoTime() - start);
+        }
+
+        int size = kept.cardinality();
+        int sink = merged.isEmpty() ? Dfa.NO_STATE : size;
+        int[] stateMap = new int[n];
+        for (int s = 0, row = 0; s < n; s++) {
+            stateMap[s] = kept.get(s) ? row++ : merged.get(s) ? sink : Dfa.NO_STATE;
+        }
+        int total = sink == Dfa.NO_STATE ? size : size + 1;
+        String[] names = new String[total];
+        int[] table = new int[total * k];
+        BitSet accepting = new BitSet(total);
+        for (int s = kept.nextSetBit(0); s >= 0; s = kept.nextSetBit(s + 1)) {
+            int row = stateMap[s];
+            names[row] = dfa.stateName(s);
+            if (dfa.isAccepting(s)) accepting.set(row);
+            for (int a = 0; a < k; a++) {
+                int target = dfa.next(s, a);
+                table[row * k + a] = target == Dfa.NO_STATE ? Dfa.NO_STATE : stateMap[target];
+            }
+        }
+        if (sink != Dfa.NO_STATE) {
+            names[sink] = sinkName(dfa, kept, merged);
+            Arrays.fill(table, sink * k, total * k, sink);
+        }
+        Dfa trimmed = new Dfa(new SymbolTable(names), dfa.symbols(), table, accepting,
+            stateMap[dfa.initialState()]);
+        return new TrimResult(dfa, trimmed, stateMap, unreachable, merged.cardinality(),
+            System.nanoTime() - start);
+    }
+
+    /** True if {@code state} loops to itself on every symbol. */
+    private static boolean isSink(Dfa dfa, int state) {
+        for (int a = 0; a < dfa.symbolCount(); a++) {
+            if (dfa.next(state, a) != state) return false;
+        }
+        return true;
+    }
+
+    private static String sinkName(Dfa dfa, BitSet kept, BitSet merged) {
+        if (merged.cardinality() == 1) {
+            return dfa.stateName(merged.nextSetBit(0));
+        }
+        String name = "dead";
+        for (;;) {
+            int clash = dfa.stateIndex(name);
+            if (clash < 0 || !kept.get(clash)) return name;
+            name += "'";
+        }
+    }
+
+    private static int[] identity(int n) {
+        int[] map = new int[n];
+        for (int s = 0; s < n; s++) map[s] = s;
+        return map;
+    }
+
+    /** Breadth-first search from {@code seeds}; each state is queued at most once. */
+    private static BitSet search(int n, int[] offsets, int[] targets, int[] seeds, int seedCount) {
+        BitSet seen = new BitSet(n);
+        int[] queue = new int[n];
+        int tail = 0;
+        for (int i = 0; i < seedCount; i++) {
+            if (!seen.get(seeds[i])) {
+                seen.set(seeds[i]);
+                queue[tail++] = seeds[i];
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int s = queue[head];
+            for (int i = offsets[s], end = offsets[s + 1]; i < end; i++) {
+                int t = targets[i];
+                if (!seen.get(t)) {
+                    seen.set(t);
+                    queue[tail++] = t;
+                }
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * CSR adjacency {@code {offsets, targets}}, forward or reversed. A DFA is read straight
+     * from its table; other automata through {@link Automaton#edges()}.
+     */
+    private static int[][] adjacency(Automaton automaton, boolean reverse) {
+        int n = automaton.stateCount();
+        int[] offsets = new int[n + 1];
+        int[] targets;
+        if (automaton instanceof Dfa) {
+            Dfa dfa = (Dfa) automaton;
+            int k = dfa.symbolCount();
+            for (int s = 0; s < n; s++) {
+                for (int a = 0; a < k; a++) {
+                    int t = dfa.next(s, a);
+                    if (t != Dfa.NO_STATE) offsets[(reverse ? t : s) + 1]++;
+                }
+            }
+            prefixSum(offsets);
+            targets = new int[offsets[n]];
+            int[] fill = offsets.clone();
+            for (int s = 0; s < n; s++) {
+                for (int a = 0; a < k; a++) {
+                    int t = dfa.next(s, a);
+                    if (t == Dfa.NO_STATE) continue;
+                    if (reverse) {
+                        targets[fill[t]++] = s;
+                    } else {
+                        targets[fill[s]++] = t;
+                    }
+                }
+            }
+        } else {
+            int[] edges = automaton.edges();
+            for (int e = 0; e < edges.length; e += 3) {
+                offsets[edges[reverse ? e + 2 : e] + 1]++;
+            }
+            prefixSum(offsets);
+            targets = new int[offsets[n]];
+            int[] fill = offsets.clone();
+            for (int e = 0; e < edges.length; e += 3) {
+                int from = edges[e], to = edges[e + 2];
+                if (reverse) {
+                    targets[fill[to]++] = from;
+                } else {
+                    targets[fill[from]++] = to;
+                }
+            }
+        }
+        return new int[][]{offsets, targets};
+    }
+
+    private static void prefixSum(int[] offsets) {
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+    }
+}
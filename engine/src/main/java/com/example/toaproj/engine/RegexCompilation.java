@@ -0,0 +1,74 @@
+package com.example.toaproj.engine;
+
+/** The outcome of {@link RegexCompiler#compile}: the minimal DFA and what each phase cost. */
+public final class RegexCompilation {
+
+    private final String pattern;
+    private final Nfa nfa;
+    private final int subsetStateCount;
+    private final Dfa dfa;
+    private final long constructNanos;
+    private final long determinizeNanos;
+    private final long minimizeNanos;
+
+    RegexCompilation(String pattern, Nfa nfa, int subsetStateCount, Dfa dfa,
+                     long constructNanos, long determinizeNanos, long minimizeNanos) {
+        this.pattern = pattern;
+        this.nfa = nfa;
+        this.subsetStateCount = subsetStateCount;
+        this.dfa = dfa;
+        this.constructNanos = constructNanos;
+        this.determinizeNanos = determinizeNanos;
+        this.minimizeNanos = minimizeNanos;
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    /** The Thompson automaton, before determinization. */
+    public Nfa nfa() {
+        return nfa;
+    }
+
+    /** The minimal DFA; undefined transitions reject. */
+    public Dfa dfa() {
+        return dfa;
+    }
+
+    public int nfaStateCount() {
+        return nfa.stateCount();
+    }
+
+    /** States found by subset construction, before minimization. */
+    public int subsetStateCount() {
+        return subsetStateCount;
+    }
+
+    public int minimalStateCount() {
+        return dfa.stateCount();
+    }
+
+    /** Parsing and Thompson construction. */
+    public long constructNanos() {
+        return constructNanos;
+    }
+
+    public long determinizeNanos() {
+        return determinizeNanos;
+    }
+
+    public long minimizeNanos() {
+        return minimizeNanos;
+    }
+
+    public long elapsedNanos() {
+        return constructNanos + determinizeNanos + minimizeNanos;
+    }
+
+    /** A one-line report such as {@code "Compiled in 3 ms: 14 NFA → 6 DFA → 4 minimal states"}. */
+    public String summary() {
+        return "Compiled in " + elapsedNanos() / 1_000_000 + " ms: " + nfaStateCount() + " NFA → "
+            + subsetStateCount + " DFA → " + minimalStateCount() + " minimal states";
+    }
+}
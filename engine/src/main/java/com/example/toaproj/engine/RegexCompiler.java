@@ -0,0 +1,437 @@
+package com.example.toaproj.engine;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Compiles a regular expression over single-character symbols into a minimal DFA:
+ * Thompson construction into an {@link Nfa}, subset construction, then {@link Minimizer}.
+ *
+ * <p>Supported syntax: literals, concatenation, {@code |}, {@code *}, {@code +}, {@code ?},
+ * bounded repetition {@code {m}}, {@code {m,}} and {@code {m,n}}, grouping with
+ * parentheses, {@code .}, character classes such as {@code [a-c0]} and {@code [^ab]},
+ * and backslash escapes ({@code \d} and {@code \w} are the usual classes, anything else
+ * is literal). The pattern must match the whole input.
+ *
+ * <p>Each character is one input symbol. Unless an alphabet is given, it is every
+ * character the pattern mentions; {@code .} and negated classes match within it. Symbols
+ * are numbered in character order and the minimal DFA's states are named
+ * {@code q0, q1, ...} in breadth-first order from the initial state {@code q0}.
+ */
+public final class RegexCompiler {
+
+    public static final int DEFAULT_MAX_STATES = 200_000;
+
+    /** Largest bound accepted in {@code {m,n}}; copies of the operand grow the NFA linearly. */
+    static final int MAX_REPEAT = 1000;
+
+    private static final int SET = 0;
+    private static final int EMPTY = 1;
+    private static final int CONCAT = 2;
+    private static final int ALT = 3;
+    private static final int REPEAT = 4;
+    private static final int UNBOUNDED = -1;
+
+    /** Parse tree node. A SET is a character class; {@code .} is a negated empty class. */
+    private static final class Node {
+        final int kind;
+        final BitSet chars;
+        final boolean negated;
+        final Node[] children;
+        final int min;
+        final int max;
+
+        Node(int kind, BitSet chars, boolean negated, Node[] children, int min, int max) {
+            this.kind = kind;
+            this.chars = chars;
+            this.negated = negated;
+            this.children = children;
+            this.min = min;
+            this.max = max;
+        }
+
+        static Node set(BitSet chars, boolean negated) {
+            return new Node(SET, chars, negated, null, 0, 0);
+        }
+
+        static Node of(int kind, List<Node> children) {
+            return new Node(kind, null, false, children.toArray(new Node[0]), 0, 0);
+        }
+
+        static Node repeat(Node child, int min, int max) {
+            return new Node(REPEAT, null, false, new Node[]{child}, min, max);
+        }
+    }
+
+    private final String pattern;
+    private int pos;
+    private final BitSet mentioned = new BitSet();
+    private final BitSet literals = new BitSet();
+
+    // Construction state
+    private NfaBuilder builder;
+    private BitSet alphabet;
+    private int[] symbolOf;
+
+    private RegexCompiler(String pattern) {
+        this.pattern = pattern;
+    }
+
+    public static RegexCompilation compile(String pattern) {
+        return compile(pattern, null, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * @param alphabet  the input symbols, one per character, or null for every character
+     *                  the pattern mentions
+     * @param maxStates limit on subset-construction states
+     * @throws PatternSyntaxException   if the pattern is malformed
+     * @throws IllegalArgumentException if a literal in the pattern is outside {@code alphabet}
+     * @throws IllegalStateException    if determinization exceeds {@code maxStates}
+     * @throws java.util.concurrent.CancellationException if the thread is interrupted
+     *                                  during determinization
+     */
+    public static RegexCompilation compile(String pattern, String alphabet, int maxStates) {
+        long start = System.nanoTime();
+        RegexCompiler compiler = new RegexCompiler(pattern);
+        Node root = compiler.parse();
+        Nfa nfa = compiler.construct(root, alphabet);
+        long constructed = System.nanoTime();
+        Dfa subsets = nfa.determinize(maxStates, false);
+        long determinized = System.nanoTime();
+        Dfa minimal = renumber(Minimizer.minimize(subsets).minimized());
+        long minimized = System.nanoTime();
+        return new RegexCompilation(pattern, nfa, subsets.stateCount(), minimal,
+            constructed - start, determinized - constructed, minimized - determinized);
+    }
+
+    // ---- Parsing -------------------------------------------------------------------
+
+    private Node parse() {
+        Node root = alternation();
+        if (pos < pattern.length()) {
+            // Only an unmatched ')' stops alternation early
+            throw error("Unmatched ')'");
+        }
+        return root;
+    }
+
+    private Node alternation() {
+        List<Node> branches = new ArrayList<>();
+        branches.add(concatenation());
+        while (pos < pattern.length() && pattern.charAt(pos) == '|') {
+            pos++;
+            branches.add(concatenation());
+        }
+        return branches.size() == 1 ? branches.get(0) : Node.of(ALT, branches);
+    }
+
+    private Node concatenation() {
+        List<Node> parts = new ArrayList<>();
+        while (pos < pattern.length()) {
+            char c = pattern.charAt(pos);
+            if (c == '|' || c == ')') break;
+            parts.add(repetition());
+        }
+        if (parts.isEmpty()) return new Node(EMPTY, null, false, null, 0, 0);
+        return parts.size() == 1 ? parts.get(0) : Node.of(CONCAT, parts);
+    }
+
+    private Node repetition() {
+        Node node = atom();
+        while (pos < pattern.length()) {
+            char c = pattern.charAt(pos);
+            if (c == '*') {
+                node = Node.repeat(node, 0, UNBOUNDED);
+            } else if (c == '+') {
+                node = Node.repeat(node, 1, UNBOUNDED);
+            } else if (c == '?') {
+                node = Node.repeat(node, 0, 1);
+            } else if (c == '{') {
+                node = bounded(node);
+                continue;
+            } else {
+                break;
+            }
+            pos++;
+        }
+        return node;
+    }
+
+    private Node bounded(Node node) {
+        int open = pos++;
+        int min = number();
+        int max = min;
+        if (pos < pattern.length() && pattern.charAt(pos) == ',') {
+            pos++;
+            max = pos < pattern.length() && pattern.charAt(pos) == '}' ? UNBOUNDED : number();
+        }
+        if (pos >= pattern.length() || pattern.charAt(pos) != '}') {
+            throw error("Expected '}'");
+        }
+        pos++;
+        if (max != UNBOUNDED && max < min) {
+            pos = open;
+            throw error("Repetition {" + min + "," + max + "} has max below min");
+        }
+        return Node.repeat(node, min, max);
+    }
+
+    private int number() {
+        int begin = pos;
+        long value = 0;
+        while (pos < pattern.length() && Character.isDigit(pattern.charAt(pos))) {
+            value = value * 10 + (pattern.charAt(pos++) - '0');
+            if (value > MAX_REPEAT) {
+                pos = begin;
+                throw error("Repetition bound above " + MAX_REPEAT);
+            }
+        }
+        if (pos == begin) throw error("Expected a number");
+        return (int) value;
+    }
+
+    private Node atom() {
+        char c = pattern.charAt(pos);
+        switch (c) {
+            case '(': {
+                int open = pos++;
+                Node inner = alternation();
+                if (pos >= pattern.length()) {
+                    pos = open;
+                    throw error("Unclosed group");
+                }
+                pos++;
+                return inner;
+            }
+            case '[':
+                return characterClass();
+            case '.':
+                pos++;
+                return Node.set(new BitSet(), true);
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                throw error("Dangling '" + c + "'");
+            case '\\': {
+                pos++;
+                Node escaped = escape(false);
+                if (escaped.chars.cardinality() == 1) literals.or(escaped.chars);
+                return escaped;
+            }
+            default:
+                pos++;
+                return literal(c);
+        }
+    }
+
+    private Node literal(char c) {
+        BitSet chars = new BitSet();
+        chars.set(c);
+        mentioned.set(c);
+        literals.set(c);
+        return Node.set(chars, false);
+    }
+
+    /** Reads the escape after a backslash; inside a class only single characters make sense. */
+    private Node escape(boolean inClass) {
+        if (pos >= pattern.length()) throw error("Trailing backslash");
+        char c = pattern.charAt(pos++);
+        BitSet chars = new BitSet();
+        switch (c) {
+            case 'd':
+                chars.set('0', '9' + 1);
+                break;
+            case 'w':
+                chars.set('a', 'z' + 1);
+                chars.set('A', 'Z' + 1);
+                chars.set('0', '9' + 1);
+                chars.set('_');
+                break;
+            case 'n':
+                chars.set('\n');
+                break;
+            case 't':
+                chars.set('\t');
+                break;
+            default:
+                chars.set(c);
+                break;
+        }
+        if (inClass && chars.cardinality() > 1) {
+            pos -= 2;
+            throw error("Class escape \\" + c + " cannot be used in a range");
+        }
+        mentioned.or(chars);
+        return Node.set(chars, false);
+    }
+
+    private Node characterClass() {
+        int open = pos++;
+        boolean negated = pos < pattern.length() && pattern.charAt(pos) == '^';
+        if (negated) pos++;
+        BitSet chars = new BitSet();
+        boolean first = true;
+        while (true) {
+            if (pos >= pattern.length()) {
+                pos = open;
+                throw error("Unclosed character class");
+            }
+            char c = pattern.charAt(pos);
+            if (c == ']' && !first) {
+                pos++;
+                break;
+            }
+            first = false;
+            int low;
+            if (c == '\\') {
+                pos++;
+                BitSet escaped = escape(false).chars;
+                if (escaped.cardinality() > 1) {
+                    // \d or \w: adds its members and cannot start a range
+                    chars.or(escaped);
+                    continue;
+                }
+                low = escaped.nextSetBit(0);
+            } else {
+                low = c;
+                pos++;
+            }
+            if (pos + 1 < pattern.length() && pattern.charAt(pos) == '-' && pattern.charAt(pos + 1) != ']') {
+                pos++;
+                int high;
+                if (pattern.charAt(pos) == '\\') {
+                    pos++;
+                    high = escape(true).chars.nextSetBit(0);
+                } else {
+                    high = pattern.charAt(pos++);
+                }
+                if (high < low) {
+                    throw error("Bad range");
+                }
+                chars.set(low, high + 1);
+            } else {
+                chars.set(low);
+            }
+        }
+        mentioned.or(chars);
+        return Node.set(chars, negated);
+    }
+
+    private PatternSyntaxException error(String description) {
+        return new PatternSyntaxException(description, pattern, pos);
+    }
+
+    // ---- Thompson construction -----------------------------------------------------
+
+    private Nfa construct(Node root, String alphabetChars) {
+        alphabet = new BitSet();
+        if (alphabetChars == null) {
+            alphabet.or(mentioned);
+        } else {
+            for (int i = 0; i < alphabetChars.length(); i++) {
+                alphabet.set(alphabetChars.charAt(i));
+            }
+            // Classes are cut down to the alphabet; only a literal outside it is an error
+            BitSet outside = (BitSet) literals.clone();
+            outside.andNot(alphabet);
+            if (!outside.isEmpty()) {
+                throw new IllegalArgumentException(
+                    "Pattern uses '" + (char) outside.nextSetBit(0) + "', which is not in the alphabet");
+            }
+        }
+
+        builder = new NfaBuilder();
+        symbolOf = new int[alphabet.isEmpty() ? 0 : alphabet.length()];
+        for (int c = alphabet.nextSetBit(0); c >= 0; c = alphabet.nextSetBit(c + 1)) {
+            symbolOf[c] = builder.symbol(String.valueOf((char) c));
+        }
+        int initial = builder.newState();
+        int accept = build(root, initial);
+        builder.setInitial(initial);
+        builder.setAccepting(accept, true);
+        return builder.build();
+    }
+
+    /**
+     * Adds the fragment for {@code node} starting at the existing state {@code from} and
+     * returns its end state. Fragments never add edges into {@code from}, so a caller may
+     * give {@code from} other outgoing edges of its own.
+     */
+    private int build(Node node, int from) {
+        switch (node.kind) {
+            case EMPTY:
+                return from;
+            case SET: {
+                int to = builder.newState();
+                BitSet matched = node.chars;
+                if (node.negated) {
+                    matched = (BitSet) alphabet.clone();
+                    matched.andNot(node.chars);
+                } else {
+                    matched = (BitSet) node.chars.clone();
+                    matched.and(alphabet);
+                }
+                for (int c = matched.nextSetBit(0); c >= 0; c = matched.nextSetBit(c + 1)) {
+                    builder.addTransition(from, symbolOf[c], to);
+                }
+                return to;
+            }
+            case CONCAT: {
+                int end = from;
+                for (Node child : node.children) {
+                    end = build(child, end);
+                }
+                return end;
+            }
+            case ALT: {
+                int end = builder.newState();
+                for (Node child : node.children) {
+                    int branch = builder.newState();
+                    builder.addEpsilon(from, branch);
+                    builder.addEpsilon(build(child, branch), end);
+                }
+                return end;
+            }
+            case REPEAT: {
+                Node child = node.children[0];
+                int end = from;
+                for (int i = 0; i < node.min; i++) {
+                    end = build(child, end);
+                }
+                if (node.max == UNBOUNDED) {
+                    // Loop through a fresh state so the back edge never reaches from
+                    int loop = builder.newState();
+                    builder.addEpsilon(end, loop);
+                    builder.addEpsilon(build(child, loop), loop);
+                    int exit = builder.newState();
+                    builder.addEpsilon(loop, exit);
+                    return exit;
+                }
+                if (node.max == node.min) return end;
+                int exit = builder.newState();
+                for (int i = node.min; i < node.max; i++) {
+                    builder.addEpsilon(end, exit);
+                    end = build(child, end);
+                }
+                builder.addEpsilon(end, exit);
+                return exit;
+            }
+            default:
+                throw new AssertionError(node.kind);
+        }
+    }
+
+    /** Renames states to q0, q1, ... in the minimizer's breadth-first order. */
+    static Dfa renumber(Dfa dfa) {
+        String[] names = new String[dfa.stateCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "q" + i;
+        }
+        return new Dfa(new SymbolTable(names), dfa.symbols(), dfa.table(), dfa.accepting(),
+            dfa.initialState());
+    }
+}
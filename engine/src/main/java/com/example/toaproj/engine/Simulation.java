@@ -0,0 +1,31 @@
+package com.example.toaproj.engine;
+
+/**
+ * Step-at-a-time driver for the interactive test screen. A "state" here is whatever
+ * handle the implementation uses: a DFA state ordinal, or a cached subset for an NFA.
+ */
+public interface Simulation {
+
+    /** Returned by {@link #step} when no transition applies. */
+    int NO_STATE = -1;
+
+    SymbolTable symbols();
+
+    int start();
+
+    int step(int state, int symbol);
+
+    boolean isAccepting(int state);
+
+    /**
+     * True if no accepting state can be reached from {@code state} on any input, so a run
+     * that gets here can reject without reading the rest of its input.
+     */
+    boolean isDead(int state);
+
+    /** Display text for a state handle, e.g. {@code q1} or {@code {q0, q2}}. */
+    String describe(int state);
+
+    /** Automaton state ordinals that are active in {@code state}. */
+    int[] activeStates(int state);
+}
@@ -0,0 +1,385 @@
+package com.example.toaproj.engine;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Opt-in counters for simulation runs: per-state visit counts, per-(state, symbol) read
+ * counts, steps, time to accept or reject each sequence, and GC and allocation totals
+ * per run. Runners take a {@code SimulationMetrics} that is null when instrumentation is
+ * off and then run their plain loops, so a disabled run costs one null check per
+ * sequence, not per step.
+ *
+ * <p>Counters are striped: a thread {@link #open opens} a {@link Recorder}, which claims
+ * one stripe of plain {@code long[]} counters for itself until it is closed. Concurrent
+ * runners (the lanes of a {@link BatchRunner}) therefore never share a counter and never
+ * write an atomic on the hot path; the stripes are summed only by {@link #snapshot},
+ * which reads them without waiting for their recorders.
+ * A stripe's arrays are allocated on first use, so memory grows with the number of
+ * threads that actually record: {@code states × (symbols + 1)} longs each.
+ *
+ * <p>A "run" is one {@link #beginRun}/{@link #endRun} pair around a whole job (one
+ * traced input, one batch); the {@link MemoryProbe} is sampled only there. A "sequence"
+ * is one input string, bracketed by {@link Recorder#begin}/{@link Recorder#end}.
+ */
+public final class SimulationMetrics {
+
+    /**
+     * Process-wide GC and allocation counters, sampled before and after each run.
+     * Each method returns a running total, or -1 when the platform does not expose it.
+     */
+    public interface MemoryProbe {
+        long gcCount();
+
+        long gcNanos();
+
+        long allocatedBytes();
+    }
+
+    /** Reports nothing; every total is -1. */
+    public static final MemoryProbe NO_PROBE = new MemoryProbe() {
+        @Override
+        public long gcCount() {
+            return -1;
+        }
+
+        @Override
+        public long gcNanos() {
+            return -1;
+        }
+
+        @Override
+        public long allocatedBytes() {
+            return -1;
+        }
+    };
+
+    private final Automaton automaton;
+    private final int stateCount;
+    private final int symbolCount;
+    private final MemoryProbe probe;
+    private final Recorder[] stripes;
+    private final AtomicIntegerArray claimed;
+    private final int mask;
+
+    // Run totals, written under the monitor once per run
+    private long runs;
+    private long runNanos;
+    private long gcCount;
+    private long gcNanos;
+    private long allocatedBytes;
+    private boolean memoryKnown = true;
+    private long runStart;
+    private long gcCountBefore, gcNanosBefore, allocatedBefore;
+
+    public SimulationMetrics(Automaton automaton) {
+        this(automaton, jvmProbe());
+    }
+
+    public SimulationMetrics(Automaton automaton, MemoryProbe probe) {
+        this.automaton = automaton;
+        this.stateCount = automaton.stateCount();
+        this.symbolCount = automaton.symbolCount();
+        this.probe = probe;
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 2 - 1) * 2;
+        this.stripes = new Recorder[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new Recorder(i);
+        }
+        this.claimed = new AtomicIntegerArray(count);
+        this.mask = count - 1;
+    }
+
+    public Automaton automaton() {
+        return automaton;
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Claims a free stripe for the calling thread, preferring the one its thread id hashes
+     * to. Spins only when every stripe is in use, which needs more concurrent recorders
+     * than twice the processor count.
+     */
+    public Recorder open() {
+        int home = (int) Thread.currentThread().getId() & mask;
+        for (;;) {
+            for (int i = 0; i < stripes.length; i++) {
+                int stripe = (home + i) & mask;
+                if (claimed.get(stripe) == 0 && claimed.compareAndSet(stripe, 0, 1)) {
+                    Recorder recorder = stripes[stripe];
+                    if (recorder.visits == null) {
+                        recorder.visits = new long[stateCount];
+                        recorder.reads = new long[stateCount * symbolCount];
+                    }
+                    return recorder;
+                }
+            }
+            Thread.yield();
+        }
+    }
+
+    /** Samples the memory probe and the clock at the start of a job. */
+    public synchronized void beginRun() {
+        runStart = System.nanoTime();
+        gcCountBefore = probe.gcCount();
+        gcNanosBefore = probe.gcNanos();
+        allocatedBefore = probe.allocatedBytes();
+    }
+
+    /**
+     * Adds the job's duration and GC and allocation deltas to the totals. Overlapping
+     * runs see each other's collections, since the probe is process-wide.
+     */
+    public synchronized void endRun() {
+        runs++;
+        runNanos += System.nanoTime() - runStart;
+        long count = probe.gcCount(), nanos = probe.gcNanos(), allocated = probe.allocatedBytes();
+        if (count < 0 || gcCountBefore < 0 || allocated < 0 || allocatedBefore < 0) {
+            memoryKnown = false;
+            return;
+        }
+        gcCount += count - gcCountBefore;
+        gcNanos += nanos >= 0 && gcNanosBefore >= 0 ? nanos - gcNanosBefore : 0;
+        allocatedBytes += allocated - allocatedBefore;
+    }
+
+    /**
+     * Sums every stripe without waiting for open recorders, so it can be called from a UI
+     * thread while a paced run holds its stripe. Counts a recorder made before its last
+     * close are all seen; those of a recorder still open may be partly missing.
+     */
+    public synchronized MetricsSnapshot snapshot() {
+        long[] visits = new long[stateCount];
+        long[] reads = new long[stateCount * symbolCount];
+        long[] totals = new long[Recorder.TOTALS];
+        for (int i = 0; i < stripes.length; i++) {
+            // The volatile read pairs with the release in close()
+            claimed.get(i);
+            Recorder stripe = stripes[i];
+            // A recorder opening right now may have allocated one array but not the other
+            long[] stripeVisits = stripe.visits, stripeReads = stripe.reads;
+            if (stripeVisits == null || stripeReads == null) continue;
+            for (int s = 0; s < visits.length; s++) visits[s] += stripeVisits[s];
+            for (int r = 0; r < reads.length; r++) reads[r] += stripeReads[r];
+            for (int t = 0; t < totals.length; t++) totals[t] += stripe.totals[t];
+        }
+        return new MetricsSnapshot(automaton, visits, reads, totals, runs, runNanos,
+            memoryKnown ? gcCount : -1, memoryKnown ? gcNanos : -1,
+            memoryKnown ? allocatedBytes : -1);
+    }
+
+    /** Zeroes every counter; waits for each stripe's current recorder to close. */
+    public synchronized void reset() {
+        for (int i = 0; i < stripes.length; i++) {
+            claim(i);
+            try {
+                stripes[i].clear();
+            } finally {
+                claimed.set(i, 0);
+            }
+        }
+        runs = runNanos = gcCount = gcNanos = allocatedBytes = 0;
+        memoryKnown = true;
+    }
+
+    private void claim(int stripe) {
+        while (!claimed.compareAndSet(stripe, 0, 1)) {
+            Thread.yield();
+        }
+    }
+
+    /**
+     * One stripe of counters, owned by a single thread between {@link SimulationMetrics#open}
+     * and {@link #close}. The counting methods are plain array increments.
+     */
+    public final class Recorder implements AutoCloseable {
+
+        static final int SEQUENCES = 0;
+        static final int ACCEPTED = 1;
+        static final int REJECTED = 2;
+        static final int INVALID = 3;
+        static final int STEPS = 4;
+        static final int ACCEPT_NANOS = 5;
+        static final int REJECT_NANOS = 6;
+        static final int SEQUENCE_NANOS = 7;
+        static final int TOTALS = 8;
+
+        private final int index;
+        long[] visits;   // allocated by the first open
+        long[] reads;
+        final long[] totals = new long[TOTALS];
+        private long sequenceStart;
+
+        Recorder(int index) {
+            this.index = index;
+        }
+
+        /** Starts timing one input sequence. */
+        public void begin() {
+            sequenceStart = System.nanoTime();
+        }
+
+        public void visit(int state) {
+            visits[state]++;
+        }
+
+        /** Visits every state whose bit is set, for {@link BitParallelNfa} sets. */
+        public void visitAll(long active) {
+            for (long bits = active; bits != 0; bits &= bits - 1) {
+                visits[Long.numberOfTrailingZeros(bits)]++;
+            }
+        }
+
+        /** Visits every state whose bit is set, for {@link WideBitParallelNfa} sets. */
+        public void visitAll(long[] active) {
+            for (int w = 0; w < active.length; w++) {
+                for (long bits = active[w]; bits != 0; bits &= bits - 1) {
+                    visits[(w << 6) + Long.numberOfTrailingZeros(bits)]++;
+                }
+            }
+        }
+
+        /** Visits every listed state, for {@link Simulation#activeStates} handles. */
+        public void visitAll(int[] states) {
+            for (int state : states) {
+                visits[state]++;
+            }
+        }
+
+        /** Counts one step that read {@code symbol} in {@code state}. */
+        public void read(int state, int symbol) {
+            reads[state * symbolCount + symbol]++;
+            totals[STEPS]++;
+        }
+
+        /** Counts one step that read {@code symbol} with every state in {@code active}. */
+        public void readAll(long active, int symbol) {
+            for (long bits = active; bits != 0; bits &= bits - 1) {
+                reads[Long.numberOfTrailingZeros(bits) * symbolCount + symbol]++;
+            }
+            totals[STEPS]++;
+        }
+
+        public void readAll(int[] states, int symbol) {
+            for (int state : states) {
+                reads[state * symbolCount + symbol]++;
+            }
+            totals[STEPS]++;
+        }
+
+        public void readAll(long[] active, int symbol) {
+            for (int w = 0; w < active.length; w++) {
+                for (long bits = active[w]; bits != 0; bits &= bits - 1) {
+                    reads[((w << 6) + Long.numberOfTrailingZeros(bits)) * symbolCount + symbol]++;
+                }
+            }
+            totals[STEPS]++;
+        }
+
+        /**
+         * Ends the sequence started by {@link #begin}.
+         *
+         * @param outcome {@link BatchResult#ACCEPTED}, {@link BatchResult#REJECTED} or
+         *                {@link BatchResult#INVALID}
+         */
+        public void end(byte outcome) {
+            long elapsed = System.nanoTime() - sequenceStart;
+            totals[SEQUENCES]++;
+            totals[SEQUENCE_NANOS] += elapsed;
+            if (outcome == BatchResult.ACCEPTED) {
+                totals[ACCEPTED]++;
+                totals[ACCEPT_NANOS] += elapsed;
+            } else {
+                // An invalid symbol rejects too; it just stops early
+                totals[outcome == BatchResult.REJECTED ? REJECTED : INVALID]++;
+                totals[REJECT_NANOS] += elapsed;
+            }
+        }
+
+        /** Releases the stripe. */
+        @Override
+        public void close() {
+            claimed.set(index, 0);
+        }
+
+        void clear() {
+            if (visits == null) return;
+            Arrays.fill(visits, 0);
+            Arrays.fill(reads, 0);
+            Arrays.fill(totals, 0);
+        }
+    }
+
+    /**
+     * GC counts and times from the {@code java.lang.management} beans and allocated bytes
+     * summed over live threads, looked up reflectively so the engine still loads where
+     * those packages do not exist (Android); there it returns {@link #NO_PROBE}.
+     */
+    public static MemoryProbe jvmProbe() {
+        try {
+            Class<?> factory = Class.forName("java.lang.management.ManagementFactory");
+            final List<?> collectors = (List<?>) factory.getMethod("getGarbageCollectorMXBeans").invoke(null);
+            Class<?> collectorType = Class.forName("java.lang.management.GarbageCollectorMXBean");
+            final Method collectionCount = collectorType.getMethod("getCollectionCount");
+            final Method collectionTime = collectorType.getMethod("getCollectionTime");
+            final Object threads = factory.getMethod("getThreadMXBean").invoke(null);
+            final Method threadIds = Class.forName("java.lang.management.ThreadMXBean")
+                .getMethod("getAllThreadIds");
+            Method allocated;
+            try {
+                allocated = Class.forName("com.sun.management.ThreadMXBean")
+                    .getMethod("getThreadAllocatedBytes", long[].class);
+                if (!allocated.getDeclaringClass().isInstance(threads)) allocated = null;
+            } catch (ReflectiveOperationException e) {
+                allocated = null;
+            }
+            final Method threadAllocated = allocated;
+            return new MemoryProbe() {
+                @Override
+                public long gcCount() {
+                    return sum(collectionCount);
+                }
+
+                @Override
+                public long gcNanos() {
+                    long millis = sum(collectionTime);
+                    return millis < 0 ? -1 : millis * 1_000_000L;
+                }
+
+                @Override
+                public long allocatedBytes() {
+                    if (threadAllocated == null) return -1;
+                    try {
+                        long total = 0;
+                        for (long bytes : (long[]) threadAllocated.invoke(threads, threadIds.invoke(threads))) {
+                            if (bytes > 0) total += bytes;
+                        }
+                        return total;
+                    } catch (ReflectiveOperationException e) {
+                        return -1;
+                    }
+                }
+
+                private long sum(Method counter) {
+                    try {
+                        long total = 0;
+                        for (Object collector : collectors) {
+                            long value = (Long) counter.invoke(collector);
+                            if (value > 0) total += value;
+                        }
+                        return total;
+                    } catch (ReflectiveOperationException e) {
+                        return -1;
+                    }
+                }
+            };
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return NO_PROBE;
+        }
+    }
+}
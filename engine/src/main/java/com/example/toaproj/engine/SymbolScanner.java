@@ -0,0 +1,199 @@
+package com.example.toaproj.engine;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Pulls whitespace-separated symbols from a {@link CharSequence}, a {@link Reader}
+ * or a memory-mapped file and returns them as alphabet ordinals through a
+ * {@link SymbolTrie}. Only a fixed-size character window is held, so memory stays
+ * constant however long the input is, and no per-token strings are created.
+ *
+ * <p>A scanner is reusable via the {@code reset} methods but is not thread-safe.
+ */
+public final class SymbolScanner implements Closeable {
+
+    /** Returned by {@link #next()} when the input is exhausted. */
+    public static final int END = -1;
+    /** Returned by {@link #next()} for a token that is not in the alphabet. */
+    public static final int UNKNOWN = -2;
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final int TOKEN_ECHO_LIMIT = 64;
+    /** Mapped files are walked in windows so inputs over 2 GB work too. */
+    private static final long MAP_WINDOW = 64L << 20;
+
+    private final SymbolTrie trie;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final CharBuffer decoded = CharBuffer.wrap(buffer);
+    private final StringBuilder token = new StringBuilder(TOKEN_ECHO_LIMIT);
+    private int pos;
+    private int limit;
+    private long tokenCount;
+
+    private CharSequence text;
+    private int textPos;
+    private Reader reader;
+    private FileChannel channel;
+    private long channelPos;
+    private ByteBuffer window;
+    private CharsetDecoder decoder;
+
+    public SymbolScanner(SymbolTrie trie) {
+        this.trie = trie;
+    }
+
+    public SymbolScanner(Automaton automaton) {
+        this(new SymbolTrie(automaton.symbols().toArray()));
+    }
+
+    public SymbolScanner reset(CharSequence text) {
+        clear();
+        this.text = text;
+        return this;
+    }
+
+    public SymbolScanner reset(Reader reader) {
+        clear();
+        this.reader = reader;
+        return this;
+    }
+
+    /** Scans {@code file} through {@link FileChannel#map}, decoding it as {@code charset}. */
+    public SymbolScanner reset(File file, Charset charset) throws IOException {
+        clear();
+        channel = new RandomAccessFile(file, "r").getChannel();
+        decoder = charset.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        return this;
+    }
+
+    /**
+     * Returns the ordinal of the next symbol, {@link #UNKNOWN} if the next token is not
+     * in the alphabet, or {@link #END} when the input is exhausted.
+     */
+    public int next() throws IOException {
+        // Skip separators
+        while (true) {
+            if (pos == limit && !fill()) return END;
+            if (buffer[pos] > ' ') break;
+            pos++;
+        }
+        token.setLength(0);
+        tokenCount++;
+        int node = SymbolTrie.ROOT;
+        while (true) {
+            if (pos == limit && !fill()) break;
+            char c = buffer[pos];
+            if (c <= ' ') break;
+            if (node != SymbolTrie.NO_NODE) node = trie.step(node, c);
+            if (token.length() < TOKEN_ECHO_LIMIT) token.append(c);
+            pos++;
+        }
+        int symbol = node == SymbolTrie.NO_NODE ? -1 : trie.symbolAt(node);
+        return symbol < 0 ? UNKNOWN : symbol;
+    }
+
+    /** The text of the last token, truncated for display; valid until the next call to {@link #next()}. */
+    public CharSequence lastToken() {
+        return token;
+    }
+
+    /** Number of tokens read since the last reset. */
+    public long tokenCount() {
+        return tokenCount;
+    }
+
+    private boolean fill() throws IOException {
+        pos = 0;
+        limit = 0;
+        if (text != null) {
+            int n = Math.min(BUFFER_SIZE, text.length() - textPos);
+            for (int i = 0; i < n; i++) {
+                buffer[i] = text.charAt(textPos + i);
+            }
+            textPos += n;
+            limit = n;
+        } else if (reader != null) {
+            int n = reader.read(buffer, 0, BUFFER_SIZE);
+            limit = Math.max(n, 0);
+        } else if (channel != null) {
+            limit = fillFromChannel();
+        }
+        return limit > 0;
+    }
+
+    private int fillFromChannel() throws IOException {
+        decoded.clear();
+        while (decoded.position() == 0 && decoder != null) {
+            if (window != null && !window.hasRemaining()) {
+                channelPos += window.position();
+                window = null;
+            }
+            if (window == null) {
+                long remaining = channel.size() - channelPos;
+                if (remaining <= 0) {
+                    decoder.decode(ByteBuffer.allocate(0), decoded, true);
+                    decoder.flush(decoded);
+                    decoder = null;
+                    break;
+                }
+                window = channel.map(FileChannel.MapMode.READ_ONLY, channelPos,
+                    Math.min(remaining, MAP_WINDOW));
+            }
+            int before = window.position();
+            decoder.decode(window, decoded, false);
+            if (window.position() == before && decoded.position() == 0) {
+                // A multi-byte sequence straddles the window end: remap from its first byte.
+                channelPos += window.position();
+                if (channelPos + window.remaining() >= channel.size()) {
+                    // ...unless this is the end of the file, where it is simply truncated.
+                    decoder.decode(window, decoded, true);
+                    decoder.flush(decoded);
+                    decoder = null;
+                }
+                window = null;
+            }
+        }
+        return decoded.position();
+    }
+
+    private void clear() {
+        pos = 0;
+        limit = 0;
+        tokenCount = 0;
+        token.setLength(0);
+        text = null;
+        textPos = 0;
+        reader = null;
+        closeChannel();
+    }
+
+    private void closeChannel() {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+        }
+        channel = null;
+        channelPos = 0;
+        window = null;
+        decoder = null;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.toaproj.engine;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Interns names (states or input symbols) into dense ordinals 0..size-1.
+ * Hashing happens only when a name is looked up, never while a compiled
+ * automaton is running.
+ *
+ * <p>A table loaded from an {@link AutomatonFile} starts out packed: names stay as
+ * UTF-8 in the mapped file and are decoded one by one when first asked for, and the
+ * name-to-ordinal index is only built on the first lookup by name.
+ */
+public final class SymbolTable {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private volatile HashMap<String, Integer> index;
+    private String[] names;
+    private int size;
+
+    // Packed form: int[size + 1] end-exclusive offsets followed by the UTF-8 bytes
+    private final ByteBuffer packed;
+
+    public SymbolTable() {
+        this.index = new HashMap<>();
+        this.names = new String[8];
+        this.packed = null;
+    }
+
+    public SymbolTable(String[] names) {
+        this();
+        for (String name : names) {
+            intern(name);
+        }
+    }
+
+    private SymbolTable(ByteBuffer packed, int size) {
+        this.packed = packed;
+        this.names = new String[size];
+        this.size = size;
+    }
+
+    /** Wraps a packed table without decoding it; see {@link AutomatonFile}. */
+    static SymbolTable packed(ByteBuffer packed, int size) {
+        return new SymbolTable(packed, size);
+    }
+
+    /** Returns the ordinal of {@code name}, assigning the next free one if it is new. */
+    public int intern(String name) {
+        HashMap<String, Integer> idx = index();
+        Integer existing = idx.get(name);
+        if (existing != null) {
+            return existing;
+        }
+        if (size == names.length) {
+            names = Arrays.copyOf(names, Math.max(8, size * 2));
+        }
+        names[size] = name;
+        idx.put(name, size);
+        return size++;
+    }
+
+    /** Returns the ordinal of {@code name}, or -1 if it was never interned. */
+    public int indexOf(String name) {
+        Integer existing = index().get(name);
+        return existing == null ? -1 : existing;
+    }
+
+    public String name(int ordinal) {
+        if (ordinal >= size) {
+            throw new IndexOutOfBoundsException("No name " + ordinal + " in a table of " + size);
+        }
+        String name = names[ordinal];
+        if (name == null) {
+            // Racing decoders produce equal strings, so the unsynchronized cache is harmless
+            name = decode(ordinal);
+            names[ordinal] = name;
+        }
+        return name;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String[] toArray() {
+        String[] result = new String[size];
+        for (int i = 0; i < size; i++) {
+            result[i] = name(i);
+        }
+        return result;
+    }
+
+    private HashMap<String, Integer> index() {
+        HashMap<String, Integer> idx = index;
+        return idx != null ? idx : buildIndex();
+    }
+
+    private synchronized HashMap<String, Integer> buildIndex() {
+        if (index == null) {
+            HashMap<String, Integer> idx = new HashMap<>(size * 2);
+            for (int i = 0; i < size; i++) {
+                idx.put(name(i), i);
+            }
+            index = idx;
+        }
+        return index;
+    }
+
+    private String decode(int ordinal) {
+        int tableStart = packed.position();
+        int bytesStart = tableStart + (size + 1) * 4;
+        int from = packed.getInt(tableStart + ordinal * 4);
+        int to = packed.getInt(tableStart + (ordinal + 1) * 4);
+        byte[] utf8 = new byte[to - from];
+        ByteBuffer view = packed.duplicate();
+        view.position(bytesStart + from);
+        view.get(utf8);
+        return new String(utf8, UTF_8);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+
+/**
+ * A character trie over an alphabet, mapping each symbol string to its ordinal
+ * without hashing or allocating. Nodes are stored in flat arrays: the outgoing
+ * edges of node {@code n} are {@code edgeChar/edgeTarget[firstEdge[n] .. firstEdge[n+1])},
+ * sorted by character.
+ */
+public final class SymbolTrie {
+
+    public static final int NO_NODE = -1;
+    public static final int ROOT = 0;
+
+    private final int[] firstEdge;
+    private final char[] edgeChar;
+    private final int[] edgeTarget;
+    private final int[] symbolAt;
+
+    /** Builds a trie where {@code symbols[i]} maps to ordinal {@code i}. */
+    public SymbolTrie(String[] symbols) {
+        // Build with growable per-node child lists, then flatten.
+        int capacity = 1;
+        for (String symbol : symbols) {
+            capacity += symbol.length();
+        }
+        char[][] childChars = new char[capacity][];
+        int[][] childNodes = new int[capacity][];
+        int[] childCounts = new int[capacity];
+        int[] terminal = new int[capacity];
+        Arrays.fill(terminal, -1);
+        int nodes = 1;
+
+        for (int ordinal = 0; ordinal < symbols.length; ordinal++) {
+            String symbol = symbols[ordinal];
+            int node = ROOT;
+            for (int i = 0; i < symbol.length(); i++) {
+                char c = symbol.charAt(i);
+                int child = -1;
+                for (int e = 0; e < childCounts[node]; e++) {
+                    if (childChars[node][e] == c) {
+                        child = childNodes[node][e];
+                        break;
+                    }
+                }
+                if (child < 0) {
+                    if (childChars[node] == null) {
+                        childChars[node] = new char[2];
+                        childNodes[node] = new int[2];
+                    } else if (childCounts[node] == childChars[node].length) {
+                        childChars[node] = Arrays.copyOf(childChars[node], childCounts[node] * 2);
+                        childNodes[node] = Arrays.copyOf(childNodes[node], childCounts[node] * 2);
+                    }
+                    child = nodes++;
+                    childChars[node][childCounts[node]] = c;
+                    childNodes[node][childCounts[node]++] = child;
+                }
+                node = child;
+            }
+            if (terminal[node] < 0) {
+                terminal[node] = ordinal;
+            }
+        }
+
+        firstEdge = new int[nodes + 1];
+        edgeChar = new char[nodes - 1];
+        edgeTarget = new int[nodes - 1];
+        symbolAt = Arrays.copyOf(terminal, nodes);
+        int edge = 0;
+        for (int node = 0; node < nodes; node++) {
+            firstEdge[node] = edge;
+            int count = childCounts[node];
+            // Insertion sort: fan-out per node is tiny.
+            for (int e = 0; e < count; e++) {
+                char c = childChars[node][e];
+                int target = childNodes[node][e];
+                int at = edge + e;
+                while (at > edge && edgeChar[at - 1] > c) {
+                    edgeChar[at] = edgeChar[at - 1];
+                    edgeTarget[at] = edgeTarget[at - 1];
+                    at--;
+                }
+                edgeChar[at] = c;
+                edgeTarget[at] = target;
+            }
+            edge += count;
+        }
+        firstEdge[nodes] = edge;
+    }
+
+    /** Follows {@code c} from {@code node}; returns {@link #NO_NODE} if there is no such edge. */
+    public int step(int node, char c) {
+        int lo = firstEdge[node];
+        int hi = firstEdge[node + 1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            char m = edgeChar[mid];
+            if (m < c) lo = mid + 1;
+            else if (m > c) hi = mid - 1;
+            else return edgeTarget[mid];
+        }
+        return NO_NODE;
+    }
+
+    /** Returns the ordinal of the symbol ending at {@code node}, or -1. */
+    public int symbolAt(int node) {
+        return symbolAt[node];
+    }
+
+    /** Returns the ordinal of {@code text[from, to)}, or -1 if it is not a symbol. */
+    public int lookup(CharSequence text, int from, int to) {
+        int node = ROOT;
+        for (int i = from; i < to && node != NO_NODE; i++) {
+            node = step(node, text.charAt(i));
+        }
+        return node == NO_NODE ? -1 : symbolAt[node];
+    }
+}
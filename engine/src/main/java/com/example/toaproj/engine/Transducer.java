@@ -0,0 +1,258 @@
+package com.example.toaproj.engine;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A {@link Dfa} that writes output as it reads: a string per transition (Mealy) or per
+ * state entered (Moore), given in the same state-to-symbol map shape as the transitions.
+ *
+ * <p>All outputs are encoded to UTF-8 once, into one byte array indexed like the
+ * transition table, so translating a symbol is a table lookup plus a bulk copy into the
+ * caller's {@link ByteBuffer}; no strings are built while running. Input is read one byte
+ * per symbol, so every symbol must be a single character below 256, as for
+ * {@link MultiPatternMatcher}.
+ *
+ * <p>Translation stops at a byte with no transition. Instances are immutable.
+ */
+public final class Transducer {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Largest region of a file mapped at once. */
+    private static final long MAP_WINDOW = 64L << 20;
+
+    private final Dfa dfa;
+    private final boolean moore;
+    private final byte[] output;
+    private final int[] outputStart;   // per transition (Mealy) or state (Moore), plus an end
+    private final int[] byteSymbol;
+    private final int maxOutput;
+
+    private Transducer(Dfa dfa, boolean moore, String[] outputs) {
+        this.dfa = dfa;
+        this.moore = moore;
+        this.byteSymbol = new int[256];
+        Arrays.fill(byteSymbol, -1);
+        for (int a = 0; a < dfa.symbolCount(); a++) {
+            String name = dfa.symbolName(a);
+            if (name.length() != 1 || name.charAt(0) > 255) {
+                throw new IllegalArgumentException("Symbol '" + name + "' is not a single byte");
+            }
+            byteSymbol[name.charAt(0)] = a;
+        }
+
+        outputStart = new int[outputs.length + 1];
+        byte[][] encoded = new byte[outputs.length][];
+        int total = 0, max = 0;
+        for (int i = 0; i < outputs.length; i++) {
+            encoded[i] = outputs[i] == null ? new byte[0] : outputs[i].getBytes(UTF_8);
+            outputStart[i] = total;
+            total += encoded[i].length;
+            max = Math.max(max, encoded[i].length);
+        }
+        outputStart[outputs.length] = total;
+        output = new byte[total];
+        for (int i = 0; i < outputs.length; i++) {
+            System.arraycopy(encoded[i], 0, output, outputStart[i], encoded[i].length);
+        }
+        maxOutput = max;
+    }
+
+    /**
+     * A Mealy machine: {@code outputs.get(state).get(symbol)} is written when that
+     * transition is taken. Missing entries write nothing.
+     *
+     * @throws IllegalArgumentException if a symbol of {@code dfa} is not a single byte
+     */
+    public static Transducer mealy(Dfa dfa, Map<String, ? extends Map<String, String>> outputs) {
+        int k = dfa.symbolCount();
+        String[] cells = new String[dfa.stateCount() * k];
+        for (Map.Entry<String, ? extends Map<String, String>> row : outputs.entrySet()) {
+            int state = dfa.stateIndex(row.getKey());
+            if (state < 0) continue;
+            for (Map.Entry<String, String> cell : row.getValue().entrySet()) {
+                int symbol = dfa.symbolIndex(cell.getKey());
+                if (symbol >= 0) cells[state * k + symbol] = cell.getValue();
+            }
+        }
+        return new Transducer(dfa, false, cells);
+    }
+
+    /**
+     * A Moore machine: {@code outputs.get(state)} is written whenever that state is
+     * entered, and for the initial state by {@link #writeStart}. Missing entries write nothing.
+     *
+     * @throws IllegalArgumentException if a symbol of {@code dfa} is not a single byte
+     */
+    public static Transducer moore(Dfa dfa, Map<String, String> outputs) {
+        String[] cells = new String[dfa.stateCount()];
+        for (Map.Entry<String, String> entry : outputs.entrySet()) {
+            int state = dfa.stateIndex(entry.getKey());
+            if (state >= 0) cells[state] = entry.getValue();
+        }
+        return new Transducer(dfa, true, cells);
+    }
+
+    public Dfa dfa() {
+        return dfa;
+    }
+
+    public boolean isMoore() {
+        return moore;
+    }
+
+    /** Bytes of the longest single output; an output buffer must have at least this much room. */
+    public int maxOutputLength() {
+        return maxOutput;
+    }
+
+    /**
+     * Writes the initial state's output, which a Moore machine emits before any input.
+     * Writes nothing for a Mealy machine.
+     *
+     * @return false if {@code out} had no room, in which case nothing was written
+     */
+    public boolean writeStart(ByteBuffer out) {
+        if (!moore) return true;
+        int state = dfa.initialState();
+        int from = outputStart[state], length = outputStart[state + 1] - from;
+        if (out.remaining() < length) return false;
+        out.put(output, from, length);
+        return true;
+    }
+
+    /**
+     * Reads bytes from {@code in} starting in {@code state}, writing each transition's
+     * output to {@code out}, until the input runs out, the next output does not fit, or a
+     * byte has no transition. {@code in} is left at the first byte not translated.
+     *
+     * @return the state reached, or {@link Dfa#NO_STATE} if a byte had no transition
+     */
+    public int translate(int state, ByteBuffer in, ByteBuffer out) {
+        final int[] byteSymbol = this.byteSymbol, outputStart = this.outputStart;
+        final byte[] output = this.output;
+        final int k = dfa.symbolCount();
+        int pos = in.position();
+        final int limit = in.limit();
+        try {
+            for (; pos < limit; pos++) {
+                int symbol = byteSymbol[in.get(pos) & 0xFF];
+                if (symbol < 0) return Dfa.NO_STATE;
+                int next = dfa.next(state, symbol);
+                if (next == Dfa.NO_STATE) return Dfa.NO_STATE;
+                int cell = moore ? next : state * k + symbol;
+                int from = outputStart[cell], length = outputStart[cell + 1] - from;
+                if (out.remaining() < length) return state;
+                out.put(output, from, length);
+                state = next;
+            }
+            return state;
+        } finally {
+            in.position(pos);
+        }
+    }
+
+    /**
+     * Translates all of {@code in} to {@code out} from the initial state. A
+     * {@link FileChannel} is memory-mapped window by window instead of copied into a
+     * buffer. Stops early at a byte with no transition.
+     */
+    public Result translate(ReadableByteChannel in, WritableByteChannel out) throws IOException {
+        long begin = System.nanoTime();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, maxOutput));
+        long[] written = new long[1];
+        writeStart(buffer);
+        int state = dfa.initialState();
+        long read = 0;
+
+        if (in instanceof FileChannel) {
+            FileChannel file = (FileChannel) in;
+            for (long pos = file.position(), size = file.size(); pos < size && state != Dfa.NO_STATE; ) {
+                long length = Math.min(MAP_WINDOW, size - pos);
+                ByteBuffer window = file.map(FileChannel.MapMode.READ_ONLY, pos, length);
+                state = drain(state, window, buffer, out, written);
+                read += window.position();
+                pos += window.position();
+                file.position(pos);
+            }
+        } else {
+            ByteBuffer input = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            while (state != Dfa.NO_STATE && in.read(input) >= 0) {
+                input.flip();
+                int before = input.remaining();
+                state = drain(state, input, buffer, out, written);
+                read += before - input.remaining();
+                input.compact();
+            }
+        }
+        flush(buffer, out, written);
+        return new Result(read, written[0], state, System.nanoTime() - begin);
+    }
+
+    /** Translates all of {@code in}, flushing {@code buffer} to {@code out} whenever it fills. */
+    private int drain(int state, ByteBuffer in, ByteBuffer buffer, WritableByteChannel out,
+                      long[] written) throws IOException {
+        while (true) {
+            state = translate(state, in, buffer);
+            if (state == Dfa.NO_STATE || !in.hasRemaining()) return state;
+            flush(buffer, out, written);
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, WritableByteChannel out, long[] written)
+            throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            written[0] += out.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /** Totals of one channel-to-channel translation. */
+    public static final class Result {
+        private final long inputBytes;
+        private final long outputBytes;
+        private final int finalState;
+        private final long elapsedNanos;
+
+        Result(long inputBytes, long outputBytes, int finalState, long elapsedNanos) {
+            this.inputBytes = inputBytes;
+            this.outputBytes = outputBytes;
+            this.finalState = finalState;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /** Bytes translated; short of the input length if a byte had no transition. */
+        public long inputBytes() {
+            return inputBytes;
+        }
+
+        public long outputBytes() {
+            return outputBytes;
+        }
+
+        /** The state after the last byte, or {@link Dfa#NO_STATE} if translation stopped early. */
+        public int finalState() {
+            return finalState;
+        }
+
+        public boolean complete() {
+            return finalState != Dfa.NO_STATE;
+        }
+
+        public long elapsedNanos() {
+            return elapsedNanos;
+        }
+
+        public double bytesPerSecond() {
+            return elapsedNanos == 0 ? 0 : inputBytes * 1e9 / elapsedNanos;
+        }
+    }
+}
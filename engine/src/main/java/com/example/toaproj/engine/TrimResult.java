@@ -0,0 +1,72 @@
+package com.example.toaproj.engine;
+
+/**
+ * The outcome of {@link Reachability#trim}: the trimmed DFA, which states were removed and
+ * which were merged into its dead sink.
+ */
+public final class TrimResult {
+
+    private final Dfa original;
+    private final Dfa trimmed;
+    private final int[] stateMap;
+    private final int unreachableCount;
+    private final int deadCount;
+    private final long elapsedNanos;
+
+    TrimResult(Dfa original, Dfa trimmed, int[] stateMap, int unreachableCount, int deadCount,
+               long elapsedNanos) {
+        this.original = original;
+        this.trimmed = trimmed;
+        this.stateMap = stateMap;
+        this.unreachableCount = unreachableCount;
+        this.deadCount = deadCount;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /** The trimmed automaton; the original itself if nothing was removed. */
+    public Dfa trimmed() {
+        return trimmed;
+    }
+
+    /**
+     * Maps each original state ordinal to its ordinal in {@link #trimmed()}: a dead state
+     * maps to the shared sink, and an unreachable one to {@link Dfa#NO_STATE}.
+     */
+    public int mappedState(int originalState) {
+        return stateMap[originalState];
+    }
+
+    public int originalStateCount() {
+        return original.stateCount();
+    }
+
+    public int trimmedStateCount() {
+        return trimmed.stateCount();
+    }
+
+    public int unreachableCount() {
+        return unreachableCount;
+    }
+
+    /** Reachable states from which no accepting state can be reached, merged into one sink. */
+    public int deadCount() {
+        return deadCount;
+    }
+
+    public boolean changed() {
+        return trimmed != original;
+    }
+
+    public long elapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * A one-line report such as
+     * {@code "Trimmed 12 → 8 states (2 unreachable, 3 dead into one sink)"}.
+     */
+    public String summary() {
+        return "Trimmed " + originalStateCount() + " → " + trimmedStateCount() + " states ("
+            + unreachableCount + " unreachable, " + deadCount + " dead into one sink)";
+    }
+}
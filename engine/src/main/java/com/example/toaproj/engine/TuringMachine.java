@@ -0,0 +1,182 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * A deterministic single-tape Turing machine. Build one with {@link TuringMachineBuilder}.
+ *
+ * <p>Moves are a dense table like a {@link Dfa}'s: {@code next}, {@code write} and
+ * {@code move} arrays indexed by {@code state * symbolCount + read}. The machine halts
+ * when no move is defined and accepts if it halted in an accepting state.
+ *
+ * <p>The tape is one {@code int[]} of symbol ordinals that doubles toward whichever end
+ * the head runs off, so a step is a table lookup and an array store. The step budget
+ * bounds the moves taken and the cell budget bounds the tape, so a machine that loops
+ * or runs off along the tape forever stops with {@link MachineResult#STEP_LIMIT} or
+ * {@link MachineResult#MEMORY_LIMIT}. Instances are immutable.
+ */
+public final class TuringMachine implements Automaton {
+
+    public static final int LEFT = -1;
+    public static final int STAY = 0;
+    public static final int RIGHT = 1;
+
+    /** Entry of {@link #next} where no move is defined. */
+    static final int HALT = -1;
+
+    private final SymbolTable states;
+    private final SymbolTable symbols;
+    private final int[] next;
+    private final int[] write;
+    private final byte[] move;
+    private final BitSet accepting;
+    private final int initialState;
+    private final int blank;
+    private final int symbolCount;
+
+    TuringMachine(SymbolTable states, SymbolTable symbols, int[] next, int[] write, byte[] move,
+                  BitSet accepting, int initialState, int blank) {
+        this.states = states;
+        this.symbols = symbols;
+        this.next = next;
+        this.write = write;
+        this.move = move;
+        this.accepting = accepting;
+        this.initialState = initialState;
+        this.blank = blank;
+        this.symbolCount = symbols.size();
+    }
+
+    /**
+     * Writes {@code input} (tape symbol ordinals) on a blank tape, puts the head on its
+     * first symbol and runs until the machine halts or a budget runs out.
+     *
+     * @param maxSteps moves to take before giving up
+     * @param maxCells tape cells to allocate before giving up; at least the input length
+     * @throws IllegalArgumentException if {@code maxCells} is below 1, since the head
+     *                                  always reads a cell
+     */
+    public MachineResult run(int[] input, long maxSteps, int maxCells) {
+        if (maxCells < 1) {
+            throw new IllegalArgumentException("maxCells must be at least 1");
+        }
+        long begin = System.nanoTime();
+        int length = Math.min(maxCells, Math.max(16, input.length * 2));
+        if (length < input.length) {
+            return new MachineResult(MachineResult.MEMORY_LIMIT, 0, 0, System.nanoTime() - begin, null);
+        }
+        int[] tape = new int[length];
+        Arrays.fill(tape, blank);
+        int head = (length - input.length) / 2;
+        System.arraycopy(input, 0, tape, head, input.length);
+
+        final int[] next = this.next, write = this.write;
+        final byte[] move = this.move;
+        final int k = symbolCount;
+        int state = initialState;
+        long steps = 0;
+        byte outcome;
+        while (true) {
+            int cell = state * k + tape[head];
+            int target = next[cell];
+            if (target == HALT) {
+                outcome = accepting.get(state) ? MachineResult.ACCEPTED : MachineResult.REJECTED;
+                break;
+            }
+            if (steps == maxSteps) {
+                outcome = MachineResult.STEP_LIMIT;
+                break;
+            }
+            tape[head] = write[cell];
+            state = target;
+            head += move[cell];
+            steps++;
+            if (head < 0 || head == tape.length) {
+                if (tape.length == maxCells) {
+                    outcome = MachineResult.MEMORY_LIMIT;
+                    break;
+                }
+                int grown = (int) Math.min(maxCells, tape.length * 2L);
+                int[] wider = new int[grown];
+                Arrays.fill(wider, blank);
+                int shift = head < 0 ? grown - tape.length : 0;
+                System.arraycopy(tape, 0, wider, shift, tape.length);
+                tape = wider;
+                head += shift;
+            }
+        }
+        return new MachineResult(outcome, steps, tape.length, System.nanoTime() - begin, describe(tape));
+    }
+
+    /** The non-blank span of {@code tape} as space-separated symbol names. */
+    private String describe(int[] tape) {
+        int first = 0, last = tape.length - 1;
+        while (first <= last && tape[first] == blank) first++;
+        while (last >= first && tape[last] == blank) last--;
+        StringBuilder sb = new StringBuilder();
+        for (int i = first; i <= last; i++) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(symbols.name(tape[i]));
+        }
+        return sb.toString();
+    }
+
+    public int blankSymbol() {
+        return blank;
+    }
+
+    @Override
+    public int stateCount() {
+        return states.size();
+    }
+
+    @Override
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    @Override
+    public int initialState() {
+        return initialState;
+    }
+
+    @Override
+    public boolean isAccepting(int state) {
+        return accepting.get(state);
+    }
+
+    @Override
+    public String stateName(int state) {
+        return states.name(state);
+    }
+
+    @Override
+    public String symbolName(int symbol) {
+        return symbols.name(symbol);
+    }
+
+    @Override
+    public SymbolTable symbols() {
+        return symbols;
+    }
+
+    /** One edge per move, labelled with the symbol it reads. */
+    @Override
+    public int[] edges() {
+        int count = 0;
+        for (int target : next) {
+            if (target != HALT) count++;
+        }
+        int[] edges = new int[count * 3];
+        int e = 0;
+        for (int i = 0; i < next.length; i++) {
+            if (next[i] != HALT) {
+                edges[e++] = i / symbolCount;
+                edges[e++] = i % symbolCount;
+                edges[e++] = next[i];
+            }
+        }
+        return edges;
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Accumulates states, tape symbols and moves, then freezes them into a deterministic
+ * single-tape {@link TuringMachine}. The blank symbol is interned first, as {@code _}
+ * unless {@link #setBlank} names another.
+ */
+public final class TuringMachineBuilder {
+
+    public static final String DEFAULT_BLANK = "_";
+
+    private final SymbolTable states = new SymbolTable();
+    private final SymbolTable symbols = new SymbolTable();
+    private final BitSet accepting = new BitSet();
+    private int[] rules = new int[40];   // (from, read, to, write, move)
+    private int ruleCount;
+    private int initialState = -1;
+    private int blank;
+
+    public TuringMachineBuilder() {
+        blank = symbols.intern(DEFAULT_BLANK);
+    }
+
+    public int state(String name) {
+        return states.intern(name);
+    }
+
+    public int symbol(String name) {
+        return symbols.intern(name);
+    }
+
+    public TuringMachineBuilder setBlank(String name) {
+        blank = symbols.intern(name);
+        return this;
+    }
+
+    /** {@code move} is {@link TuringMachine#LEFT}, {@link TuringMachine#STAY} or {@link TuringMachine#RIGHT}. */
+    public TuringMachineBuilder addTransition(int from, int read, int to, int write, int move) {
+        if (move < TuringMachine.LEFT || move > TuringMachine.RIGHT) {
+            throw new IllegalArgumentException("Bad move " + move);
+        }
+        if ((ruleCount + 1) * 5 > rules.length) {
+            rules = Arrays.copyOf(rules, rules.length * 2);
+        }
+        int r = ruleCount++ * 5;
+        rules[r] = from;
+        rules[r + 1] = read;
+        rules[r + 2] = to;
+        rules[r + 3] = write;
+        rules[r + 4] = move;
+        return this;
+    }
+
+    /** Adds a move by name; {@code move} is {@code 'L'}, {@code 'R'} or {@code 'S'}. */
+    public TuringMachineBuilder addTransition(String from, String read, String to, String write, char move) {
+        int direction;
+        switch (move) {
+            case 'L': direction = TuringMachine.LEFT; break;
+            case 'R': direction = TuringMachine.RIGHT; break;
+            case 'S': direction = TuringMachine.STAY; break;
+            default: throw new IllegalArgumentException("Bad move " + move);
+        }
+        return addTransition(state(from), symbol(read), state(to), symbol(write), direction);
+    }
+
+    public TuringMachineBuilder setInitial(int state) {
+        initialState = state;
+        return this;
+    }
+
+    public TuringMachineBuilder setAccepting(int state, boolean value) {
+        accepting.set(state, value);
+        return this;
+    }
+
+    /**
+     * @throws IllegalStateException if there is no initial state or two moves share a
+     *                               state and read symbol
+     */
+    public TuringMachine build() {
+        if (initialState < 0) {
+            throw new IllegalStateException("No initial state");
+        }
+        int n = states.size(), k = symbols.size();
+        int[] next = new int[n * k];
+        int[] write = new int[n * k];
+        byte[] move = new byte[n * k];
+        Arrays.fill(next, TuringMachine.HALT);
+        for (int r = 0; r < ruleCount * 5; r += 5) {
+            int cell = rules[r] * k + rules[r + 1];
+            if (next[cell] != TuringMachine.HALT) {
+                throw new IllegalStateException("Two moves from " + states.name(rules[r])
+                    + " on " + symbols.name(rules[r + 1]));
+            }
+            next[cell] = rules[r + 2];
+            write[cell] = rules[r + 3];
+            move[cell] = (byte) rules[r + 4];
+        }
+        return new TuringMachine(new SymbolTable(states.toArray()), new SymbolTable(symbols.toArray()),
+            next, write, move, (BitSet) accepting.clone(), initialState, blank);
+    }
+}
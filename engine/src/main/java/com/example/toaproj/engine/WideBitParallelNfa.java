@@ -0,0 +1,105 @@
+package com.example.toaproj.engine;
+
+import java.util.Arrays;
+
+/**
+ * Bit-parallel simulation for automata of any size: the active set is a multi-word
+ * bitset and each step ORs in the precomputed, epsilon-closed successor row of every
+ * active state. Use {@link BitParallelNfa} when the automaton has at most 64 states.
+ * The automaton itself is immutable and thread-safe; callers supply the word buffers.
+ */
+public final class WideBitParallelNfa {
+
+    private final int words;
+    private final int symbolCount;
+    private final long[] successors;
+    private final long[] initial;
+    private final long[] accepting;
+
+    public WideBitParallelNfa(Nfa nfa) {
+        int n = nfa.stateCount();
+        int k = nfa.symbolCount();
+        this.words = Math.max(1, (n + 63) >>> 6);
+        this.symbolCount = k;
+
+        Nfa.Closure closure = new Nfa.Closure(nfa);
+        long[] closureRows = new long[n * words];
+        int[] seed = new int[1];
+        for (int s = 0; s < n; s++) {
+            seed[0] = s;
+            for (int t : closure.of(seed, 1)) closureRows[s * words + (t >>> 6)] |= 1L << t;
+        }
+
+        this.initial = Arrays.copyOfRange(closureRows, nfa.initialState() * words,
+            nfa.initialState() * words + words);
+        this.accepting = new long[words];
+        for (int s = 0; s < n; s++) {
+            if (nfa.isAccepting(s)) accepting[s >>> 6] |= 1L << s;
+        }
+
+        this.successors = new long[n * k * words];
+        for (int s = 0; s < n; s++) {
+            for (int a = 0; a < k; a++) {
+                int row = (s * k + a) * words;
+                for (int i = nfa.targetsStart(s, a), end = nfa.targetsEnd(s, a); i < end; i++) {
+                    int from = nfa.target(i) * words;
+                    for (int w = 0; w < words; w++) successors[row + w] |= closureRows[from + w];
+                }
+            }
+        }
+    }
+
+    /** Number of {@code long}s in an active-set buffer. */
+    public int words() {
+        return words;
+    }
+
+    public int symbolCount() {
+        return symbolCount;
+    }
+
+    public void start(long[] active) {
+        System.arraycopy(initial, 0, active, 0, words);
+    }
+
+    /** Writes the successors of {@code active} on {@code symbol} into {@code out}; returns false if empty. */
+    public boolean step(long[] active, int symbol, long[] out) {
+        Arrays.fill(out, 0, words, 0L);
+        boolean any = false;
+        for (int w = 0; w < words; w++) {
+            long bits = active[w];
+            while (bits != 0) {
+                int s = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                int row = (s * symbolCount + symbol) * words;
+                for (int i = 0; i < words; i++) out[i] |= successors[row + i];
+                any = true;
+            }
+        }
+        if (!any) return false;
+        for (int i = 0; i < words; i++) {
+            if (out[i] != 0) return true;
+        }
+        return false;
+    }
+
+    public boolean isAccepting(long[] active) {
+        for (int w = 0; w < words; w++) {
+            if ((active[w] & accepting[w]) != 0) return true;
+        }
+        return false;
+    }
+
+    public boolean accepts(int[] input) {
+        long[] current = new long[words];
+        long[] next = new long[words];
+        start(current);
+        for (int symbol : input) {
+            if (!step(current, symbol, next)) return false;
+            long[] swap = current;
+            current = next;
+            next = swap;
+        }
+        return isAccepting(current);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.toaproj.engine.layout;
+
+/**
+ * Places states evenly on a circle, starting at twelve o'clock. This is the
+ * original layout of the automaton view, kept headless so it can be tested and
+ * benchmarked without a device.
+ */
+public final class CircularLayout {
+
+    private CircularLayout() {
+    }
+
+    /**
+     * Writes positions for {@code count} states into {@code xs} and {@code ys}.
+     *
+     * @param width  view width
+     * @param height view height
+     * @param margin distance kept between the circle and the view edge
+     */
+    public static void layout(int count, float width, float height, float margin,
+                              float[] xs, float[] ys) {
+        float centerX = width / 2f;
+        float centerY = height / 2f;
+        float radius = Math.min(centerX, centerY) - margin;
+
+        for (int i = 0; i < count; i++) {
+            float angle = (float) (2 * Math.PI * i / count - Math.PI / 2);
+            xs[i] = centerX + radius * (float) Math.cos(angle);
+            ys[i] = centerY + radius * (float) Math.sin(angle);
+        }
+    }
+}
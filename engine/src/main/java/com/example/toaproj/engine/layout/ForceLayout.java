@@ -0,0 +1,276 @@
+package com.example.toaproj.engine.layout;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Incremental force-directed layout (Fruchterman–Reingold) with Barnes–Hut repulsion.
+ *
+ * <p>Edges pull their endpoints together with force {@code d²/k}; every pair of states
+ * pushes apart with {@code k²/d}, approximated through a quadtree so one step costs
+ * O(n log n + m) instead of O(n²). A weak pull towards the centre keeps disconnected
+ * parts together. Each {@link #step} moves states by at most the current temperature,
+ * which cools geometrically until the layout settles.
+ *
+ * <p>Everything lives in primitive arrays that are reused between steps, and the only
+ * randomness is the seeded starting position, so a given automaton and seed always
+ * produce the same layout. Instances are not thread-safe; one thread steps the layout
+ * and reads positions out with {@link #copyPositions}.
+ */
+public final class ForceLayout {
+
+    /** Default distance between connected states, matching the automaton view's scale. */
+    public static final float DEFAULT_SPACING = 240f;
+
+    private static final float THETA = 0.8f;       // Barnes–Hut opening criterion
+    private static final float GRAVITY = 0.02f;
+    private static final float COOLING = 0.95f;
+    private static final int MAX_DEPTH = 24;
+    private static final int NO_CHILD = -1;
+    private static final int EMPTY = -1;
+    private static final int CROWDED = -2;          // leaf at MAX_DEPTH holding several states
+
+    private final int count;
+    private final int[] edgeFrom;
+    private final int[] edgeTo;
+    private final float k;
+    private final float[] x, y, dispX, dispY;
+    private float temperature;
+    private final float minTemperature;
+    private int iterations;
+
+    // Quadtree, rebuilt every step into these growable arrays
+    private int nodeCount;
+    private int[] child = new int[0];     // index of the first of four children, or NO_CHILD
+    private int[] point = new int[0];     // leaf's state, EMPTY, or CROWDED
+    private float[] mass = new float[0];
+    private float[] sumX = new float[0];
+    private float[] sumY = new float[0];
+    private float[] nodeX = new float[0]; // min corner and side of the node's square
+    private float[] nodeY = new float[0];
+    private float[] nodeSize = new float[0];
+    private final int[] stack = new int[MAX_DEPTH * 3 + 4];
+
+    /**
+     * @param count  number of states
+     * @param edges  {@code (from, symbol, to)} triples as returned by {@code Automaton.edges()};
+     *               symbols are ignored and self-loops and duplicates do no harm
+     * @param seed   seed for the starting positions
+     */
+    public ForceLayout(int count, int[] edges, long seed) {
+        this(count, edges, seed, DEFAULT_SPACING);
+    }
+
+    public ForceLayout(int count, int[] edges, long seed, float spacing) {
+        this.count = count;
+        this.k = spacing;
+        int m = 0;
+        for (int e = 0; e < edges.length; e += 3) {
+            if (edges[e] != edges[e + 2]) m++;
+        }
+        edgeFrom = new int[m];
+        edgeTo = new int[m];
+        m = 0;
+        for (int e = 0; e < edges.length; e += 3) {
+            if (edges[e] != edges[e + 2]) {
+                edgeFrom[m] = edges[e];
+                edgeTo[m++] = edges[e + 2];
+            }
+        }
+
+        x = new float[count];
+        y = new float[count];
+        dispX = new float[count];
+        dispY = new float[count];
+        float side = k * (float) Math.sqrt(Math.max(count, 1));
+        Random random = new Random(seed);
+        for (int i = 0; i < count; i++) {
+            x[i] = (random.nextFloat() - 0.5f) * side;
+            y[i] = (random.nextFloat() - 0.5f) * side;
+        }
+        temperature = side / 10f;
+        minTemperature = k / 100f;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int iterations() {
+        return iterations;
+    }
+
+    /** True once the temperature has cooled to the point where states barely move. */
+    public boolean isSettled() {
+        return temperature <= minTemperature || count < 2;
+    }
+
+    /** Runs steps until settled or {@code maxIterations} have run in total. */
+    public void run(int maxIterations) {
+        while (!isSettled() && iterations < maxIterations) {
+            step();
+        }
+    }
+
+    /** Advances the layout by one iteration. */
+    public void step() {
+        if (count == 0) return;
+        Arrays.fill(dispX, 0f);
+        Arrays.fill(dispY, 0f);
+
+        buildTree();
+        for (int i = 0; i < count; i++) {
+            repel(i);
+        }
+
+        for (int e = 0; e < edgeFrom.length; e++) {
+            int u = edgeFrom[e], v = edgeTo[e];
+            float dx = x[u] - x[v], dy = y[u] - y[v];
+            float d = (float) Math.sqrt(dx * dx + dy * dy);
+            if (d < 1e-3f) continue;
+            // d²/k along the unit vector: (dx / d) * d² / k = dx * d / k
+            float f = d / k;
+            dispX[u] -= dx * f;
+            dispY[u] -= dy * f;
+            dispX[v] += dx * f;
+            dispY[v] += dy * f;
+        }
+
+        for (int i = 0; i < count; i++) {
+            dispX[i] -= x[i] * GRAVITY;
+            dispY[i] -= y[i] * GRAVITY;
+            float d = (float) Math.sqrt(dispX[i] * dispX[i] + dispY[i] * dispY[i]);
+            if (d > 0f) {
+                float move = Math.min(d, temperature) / d;
+                x[i] += dispX[i] * move;
+                y[i] += dispY[i] * move;
+            }
+        }
+        temperature *= COOLING;
+        iterations++;
+    }
+
+    /**
+     * Writes positions translated so the bounding box of the state centres starts at
+     * ({@code margin}, {@code margin}).
+     */
+    public void copyPositions(float[] xs, float[] ys, float margin) {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+        }
+        for (int i = 0; i < count; i++) {
+            xs[i] = x[i] - minX + margin;
+            ys[i] = y[i] - minY + margin;
+        }
+    }
+
+    private void buildTree() {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, x[i]);
+            minY = Math.min(minY, y[i]);
+            maxX = Math.max(maxX, x[i]);
+            maxY = Math.max(maxY, y[i]);
+        }
+        nodeCount = 0;
+        int root = newNode(minX, minY, Math.max(Math.max(maxX - minX, maxY - minY), 1f) * 1.0001f);
+        for (int i = 0; i < count; i++) {
+            insert(root, i);
+        }
+    }
+
+    private int newNode(float left, float top, float size) {
+        if (nodeCount == child.length) {
+            int capacity = Math.max(64, nodeCount * 2);
+            child = Arrays.copyOf(child, capacity);
+            point = Arrays.copyOf(point, capacity);
+            mass = Arrays.copyOf(mass, capacity);
+            sumX = Arrays.copyOf(sumX, capacity);
+            sumY = Arrays.copyOf(sumY, capacity);
+            nodeX = Arrays.copyOf(nodeX, capacity);
+            nodeY = Arrays.copyOf(nodeY, capacity);
+            nodeSize = Arrays.copyOf(nodeSize, capacity);
+        }
+        int node = nodeCount++;
+        child[node] = NO_CHILD;
+        point[node] = EMPTY;
+        mass[node] = 0f;
+        sumX[node] = 0f;
+        sumY[node] = 0f;
+        nodeX[node] = left;
+        nodeY[node] = top;
+        nodeSize[node] = size;
+        return node;
+    }
+
+    private void insert(int node, int i) {
+        for (int depth = 0; ; depth++) {
+            mass[node] += 1f;
+            sumX[node] += x[i];
+            sumY[node] += y[i];
+            if (child[node] == NO_CHILD) {
+                if (point[node] == EMPTY) {
+                    point[node] = i;
+                    return;
+                }
+                if (depth >= MAX_DEPTH || point[node] == CROWDED) {
+                    point[node] = CROWDED;
+                    return;
+                }
+                // Split: move the resident state down, then keep descending with i
+                int resident = point[node];
+                point[node] = EMPTY;
+                float half = nodeSize[node] / 2f;
+                int first = newNode(nodeX[node], nodeY[node], half);
+                newNode(nodeX[node] + half, nodeY[node], half);
+                newNode(nodeX[node], nodeY[node] + half, half);
+                newNode(nodeX[node] + half, nodeY[node] + half, half);
+                child[node] = first;
+                int target = first + quadrant(node, resident);
+                mass[target] = 1f;
+                sumX[target] = x[resident];
+                sumY[target] = y[resident];
+                point[target] = resident;
+            }
+            node = child[node] + quadrant(node, i);
+        }
+    }
+
+    private int quadrant(int node, int i) {
+        float half = nodeSize[node] / 2f;
+        int q = x[i] >= nodeX[node] + half ? 1 : 0;
+        if (y[i] >= nodeY[node] + half) q += 2;
+        return q;
+    }
+
+    private void repel(int i) {
+        float k2 = k * k;
+        float theta2 = THETA * THETA;
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (mass[node] == 0f || point[node] == i) continue;
+            float comX = sumX[node] / mass[node], comY = sumY[node] / mass[node];
+            float dx = x[i] - comX, dy = y[i] - comY;
+            float d2 = dx * dx + dy * dy;
+            boolean leaf = child[node] == NO_CHILD;
+            if (leaf || nodeSize[node] * nodeSize[node] < theta2 * d2) {
+                if (d2 < 1e-6f) continue;
+                // k²/d along the unit vector, times the node's mass: dx * k² * mass / d²
+                float f = k2 * mass[node] / d2;
+                dispX[i] += dx * f;
+                dispY[i] += dy * f;
+            } else {
+                int first = child[node];
+                stack[top++] = first;
+                stack[top++] = first + 1;
+                stack[top++] = first + 2;
+                stack[top++] = first + 3;
+            }
+        }
+    }
+}
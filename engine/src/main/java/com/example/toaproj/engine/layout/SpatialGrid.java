@@ -0,0 +1,192 @@
+package com.example.toaproj.engine.layout;
+
+import java.util.Arrays;
+
+/**
+ * A uniform grid over circles or line segments, answering "what might be inside this
+ * rectangle" for viewport culling.
+ *
+ * <p>Items are bucketed into cells once, in compressed form: {@code cellStart} holds
+ * each cell's offset into one {@code int[]} of item ids. A query visits only the cells
+ * the rectangle overlaps and reports every item in them once, so it may return items
+ * just outside the rectangle but never misses one inside. Segments are entered only in
+ * the cells they actually cross, so long chords do not fill the grid. Queries reuse an
+ * internal stamp array and are not thread-safe.
+ */
+public final class SpatialGrid {
+
+    private final float minX, minY;
+    private final float cellWidth, cellHeight;
+    private final int columns, rows;
+    private final int[] cellStart;
+    private int[] cellItems;
+    private final int[] stamps;
+    private int generation;
+
+    private SpatialGrid(float minX, float minY, float maxX, float maxY,
+                        int columns, int rows, int itemCount) {
+        this.minX = minX;
+        this.minY = minY;
+        this.columns = columns;
+        this.rows = rows;
+        this.cellWidth = Math.max((maxX - minX) / columns, Float.MIN_NORMAL);
+        this.cellHeight = Math.max((maxY - minY) / rows, Float.MIN_NORMAL);
+        this.cellStart = new int[columns * rows + 1];
+        this.cellItems = new int[0];
+        this.stamps = new int[itemCount];
+    }
+
+    /** Indexes {@code count} circles of {@code radius} centred at ({@code xs[i]}, {@code ys[i]}). */
+    public static SpatialGrid ofCircles(float[] xs, float[] ys, int count, float radius,
+                                        int cellsPerSide) {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            minX = Math.min(minX, xs[i] - radius);
+            minY = Math.min(minY, ys[i] - radius);
+            maxX = Math.max(maxX, xs[i] + radius);
+            maxY = Math.max(maxY, ys[i] + radius);
+        }
+        SpatialGrid grid = empty(minX, minY, maxX, maxY, count, cellsPerSide);
+
+        // Two passes: count per cell, then fill
+        int[] cursor = null;
+        int[] items = null;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < count; i++) {
+                int c0 = grid.column(xs[i] - radius), c1 = grid.column(xs[i] + radius);
+                int r0 = grid.row(ys[i] - radius), r1 = grid.row(ys[i] + radius);
+                for (int r = r0; r <= r1; r++) {
+                    for (int c = c0; c <= c1; c++) {
+                        if (pass == 0) grid.cellStart[r * grid.columns + c + 1]++;
+                        else items[cursor[r * grid.columns + c]++] = i;
+                    }
+                }
+            }
+            if (pass == 0) {
+                cursor = grid.prefixSums();
+                items = new int[grid.cellStart[grid.cellStart.length - 1]];
+            }
+        }
+        grid.cellItems = items;
+        return grid;
+    }
+
+    /**
+     * Indexes {@code count} segments stored as {@code startX, startY, endX, endY} quadruples
+     * in {@code lines}.
+     */
+    public static SpatialGrid ofSegments(float[] lines, int count, int cellsPerSide) {
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            for (int p = 0; p < 4; p += 2) {
+                minX = Math.min(minX, lines[i * 4 + p]);
+                minY = Math.min(minY, lines[i * 4 + p + 1]);
+                maxX = Math.max(maxX, lines[i * 4 + p]);
+                maxY = Math.max(maxY, lines[i * 4 + p + 1]);
+            }
+        }
+        SpatialGrid grid = empty(minX, minY, maxX, maxY, count, cellsPerSide);
+
+        int[] cursor = null;
+        int[] items = null;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < count; i++) {
+                float x0 = lines[i * 4], y0 = lines[i * 4 + 1];
+                float x1 = lines[i * 4 + 2], y1 = lines[i * 4 + 3];
+                if (x1 < x0) {
+                    float t = x0; x0 = x1; x1 = t;
+                    t = y0; y0 = y1; y1 = t;
+                }
+                float slope = x1 > x0 ? (y1 - y0) / (x1 - x0) : 0f;
+                int c0 = grid.column(x0), c1 = grid.column(x1);
+                // Walk the columns the segment spans; in each, cover the rows between
+                // the segment's y at the column's left and right edges
+                for (int c = c0; c <= c1; c++) {
+                    float left = Math.max(x0, grid.minX + c * grid.cellWidth);
+                    float right = Math.min(x1, grid.minX + (c + 1) * grid.cellWidth);
+                    float ya = x1 > x0 ? y0 + (left - x0) * slope : y0;
+                    float yb = x1 > x0 ? y0 + (right - x0) * slope : y1;
+                    int r0 = grid.row(Math.min(ya, yb)), r1 = grid.row(Math.max(ya, yb));
+                    for (int r = r0; r <= r1; r++) {
+                        if (pass == 0) grid.cellStart[r * grid.columns + c + 1]++;
+                        else items[cursor[r * grid.columns + c]++] = i;
+                    }
+                }
+            }
+            if (pass == 0) {
+                cursor = grid.prefixSums();
+                items = new int[grid.cellStart[grid.cellStart.length - 1]];
+            }
+        }
+        grid.cellItems = items;
+        return grid;
+    }
+
+    private static SpatialGrid empty(float minX, float minY, float maxX, float maxY,
+                                     int count, int cellsPerSide) {
+        if (count == 0) {
+            minX = minY = 0f;
+            maxX = maxY = 1f;
+        }
+        int side = Math.max(1, cellsPerSide);
+        return new SpatialGrid(minX, minY, maxX, maxY, side, side, count);
+    }
+
+    /** Turns per-cell counts into offsets and returns a copy to use as fill cursors. */
+    private int[] prefixSums() {
+        for (int i = 1; i < cellStart.length; i++) {
+            cellStart[i] += cellStart[i - 1];
+        }
+        return Arrays.copyOf(cellStart, cellStart.length - 1);
+    }
+
+    private int column(float x) {
+        int c = (int) ((x - minX) / cellWidth);
+        return c < 0 ? 0 : c >= columns ? columns - 1 : c;
+    }
+
+    private int row(float y) {
+        int r = (int) ((y - minY) / cellHeight);
+        return r < 0 ? 0 : r >= rows ? rows - 1 : r;
+    }
+
+    /** Number of indexed items; ids run from 0 to this minus one. */
+    public int size() {
+        return stamps.length;
+    }
+
+    /**
+     * Writes the ids of items in cells overlapping the rectangle into {@code out}, each once
+     * and in no particular order, and returns how many were written. {@code out} must hold
+     * {@link #size()} ids.
+     */
+    public int query(float left, float top, float right, float bottom, int[] out) {
+        if (right < left || bottom < top || stamps.length == 0) return 0;
+        if (right < minX || bottom < minY
+                || left > minX + columns * cellWidth || top > minY + rows * cellHeight) {
+            return 0;
+        }
+        if (++generation == 0) {
+            Arrays.fill(stamps, 0);
+            generation = 1;
+        }
+        int c0 = column(left), c1 = column(right);
+        int r0 = row(top), r1 = row(bottom);
+        int n = 0;
+        for (int r = r0; r <= r1; r++) {
+            for (int c = c0; c <= c1; c++) {
+                int cell = r * columns + c;
+                for (int k = cellStart[cell]; k < cellStart[cell + 1]; k++) {
+                    int item = cellItems[k];
+                    if (stamps[item] != generation) {
+                        stamps[item] = generation;
+                        out[n++] = item;
+                    }
+                }
+            }
+        }
+        return n;
+    }
+}
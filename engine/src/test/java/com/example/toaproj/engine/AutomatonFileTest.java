@@ -0,0 +1,151 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class AutomatonFileTest {
+
+    @Test
+    public void roundTrip_preservesEverything() throws Exception {
+        Dfa dfa = MinimizerTest.randomDfa(new Random(5), 300, 3, 0.1);
+        File file = File.createTempFile("automaton", ".toa");
+        file.deleteOnExit();
+        AutomatonFile.write(dfa, file);
+
+        Dfa loaded = AutomatonFile.read(file);
+        assertEquals(dfa.stateCount(), loaded.stateCount());
+        assertEquals(dfa.initialState(), loaded.initialState());
+        assertArrayEquals(dfa.table(), loaded.table());
+        assertEquals(dfa.accepting(), loaded.accepting());
+        assertEquals("q299", loaded.stateName(299));
+        assertEquals(17, loaded.stateIndex("q17"));
+        assertEquals(2, loaded.symbolIndex("2"));
+    }
+
+    @Test
+    public void roundTrip_unicodeNames() throws Exception {
+        SymbolTable states = new SymbolTable(new String[]{"начало", "终"});
+        SymbolTable symbols = new SymbolTable(new String[]{"λ"});
+        java.util.BitSet accepting = new java.util.BitSet();
+        accepting.set(1);
+        Dfa dfa = new Dfa(states, symbols, new int[]{1, Dfa.NO_STATE}, accepting, 0);
+        File file = File.createTempFile("automaton", ".toa");
+        file.deleteOnExit();
+        AutomatonFile.write(dfa, file);
+        Dfa loaded = AutomatonFile.read(file);
+        assertEquals("终", loaded.stateName(1));
+        assertEquals(0, loaded.symbolIndex("λ"));
+        assertEquals(dfa.toTransitions(), loaded.toTransitions());
+    }
+
+    @Test(expected = IOException.class)
+    public void read_rejectsForeignFiles() throws Exception {
+        File file = File.createTempFile("automaton", ".toa");
+        file.deleteOnExit();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(new byte[64]);
+        }
+        AutomatonFile.read(file);
+    }
+
+    @Test
+    public void read_rejectsCorruptNameTables() throws Exception {
+        Dfa dfa = MinimizerTest.randomDfa(new Random(6), 20, 2, 0.1);
+        File file = File.createTempFile("automaton", ".toa");
+        file.deleteOnExit();
+
+        // A state name offset pointing past the end of the file
+        AutomatonFile.write(dfa, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(20);
+            int stateTable = raf.readInt();
+            raf.seek(stateTable + 4 * 3);
+            raf.writeInt(Integer.MAX_VALUE);
+        }
+        assertReadFails(file);
+
+        // Offsets that go backwards
+        AutomatonFile.write(dfa, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(24);
+            int symbolTable = raf.readInt();
+            raf.seek(symbolTable + 4);
+            raf.writeInt(5);
+            raf.writeInt(1);
+        }
+        assertReadFails(file);
+
+        // A name that is not UTF-8
+        AutomatonFile.write(dfa, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(20);
+            int stateTable = raf.readInt();
+            raf.seek(stateTable + 4L * (dfa.stateCount() + 1));
+            raf.write(0xFF);
+        }
+        assertReadFails(file);
+
+        // Cut off inside the symbol name table
+        AutomatonFile.write(dfa, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 2);
+        }
+        assertReadFails(file);
+    }
+
+    @Test
+    public void read_rejectsStrayAcceptingBitsAndDuplicateNames() throws Exception {
+        Dfa dfa = new Dfa(new SymbolTable(new String[]{"ab", "ac"}), new SymbolTable(new String[]{"x", "y"}),
+            new int[]{0, 1, 1, 0}, new BitSet(), 0);
+        File file = File.createTempFile("automaton", ".toa");
+        file.deleteOnExit();
+
+        // An accepting bit for a state past the last one
+        AutomatonFile.write(dfa, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(32);
+            raf.writeLong(1L << 5);
+        }
+        assertReadFails(file);
+
+        // The second state renamed to the first: "ac" becomes "ab"
+        AutomatonFile.write(dfa, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(20);
+            int stateTable = raf.readInt();
+            raf.seek(stateTable + 4L * 3 + 3);
+            raf.write('b');
+        }
+        assertReadFails(file);
+
+        // The second symbol renamed to the first
+        AutomatonFile.write(dfa, file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.seek(24);
+            int symbolTable = raf.readInt();
+            raf.seek(symbolTable + 4L * 3 + 1);
+            raf.write('x');
+        }
+        assertReadFails(file);
+
+        // Untouched, it still reads back
+        AutomatonFile.write(dfa, file);
+        assertEquals(1, AutomatonFile.read(file).stateIndex("ac"));
+    }
+
+    private static void assertReadFails(File file) {
+        try {
+            AutomatonFile.read(file);
+            fail("Corrupt file was accepted");
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage(), expected.getMessage().startsWith("Corrupt automaton file"));
+        }
+    }
+}
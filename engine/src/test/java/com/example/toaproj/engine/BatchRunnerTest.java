@@ -0,0 +1,70 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class BatchRunnerTest {
+
+    @Test
+    public void run_reportsPerSequenceOutcomes() {
+        Dfa dfa = DfaTest.evenOnes();
+        BatchResult result = new BatchRunner(dfa).run(Arrays.asList("1 1", "1 0", "", "1 2"));
+        assertEquals(BatchResult.ACCEPTED, result.outcome(0));
+        assertEquals(BatchResult.REJECTED, result.outcome(1));
+        assertEquals("q1", dfa.stateName(result.stopState(1)));
+        assertTrue(result.isAccepted(2));
+        assertEquals(BatchResult.INVALID, result.outcome(3));
+        assertEquals("q1", dfa.stateName(result.stopState(3)));
+        assertEquals(2, result.acceptedCount());
+        assertEquals(1, result.rejectedCount());
+        assertEquals(1, result.invalidCount());
+    }
+
+    @Test
+    public void run_largeBatchMatchesSequentialRun() throws Exception {
+        Dfa dfa = DfaTest.evenOnes();
+        List<String> sequences = new ArrayList<>();
+        StringBuilder file = new StringBuilder();
+        for (int n = 0; n < 10_000; n++) {
+            String sequence = Integer.toBinaryString(n).replace("", " ").trim();
+            sequences.add(sequence);
+            file.append(sequence).append('\n');
+        }
+        BatchResult result = new BatchRunner(dfa).run(new BufferedReader(new StringReader(file.toString())));
+        assertEquals(sequences.size(), result.size());
+        for (int n = 0; n < sequences.size(); n++) {
+            assertEquals(Integer.bitCount(n) % 2 == 0, result.isAccepted(n));
+        }
+    }
+
+    @Test
+    public void run_rejectsOnEnteringADeadStateWithoutReadingFurther() {
+        // Even number of 1s, but a 0 leads to a sink that can never accept
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        for (String state : new String[]{"q0", "q1", "sink"}) transitions.put(state, new HashMap<>());
+        transitions.get("q0").put("1", "q1");
+        transitions.get("q0").put("0", "sink");
+        transitions.get("q1").put("1", "q0");
+        transitions.get("q1").put("0", "sink");
+        transitions.get("sink").put("0", "sink");
+        transitions.get("sink").put("1", "sink");
+        Dfa dfa = Dfa.compile(transitions, new HashSet<>(Collections.singleton("q0")), "q0");
+
+        BatchResult result = new BatchRunner(dfa).run(Arrays.asList("1 1", "1 0 1 x", "0"));
+        assertTrue(result.isAccepted(0));
+        // The unknown x is never reached
+        assertEquals(BatchResult.REJECTED, result.outcome(1));
+        assertEquals("sink", dfa.stateName(result.stopState(1)));
+        assertEquals(BatchResult.REJECTED, result.outcome(2));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class BitParallelNfaTest {
+
+    static Nfa randomNfa(Random random, int n, int k, int edgesPerState, int epsilonEdges) {
+        NfaBuilder b = new NfaBuilder();
+        for (int s = 0; s < n; s++) b.state("q" + s);
+        for (int a = 0; a < k; a++) b.symbol(Integer.toString(a));
+        for (int s = 0; s < n; s++) {
+            for (int e = 0; e < edgesPerState; e++) {
+                b.addTransition(s, random.nextInt(k), random.nextInt(n));
+            }
+            if (random.nextInt(4) == 0) b.setAccepting(s, true);
+        }
+        for (int e = 0; e < epsilonEdges; e++) {
+            b.addEpsilon(random.nextInt(n), random.nextInt(n));
+        }
+        return b.setInitial(0).build();
+    }
+
+    static int[] randomInput(Random random, int length, int k) {
+        int[] input = new int[length];
+        for (int i = 0; i < length; i++) input[i] = random.nextInt(k);
+        return input;
+    }
+
+    static String[] names(Nfa nfa, int[] input) {
+        String[] names = new String[input.length];
+        for (int i = 0; i < input.length; i++) names[i] = nfa.symbolName(input[i]);
+        return names;
+    }
+
+    @Test
+    public void narrowAndWide_agreeWithReference() {
+        Random random = new Random(11);
+        for (int round = 0; round < 100; round++) {
+            int n = 1 + random.nextInt(64);
+            int k = 1 + random.nextInt(3);
+            Nfa nfa = randomNfa(random, n, k, 2, random.nextInt(n));
+            BitParallelNfa narrow = new BitParallelNfa(nfa);
+            WideBitParallelNfa wide = new WideBitParallelNfa(nfa);
+            HashSetNfaSimulator reference = new HashSetNfaSimulator(nfa);
+            for (int trial = 0; trial < 30; trial++) {
+                int[] input = randomInput(random, random.nextInt(15), k);
+                boolean expected = reference.accepts(names(nfa, input));
+                assertEquals(expected, narrow.accepts(input));
+                assertEquals(expected, wide.accepts(input));
+                assertEquals(expected, nfa.accepts(input));
+            }
+        }
+    }
+
+    @Test
+    public void wide_handlesMultiWordAutomata() {
+        Random random = new Random(12);
+        Nfa nfa = randomNfa(random, 300, 3, 2, 50);
+        WideBitParallelNfa wide = new WideBitParallelNfa(nfa);
+        HashSetNfaSimulator reference = new HashSetNfaSimulator(nfa);
+        assertEquals(5, wide.words());
+        for (int trial = 0; trial < 100; trial++) {
+            int[] input = randomInput(random, random.nextInt(40), 3);
+            assertEquals(reference.accepts(names(nfa, input)), wide.accepts(input));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void narrow_rejectsMoreThan64States() {
+        new BitParallelNfa(randomNfa(new Random(0), 65, 2, 1, 0));
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class DfaTest {
+
+    /** Accepts binary strings with an even number of 1s. */
+    static Dfa evenOnes() {
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        transitions.put("q0", new HashMap<>());
+        transitions.put("q1", new HashMap<>());
+        transitions.get("q0").put("0", "q0");
+        transitions.get("q0").put("1", "q1");
+        transitions.get("q1").put("0", "q1");
+        transitions.get("q1").put("1", "q0");
+        return Dfa.compile(transitions, new HashSet<>(Collections.singleton("q0")), "q0");
+    }
+
+    static int[] encode(Dfa dfa, String... symbols) {
+        int[] out = new int[symbols.length];
+        for (int i = 0; i < symbols.length; i++) {
+            out[i] = dfa.symbolIndex(symbols[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Runs {@code word}, one symbol name per element, from the initial state; an unknown
+     * symbol or a missing transition rejects. Shared by the tests that check a language
+     * by membership.
+     */
+    static boolean accepts(Dfa dfa, String... word) {
+        int state = dfa.initialState();
+        for (int i = 0; i < word.length && state != Dfa.NO_STATE; i++) {
+            int symbol = dfa.symbolIndex(word[i]);
+            state = symbol < 0 ? Dfa.NO_STATE : dfa.next(state, symbol);
+        }
+        return state != Dfa.NO_STATE && dfa.isAccepting(state);
+    }
+
+    /** As {@link #accepts}, reading each character of {@code input} as one symbol. */
+    static boolean acceptsChars(Dfa dfa, String input) {
+        String[] word = new String[input.length()];
+        for (int i = 0; i < word.length; i++) {
+            word[i] = String.valueOf(input.charAt(i));
+        }
+        return accepts(dfa, word);
+    }
+
+    @Test
+    public void compile_internsStatesAndSymbols() {
+        Dfa dfa = evenOnes();
+        assertEquals(2, dfa.stateCount());
+        assertEquals(2, dfa.symbolCount());
+        assertEquals("q0", dfa.stateName(dfa.initialState()));
+        assertEquals(-1, dfa.symbolIndex("2"));
+    }
+
+    @Test
+    public void run_followsTable() {
+        Dfa dfa = evenOnes();
+        assertTrue(dfa.accepts(encode(dfa, "1", "0", "1")));
+        assertFalse(dfa.accepts(encode(dfa, "1", "0", "0")));
+        assertTrue(dfa.accepts(new int[0]));
+    }
+
+    @Test
+    public void run_missingTransitionGetsStuck() {
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        transitions.put("a", new HashMap<>());
+        transitions.put("b", new HashMap<>());
+        transitions.get("a").put("x", "b");
+        Dfa dfa = Dfa.compile(transitions, new HashSet<>(Collections.singleton("b")), "a");
+        int[] input = encode(dfa, "x", "x");
+        assertEquals(Dfa.NO_STATE, dfa.run(dfa.initialState(), input, 0, input.length));
+        assertTrue(dfa.accepts(encode(dfa, "x")));
+    }
+
+    @Test
+    public void toTransitions_roundTrips() {
+        Dfa dfa = evenOnes();
+        Dfa copy = Dfa.compile(dfa.toTransitions(), new HashSet<>(Collections.singleton("q0")), "q0");
+        assertArrayEquals(dfa.table(), copy.table());
+    }
+
+    @Test
+    public void withDeadState_completesTheTable() {
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        transitions.put("a", new HashMap<>());
+        transitions.put("b", new HashMap<>());
+        transitions.get("a").put("x", "b");
+        transitions.get("b").put("y", "a");
+        Dfa dfa = Dfa.compile(transitions, new HashSet<>(Collections.singleton("b")), "a");
+        Dfa complete = dfa.withDeadState("dead");
+        assertEquals(3, complete.stateCount());
+        int dead = complete.stateIndex("dead");
+        assertEquals(dead, complete.next(dead, complete.symbolIndex("x")));
+        assertEquals(dead, complete.next(complete.stateIndex("a"), complete.symbolIndex("y")));
+        assertTrue(complete.accepts(encode(complete, "x", "y", "x")));
+        assertFalse(complete.accepts(encode(complete, "x", "x")));
+        Dfa total = evenOnes();
+        assertSame(total, total.withDeadState("dead"));
+    }
+}
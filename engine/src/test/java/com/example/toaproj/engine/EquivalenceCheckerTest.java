@@ -0,0 +1,97 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class EquivalenceCheckerTest {
+
+    /** Length of the shortest word over {@code symbols} on which a and b disagree, up to maxLength. */
+    private static int shortestDifference(Dfa a, Dfa b, String[] symbols, int maxLength) {
+        List<String[]> words = new ArrayList<>();
+        words.add(new String[0]);
+        for (int length = 0; length <= maxLength; length++) {
+            List<String[]> longer = new ArrayList<>();
+            for (String[] word : words) {
+                if (DfaTest.accepts(a, word) != DfaTest.accepts(b, word)) return length;
+                for (String symbol : symbols) {
+                    String[] next = Arrays.copyOf(word, length + 1);
+                    next[length] = symbol;
+                    longer.add(next);
+                }
+            }
+            words = longer;
+        }
+        return -1;
+    }
+
+    @Test
+    public void equivalence_holdsForMinimizedAutomata() {
+        Random random = new Random(20);
+        for (int round = 0; round < 50; round++) {
+            Dfa dfa = MinimizerTest.randomDfa(random, 30, 3, 0.1);
+            Dfa minimal = Minimizer.minimize(dfa).minimized();
+            EquivalenceResult result = EquivalenceChecker.equivalence(dfa, minimal);
+            assertTrue(result.holds());
+            assertNull(result.counterexample());
+            assertTrue(EquivalenceChecker.inclusion(minimal, dfa).holds());
+        }
+    }
+
+    @Test
+    public void equivalence_returnsShortestCounterexample() {
+        Random random = new Random(21);
+        String[] symbols = {"0", "1", "2"};
+        for (int round = 0; round < 200; round++) {
+            Dfa a = MinimizerTest.randomDfa(random, 8, 3, 0.2);
+            BitSet accepting = a.accepting();
+            accepting.flip(random.nextInt(8));
+            Dfa b = a.withAcceptance(a.initialState(), accepting);
+
+            EquivalenceResult result = EquivalenceChecker.equivalence(a, b);
+            int expected = shortestDifference(a, b, symbols, 8);
+            assertEquals(expected < 0, result.holds());
+            if (expected >= 0) {
+                String[] word = result.counterexample();
+                assertEquals(expected, word.length);
+                assertEquals(result.acceptedByFirst(), DfaTest.accepts(a, word));
+                assertNotEquals(DfaTest.accepts(a, word), DfaTest.accepts(b, word));
+            }
+        }
+    }
+
+    @Test
+    public void inclusion_isDirectional() {
+        Dfa plus = RegexCompiler.compile("a+").dfa();
+        Dfa star = RegexCompiler.compile("a*").dfa();
+        assertTrue(EquivalenceChecker.inclusion(plus, star).holds());
+
+        EquivalenceResult reverse = EquivalenceChecker.inclusion(star, plus);
+        assertFalse(reverse.holds());
+        assertEquals(0, reverse.counterexample().length);
+        assertTrue(reverse.acceptedByFirst());
+
+        EquivalenceResult foreign = EquivalenceChecker.inclusion(
+            RegexCompiler.compile("a*ba").dfa(), RegexCompiler.compile("a*b*").dfa());
+        assertEquals("b a", foreign.counterexampleText());
+    }
+
+    @Test
+    public void equivalence_matchesSymbolsByName() {
+        Dfa ab = RegexCompiler.compile("(a|b)*abb").dfa();
+        Dfa widened = RegexCompiler.compile("(a|b)*abb", "cba", RegexCompiler.DEFAULT_MAX_STATES).dfa();
+        assertEquals(3, widened.symbolCount());
+        assertTrue(EquivalenceChecker.equivalence(ab, widened).holds());
+
+        EquivalenceResult extra = EquivalenceChecker.equivalence(ab, RegexCompiler.compile("(a|b|c)*abb").dfa());
+        assertFalse(extra.holds());
+        assertEquals("c a b b", extra.counterexampleText());
+        assertFalse(extra.acceptedByFirst());
+    }
+}
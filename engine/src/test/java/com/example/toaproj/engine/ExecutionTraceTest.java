@@ -0,0 +1,79 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ExecutionTraceTest {
+
+    @Test
+    public void record_keepsOnlyTheLastCapacitySteps() {
+        ExecutionTrace trace = new ExecutionTrace(4);
+        for (int step = 0; step < 10; step++) {
+            trace.record(step, step % 2, step + 1);
+        }
+        assertEquals(10, trace.steps());
+        assertEquals(6, trace.firstRetained());
+
+        int[] out = new int[3];
+        assertFalse(trace.read(5, out));
+        assertFalse(trace.read(10, out));
+        for (int step = 6; step < 10; step++) {
+            assertTrue(trace.read(step, out));
+            assertArrayEquals(new int[]{step, step % 2, step + 1}, out);
+        }
+    }
+
+    @Test
+    public void millionSteps_fixedMemory() {
+        ExecutionTrace trace = new ExecutionTrace();
+        for (int step = 0; step < 1_000_000; step++) {
+            trace.record(step & 7, 0, (step + 1) & 7);
+        }
+        assertEquals(1_000_000 - ExecutionTrace.DEFAULT_CAPACITY, trace.firstRetained());
+        int[] out = new int[3];
+        assertTrue(trace.read(999_999, out));
+        assertEquals(999_999 & 7, out[0]);
+        assertEquals(0, out[2]);
+    }
+
+    @Test
+    public void label_internsNamesWithAcceptance() {
+        ExecutionTrace trace = new ExecutionTrace(2);
+        int a = trace.label("{q0,q1}", true);
+        int b = trace.label("{q2}", false);
+        assertEquals(a, trace.label("{q0,q1}", true));
+        assertEquals("{q2}", trace.labelName(b));
+        assertTrue(trace.isAcceptingLabel(a));
+        assertFalse(trace.isAcceptingLabel(b));
+
+        trace.record(a, 0, b);
+        trace.clear();
+        assertEquals(0, trace.steps());
+        assertFalse(trace.read(0, new int[3]));
+        assertEquals(0, trace.liveLabels());
+        assertFalse(trace.isAcceptingLabel(trace.label("{q0,q1}", false)));
+    }
+
+    @Test
+    public void label_longRunWithNewSubsetsKeepsBoundedLabels() {
+        ExecutionTrace trace = new ExecutionTrace(1000);
+        // Like an NFA run that meets a new subset at every step, with some revisits
+        int current = trace.label("{start}", false);
+        for (int step = 0; step < 2_000_000; step++) {
+            String name = step % 3 == 0 ? "{q0}" : "{q" + step + "}";
+            int next = trace.label(name, step % 2 == 0);
+            trace.record(current, 0, next);
+            current = next;
+        }
+        assertTrue(trace.liveLabels() <= 2 * trace.capacity() + 2);
+
+        // Every retained step still resolves to the names it was recorded with
+        int[] out = new int[3];
+        for (long step = trace.firstRetained(); step < trace.steps(); step++) {
+            assertTrue(trace.read(step, out));
+            String expected = step % 3 == 0 ? "{q0}" : "{q" + step + "}";
+            assertEquals(expected, trace.labelName(out[2]));
+        }
+    }
+}
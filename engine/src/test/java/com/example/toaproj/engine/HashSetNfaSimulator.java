@@ -0,0 +1,66 @@
+package com.example.toaproj.engine;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The straightforward set-of-strings NFA simulation that the bit-parallel engines
+ * replace. Used as a correctness oracle.
+ */
+final class HashSetNfaSimulator {
+
+    private final HashMap<String, HashMap<String, HashSet<String>>> moves = new HashMap<>();
+    private final HashMap<String, HashSet<String>> epsilon = new HashMap<>();
+    private final HashSet<String> accepting = new HashSet<>();
+    private final String initial;
+
+    HashSetNfaSimulator(Nfa nfa) {
+        int[] edges = nfa.edges();
+        for (int e = 0; e < edges.length; e += 3) {
+            String from = nfa.stateName(edges[e]);
+            String to = nfa.stateName(edges[e + 2]);
+            if (edges[e + 1] == Automaton.EPSILON) {
+                epsilon.computeIfAbsent(from, x -> new HashSet<>()).add(to);
+            } else {
+                moves.computeIfAbsent(from, x -> new HashMap<>())
+                    .computeIfAbsent(nfa.symbolName(edges[e + 1]), x -> new HashSet<>()).add(to);
+            }
+        }
+        for (int s = 0; s < nfa.stateCount(); s++) {
+            if (nfa.isAccepting(s)) accepting.add(nfa.stateName(s));
+        }
+        initial = nfa.stateName(nfa.initialState());
+    }
+
+    boolean accepts(String[] input) {
+        Set<String> current = close(java.util.Collections.singleton(initial));
+        for (String symbol : input) {
+            HashSet<String> next = new HashSet<>();
+            for (String state : current) {
+                HashMap<String, HashSet<String>> row = moves.get(state);
+                if (row != null && row.containsKey(symbol)) next.addAll(row.get(symbol));
+            }
+            current = close(next);
+            if (current.isEmpty()) return false;
+        }
+        for (String state : current) {
+            if (accepting.contains(state)) return true;
+        }
+        return false;
+    }
+
+    private Set<String> close(Set<String> states) {
+        HashSet<String> closed = new HashSet<>(states);
+        ArrayDeque<String> work = new ArrayDeque<>(states);
+        while (!work.isEmpty()) {
+            HashSet<String> targets = epsilon.get(work.pop());
+            if (targets == null) continue;
+            for (String t : targets) {
+                if (closed.add(t)) work.push(t);
+            }
+        }
+        return closed;
+    }
+}
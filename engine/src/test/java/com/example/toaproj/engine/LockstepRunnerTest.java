@@ -0,0 +1,74 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LockstepRunnerTest {
+
+    @Test
+    public void run_reportsPerSequenceOutcomes() {
+        Dfa dfa = DfaTest.evenOnes();
+        BatchResult result = new LockstepRunner(dfa).run(Arrays.asList("1 1", "1 0", "", "1 2"));
+        assertEquals(BatchResult.ACCEPTED, result.outcome(0));
+        assertEquals(BatchResult.REJECTED, result.outcome(1));
+        assertEquals("q1", dfa.stateName(result.stopState(1)));
+        assertTrue(result.isAccepted(2));
+        assertEquals(BatchResult.INVALID, result.outcome(3));
+        assertEquals("q1", dfa.stateName(result.stopState(3)));
+    }
+
+    @Test
+    public void run_matchesBatchRunnerOnMixedLengthsHolesAndDeadStates() {
+        Random random = new Random(25);
+        Dfa holes = MinimizerTest.randomDfa(random, 40, 3, 0.05);
+        Dfa dead = MinimizerTest.randomDfa(random, 40, 3, 0.05).withDeadState("sink");
+        for (Dfa dfa : new Dfa[]{holes, dead}) {
+            List<String> sequences = new ArrayList<>();
+            for (int i = 0; i < 3000; i++) {
+                // Mostly short, a few too long to share a block
+                int length = random.nextInt(500) == 0 ? LockstepRunner.MAX_LANE_LENGTH + random.nextInt(100)
+                    : random.nextInt(20) == 0 ? 200 + random.nextInt(100) : random.nextInt(12);
+                StringBuilder sequence = new StringBuilder();
+                for (int p = 0; p < length; p++) {
+                    if (p > 0) sequence.append(' ');
+                    sequence.append(random.nextInt(200) == 0 ? "x" : Integer.toString(random.nextInt(3)));
+                }
+                sequences.add(sequence.toString());
+            }
+            BatchResult expected = new BatchRunner(dfa).run(sequences);
+            BatchResult actual = new LockstepRunner(dfa).run(sequences);
+            for (int i = 0; i < sequences.size(); i++) {
+                assertEquals(sequences.get(i), expected.outcome(i), actual.outcome(i));
+                assertEquals(sequences.get(i), expected.stopState(i), actual.stopState(i));
+            }
+        }
+    }
+
+    @Test
+    public void run_readsTheFirstSymbolFromADeadInitialState() {
+        // Nothing is accepted, so every state is dead, the initial one included
+        SymbolTable states = new SymbolTable();
+        states.intern("q0");
+        states.intern("q1");
+        SymbolTable symbols = new SymbolTable();
+        symbols.intern("a");
+        Dfa dfa = new Dfa(states, symbols, new int[]{1, 1}, new BitSet(), 0);
+
+        List<String> sequences = Arrays.asList("", "a", "x", "a x");
+        BatchResult expected = new BatchRunner(dfa).run(sequences);
+        BatchResult actual = new LockstepRunner(dfa).run(sequences);
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(expected.outcome(i), actual.outcome(i));
+            assertEquals(expected.stopState(i), actual.stopState(i));
+        }
+        assertEquals(BatchResult.INVALID, actual.outcome(2));
+        assertEquals(BatchResult.REJECTED, actual.outcome(3));
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class LongIntMapTest {
+
+    @Test
+    public void putAndGet_matchHashMapThroughGrowth() {
+        Random random = new Random(3);
+        LongIntMap map = new LongIntMap(4);
+        HashMap<Long, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 50_000; i++) {
+            long key = (long) random.nextInt(1000) << 32 | random.nextInt(30_000);
+            map.put(key, i);
+            expected.put(key, i);
+        }
+        assertEquals(expected.size(), map.size());
+        for (Map.Entry<Long, Integer> e : expected.entrySet()) {
+            assertEquals((int) e.getValue(), map.get(e.getKey()));
+        }
+        assertEquals(LongIntMap.ABSENT, map.get(-1L));
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class MinimizerTest {
+
+    /** Builds a random complete or partial DFA named q0..q{n-1} over symbols 0..k-1. */
+    static Dfa randomDfa(Random random, int n, int k, double holeRate) {
+        SymbolTable states = new SymbolTable();
+        SymbolTable symbols = new SymbolTable();
+        for (int s = 0; s < n; s++) states.intern("q" + s);
+        for (int a = 0; a < k; a++) symbols.intern(Integer.toString(a));
+        int[] table = new int[n * k];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = random.nextDouble() < holeRate ? Dfa.NO_STATE : random.nextInt(n);
+        }
+        BitSet accepting = new BitSet(n);
+        for (int s = 0; s < n; s++) {
+            if (random.nextInt(3) == 0) accepting.set(s);
+        }
+        return new Dfa(states, symbols, table, accepting, 0);
+    }
+
+    /**
+     * Moore's algorithm on the completed reachable DFA, as a slow reference. The dead
+     * class is only dropped when the DFA has undefined transitions, like the minimizer.
+     */
+    static int mooreStateCount(Dfa dfa) {
+        int n = dfa.stateCount() + 1, k = dfa.symbolCount();
+        int[] cls = new int[n];
+        for (int s = 0; s < n - 1; s++) cls[s] = dfa.isAccepting(s) ? 1 : 0;
+        int classes = -1;
+        while (true) {
+            java.util.HashMap<String, Integer> ids = new java.util.HashMap<>();
+            int[] next = new int[n];
+            for (int s = 0; s < n; s++) {
+                StringBuilder key = new StringBuilder().append(cls[s]);
+                for (int a = 0; a < k; a++) {
+                    int t = s == n - 1 ? Dfa.NO_STATE : dfa.next(s, a);
+                    key.append(',').append(cls[t == Dfa.NO_STATE ? n - 1 : t]);
+                }
+                Integer id = ids.get(key.toString());
+                if (id == null) ids.put(key.toString(), id = ids.size());
+                next[s] = id;
+            }
+            cls = next;
+            if (ids.size() == classes) break;
+            classes = ids.size();
+        }
+        // Count classes of reachable states, minus the dead class.
+        boolean partial = false;
+        boolean[] seen = new boolean[n];
+        int[] queue = new int[n];
+        int head = 0, tail = 0;
+        queue[tail++] = dfa.initialState();
+        seen[dfa.initialState()] = true;
+        while (head < tail) {
+            int s = queue[head++];
+            for (int a = 0; a < k; a++) {
+                int t = dfa.next(s, a);
+                partial |= t == Dfa.NO_STATE;
+                if (t != Dfa.NO_STATE && !seen[t]) {
+                    seen[t] = true;
+                    queue[tail++] = t;
+                }
+            }
+        }
+        BitSet live = new BitSet();
+        for (int s = 0; s < n - 1; s++) {
+            if (seen[s] && (!partial || cls[s] != cls[n - 1])) live.set(cls[s]);
+        }
+        return Math.max(live.cardinality(), 1);
+    }
+
+    @Test
+    public void minimize_mergesEquivalentStates() {
+        // q1 and q2 both loop to themselves on everything and accept: equivalent.
+        SymbolTable states = new SymbolTable(new String[]{"q0", "q1", "q2", "q3"});
+        SymbolTable symbols = new SymbolTable(new String[]{"a", "b"});
+        int[] table = {1, 2, 1, 1, 2, 2, 3, 3};
+        BitSet accepting = new BitSet();
+        accepting.set(1);
+        accepting.set(2);
+        MinimizationResult result = Minimizer.minimize(new Dfa(states, symbols, table, accepting, 0));
+        assertEquals(2, result.minimizedStateCount());
+        assertEquals(1, result.unreachableCount());
+        assertEquals("q1", result.renaming().get("q2"));
+        assertNull(result.renaming().get("q3"));
+        assertEquals("Minimized 4 → 2 states (1 unreachable, 1 merged)", result.summary());
+    }
+
+    @Test
+    public void minimize_matchesReferenceAndLanguage() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            Dfa dfa = randomDfa(random, 1 + random.nextInt(30), 1 + random.nextInt(4),
+                round % 2 == 0 ? 0 : 0.2);
+            Dfa min = Minimizer.minimize(dfa).minimized();
+            assertEquals(mooreStateCount(dfa), min.stateCount());
+            for (int trial = 0; trial < 50; trial++) {
+                int[] input = new int[random.nextInt(12)];
+                for (int i = 0; i < input.length; i++) input[i] = random.nextInt(dfa.symbolCount());
+                assertEquals(Arrays.toString(input), dfa.accepts(input), min.accepts(input));
+            }
+        }
+    }
+
+    @Test
+    public void minimize_scalesToLargeAutomata() {
+        Dfa dfa = randomDfa(new Random(7), 200_000, 4, 0);
+        MinimizationResult result = Minimizer.minimize(dfa);
+        assertTrue(result.minimizedStateCount() <= dfa.stateCount());
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class MultiPatternMatcherTest {
+
+    private static final String[] PATTERNS = {"abb", "(a|b)*abb", "ca+", "b{2,3}", "a.c"};
+
+    private static List<Dfa> compileAll(String... patterns) {
+        List<Dfa> dfas = new ArrayList<>();
+        for (String p : patterns) {
+            dfas.add(RegexCompiler.compile(p, "abc", RegexCompiler.DEFAULT_MAX_STATES).dfa());
+        }
+        return dfas;
+    }
+
+    /** Every (end, pattern) where some non-empty substring ending at end matches, in scan order. */
+    private static List<Long> naive(String text, String... patterns) {
+        List<Long> found = new ArrayList<>();
+        for (int end = 1; end <= text.length(); end++) {
+            for (int p = 0; p < patterns.length; p++) {
+                Pattern regex = Pattern.compile(patterns[p].replace(".", "[abc]"));
+                for (int start = 0; start < end; start++) {
+                    if (regex.matcher(text.substring(start, end)).matches()) {
+                        found.add((long) end << 8 | p);
+                        break;
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    private static String randomText(Random random, int length) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            text.append("abcx".charAt(random.nextInt(4)));
+        }
+        return text.toString();
+    }
+
+    @Test
+    public void feed_reportsEveryMatchEnd() {
+        Random random = new Random(18);
+        for (int round = 0; round < 20; round++) {
+            String text = randomText(random, 60);
+            MultiPatternMatcher matcher = new MultiPatternMatcher(compileAll(PATTERNS));
+            List<Long> found = new ArrayList<>();
+            long count = matcher.feed(ByteBuffer.wrap(text.getBytes(StandardCharsets.ISO_8859_1)),
+                (end, pattern) -> found.add(end << 8 | pattern));
+            assertEquals(text, naive(text, PATTERNS), found);
+            assertEquals(found.size(), count);
+        }
+    }
+
+    @Test
+    public void feed_resumesAcrossChunksAndSurvivesFlushes() {
+        String text = randomText(new Random(5), 3000);
+        byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+        List<Long> whole = new ArrayList<>();
+        new MultiPatternMatcher(compileAll(PATTERNS))
+            .feed(ByteBuffer.wrap(bytes), (end, pattern) -> whole.add(end << 8 | pattern));
+
+        MultiPatternMatcher matcher = new MultiPatternMatcher(compileAll(PATTERNS), 2);
+        List<Long> chunked = new ArrayList<>();
+        for (int i = 0; i < bytes.length; i += 7) {
+            matcher.feed(ByteBuffer.wrap(bytes, i, Math.min(7, bytes.length - i)),
+                (end, pattern) -> chunked.add(end << 8 | pattern));
+        }
+        assertEquals(whole, chunked);
+        assertEquals(bytes.length, matcher.offset());
+        assertTrue(matcher.flushes() > 0);
+    }
+
+    @Test
+    public void scan_mapsFileAndCountsBytes() throws Exception {
+        File file = File.createTempFile("matcher", ".txt");
+        try {
+            byte[] text = "xxabbxcaaab".getBytes(StandardCharsets.ISO_8859_1);
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(text);
+            }
+            MultiPatternMatcher matcher = new MultiPatternMatcher(compileAll("abb", "ca+"));
+            List<long[]> found = new ArrayList<>();
+            MultiPatternMatcher.ScanResult result;
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                 FileChannel channel = raf.getChannel()) {
+                result = matcher.scan(channel, (end, pattern) -> found.add(new long[]{end, pattern}));
+            }
+            assertEquals(text.length, result.bytes());
+            assertEquals(4, result.matches());
+            assertArrayEquals(new long[]{5, 0}, found.get(0));
+            assertArrayEquals(new long[]{8, 1}, found.get(1));
+            assertArrayEquals(new long[]{10, 1}, found.get(3));
+            assertTrue(result.bytesPerSecond() >= 0);
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_rejectsMultiCharacterSymbols() {
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        transitions.put("q0", new HashMap<>(Collections.singletonMap("ab", "q0")));
+        Dfa dfa = Dfa.compile(transitions, Collections.singleton("q0"), "q0");
+        new MultiPatternMatcher(Arrays.asList(dfa));
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NfaTest {
+
+    /** (a|b)* a (a|b)^{n-1}: the n-th symbol from the end is 'a'. Its DFA needs 2^n states. */
+    static Nfa nthFromEnd(int n) {
+        NfaBuilder b = new NfaBuilder();
+        int a = b.symbol("a"), bb = b.symbol("b");
+        int[] s = new int[n + 1];
+        for (int i = 0; i <= n; i++) s[i] = b.state("q" + i);
+        b.addTransition(s[0], a, s[0]).addTransition(s[0], bb, s[0]).addTransition(s[0], a, s[1]);
+        for (int i = 1; i < n; i++) {
+            b.addTransition(s[i], a, s[i + 1]).addTransition(s[i], bb, s[i + 1]);
+        }
+        return b.setInitial(s[0]).setAccepting(s[n], true).build();
+    }
+
+    static boolean nthFromEndExpected(int[] input, int n) {
+        return input.length >= n && input[input.length - n] == 0;
+    }
+
+    @Test
+    public void compile_readsEpsilonColumn() {
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        transitions.put("p", new HashMap<>());
+        transitions.put("r", new HashMap<>());
+        transitions.get("p").put("ε", "r");
+        transitions.get("r").put("x", "r");
+        assertTrue(Nfa.usesEpsilon(transitions));
+        Nfa nfa = Nfa.compile(transitions, new HashSet<>(Collections.singleton("r")), "p");
+        assertEquals(1, nfa.symbolCount());
+        assertTrue(nfa.accepts(new int[0]));
+        assertTrue(nfa.accepts(new int[]{0, 0}));
+
+        LazyDfa lazy = new LazyDfa(nfa);
+        assertEquals("{p,r}", lazy.describe(lazy.start()));
+
+        // The same map stored as a table with an ε column reads back as the same NFA
+        Dfa table = Dfa.compile(transitions, new HashSet<>(Collections.singleton("r")), "p");
+        assertTrue(Nfa.usesEpsilon(table));
+        Nfa fromTable = Nfa.fromTable(table);
+        assertEquals(1, fromTable.symbolCount());
+        assertTrue(fromTable.accepts(new int[0]));
+        assertTrue(fromTable.accepts(new int[]{0, 0}));
+        assertFalse(Nfa.usesEpsilon(DfaTest.evenOnes()));
+    }
+
+    @Test
+    public void lazy_matchesExpectedWithTinyCache() {
+        int n = 6;
+        Nfa nfa = nthFromEnd(n);
+        LazyDfa lazy = new LazyDfa(nfa, 3);
+        Random random = new Random(1);
+        for (int trial = 0; trial < 500; trial++) {
+            int[] input = new int[random.nextInt(20)];
+            for (int i = 0; i < input.length; i++) input[i] = random.nextInt(2);
+            int state = lazy.start();
+            for (int symbol : input) state = lazy.step(state, symbol);
+            assertEquals(nthFromEndExpected(input, n), lazy.isAccepting(state));
+            assertTrue(lazy.cachedStates() <= 3);
+        }
+        assertTrue(lazy.evictions() > 0);
+    }
+
+    @Test
+    public void determinize_buildsEquivalentDfa() {
+        int n = 4;
+        Nfa nfa = nthFromEnd(n);
+        Dfa dfa = nfa.determinize(1000);
+        assertEquals(16, Minimizer.minimize(dfa).minimizedStateCount());
+        Random random = new Random(2);
+        for (int trial = 0; trial < 200; trial++) {
+            int[] input = new int[random.nextInt(12)];
+            for (int i = 0; i < input.length; i++) input[i] = random.nextInt(2);
+            assertEquals(nthFromEndExpected(input, n), dfa.accepts(input));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void determinize_enforcesStateLimit() {
+        nthFromEnd(12).determinize(100);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PdaTest {
+
+    private static final long STEPS = 1_000_000;
+    private static final int CELLS = 100_000;
+
+    private static int[] input(Pda pda, String text) {
+        int[] symbols = new int[text.length()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = pda.symbols().indexOf(String.valueOf(text.charAt(i)));
+        }
+        return symbols;
+    }
+
+    /** a^n b^n, n >= 0, by final state. */
+    private static Pda anbn() {
+        PdaBuilder b = new PdaBuilder();
+        b.symbol("a");
+        b.symbol("b");
+        b.setInitial(b.state("p"));
+        b.setInitialStack(b.stackSymbol("Z"));
+        b.setAccepting(b.state("f"), true);
+        b.addTransition("p", "a", null, "p", "A");
+        b.addTransition("p", null, null, "q");
+        b.addTransition("q", "b", "A", "q");
+        b.addTransition("q", null, "Z", "f", "Z");
+        return b.build();
+    }
+
+    /** Even-length palindromes over {a, b}, by empty stack; guesses the middle. */
+    private static Pda palindromes() {
+        PdaBuilder b = new PdaBuilder();
+        b.setInitial(b.state("push"));
+        b.setAcceptOnEmptyStack(true);
+        for (String c : new String[]{"a", "b"}) {
+            b.addTransition("push", c, null, "push", c.toUpperCase());
+            b.addTransition("pop", c, c.toUpperCase(), "pop");
+        }
+        b.addTransition("push", null, null, "pop");
+        return b.build();
+    }
+
+    @Test
+    public void run_acceptsAnBn() {
+        Pda pda = anbn();
+        assertTrue(pda.run(input(pda, ""), STEPS, CELLS).accepted());
+        assertTrue(pda.run(input(pda, "aaabbb"), STEPS, CELLS).accepted());
+        assertFalse(pda.run(input(pda, "aabbb"), STEPS, CELLS).accepted());
+        assertFalse(pda.run(input(pda, "abab"), STEPS, CELLS).accepted());
+        assertEquals(MachineResult.REJECTED, pda.run(input(pda, "ba"), STEPS, CELLS).outcome());
+    }
+
+    @Test
+    public void run_exploresNondeterministicChoices() {
+        Pda pda = palindromes();
+        Random random = new Random(21);
+        for (int n = 0; n < 300; n++) {
+            StringBuilder text = new StringBuilder();
+            for (int len = random.nextInt(10); len > 0; len--) {
+                text.append(random.nextBoolean() ? 'a' : 'b');
+            }
+            if (random.nextBoolean()) {
+                text.append(new StringBuilder(text).reverse());
+            }
+            String s = text.toString();
+            boolean expected = s.length() % 2 == 0 && new StringBuilder(s).reverse().toString().equals(s);
+            assertEquals(s, expected, pda.run(input(pda, s), STEPS, CELLS).accepted());
+        }
+    }
+
+    @Test
+    public void run_sharesStackCellsBetweenConfigurations() {
+        Pda pda = palindromes();
+        StringBuilder half = new StringBuilder();
+        for (int i = 0; i < 500; i++) half.append(i % 3 == 0 ? 'a' : 'b');
+        String s = half.toString() + half.reverse();
+        MachineResult result = pda.run(input(pda, s), STEPS, CELLS);
+        assertTrue(result.accepted());
+        // Every guess of the middle reuses the stack pushed so far
+        assertEquals(s.length(), result.cells());
+    }
+
+    @Test
+    public void run_stopsRunawayMachinesAtTheBudget() {
+        PdaBuilder b = new PdaBuilder();
+        b.symbol("a");
+        b.setInitial(b.state("q"));
+        b.addTransition("q", null, null, "q", "X");   // pushes forever without reading
+        Pda pda = b.build();
+
+        MachineResult memory = pda.run(input(pda, "a"), STEPS, 1000);
+        assertEquals(MachineResult.MEMORY_LIMIT, memory.outcome());
+        assertEquals(1000, memory.cells());
+        MachineResult steps = pda.run(input(pda, "a"), 500, CELLS);
+        assertEquals(MachineResult.STEP_LIMIT, steps.outcome());
+        assertEquals(500, steps.steps());
+        assertTrue(steps.exhausted());
+    }
+}
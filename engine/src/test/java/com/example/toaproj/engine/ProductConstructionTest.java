@@ -0,0 +1,112 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.*;
+
+public class ProductConstructionTest {
+
+    private static Dfa regex(String pattern) {
+        return RegexCompiler.compile(pattern).dfa();
+    }
+
+    @Test
+    public void operations_agreeWithMembership() {
+        String[][] pairs = {
+            {"(a|b)*abb", "a*b*"}, {"(ab)*", "(a|c)*"}, {"a+", "b+"}, {"(a|b|c){2,4}", "a(b|c)*"},
+        };
+        Random random = new Random(19);
+        for (String[] pair : pairs) {
+            Dfa a = regex(pair[0]), b = regex(pair[1]);
+            Dfa union = ProductConstruction.union(a, b).dfa();
+            Dfa intersection = ProductConstruction.intersection(a, b).dfa();
+            Dfa difference = ProductConstruction.difference(a, b).dfa();
+            Dfa complement = ProductConstruction.complement(a).dfa();
+            for (int n = 0; n < 500; n++) {
+                StringBuilder input = new StringBuilder();
+                for (int len = random.nextInt(7); len > 0; len--) {
+                    input.append("abc".charAt(random.nextInt(3)));
+                }
+                String s = input.toString();
+                boolean inA = DfaTest.acceptsChars(a, s), inB = DfaTest.acceptsChars(b, s);
+                String where = pair[0] + " / " + pair[1] + " on \"" + s + "\"";
+                assertEquals(where, inA || inB, DfaTest.acceptsChars(union, s));
+                assertEquals(where, inA && inB, DfaTest.acceptsChars(intersection, s));
+                assertEquals(where, inA && !inB, DfaTest.acceptsChars(difference, s));
+                boolean overA = s.chars().allMatch(c -> a.symbolIndex(String.valueOf((char) c)) >= 0);
+                assertEquals(where, overA && !inA, DfaTest.acceptsChars(complement, s));
+            }
+        }
+    }
+
+    @Test
+    public void product_visitsOnlyReachablePairs() {
+        // Two 1001-state counters over different symbols: the intersection only ever
+        // sees the pair of initial states, not the million-pair grid
+        Dfa as = regex("a{1000}"), bs = regex("b{1000}");
+        ProductResult result = ProductConstruction.intersection(as, bs);
+        assertEquals(1, result.productStateCount());
+        assertEquals(1, result.minimalStateCount());
+        assertFalse(result.dfa().isAccepting(result.dfa().initialState()));
+
+        ProductResult same = ProductConstruction.intersection(as, regex("a*"));
+        assertEquals(1001, same.productStateCount());
+        assertEquals(1001, same.minimalStateCount());
+        assertTrue(same.summary().contains("1001 reachable pairs"));
+    }
+
+    @Test
+    public void product_stopsWhenInterrupted() {
+        Dfa as = regex("a{1000}"), any = regex("a*");
+        Thread.currentThread().interrupt();
+        try {
+            ProductConstruction.intersection(as, any);
+            fail("Expected the interrupt to stop the construction");
+        } catch (CancellationException expected) {
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test
+    public void complement_ofComplementIsOriginal() {
+        Dfa a = regex("(a|b)*abb");
+        Dfa twice = ProductConstruction.complement(ProductConstruction.complement(a).dfa()).dfa();
+        assertEquals(a.stateCount(), twice.stateCount());
+        assertTrue(DfaTest.acceptsChars(twice, "babb"));
+        assertFalse(DfaTest.acceptsChars(twice, "abab"));
+    }
+
+    @Test
+    public void epsilonOperand_isDeterminizedBeforeTheProduct() {
+        // p -ε-> r with b loops on p and a loops on r: b*a*
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        transitions.put("p", new HashMap<>());
+        transitions.put("r", new HashMap<>());
+        transitions.get("p").put(Nfa.EPSILON_SYMBOL, "r");
+        transitions.get("p").put("b", "p");
+        transitions.get("r").put("a", "r");
+        Dfa table = Dfa.compile(transitions, new HashSet<>(Collections.singleton("r")), "p");
+        assertTrue(Nfa.usesEpsilon(table));
+
+        // Read as a plain table, ε is just another symbol and "" is rejected
+        assertFalse(DfaTest.acceptsChars(ProductConstruction.union(table, regex("c")).dfa(), ""));
+
+        Dfa dfa = Nfa.fromTable(table).determinize(1 << 16);
+        Dfa union = ProductConstruction.union(dfa, regex("c")).dfa();
+        Dfa complement = ProductConstruction.complement(dfa).dfa();
+        assertTrue(union.symbolIndex(Nfa.EPSILON_SYMBOL) < 0);
+        for (String s : new String[]{"", "a", "bba", "c", "ab", "cc"}) {
+            boolean inTable = s.matches("b*a*");
+            assertEquals(s, inTable || s.equals("c"), DfaTest.acceptsChars(union, s));
+            assertEquals(s, s.matches("[ab]*") && !inTable, DfaTest.acceptsChars(complement, s));
+        }
+    }
+}
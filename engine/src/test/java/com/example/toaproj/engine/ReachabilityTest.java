@@ -0,0 +1,137 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class ReachabilityTest {
+
+    /**
+     * q0 -a-> q1 (final), q0 -b-> sink, sink loops; q2 is unreachable and q3 only
+     * reachable from q2.
+     */
+    private static Dfa withJunk() {
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        for (String state : new String[]{"q0", "q1", "q2", "q3", "sink"}) {
+            transitions.put(state, new HashMap<>());
+        }
+        transitions.get("q0").put("a", "q1");
+        transitions.get("q0").put("b", "sink");
+        transitions.get("q1").put("a", "q0");
+        transitions.get("q1").put("b", "q1");
+        transitions.get("sink").put("a", "sink");
+        transitions.get("sink").put("b", "sink");
+        transitions.get("q2").put("a", "q3");
+        transitions.get("q3").put("b", "q1");
+        return Dfa.compile(transitions, new HashSet<>(Arrays.asList("q1")), "q0");
+    }
+
+    @Test
+    public void trim_removesUnreachableAndDeadStatesKeepingTheLanguage() {
+        Dfa dfa = withJunk();
+        TrimResult result = Reachability.trim(dfa);
+        Dfa trimmed = result.trimmed();
+
+        assertEquals(3, result.trimmedStateCount());
+        assertEquals(2, result.unreachableCount());
+        assertEquals(1, result.deadCount());
+        assertEquals(Dfa.NO_STATE, result.mappedState(dfa.stateIndex("q2")));
+        assertEquals(trimmed.stateIndex("sink"), result.mappedState(dfa.stateIndex("sink")));
+        assertEquals("q0", trimmed.stateName(trimmed.initialState()));
+        assertTrue(trimmed.stateIndex("q1") >= 0);
+        assertEquals("Trimmed 5 → 3 states (2 unreachable, 1 dead into one sink)", result.summary());
+
+        Random random = new Random(24);
+        for (int round = 0; round < 500; round++) {
+            int[] input = new int[random.nextInt(8)];
+            String[] symbols = new String[input.length];
+            for (int i = 0; i < input.length; i++) symbols[i] = random.nextBoolean() ? "a" : "b";
+            assertEquals(dfa.accepts(DfaTest.encode(dfa, symbols)),
+                trimmed.accepts(DfaTest.encode(trimmed, symbols)));
+        }
+    }
+
+    @Test
+    public void trim_keepsRejectedInputsRejectedRatherThanInvalid() {
+        // q0 -b-> d1 -a-> d2, two dead states that merge into one sink
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        for (String state : new String[]{"q0", "q1", "d1", "d2"}) {
+            transitions.put(state, new HashMap<>());
+        }
+        transitions.get("q0").put("a", "q1");
+        transitions.get("q0").put("b", "d1");
+        transitions.get("d1").put("a", "d2");
+        transitions.get("d2").put("b", "d1");
+        Dfa dfa = Dfa.compile(transitions, new HashSet<>(Arrays.asList("q1")), "q0");
+        TrimResult result = Reachability.trim(dfa);
+        Dfa trimmed = result.trimmed();
+        assertEquals(3, trimmed.stateCount());
+        assertEquals(2, result.deadCount());
+        assertEquals("dead", trimmed.stateName(result.mappedState(dfa.stateIndex("d1"))));
+        assertSame(trimmed, Reachability.trim(trimmed).trimmed());
+
+        List<String> inputs = Arrays.asList("a", "b", "b a", "b a b", "a b", "c");
+        BatchResult before = new BatchRunner(dfa).run(inputs);
+        BatchResult after = new BatchRunner(trimmed).run(inputs);
+        for (int i = 0; i < inputs.size(); i++) {
+            assertEquals(inputs.get(i), before.outcome(i), after.outcome(i));
+        }
+        assertEquals(BatchResult.REJECTED, after.outcome(2));
+    }
+
+    @Test
+    public void trim_returnsTheSameDfaWhenNothingIsRemoved() {
+        Dfa dfa = DfaTest.evenOnes();
+        TrimResult result = Reachability.trim(dfa);
+        assertFalse(result.changed());
+        assertSame(dfa, result.trimmed());
+    }
+
+    @Test
+    public void isDead_findsStatesThatCannotAccept() {
+        Dfa dfa = withJunk();
+        assertTrue(dfa.isDead(dfa.stateIndex("sink")));
+        assertFalse(dfa.isDead(dfa.stateIndex("q3")));
+        assertFalse(dfa.isDead(dfa.initialState()));
+
+        // a then anything: after a b the NFA's only live branch is gone
+        NfaBuilder b = new NfaBuilder();
+        int a = b.symbol("a"), bb = b.symbol("b");
+        int p = b.state("p"), q = b.state("q"), r = b.state("r"), trap = b.state("trap");
+        b.addTransition(p, a, q).addTransition(p, bb, trap).addTransition(trap, a, trap)
+         .addTransition(q, a, r).addTransition(q, bb, r);
+        LazyDfa lazy = new LazyDfa(b.setInitial(p).setAccepting(r, true).build());
+        int start = lazy.start();
+        assertFalse(lazy.isDead(start));
+        assertTrue(lazy.isDead(lazy.step(start, bb)));
+        assertFalse(lazy.isDead(lazy.step(lazy.start(), a)));
+    }
+
+    @Test
+    public void searches_handleLongChainsWithoutRecursion() {
+        int n = 500_000;
+        String[] names = new String[n];
+        int[] table = new int[n];
+        for (int s = 0; s < n; s++) {
+            names[s] = "q" + s;
+            table[s] = s + 1 < n ? s + 1 : Dfa.NO_STATE;
+        }
+        BitSet accepting = new BitSet(n);
+        accepting.set(n - 1);
+        Dfa chain = new Dfa(new SymbolTable(names), new SymbolTable(new String[]{"a"}), table, accepting, 0);
+        assertEquals(n, Reachability.reachable(chain).cardinality());
+        assertEquals(n, Reachability.productive(chain).cardinality());
+
+        // Starting halfway leaves the first half unreachable
+        TrimResult result = Reachability.trim(chain.withAcceptance(n / 2, accepting));
+        assertEquals(n / 2, result.trimmedStateCount());
+        assertEquals(n / 2, result.unreachableCount());
+    }
+}
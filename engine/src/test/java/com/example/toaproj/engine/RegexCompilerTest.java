@@ -0,0 +1,86 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.Assert.*;
+
+public class RegexCompilerTest {
+
+    @Test
+    public void compile_agreesWithJavaRegex() {
+        String[] patterns = {
+            "", "a", "ab|c", "(a|b)*abb", "a+b?c*", "[a-c]{2,3}", "(ab){2,}", "[^a]b|.", "(a|)c",
+            "a{0}b", "(a*b*)*", "((a|b)(c|a)){1,3}", "\\.a", "[\\d]|a", "a{3}|b{1,2}c",
+        };
+        Random random = new Random(17);
+        for (String p : patterns) {
+            Dfa dfa = RegexCompiler.compile(p, "abc.0", RegexCompiler.DEFAULT_MAX_STATES).dfa();
+            Pattern expected = Pattern.compile(p.replace("[\\d]", "[0-9]").replace(".", "[abc.0]")
+                .replace("\\[abc.0]", "\\."));
+            for (int n = 0; n < 400; n++) {
+                StringBuilder input = new StringBuilder();
+                for (int len = random.nextInt(8); len > 0; len--) {
+                    input.append("abc.0".charAt(random.nextInt(5)));
+                }
+                String s = input.toString();
+                assertEquals(p + " on \"" + s + "\"", expected.matcher(s).matches(), DfaTest.acceptsChars(dfa, s));
+            }
+        }
+    }
+
+    @Test
+    public void compile_minimizesAndReportsStateCounts() {
+        RegexCompilation result = RegexCompiler.compile("(a|b)*abb");
+        assertEquals(4, result.minimalStateCount());
+        assertTrue(result.subsetStateCount() >= result.minimalStateCount());
+        assertTrue(result.nfaStateCount() > result.subsetStateCount());
+        assertEquals("q0", result.dfa().stateName(result.dfa().initialState()));
+        assertEquals("a", result.dfa().symbolName(0));
+        assertTrue(result.summary().contains("4 minimal states"));
+    }
+
+    @Test
+    public void compile_rejectsMalformedPatterns() {
+        String[] bad = {"(a", "a)", "*a", "[ab", "a{2", "a{3,1}", "a\\", "a{1001}"};
+        for (String p : bad) {
+            try {
+                RegexCompiler.compile(p);
+                fail("accepted " + p);
+            } catch (PatternSyntaxException expected) {
+                assertEquals(p, expected.getPattern());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void compile_rejectsCharactersOutsideAlphabet() {
+        RegexCompiler.compile("ab", "a", RegexCompiler.DEFAULT_MAX_STATES);
+    }
+
+    @Test
+    public void compile_handlesHundredThousandStates() {
+        // The n-th symbol from the end is an a: the minimal DFA needs all 2^17 suffixes
+        RegexCompilation result = RegexCompiler.compile("(a|b)*a(a|b){16}");
+        assertEquals(1 << 17, result.minimalStateCount());
+        assertTrue(DfaTest.acceptsChars(result.dfa(), "bbba" + "abababababababab"));
+        assertFalse(DfaTest.acceptsChars(result.dfa(), "bbbb" + "abababababababab"));
+    }
+
+    @Test
+    public void compile_stopsWhenInterruptedDuringBlowUp() {
+        Thread.currentThread().interrupt();
+        try {
+            RegexCompiler.compile("(a|b)*a(a|b){40}");
+            fail("Expected the construction to stop");
+        } catch (CancellationException expected) {
+            assertTrue(Thread.currentThread().isInterrupted());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
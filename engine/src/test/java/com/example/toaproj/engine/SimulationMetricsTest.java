@@ -0,0 +1,116 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.*;
+
+public class SimulationMetricsTest {
+
+    @Test
+    public void batch_countsVisitsReadsAndOutcomes() {
+        Dfa dfa = DfaTest.evenOnes();
+        SimulationMetrics metrics = new SimulationMetrics(dfa, SimulationMetrics.NO_PROBE);
+        BatchResult result = new BatchRunner(dfa).run(Arrays.asList("1 1", "1 0", "", "1 2"), metrics);
+        MetricsSnapshot snapshot = metrics.snapshot();
+
+        int q0 = dfa.stateIndex("q0"), q1 = dfa.stateIndex("q1");
+        int zero = dfa.symbolIndex("0"), one = dfa.symbolIndex("1");
+        assertEquals(1, snapshot.runs());
+        assertEquals(4, snapshot.sequences());
+        assertEquals(result.acceptedCount(), snapshot.accepted());
+        assertEquals(1, snapshot.rejected());
+        assertEquals(1, snapshot.invalid());
+        // "1 1": q0 q1 q0; "1 0": q0 q1 q1; "": q0; "1 2": q0 q1, then 2 is not a symbol
+        assertEquals(5, snapshot.steps());
+        assertEquals(5, snapshot.visits(q0));
+        assertEquals(4, snapshot.visits(q1));
+        assertEquals(3, snapshot.reads(q0, one));
+        assertEquals(1, snapshot.reads(q1, one));
+        assertEquals(1, snapshot.reads(q1, zero));
+        assertEquals(0, snapshot.reads(q0, zero));
+        assertEquals(-1, snapshot.gcCount());
+    }
+
+    @Test
+    public void batch_stripesSumToSequentialCounts() {
+        Nfa nfa = NfaTest.nthFromEnd(3);
+        List<String> sequences = new ArrayList<>();
+        for (int n = 0; n < 5_000; n++) {
+            sequences.add(Integer.toBinaryString(n).replace('0', 'b').replace('1', 'a').replace("", " ").trim());
+        }
+        SimulationMetrics parallel = new SimulationMetrics(nfa);
+        new BatchRunner(nfa, new ForkJoinPool(4)).run(sequences, parallel);
+        SimulationMetrics single = new SimulationMetrics(nfa);
+        new BatchRunner(nfa, new ForkJoinPool(1)).run(sequences, single);
+
+        MetricsSnapshot a = parallel.snapshot(), b = single.snapshot();
+        assertEquals(sequences.size(), a.sequences());
+        assertEquals(b.steps(), a.steps());
+        assertEquals(b.accepted(), a.accepted());
+        assertArrayEquals(b.visitCounts(), a.visitCounts());
+        for (int s = 0; s < nfa.stateCount(); s++) {
+            for (int symbol = 0; symbol < nfa.symbolCount(); symbol++) {
+                assertEquals(b.reads(s, symbol), a.reads(s, symbol));
+            }
+        }
+        // q0 loops on everything, so it is active before every step and after it
+        assertEquals(a.steps() + a.sequences(), a.visits(nfa.initialState()));
+    }
+
+    @Test
+    public void recorder_reusesItsStripeAndResetClears() {
+        Dfa dfa = DfaTest.evenOnes();
+        SimulationMetrics metrics = new SimulationMetrics(dfa, SimulationMetrics.NO_PROBE);
+        SimulationMetrics.Recorder first = metrics.open();
+        SimulationMetrics.Recorder second = metrics.open();
+        assertNotSame(first, second);
+        first.begin();
+        first.visit(0);
+        first.read(0, 0);
+        first.end(BatchResult.ACCEPTED);
+        first.close();
+        second.close();
+        SimulationMetrics.Recorder again = metrics.open();
+        assertSame(first, again);
+        again.close();
+
+        assertEquals(1, metrics.snapshot().steps());
+        metrics.reset();
+        assertEquals(0, metrics.snapshot().steps());
+        assertEquals(0, metrics.snapshot().visits(0));
+    }
+
+    @Test(timeout = 10_000)
+    public void snapshot_doesNotWaitForOpenRecorders() {
+        // A paced trace holds its stripe across pauses; the UI thread snapshots meanwhile
+        Dfa dfa = DfaTest.evenOnes();
+        SimulationMetrics metrics = new SimulationMetrics(dfa, SimulationMetrics.NO_PROBE);
+        SimulationMetrics.Recorder recorder = metrics.open();
+        recorder.begin();
+        recorder.visit(0);
+        recorder.read(0, 0);
+        assertEquals(1, metrics.snapshot().steps());
+        recorder.end(BatchResult.ACCEPTED);
+        recorder.close();
+        assertEquals(1, metrics.snapshot().sequences());
+    }
+
+    @Test
+    public void toJson_listsTotalsVisitsAndTransitions() {
+        Dfa dfa = DfaTest.evenOnes();
+        SimulationMetrics metrics = new SimulationMetrics(dfa, SimulationMetrics.NO_PROBE);
+        new BatchRunner(dfa).run(Arrays.asList("1 0"), metrics);
+        String json = metrics.snapshot().toJson();
+        assertTrue(json, json.contains("\"sequences\": 1,"));
+        assertTrue(json, json.contains("\"gcCount\": null,"));
+        assertTrue(json, json.contains("\"q0\": 1") && json.contains("\"q1\": 2"));
+        assertTrue(json, json.contains("[\"q0\", \"1\", 1]"));
+        assertTrue(json, json.contains("[\"q1\", \"0\", 1]"));
+        assertTrue(json, json.trim().startsWith("{") && json.trim().endsWith("}"));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.StringReader;
+import java.nio.charset.Charset;
+
+import static org.junit.Assert.*;
+
+public class SymbolScannerTest {
+
+    private static final String[] ALPHABET = {"a", "ab", "b", "λ"};
+
+    @Test
+    public void trie_mapsSymbolsToOrdinals() {
+        SymbolTrie trie = new SymbolTrie(ALPHABET);
+        assertEquals(0, trie.lookup("a", 0, 1));
+        assertEquals(1, trie.lookup("ab", 0, 2));
+        assertEquals(3, trie.lookup("λ", 0, 1));
+        assertEquals(-1, trie.lookup("abc", 0, 3));
+        assertEquals(-1, trie.lookup("", 0, 0));
+    }
+
+    @Test
+    public void next_splitsOnAnyWhitespace() throws Exception {
+        SymbolScanner scanner = new SymbolScanner(new SymbolTrie(ALPHABET));
+        scanner.reset("  ab a\n\tb  xyz λ ");
+        assertEquals(1, scanner.next());
+        assertEquals(0, scanner.next());
+        assertEquals(2, scanner.next());
+        assertEquals(SymbolScanner.UNKNOWN, scanner.next());
+        assertEquals("xyz", scanner.lastToken().toString());
+        assertEquals(3, scanner.next());
+        assertEquals(SymbolScanner.END, scanner.next());
+        assertEquals(5, scanner.tokenCount());
+    }
+
+    @Test
+    public void reader_tokensSpanningBufferRefills() throws Exception {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) {
+            text.append(i % 2 == 0 ? "ab " : "b ");
+        }
+        SymbolScanner scanner = new SymbolScanner(new SymbolTrie(ALPHABET));
+        scanner.reset(new StringReader(text.toString()));
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(i % 2 == 0 ? 1 : 2, scanner.next());
+        }
+        assertEquals(SymbolScanner.END, scanner.next());
+    }
+
+    @Test
+    public void mappedFile_decodesMultiByteSymbols() throws Exception {
+        File file = File.createTempFile("symbols", ".txt");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("λ a λ\n".getBytes("UTF-8"));
+        }
+        try (SymbolScanner scanner = new SymbolScanner(new SymbolTrie(ALPHABET))) {
+            scanner.reset(file, Charset.forName("UTF-8"));
+            assertEquals(3, scanner.next());
+            assertEquals(0, scanner.next());
+            assertEquals(3, scanner.next());
+            assertEquals(SymbolScanner.END, scanner.next());
+        }
+    }
+
+    @Test
+    public void dfaRun_consumesScannerIncrementally() throws Exception {
+        Dfa dfa = DfaTest.evenOnes();
+        SymbolScanner scanner = new SymbolScanner(dfa);
+        assertEquals(dfa.stateIndex("q0"), dfa.run(dfa.initialState(), scanner.reset("1 0 1")));
+        assertEquals(Dfa.NO_STATE, dfa.run(dfa.initialState(), scanner.reset("1 2 1")));
+        assertEquals(2, scanner.tokenCount());
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class TransducerTest {
+
+    private static HashMap<String, String> row(String... pairs) {
+        HashMap<String, String> row = new HashMap<>();
+        for (int i = 0; i < pairs.length; i += 2) row.put(pairs[i], pairs[i + 1]);
+        return row;
+    }
+
+    /** Tracks the parity of 1s read. */
+    private static Dfa parity() {
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        transitions.put("even", row("0", "even", "1", "odd"));
+        transitions.put("odd", row("0", "odd", "1", "even"));
+        return Dfa.compile(transitions, new HashSet<>(), "even");
+    }
+
+    /** Mealy: writes each bit flipped, and "!" after every 1 read in the odd state. */
+    private static Transducer flipper() {
+        HashMap<String, HashMap<String, String>> outputs = new HashMap<>();
+        outputs.put("even", row("0", "1", "1", "0"));
+        outputs.put("odd", row("0", "1", "1", "0!"));
+        return Transducer.mealy(parity(), outputs);
+    }
+
+    private static String expectedFlip(String input) {
+        StringBuilder sb = new StringBuilder();
+        boolean odd = false;
+        for (char c : input.toCharArray()) {
+            sb.append(c == '0' ? "1" : odd ? "0!" : "0");
+            if (c == '1') odd = !odd;
+        }
+        return sb.toString();
+    }
+
+    private static String randomBits(Random random, int length) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < length; i++) sb.append(random.nextBoolean() ? '1' : '0');
+        return sb.toString();
+    }
+
+    @Test
+    public void translate_writesMealyOutputAndResumesWhenTheBufferFills() {
+        Transducer t = flipper();
+        String input = randomBits(new Random(22), 1000);
+        ByteBuffer in = ByteBuffer.wrap(input.getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer out = ByteBuffer.allocate(7);
+        StringBuilder result = new StringBuilder();
+        int state = t.dfa().initialState();
+        while (in.hasRemaining()) {
+            state = t.translate(state, in, out);
+            assertNotEquals(Dfa.NO_STATE, state);
+            out.flip();
+            result.append(StandardCharsets.US_ASCII.decode(out));
+            out.clear();
+        }
+        assertEquals(expectedFlip(input), result.toString());
+    }
+
+    @Test
+    public void translate_writesMooreOutputForEveryStateEntered() {
+        Transducer t = Transducer.moore(parity(), row("even", "E", "odd", "Ö"));
+        ByteBuffer out = ByteBuffer.allocate(32);
+        assertTrue(t.writeStart(out));
+        int state = t.translate(t.dfa().initialState(),
+            ByteBuffer.wrap("1101".getBytes(StandardCharsets.US_ASCII)), out);
+        assertEquals("odd", t.dfa().stateName(state));
+        out.flip();
+        assertEquals("EÖEEÖ", StandardCharsets.UTF_8.decode(out).toString());
+        assertEquals(2, t.maxOutputLength());
+    }
+
+    @Test
+    public void translate_stopsAtAByteWithoutATransition() {
+        Transducer t = flipper();
+        ByteBuffer in = ByteBuffer.wrap("0110x01".getBytes(StandardCharsets.US_ASCII));
+        ByteBuffer out = ByteBuffer.allocate(32);
+        assertEquals(Dfa.NO_STATE, t.translate(t.dfa().initialState(), in, out));
+        assertEquals(4, in.position());
+        assertEquals("1000!".length(), out.position());
+    }
+
+    @Test
+    public void translateChannels_handlesFilesAndStreamsLargerThanTheBuffer() throws Exception {
+        Transducer t = flipper();
+        String input = randomBits(new Random(23), 300_000);
+        byte[] bytes = input.getBytes(StandardCharsets.US_ASCII);
+        String expected = expectedFlip(input);
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        Transducer.Result result = t.translate(Channels.newChannel(new ByteArrayInputStream(bytes)),
+            Channels.newChannel(streamed));
+        assertTrue(result.complete());
+        assertEquals(bytes.length, result.inputBytes());
+        assertEquals(expected, streamed.toString("US-ASCII"));
+
+        File file = File.createTempFile("transducer", ".txt");
+        try {
+            try (FileOutputStream fos = new FileOutputStream(file)) {
+                fos.write(bytes);
+            }
+            ByteArrayOutputStream mapped = new ByteArrayOutputStream();
+            try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+                 FileChannel channel = raf.getChannel()) {
+                result = t.translate(channel, Channels.newChannel(mapped));
+            }
+            assertEquals(expected.length(), result.outputBytes());
+            assertEquals(expected, mapped.toString("US-ASCII"));
+        } finally {
+            assertTrue(file.delete());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mealy_rejectsMultiCharacterSymbols() {
+        HashMap<String, HashMap<String, String>> transitions = new HashMap<>();
+        transitions.put("q", row("ab", "q"));
+        Transducer.mealy(Dfa.compile(transitions, new HashSet<>(), "q"), Collections.emptyMap());
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.toaproj.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TuringMachineTest {
+
+    private static final long STEPS = 1_000_000;
+    private static final int CELLS = 100_000;
+
+    private static int[] input(TuringMachine tm, String text) {
+        int[] symbols = new int[text.length()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = tm.symbols().indexOf(String.valueOf(text.charAt(i)));
+        }
+        return symbols;
+    }
+
+    /** Adds one to a binary number, head starting on its most significant bit. */
+    private static TuringMachine increment() {
+        TuringMachineBuilder b = new TuringMachineBuilder();
+        b.setInitial(b.state("right"));
+        b.setAccepting(b.state("done"), true);
+        b.addTransition("right", "0", "right", "0", 'R');
+        b.addTransition("right", "1", "right", "1", 'R');
+        b.addTransition("right", "_", "carry", "_", 'L');
+        b.addTransition("carry", "1", "carry", "0", 'L');
+        b.addTransition("carry", "0", "done", "1", 'S');
+        b.addTransition("carry", "_", "done", "1", 'S');
+        return b.build();
+    }
+
+    /** a^n b^n c^n, n >= 1, by crossing off one of each per pass. */
+    private static TuringMachine anbncn() {
+        TuringMachineBuilder b = new TuringMachineBuilder();
+        b.setInitial(b.state("start"));
+        b.setAccepting(b.state("accept"), true);
+        b.addTransition("start", "a", "findB", "X", 'R');
+        b.addTransition("start", "Y", "check", "Y", 'R');
+        for (String skip : new String[]{"a", "Y"}) b.addTransition("findB", skip, "findB", skip, 'R');
+        b.addTransition("findB", "b", "findC", "Y", 'R');
+        for (String skip : new String[]{"b", "Z"}) b.addTransition("findC", skip, "findC", skip, 'R');
+        b.addTransition("findC", "c", "back", "Z", 'L');
+        for (String skip : new String[]{"a", "b", "Y", "Z"}) b.addTransition("back", skip, "back", skip, 'L');
+        b.addTransition("back", "X", "start", "X", 'R');
+        for (String skip : new String[]{"Y", "Z"}) b.addTransition("check", skip, "check", skip, 'R');
+        b.addTransition("check", "_", "accept", "_", 'S');
+        return b.build();
+    }
+
+    @Test
+    public void run_writesTheResultOnTheTape() {
+        TuringMachine tm = increment();
+        MachineResult result = tm.run(input(tm, "1011"), STEPS, CELLS);
+        assertTrue(result.accepted());
+        assertEquals("1 1 0 0", result.tape());
+        // The carry runs off the left end, so the tape grows that way
+        assertEquals("1 0 0 0 0", tm.run(input(tm, "1111"), STEPS, CELLS).tape());
+    }
+
+    @Test
+    public void run_decidesAnBnCn() {
+        TuringMachine tm = anbncn();
+        assertTrue(tm.run(input(tm, "aaabbbccc"), STEPS, CELLS).accepted());
+        assertFalse(tm.run(input(tm, "aabbbcc"), STEPS, CELLS).accepted());
+        assertFalse(tm.run(input(tm, "abcabc"), STEPS, CELLS).accepted());
+        assertEquals(MachineResult.REJECTED, tm.run(input(tm, ""), STEPS, CELLS).outcome());
+    }
+
+    @Test
+    public void run_stopsRunawayMachinesAtTheBudget() {
+        TuringMachineBuilder b = new TuringMachineBuilder();
+        b.setInitial(b.state("q"));
+        b.addTransition("q", "_", "q", "1", 'R');
+        b.addTransition("q", "1", "q", "1", 'S');
+        TuringMachine tm = b.build();
+        MachineResult memory = tm.run(new int[0], STEPS, 1000);
+        assertEquals(MachineResult.MEMORY_LIMIT, memory.outcome());
+        assertEquals(1000, memory.cells());
+
+        TuringMachineBuilder loop = new TuringMachineBuilder();
+        loop.setInitial(loop.state("q"));
+        loop.addTransition("q", "_", "q", "_", 'S');
+        MachineResult steps = loop.build().run(new int[0], 5000, CELLS);
+        assertEquals(MachineResult.STEP_LIMIT, steps.outcome());
+        assertEquals(5000, steps.steps());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void run_rejectsATapeWithNoCells() {
+        anbncn().run(new int[0], STEPS, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void build_rejectsNondeterministicMoves() {
+        TuringMachineBuilder b = new TuringMachineBuilder();
+        b.setInitial(b.state("q"));
+        b.addTransition("q", "a", "q", "a", 'R');
+        b.addTransition("q", "a", "q", "b", 'L');
+        b.build();
+    }
+}
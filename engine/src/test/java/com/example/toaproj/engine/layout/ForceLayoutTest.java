@@ -0,0 +1,120 @@
+package com.example.toaproj.engine.layout;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ForceLayoutTest {
+
+    /** A side x side lattice as (from, symbol, to) triples: right and down neighbours. */
+    static int[] lattice(int side) {
+        int[] edges = new int[side * (side - 1) * 2 * 3];
+        int e = 0;
+        for (int r = 0; r < side; r++) {
+            for (int c = 0; c < side; c++) {
+                int s = r * side + c;
+                if (c + 1 < side) { edges[e++] = s; edges[e++] = 0; edges[e++] = s + 1; }
+                if (r + 1 < side) { edges[e++] = s; edges[e++] = 1; edges[e++] = s + side; }
+            }
+        }
+        return edges;
+    }
+
+    @Test
+    public void sameSeed_sameLayout() {
+        int[] edges = lattice(8);
+        float[][] a = settle(64, edges, 7L);
+        float[][] b = settle(64, edges, 7L);
+        assertArrayEquals(a[0], b[0], 0f);
+        assertArrayEquals(a[1], b[1], 0f);
+        float[][] c = settle(64, edges, 8L);
+        assertFalse(Arrays.equals(a[0], c[0]));
+    }
+
+    @Test
+    public void settles_withStatesApartAndNeighboursClose() {
+        int side = 10, n = side * side;
+        int[] edges = lattice(side);
+        ForceLayout layout = new ForceLayout(n, edges, 1L);
+        layout.run(1000);
+        assertTrue(layout.isSettled());
+
+        float[] xs = new float[n], ys = new float[n];
+        layout.copyPositions(xs, ys, 50f);
+        float minDistance = Float.MAX_VALUE;
+        double allPairs = 0;
+        for (int i = 0; i < n; i++) {
+            assertTrue(xs[i] >= 50f && ys[i] >= 50f);
+            for (int j = i + 1; j < n; j++) {
+                float d = distance(xs, ys, i, j);
+                minDistance = Math.min(minDistance, d);
+                allPairs += d;
+            }
+        }
+        double neighbours = 0;
+        for (int e = 0; e < edges.length; e += 3) neighbours += distance(xs, ys, edges[e], edges[e + 2]);
+        neighbours /= edges.length / 3;
+        allPairs /= n * (n - 1) / 2;
+
+        assertTrue("states overlap: " + minDistance, minDistance > ForceLayout.DEFAULT_SPACING / 4);
+        assertTrue("edges not shortened", neighbours < allPairs / 3);
+    }
+
+    @Test
+    public void fewerCrossingsThanCircular() {
+        int side = 6, n = side * side;
+        int[] edges = lattice(side);
+        float[][] force = settle(n, edges, 3L);
+        float[] cx = new float[n], cy = new float[n];
+        CircularLayout.layout(n, 2000f, 2000f, 100f, cx, cy);
+        int circular = crossings(cx, cy, edges);
+        int forced = crossings(force[0], force[1], edges);
+        assertTrue(forced + " vs " + circular, forced * 4 < circular);
+    }
+
+    @Test
+    public void emptyAndSingleStateAreSettled() {
+        ForceLayout empty = new ForceLayout(0, new int[0], 0L);
+        empty.run(10);
+        assertTrue(empty.isSettled());
+        ForceLayout single = new ForceLayout(1, new int[]{0, 0, 0}, 0L);
+        assertTrue(single.isSettled());
+        float[] xs = new float[1], ys = new float[1];
+        single.copyPositions(xs, ys, 10f);
+        assertEquals(10f, xs[0], 0f);
+    }
+
+    private static float[][] settle(int n, int[] edges, long seed) {
+        ForceLayout layout = new ForceLayout(n, edges, seed);
+        layout.run(1000);
+        float[] xs = new float[n], ys = new float[n];
+        layout.copyPositions(xs, ys, 0f);
+        return new float[][]{xs, ys};
+    }
+
+    private static float distance(float[] xs, float[] ys, int i, int j) {
+        float dx = xs[i] - xs[j], dy = ys[i] - ys[j];
+        return (float) Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static int crossings(float[] xs, float[] ys, int[] edges) {
+        int count = 0;
+        for (int a = 0; a < edges.length; a += 3) {
+            for (int b = a + 3; b < edges.length; b += 3) {
+                int p = edges[a], q = edges[a + 2], r = edges[b], s = edges[b + 2];
+                if (p == r || p == s || q == r || q == s) continue;
+                if (orient(xs, ys, p, q, r) * orient(xs, ys, p, q, s) < 0
+                        && orient(xs, ys, r, s, p) * orient(xs, ys, r, s, q) < 0) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static float orient(float[] xs, float[] ys, int a, int b, int c) {
+        return Math.signum((xs[b] - xs[a]) * (ys[c] - ys[a]) - (ys[b] - ys[a]) * (xs[c] - xs[a]));
+    }
+}
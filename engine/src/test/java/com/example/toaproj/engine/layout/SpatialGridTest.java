@@ -0,0 +1,100 @@
+package com.example.toaproj.engine.layout;
+
+import org.junit.Test;
+
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SpatialGridTest {
+
+    @Test
+    public void circles_queryFindsEveryOverlapOnce() {
+        Random random = new Random(3);
+        int n = 2000;
+        float radius = 5f;
+        float[] xs = new float[n], ys = new float[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = random.nextFloat() * 1000f;
+            ys[i] = random.nextFloat() * 1000f;
+        }
+        SpatialGrid grid = SpatialGrid.ofCircles(xs, ys, n, radius, 32);
+        int[] out = new int[grid.size()];
+        for (int trial = 0; trial < 200; trial++) {
+            float left = random.nextFloat() * 1100f - 50f, top = random.nextFloat() * 1100f - 50f;
+            float right = left + random.nextFloat() * 300f, bottom = top + random.nextFloat() * 300f;
+            BitSet found = collect(grid.query(left, top, right, bottom, out), out);
+            for (int i = 0; i < n; i++) {
+                boolean overlaps = xs[i] + radius >= left && xs[i] - radius <= right
+                    && ys[i] + radius >= top && ys[i] - radius <= bottom;
+                if (overlaps) assertTrue("circle " + i, found.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void segments_queryFindsEveryCrossingOnce() {
+        Random random = new Random(4);
+        int n = 1500;
+        float[] lines = new float[n * 4];
+        for (int i = 0; i < lines.length; i++) lines[i] = random.nextFloat() * 1000f;
+        // A few axis-parallel and degenerate segments
+        lines[0] = lines[2] = 500f;
+        lines[5] = lines[7] = 250f;
+        lines[8] = lines[10] = 10f;
+        lines[9] = lines[11] = 10f;
+
+        SpatialGrid grid = SpatialGrid.ofSegments(lines, n, 24);
+        int[] out = new int[grid.size()];
+        int total = 0;
+        for (int trial = 0; trial < 200; trial++) {
+            float left = random.nextFloat() * 1000f, top = random.nextFloat() * 1000f;
+            float right = left + random.nextFloat() * 100f, bottom = top + random.nextFloat() * 100f;
+            int count = grid.query(left, top, right, bottom, out);
+            BitSet found = collect(count, out);
+            for (int i = 0; i < n; i++) {
+                if (crosses(lines, i, left, top, right, bottom)) assertTrue("segment " + i, found.get(i));
+            }
+            total += count;
+        }
+        // Long chords are bucketed along their path, not by bounding box
+        assertTrue(total < 200 * n / 2);
+    }
+
+    @Test
+    public void query_outsideBoundsIsEmpty() {
+        SpatialGrid grid = SpatialGrid.ofCircles(new float[]{0f, 10f}, new float[]{0f, 10f}, 2, 1f, 4);
+        int[] out = new int[2];
+        assertEquals(0, grid.query(100f, 100f, 200f, 200f, out));
+        assertEquals(2, grid.query(-5f, -5f, 20f, 20f, out));
+    }
+
+    private static BitSet collect(int count, int[] out) {
+        BitSet found = new BitSet();
+        for (int i = 0; i < count; i++) {
+            assertFalse("reported twice: " + out[i], found.get(out[i]));
+            found.set(out[i]);
+        }
+        return found;
+    }
+
+    /** Liang–Barsky clip of segment {@code i} against the rectangle. */
+    private static boolean crosses(float[] lines, int i, float left, float top, float right, float bottom) {
+        double x0 = lines[i * 4], y0 = lines[i * 4 + 1];
+        double dx = lines[i * 4 + 2] - x0, dy = lines[i * 4 + 3] - y0;
+        double[] p = {-dx, dx, -dy, dy};
+        double[] q = {x0 - left, right - x0, y0 - top, bottom - y0};
+        double t0 = 0, t1 = 1;
+        for (int k = 0; k < 4; k++) {
+            if (p[k] == 0) {
+                if (q[k] < 0) return false;
+            } else {
+                double t = q[k] / p[k];
+                if (p[k] < 0) t0 = Math.max(t0, t);
+                else t1 = Math.min(t1, t);
+            }
+        }
+        return t0 <= t1;
+    }
+}
@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "TOA Proj"
 include(":app")
+include(":engine")
+include(":benchmarks")
  
\ No newline at end of file